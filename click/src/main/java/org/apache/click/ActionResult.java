@@ -19,6 +19,8 @@
 package org.apache.click;
 
 import java.io.ByteArrayInputStream;
+import java.io.FilterWriter;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Reader;
@@ -505,8 +507,10 @@ public class ActionResult {
                 if (templateModel == null) {
                     templateModel = new HashMap<String, Object>();
                 }
-                String result = context.renderTemplate(localTemplate, templateModel);
-                localReader = new StringReader(result);
+                renderTemplate(context, localTemplate, templateModel);
+
+                // The template takes precedence over the reader and stream
+                return;
 
             } else if (localContent != null) {
                 localReader = new StringReader(localContent);
@@ -544,6 +548,54 @@ public class ActionResult {
         }
     }
 
+    /**
+     * Render the given template and model directly to the response writer.
+     * The template is streamed to the client as it is merged, rather than
+     * being rendered to a String first, so large templates are not held in
+     * memory.
+     * <p/>
+     * If an error occurs before the response is committed, the partially
+     * rendered template is discarded and the error is thrown, so the Click
+     * error page is rendered. Once the response buffer has been committed to
+     * the client, the error report is appended to the partially rendered
+     * template instead.
+     *
+     * @param context the request context
+     * @param template the template to render
+     * @param model the template data model
+     * @throws IOException if the response writer cannot be obtained
+     */
+    protected void renderTemplate(Context context, String template,
+        Map<String, Object> model) throws IOException {
+
+        HttpServletResponse response = context.getResponse();
+        final Writer writer = response.getWriter();
+
+        // The template service flushes and closes the writer it renders to,
+        // which would commit the response before an error page is rendered
+        Writer templateWriter = new FilterWriter(writer) {
+            @Override
+            public void flush() {
+            }
+            @Override
+            public void close() {
+            }
+        };
+
+        try {
+            context.renderTemplate(template, model, templateWriter);
+
+        } catch (RuntimeException e) {
+            if (!response.isCommitted()) {
+                response.resetBuffer();
+            }
+            throw e;
+        }
+
+        writer.flush();
+        writer.close();
+    }
+
     // Private Methods --------------------------------------------------------
 
     /**
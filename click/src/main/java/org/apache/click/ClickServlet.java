@@ -23,13 +23,30 @@ import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.Writer;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.Enumeration;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.DispatcherType;
 import javax.servlet.RequestDispatcher;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
@@ -39,6 +56,8 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 
+import org.apache.click.ajax.AjaxEndpoint;
+import org.apache.click.ajax.AjaxEndpointRegistry;
 import org.apache.click.service.ConfigService;
 import org.apache.click.service.ConfigService.AutoBinding;
 import org.apache.click.service.LogService;
@@ -46,12 +65,15 @@ import org.apache.click.service.PropertyService;
 import org.apache.click.service.ResourceService;
 import org.apache.click.service.TemplateException;
 import org.apache.click.service.XmlConfigService;
+import org.apache.click.util.ClassLoaderCache;
 import org.apache.click.util.ClickUtils;
 import org.apache.click.util.ErrorPage;
 import org.apache.click.util.HtmlStringBuffer;
+import org.apache.click.util.HtmlStringBufferArena;
 import org.apache.click.util.PageImports;
 import org.apache.commons.lang3.ClassUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 
 /**
  * Provides the Click application HttpServlet.
@@ -142,6 +164,24 @@ public class ClickServlet extends HttpServlet {
      */
     protected final static String FORWARD_PAGE = "forward-page";
 
+    /**
+     * The number of prefetch threads servlet init parameter name:
+     * &nbsp; "<code>prefetch-threads</code>".
+     */
+    protected final static String PREFETCH_THREADS = "prefetch-threads";
+
+    /**
+     * The asynchronous request processing executor servlet init parameter
+     * name: &nbsp; "<code>async-executor</code>".
+     */
+    protected final static String ASYNC_EXECUTOR = "async-executor";
+
+    /**
+     * The asynchronous request timeout in milliseconds servlet init parameter
+     * name: &nbsp; "<code>async-timeout</code>".
+     */
+    protected final static String ASYNC_TIMEOUT = "async-timeout";
+
     // ----------------------------------------------------- Instance Variables
 
     /** The click application configuration service. */
@@ -153,6 +193,25 @@ public class ClickServlet extends HttpServlet {
     /** The application resource service. */
     protected ResourceService resourceService;
 
+    /** The executor running the prefetch of controls data, or null. */
+    protected Executor prefetchExecutor;
+
+    /** The executor processing asynchronous requests, or null. */
+    protected Executor asyncExecutor;
+
+    /**
+     * The asynchronous request timeout in milliseconds, zero or less for no
+     * timeout. The default value is 0.
+     */
+    protected long asyncTimeout;
+
+    /** The application lightweight Ajax endpoint registry. */
+    protected AjaxEndpointRegistry ajaxEndpointRegistry;
+
+    /** The page field binding plans keyed on page class. */
+    private final Map<Class<? extends Page>, PageFieldBinding> pageFieldBindings =
+        new ConcurrentHashMap<Class<? extends Page>, PageFieldBinding>();
+
     /** The thread local page listeners. */
     private static final ThreadLocal<List<PageInterceptor>>
         THREAD_LOCAL_INTERCEPTORS = new ThreadLocal<List<PageInterceptor>>();
@@ -185,6 +244,12 @@ public class ClickServlet extends HttpServlet {
 
             resourceService = configService.getResourceService();
 
+            ajaxEndpointRegistry = AjaxEndpointRegistry.getInstance(getServletContext());
+
+            prefetchExecutor = createPrefetchExecutor();
+            asyncExecutor = createAsyncExecutor();
+            asyncTimeout = NumberUtils.toLong(getInitParameter(ASYNC_TIMEOUT), 0);
+
         } catch (Throwable e) {
             // In mock mode this exception can occur if click.xml is not
             // available.
@@ -231,6 +296,20 @@ public class ClickServlet extends HttpServlet {
         } finally {
             // Dereference the application config service
             configService = null;
+            pageFieldBindings.clear();
+
+            if (prefetchExecutor instanceof ExecutorService) {
+                ((ExecutorService) prefetchExecutor).shutdownNow();
+            }
+            prefetchExecutor = null;
+
+            if (asyncExecutor instanceof ExecutorService) {
+                ((ExecutorService) asyncExecutor).shutdown();
+            }
+            asyncExecutor = null;
+
+            // Release the web application classes held by the static caches
+            ClassLoaderCache.removeAll(Thread.currentThread().getContextClassLoader());
         }
 
         super.destroy();
@@ -240,7 +319,10 @@ public class ClickServlet extends HttpServlet {
 
     /**
      * Handle HTTP GET requests. This method will delegate the request to
-     * {@link #handleRequest(HttpServletRequest, HttpServletResponse, boolean)}.
+     * {@link #handleRequest(HttpServletRequest, HttpServletResponse, boolean)},
+     * or to {@link #handleAsyncRequest(HttpServletRequest, HttpServletResponse, boolean)}
+     * if the request {@link #isAsyncRequest(HttpServletRequest) is processed
+     * asynchronously}.
      *
      * @see HttpServlet#doGet(HttpServletRequest, HttpServletResponse)
      *
@@ -253,12 +335,19 @@ public class ClickServlet extends HttpServlet {
     protected void doGet(HttpServletRequest request,
             HttpServletResponse response) throws ServletException, IOException {
 
-        handleRequest(request, response, false);
+        if (isAsyncRequest(request)) {
+            handleAsyncRequest(request, response, false);
+        } else {
+            handleRequest(request, response, false);
+        }
     }
 
     /**
      * Handle HTTP POST requests. This method will delegate the request to
-     * {@link #handleRequest(HttpServletRequest, HttpServletResponse, boolean)}.
+     * {@link #handleRequest(HttpServletRequest, HttpServletResponse, boolean)},
+     * or to {@link #handleAsyncRequest(HttpServletRequest, HttpServletResponse, boolean)}
+     * if the request {@link #isAsyncRequest(HttpServletRequest) is processed
+     * asynchronously}.
      *
      * @see HttpServlet#doPost(HttpServletRequest, HttpServletResponse)
      *
@@ -271,7 +360,135 @@ public class ClickServlet extends HttpServlet {
     protected void doPost(HttpServletRequest request,
             HttpServletResponse response) throws ServletException, IOException {
 
-        handleRequest(request, response, true);
+        if (isAsyncRequest(request)) {
+            handleAsyncRequest(request, response, true);
+        } else {
+            handleRequest(request, response, true);
+        }
+    }
+
+    /**
+     * Return true if the given request should be processed asynchronously on
+     * the {@link #createAsyncExecutor() async executor}, false otherwise.
+     * <p>
+     * Requests are processed asynchronously if an async executor is
+     * available, the request is not a forward or include dispatch, the
+     * request supports asynchronous processing and is not a Click resource
+     * request.
+     *
+     * @param request the servlet request
+     * @return true if the request should be processed asynchronously
+     */
+    protected boolean isAsyncRequest(HttpServletRequest request) {
+        return asyncExecutor != null
+            && request.getDispatcherType() == DispatcherType.REQUEST
+            && request.isAsyncSupported()
+            && !request.isAsyncStarted()
+            && !resourceService.isResourceRequest(request);
+    }
+
+    /**
+     * Handle the given servlet request asynchronously. This method puts the
+     * request into asynchronous mode, and delegates the request to
+     * {@link #handleRequest(HttpServletRequest, HttpServletResponse, boolean)}
+     * on the {@link #createAsyncExecutor() async executor}, releasing the
+     * container thread while the page is processed and rendered.
+     * <p>
+     * The page thread local {@link Context}, {@link ControlRegistry} and
+     * {@link ActionEventDispatcher} are created, bound and released on the
+     * executor thread by <tt>handleRequest</tt>. The asynchronous request is
+     * completed once the page is rendered.
+     * <p>
+     * The asynchronous request timeout is set to the {@link #ASYNC_TIMEOUT}
+     * servlet init parameter, by default there is no timeout. If the request
+     * times out or fails before the page is rendered, the container completes
+     * the request: a page not yet started is not processed, and a page being
+     * rendered does not complete the request again.
+     * <p>
+     * The servlet filters mapped to the request return from
+     * <tt>FilterChain.doFilter</tt> before the page is processed, see
+     * {@link #createAsyncExecutor()} for the filters which are not compatible
+     * with asynchronous processing.
+     * <p>
+     * If the executor rejects the request, the request is processed on the
+     * container thread.
+     *
+     * @param request the servlet request to process
+     * @param response the servlet response to render the results to
+     * @param isPost determines whether the request is a POST
+     */
+    protected void handleAsyncRequest(final HttpServletRequest request,
+        final HttpServletResponse response, final boolean isPost) {
+
+        final AsyncContext asyncContext = request.startAsync(request, response);
+        asyncContext.setTimeout(Math.max(asyncTimeout, 0));
+
+        // Set once the request is completed, timed out or failed
+        final AtomicBoolean done = new AtomicBoolean();
+
+        asyncContext.addListener(new AsyncListener() {
+            public void onComplete(AsyncEvent event) {
+                done.set(true);
+            }
+            public void onTimeout(AsyncEvent event) {
+                if (done.compareAndSet(false, true)) {
+                    logger.warn("asynchronous request " + request.getRequestURI()
+                        + " timed out after " + asyncTimeout + " ms");
+                }
+            }
+            public void onError(AsyncEvent event) {
+                if (done.compareAndSet(false, true)) {
+                    logger.warn("asynchronous request " + request.getRequestURI()
+                        + " failed", event.getThrowable());
+                }
+            }
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+
+        Runnable task = new Runnable() {
+            public void run() {
+                if (done.get()) {
+                    // The container has already timed out or failed the request
+                    return;
+                }
+
+                try {
+                    handleRequest(request, response, isPost);
+
+                } catch (Throwable e) {
+                    logger.error("error processing asynchronous request "
+                        + request.getRequestURI(), e);
+
+                    if (!response.isCommitted()) {
+                        try {
+                            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                        } catch (IOException ioe) {
+                            // ignore, the client has gone
+                        }
+                    }
+
+                } finally {
+                    if (done.compareAndSet(false, true)) {
+                        try {
+                            asyncContext.complete();
+
+                        } catch (IllegalStateException ise) {
+                            // ignore, the container has completed the request
+                        }
+                    }
+                }
+            }
+        };
+
+        try {
+            asyncExecutor.execute(task);
+
+        } catch (RejectedExecutionException ree) {
+            logger.warn("async executor rejected request " + request.getRequestURI()
+                + ", processing it on the container thread");
+            task.run();
+        }
     }
 
     /**
@@ -297,6 +514,13 @@ public class ClickServlet extends HttpServlet {
             return;
         }
 
+        // Handle Ajax requests for lightweight endpoints, without creating the page
+        AjaxEndpoint ajaxEndpoint = resolveAjaxEndpoint(request);
+        if (ajaxEndpoint != null) {
+            handleAjaxEndpointRequest(ajaxEndpoint, request, response, isPost);
+            return;
+        }
+
         long startTime = System.currentTimeMillis();
 
         if (logger.isDebugEnabled()) {
@@ -405,10 +629,78 @@ public class ClickServlet extends HttpServlet {
                 }
                 ControlRegistry.popThreadLocalRegistry();
                 ActionEventDispatcher.popThreadLocalDispatcher();
+                HtmlStringBufferArena.resetThreadLocalArena();
             }
         }
     }
 
+    /**
+     * Return the {@link AjaxEndpoint lightweight Ajax endpoint} registered for
+     * the given request page path and a request parameter name, or null if
+     * the request is not an Ajax request or no endpoint is registered.
+     *
+     * @see AjaxEndpointRegistry
+     *
+     * @param request the servlet request
+     * @return the request Ajax endpoint, or null
+     */
+    protected AjaxEndpoint resolveAjaxEndpoint(HttpServletRequest request) {
+        if (ajaxEndpointRegistry == null || ajaxEndpointRegistry.isEmpty()) {
+            return null;
+        }
+        if (!ClickUtils.isAjaxRequest(request) || ClickUtils.isMultipartRequest(request)) {
+            return null;
+        }
+
+        String path = ClickUtils.getResourcePath(request);
+        return ajaxEndpointRegistry.resolveEndpoint(path, request);
+    }
+
+    /**
+     * Handle the given Ajax request with the given lightweight Ajax endpoint,
+     * and render the endpoint ActionResult to the servlet response.
+     * <p>
+     * Only the request {@link Context} is created and bound to the current
+     * thread, the page is not created and the page life cycle is not
+     * processed. If an exception occurs the exception is delegated to
+     * {@link #handleAjaxException(HttpServletRequest, HttpServletResponse, boolean, Throwable, Class)}.
+     *
+     * @param endpoint the endpoint handling the request
+     * @param request the servlet request to process
+     * @param response the servlet response to render the results to
+     * @param isPost determines whether the request is a POST
+     */
+    protected void handleAjaxEndpointRequest(AjaxEndpoint endpoint,
+        HttpServletRequest request, HttpServletResponse response, boolean isPost) {
+
+        long startTime = System.currentTimeMillis();
+
+        Context context = createContext(request, response, isPost);
+        // Bind context to current thread
+        Context.pushThreadLocalContext(context);
+
+        try {
+            ActionResult actionResult = endpoint.onAction(context);
+            renderActionResult(actionResult, null, context);
+
+            if (!configService.isProductionMode()) {
+                logger.info("handleAjaxEndpointRequest:  "
+                    + ClickUtils.getResourcePath(request) + " - "
+                    + (System.currentTimeMillis() - startTime) + " ms");
+            }
+
+        } catch (Throwable e) {
+            handleAjaxException(request, response, isPost, e, null);
+
+        } finally {
+            // Only clear the context when running in normal mode.
+            if (request.getAttribute(MOCK_MODE_ENABLED) == null) {
+                Context.popThreadLocalContext();
+            }
+            HtmlStringBufferArena.resetThreadLocalArena();
+        }
+    }
+
     /**
      * Provides the application exception handler. The application exception
      * will be delegated to the configured error page. The default error page is
@@ -465,20 +757,7 @@ public class ClickServlet extends HttpServlet {
             errorPage.setPageClass(pageClass);
             errorPage.setPath(ConfigService.ERROR_PATH);
 
-            processPageFields(errorPage, new FieldCallback() {
-                public void processField(String fieldName, Object fieldValue) {
-                    if (fieldValue instanceof Control) {
-                        Control control = (Control) fieldValue;
-                        if (control.getName() == null) {
-                            control.setName(fieldName);
-                        }
-
-                        if (!errorPage.getModel().containsKey(control.getName())) {
-                            errorPage.addControl(control);
-                        }
-                    }
-                }
-            });
+            getPageFieldBinding(errorPage.getClass()).bindControls(errorPage);
 
             if (errorPage.isStateful()) {
                 synchronized (errorPage) {
@@ -590,6 +869,8 @@ public class ClickServlet extends HttpServlet {
                 performOnPostOrGet(page, context, context.isPost());
 
                 performOnRender(page, context);
+
+                performPrefetch(page, context);
             }
         }
 
@@ -795,6 +1076,89 @@ public class ClickServlet extends HttpServlet {
         }
     }
 
+    /**
+     * Perform the prefetch of the controls registered through
+     * {@link ControlRegistry#registerPrefetch(Prefetchable)} for the
+     * specified page, and wait for all the prefetches to complete.
+     * <p>
+     * The controls are prefetched concurrently on the
+     * {@link #createPrefetchExecutor() prefetch executor}, apart from the last
+     * control which is prefetched on the request thread. If no prefetch
+     * executor is available, or the executor rejects a prefetch, the controls
+     * are prefetched on the request thread.
+     *
+     * @see Prefetchable
+     *
+     * @param page the page to prefetch the controls data of
+     * @param context the request context
+     */
+    protected void performPrefetch(Page page, Context context) {
+        ControlRegistry controlRegistry = ControlRegistry.getThreadLocalRegistry();
+        if (!controlRegistry.hasPrefetchTargets()) {
+            return;
+        }
+
+        Set<Prefetchable> prefetchTargets = controlRegistry.getPrefetchTargets();
+        List<FutureTask<Object>> tasks =
+            new ArrayList<FutureTask<Object>>(prefetchTargets.size());
+        for (Prefetchable target : prefetchTargets) {
+            tasks.add(new FutureTask<Object>(new PrefetchTask(target, context), null));
+        }
+        prefetchTargets.clear();
+
+        int submitted = 0;
+        if (prefetchExecutor != null) {
+            try {
+                for (int lastIndex = tasks.size() - 1; submitted < lastIndex; submitted++) {
+                    prefetchExecutor.execute(tasks.get(submitted));
+                }
+            } catch (RejectedExecutionException ree) {
+                logger.warn("prefetch executor rejected the task, prefetching on the request thread");
+            }
+        }
+
+        // Run the tasks not submitted to the executor on the request thread
+        for (int i = submitted, size = tasks.size(); i < size; i++) {
+            tasks.get(i).run();
+        }
+
+        // Wait for all the tasks to complete before throwing the first error
+        Throwable error = null;
+        boolean interrupted = false;
+        for (int i = 0, size = tasks.size(); i < size; i++) {
+            FutureTask<Object> task = tasks.get(i);
+            while (true) {
+                try {
+                    task.get();
+                    break;
+                } catch (InterruptedException ie) {
+                    interrupted = true;
+                } catch (ExecutionException ee) {
+                    if (error == null) {
+                        error = ee.getCause();
+                    }
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (logger.isTraceEnabled()) {
+            logger.trace("   invoked: prefetch of " + tasks.size()
+                + " controls for " + ClassUtils.getShortClassName(page.getClass()));
+        }
+
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        } else if (error instanceof Error) {
+            throw (Error) error;
+        } else if (error != null) {
+            throw new RuntimeException(error);
+        }
+    }
+
     /**
      * Performs rendering of the specified page.
      *
@@ -1003,7 +1367,8 @@ public class ClickServlet extends HttpServlet {
      * rendered.
      *
      * @param actionResult the action result to render
-     * @param page the requested page
+     * @param page the requested page, or null if the action result was
+     * returned by an {@link AjaxEndpoint}
      * @param context the request context
      */
     protected void renderActionResult(ActionResult actionResult, Page page, Context context) {
@@ -1268,32 +1633,16 @@ public class ClickServlet extends HttpServlet {
 
             newPage.setPath(path);
 
-            // Bind to final variable to enable callback processing
-            final Page page = newPage;
-
             if (configService.getAutoBindingMode() != AutoBinding.NONE) {
 
-                processPageFields(newPage, new FieldCallback() {
-                    public void processField(String fieldName, Object fieldValue) {
-                        if (fieldValue instanceof Control) {
-                            Control control = (Control) fieldValue;
-                            if (control.getName() == null) {
-                                control.setName(fieldName);
-                            }
-
-                            if (!page.getModel().containsKey(control.getName())) {
-                                page.addControl(control);
-                            }
-                        }
-                    }
-                });
+                getPageFieldBinding(newPage.getClass()).bindControls(newPage);
 
-                processPageRequestParams(page);
+                processPageRequestParams(newPage);
             }
 
             // In mock mode add the Page instance as a request attribute.
             if (request.getAttribute(MOCK_MODE_ENABLED) != null) {
-                request.setAttribute(MOCK_PAGE_REFERENCE, page);
+                request.setAttribute(MOCK_PAGE_REFERENCE, newPage);
             }
 
             return newPage;
@@ -1436,20 +1785,7 @@ public class ClickServlet extends HttpServlet {
 
         if (configService.getAutoBindingMode() != AutoBinding.NONE) {
 
-            processPageFields(page, new FieldCallback() {
-                public void processField(String fieldName, Object fieldValue) {
-                    if (fieldValue instanceof Control == false) {
-                        page.addModel(fieldName, fieldValue);
-
-                    } else {
-                        // Add any controls not already added to model
-                        Control control = (Control) fieldValue;
-                        if (!page.getModel().containsKey(control.getName())) {
-                            page.addControl(control);
-                        }
-                    }
-                }
-            });
+            getPageFieldBinding(page.getClass()).bindModel(page);
         }
 
         final Context context = page.getContext();
@@ -1516,19 +1852,7 @@ public class ClickServlet extends HttpServlet {
     protected void setRequestAttributes(final Page page) {
         final HttpServletRequest request = page.getContext().getRequest();
 
-        processPageFields(page, new FieldCallback() {
-            public void processField(String fieldName, Object fieldValue) {
-                if (fieldValue instanceof Control == false) {
-                    request.setAttribute(fieldName, fieldValue);
-                }  else {
-                    // Add any controls not already added to model
-                    Control control = (Control) fieldValue;
-                    if (!page.getModel().containsKey(control.getName())) {
-                        page.addControl(control);
-                    }
-                }
-            }
-        });
+        getPageFieldBinding(page.getClass()).bindRequestAttributes(page, request);
 
         Map<String, Object> model = page.getModel();
         for (Map.Entry<String, Object> entry : model.entrySet()) {
@@ -1809,6 +2133,8 @@ public class ClickServlet extends HttpServlet {
                     performOnPostOrGet(page, context, context.isPost());
 
                     performOnRender(page, context);
+
+                    performPrefetch(page, context);
                 }
 
                 // If Ajax request does not target a valid page, return a 404
@@ -1936,6 +2262,143 @@ public class ClickServlet extends HttpServlet {
         logger.error("handleException: ", exception);
     }
 
+    /**
+     * Create the executor running the prefetch of controls data, or return
+     * null if controls should be prefetched on the request thread.
+     * <p>
+     * This method creates a fixed thread pool of daemon threads, sized by
+     * the {@link #PREFETCH_THREADS} servlet init parameter. If the parameter
+     * is not defined, or is not a positive number, this method returns null.
+     * For example:
+     *
+     * <pre class="prettyprint">
+     * &lt;servlet&gt;
+     *   &lt;servlet-name&gt;ClickServlet&lt;/servlet-name&gt;
+     *   &lt;servlet-class&gt;org.apache.click.ClickServlet&lt;/servlet-class&gt;
+     *   &lt;init-param&gt;
+     *     &lt;param-name&gt;<span class="blue">prefetch-threads</span>&lt;/param-name&gt;
+     *     &lt;param-value&gt;<span class="red">8</span>&lt;/param-value&gt;
+     *   &lt;/init-param&gt;
+     *   &lt;load-on-startup&gt;0&lt;/load-on-startup&gt;
+     * &lt;/servlet&gt; </pre>
+     *
+     * Override this method to provide a different executor, for example a
+     * container managed executor. An executor which is an
+     * <tt>ExecutorService</tt> is shut down when the servlet is destroyed.
+     *
+     * @see #performPrefetch(Page, Context)
+     *
+     * @return the prefetch executor, or null
+     */
+    protected Executor createPrefetchExecutor() {
+        int threads = NumberUtils.toInt(getInitParameter(PREFETCH_THREADS), 0);
+        if (threads <= 0) {
+            return null;
+        }
+
+        if (logger.isInfoEnabled()) {
+            logger.info("prefetching controls data with " + threads + " threads");
+        }
+
+        return createThreadPool(threads, "prefetch");
+    }
+
+    /**
+     * Create the executor processing asynchronous requests, or return null if
+     * requests should be processed on the container thread.
+     * <p>
+     * This method creates the executor specified by the
+     * {@link #ASYNC_EXECUTOR} servlet init parameter, which can be:
+     * <ul>
+     * <li>a number - a fixed thread pool of the given number of threads</li>
+     * <li><tt>virtual</tt> - a virtual thread per request, when running on
+     * Java 21 or later</li>
+     * </ul>
+     * If the parameter is not defined this method returns null. For example:
+     *
+     * <pre class="prettyprint">
+     * &lt;servlet&gt;
+     *   &lt;servlet-name&gt;ClickServlet&lt;/servlet-name&gt;
+     *   &lt;servlet-class&gt;org.apache.click.ClickServlet&lt;/servlet-class&gt;
+     *   &lt;init-param&gt;
+     *     &lt;param-name&gt;<span class="blue">async-executor</span>&lt;/param-name&gt;
+     *     &lt;param-value&gt;<span class="red">virtual</span>&lt;/param-value&gt;
+     *   &lt;/init-param&gt;
+     *   &lt;load-on-startup&gt;0&lt;/load-on-startup&gt;
+     *   &lt;async-supported&gt;true&lt;/async-supported&gt;
+     * &lt;/servlet&gt; </pre>
+     *
+     * <b>Please note</b> the servlet must be declared with
+     * <tt>async-supported</tt>, otherwise requests are processed on the
+     * container thread. Requests are also processed on the container thread
+     * if a filter mapped to the servlet is not declared with
+     * <tt>async-supported</tt>. The container asynchronous request timeout
+     * does not apply, the timeout is set by the {@link #ASYNC_TIMEOUT}
+     * servlet init parameter in milliseconds, by default there is no timeout.
+     * <p>
+     * Only declare filters <tt>async-supported</tt> if they do not rely on the
+     * page being rendered when <tt>FilterChain.doFilter</tt> returns, or on
+     * thread local state bound by the filter. The following filters are not
+     * compatible with asynchronous processing, and must not be declared
+     * <tt>async-supported</tt>:
+     * <ul>
+     * <li><tt>org.apache.click.extras.filter.CompressionFilter</tt> and
+     * <tt>org.apache.click.extras.filter.PerformanceFilter</tt> - finish the
+     * compressed response when <tt>doFilter</tt> returns</li>
+     * <li><tt>org.apache.click.extras.cayenne.DataContextFilter</tt> and
+     * <tt>org.apache.click.extras.hibernate.SessionFilter</tt> - bind the
+     * DataContext or Hibernate Session to the container thread</li>
+     * </ul>
+     * <p>
+     * Override this method to provide a different executor, for example a
+     * container managed executor. An executor which is an
+     * <tt>ExecutorService</tt> is shut down when the servlet is destroyed.
+     *
+     * @see #handleAsyncRequest(HttpServletRequest, HttpServletResponse, boolean)
+     *
+     * @return the async executor, or null
+     */
+    protected Executor createAsyncExecutor() {
+        String value = StringUtils.trimToNull(getInitParameter(ASYNC_EXECUTOR));
+        if (value == null) {
+            return null;
+        }
+
+        if ("virtual".equalsIgnoreCase(value)) {
+            try {
+                Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                Executor executor = (Executor) method.invoke(null);
+
+                if (logger.isInfoEnabled()) {
+                    logger.info("processing requests asynchronously on virtual threads");
+                }
+                return executor;
+
+            } catch (NoSuchMethodException nsme) {
+                logger.warn(ASYNC_EXECUTOR + " virtual threads require Java 21,"
+                    + " processing requests on the container threads");
+                return null;
+
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        int threads = NumberUtils.toInt(value, 0);
+        if (threads <= 0) {
+            String msg = "invalid " + ASYNC_EXECUTOR + " servlet init parameter: "
+                + value;
+            throw new IllegalArgumentException(msg);
+        }
+
+        if (logger.isInfoEnabled()) {
+            logger.info("processing requests asynchronously with " + threads
+                + " threads");
+        }
+
+        return createThreadPool(threads, "async");
+    }
+
     // ------------------------------------------------ Package Private Methods
 
     /**
@@ -2019,31 +2482,26 @@ public class ClickServlet extends HttpServlet {
     }
 
     /**
-     * Process all the Pages public fields using the given callback.
+     * Return the field binding plan of the given page class, creating and
+     * caching the plan on first use.
      *
-     * @param page the page to obtain the fields from
-     * @param callback the fields iterator callback
+     * @param pageClass the page class to return the binding plan for
+     * @return the field binding plan of the given page class
      */
-    void processPageFields(Page page, FieldCallback callback) {
-
-        Field[] fields = configService.getPageFieldArray(page.getClass());
+    PageFieldBinding getPageFieldBinding(Class<? extends Page> pageClass) {
+        PageFieldBinding binding = pageFieldBindings.get(pageClass);
 
-        if (fields != null) {
-            for (int i = 0; i < fields.length; i++) {
-                Field field = fields[i];
-
-                try {
-                    Object fieldValue = field.get(page);
-
-                    if (fieldValue != null) {
-                        callback.processField(field.getName(), fieldValue);
-                    }
-
-                } catch (Exception e) {
-                    throw new RuntimeException(e);
-                }
+        if (binding == null) {
+            Field[] fields = configService.getPageFieldArray(pageClass);
+            if (fields == null || fields.length == 0) {
+                binding = PageFieldBinding.EMPTY;
+            } else {
+                binding = new PageFieldBinding(fields);
             }
+            pageFieldBindings.put(pageClass, binding);
         }
+
+        return binding;
     }
 
     List<PageInterceptor> getThreadLocalInterceptors() {
@@ -2113,25 +2571,31 @@ public class ClickServlet extends HttpServlet {
         return isAjaxRequest;
     }
 
-    // ---------------------------------------------------------- Inner Classes
+    // Private methods --------------------------------------------------------
 
     /**
-     * Field iterator callback.
+     * Create a fixed thread pool of daemon threads, named after the servlet
+     * and the given pool name.
+     *
+     * @param threads the number of threads
+     * @param name the pool name
+     * @return a new fixed thread pool
      */
-    static interface FieldCallback {
-
-        /**
-         * Callback method invoked for each field.
-         *
-         * @param fieldName the field name
-         * @param fieldValue the field value
-         */
-        public void processField(String fieldName, Object fieldValue);
+    private ExecutorService createThreadPool(int threads, String name) {
+        final String prefix = getServletName() + "-" + name + "-";
+        ThreadFactory threadFactory = new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
 
+        return Executors.newFixedThreadPool(threads, threadFactory);
     }
 
-    // Private methods --------------------------------------------------------
-
     /**
      * Resolve and return the Ajax target control for this request or null if no
      * Ajax target was found.
@@ -2232,4 +2696,42 @@ public class ClickServlet extends HttpServlet {
             logger.trace(buffer.toString());
         }
     }
+
+    // Inner Classes ----------------------------------------------------------
+
+    /**
+     * Provides a task invoking the prefetch of a control, with the request
+     * context available as the thread local context.
+     */
+    private static class PrefetchTask implements Runnable {
+
+        /** The control to prefetch. */
+        private final Prefetchable target;
+
+        /** The request context. */
+        private final Context context;
+
+        /**
+         * Create a task to prefetch the given control.
+         *
+         * @param target the control to prefetch
+         * @param context the request context
+         */
+        PrefetchTask(Prefetchable target, Context context) {
+            this.target = target;
+            this.context = context;
+        }
+
+        /**
+         * Invoke the prefetch of the control.
+         */
+        public void run() {
+            Context.pushThreadLocalContext(context);
+            try {
+                target.prefetch();
+            } finally {
+                Context.popThreadLocalContext();
+            }
+        }
+    }
 }
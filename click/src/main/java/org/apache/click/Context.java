@@ -20,6 +20,7 @@ package org.apache.click;
 
 import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.util.Locale;
 import java.util.Map;
 
@@ -815,6 +816,32 @@ public class Context {
      * @throws RuntimeException if an error occurs
      */
     public String renderTemplate(String templatePath, Map<String, ?> model) {
+        StringWriter stringWriter = new StringWriter(1024);
+
+        renderTemplate(templatePath, model, stringWriter);
+
+        return stringWriter.toString();
+    }
+
+    /**
+     * Render the Velocity template and model data to the given writer.
+     * <p/>
+     * Unlike {@link #renderTemplate(String, Map)} the rendered template is
+     * not buffered in a String, which avoids holding large templates in
+     * memory when they are rendered straight to the response, for example:
+     * <pre class="codeJava">
+     * Writer writer = getContext().getResponse().getWriter();
+     * getContext().renderTemplate(<span class="st">"/customers.htm"</span>, model, writer); </pre>
+     *
+     * Please note the writer is closed after the template is rendered.
+     *
+     * @param templatePath the path of the Velocity template to render
+     * @param model the model data to merge with the template
+     * @param writer the writer to render the template to
+     * @throws RuntimeException if an error occurs
+     */
+    public void renderTemplate(String templatePath, Map<String, ?> model,
+        Writer writer) {
 
         if (templatePath == null) {
             String msg = "Null templatePath parameter";
@@ -826,13 +853,16 @@ public class Context {
             throw new IllegalArgumentException(msg);
         }
 
-        StringWriter stringWriter = new StringWriter(1024);
+        if (writer == null) {
+            String msg = "Null writer parameter";
+            throw new IllegalArgumentException(msg);
+        }
 
         TemplateService templateService =
             clickServlet.getConfigService().getTemplateService();
 
         try {
-            templateService.renderTemplate(templatePath, model, stringWriter);
+            templateService.renderTemplate(templatePath, model, writer);
 
         } catch (Exception e) {
             String msg = "Error occurred rendering template: "
@@ -841,8 +871,6 @@ public class Context {
 
             throw new RuntimeException(e);
         }
-
-        return stringWriter.toString();
     }
 
     // ------------------------------------------------ Package Private Methods
@@ -106,6 +106,9 @@ public class ControlRegistry {
     /** The list of registered interceptors. */
     List<InterceptorHolder> interceptors;
 
+    /** The set of controls registered for prefetching. */
+    Set<Prefetchable> prefetchTargets;
+
     /** The application log service. */
     LogService logger;
 
@@ -199,6 +202,26 @@ public class ControlRegistry {
         instance.internalRegisterInterceptor(control, controlInterceptor);
     }
 
+    /**
+     * Register the control to have its data loaded in the prefetch phase of
+     * the request life cycle. The prefetch phase occurs after the
+     * <tt>onRender</tt> event and before the page is rendered, and invokes the
+     * {@link Prefetchable#prefetch()} method of all the registered controls
+     * concurrently.
+     *
+     * @see Prefetchable
+     *
+     * @param control the control to prefetch
+     */
+    public static void registerPrefetch(Prefetchable control) {
+        if (control == null) {
+            throw new IllegalArgumentException("control cannot be null");
+        }
+
+        ControlRegistry instance = getThreadLocalRegistry();
+        instance.internalRegisterPrefetch(control);
+    }
+
     // Protected Methods ------------------------------------------------------
 
     /**
@@ -213,7 +236,8 @@ public class ControlRegistry {
     // Package Private Methods ------------------------------------------------
 
     /**
-     * Remove all interceptors and ajax target controls from this registry.
+     * Remove all interceptors, ajax target and prefetch controls from this
+     * registry.
      */
     void clear() {
         if (hasInterceptors()) {
@@ -223,6 +247,10 @@ public class ControlRegistry {
         if (hasAjaxTargetControls()) {
             getAjaxTargetControls().clear();
         }
+
+        if (hasPrefetchTargets()) {
+            getPrefetchTargets().clear();
+        }
     }
 
     /**
@@ -254,6 +282,16 @@ public class ControlRegistry {
         }
     }
 
+    /**
+     * Register the control to prefetch.
+     *
+     * @param control the control to prefetch
+     */
+    void internalRegisterPrefetch(Prefetchable control) {
+        Validate.notNull(control, "Null control parameter");
+        getPrefetchTargets().add(control);
+    }
+
     void processPreResponse(Context context) {
         if (hasAjaxTargetControls()) {
             for (Control control : getAjaxTargetControls()) {
@@ -352,6 +390,28 @@ public class ControlRegistry {
         return interceptors;
     }
 
+    /**
+     * @return Checks if any controls have been registered for prefetching.
+     */
+    boolean hasPrefetchTargets() {
+        if (prefetchTargets == null || prefetchTargets.isEmpty()) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Return the set of controls registered for prefetching.
+     *
+     * @return the set of controls registered for prefetching
+     */
+    Set<Prefetchable> getPrefetchTargets() {
+        if (prefetchTargets == null) {
+            prefetchTargets = new LinkedHashSet<Prefetchable>();
+        }
+        return prefetchTargets;
+    }
+
     /**
      * Adds the specified ControlRegistry on top of the registry stack.
      *
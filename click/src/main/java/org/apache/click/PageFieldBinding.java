@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.click;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Provides a precompiled binding plan for the bindable fields of a Page class.
+ * <p/>
+ * The plan is created once per Page class from the fields returned by
+ * {@link org.apache.click.service.ConfigService#getPageFieldArray(Class)}.
+ * Field values are read through method handles instead of reflection, and the
+ * fields which can hold a {@link Control} are determined up front from their
+ * declared type, so controls are bound without reading the other fields.
+ * Fields are always processed in the order of the page field array.
+ * <p/>
+ * <b>PLEASE NOTE</b> this class is <b>not</b> for public use.
+ */
+final class PageFieldBinding {
+
+    // -------------------------------------------------------------- Constants
+
+    /** The binding plan of a Page class without bindable fields. */
+    static final PageFieldBinding EMPTY = new PageFieldBinding(new Field[0]);
+
+    /** The method type of the field getter handles. */
+    private static final MethodType GETTER_TYPE =
+        MethodType.methodType(Object.class, Page.class);
+
+    // -------------------------------------------------------------- Variables
+
+    /** The field names. */
+    private final String[] names;
+
+    /** The field getter handles. */
+    private final MethodHandle[] getters;
+
+    /** The indexes of the fields which can hold a Control. */
+    private final int[] controlIndexes;
+
+    // ----------------------------------------------------------- Constructors
+
+    /**
+     * Create a binding plan for the given page fields.
+     *
+     * @param fields the page fields to bind
+     */
+    PageFieldBinding(Field[] fields) {
+        names = new String[fields.length];
+        getters = new MethodHandle[fields.length];
+
+        List<Integer> indexes = new ArrayList<Integer>();
+
+        for (int i = 0; i < fields.length; i++) {
+            Field field = fields[i];
+            names[i] = field.getName();
+            getters[i] = createGetter(field);
+
+            if (mayHoldControl(field.getType())) {
+                indexes.add(i);
+            }
+        }
+
+        controlIndexes = new int[indexes.size()];
+        for (int i = 0; i < controlIndexes.length; i++) {
+            controlIndexes[i] = indexes.get(i);
+        }
+    }
+
+    // ------------------------------------------------ Package Private Methods
+
+    /**
+     * Bind the page control fields to the page. Controls without a name are
+     * named after their field and controls not already in the page model are
+     * added to the page.
+     *
+     * @param page the page to bind
+     */
+    void bindControls(Page page) {
+        for (int i = 0; i < controlIndexes.length; i++) {
+            int index = controlIndexes[i];
+            Object value = getValue(getters[index], page);
+
+            if (value instanceof Control) {
+                Control control = (Control) value;
+                if (control.getName() == null) {
+                    control.setName(names[index]);
+                }
+                addControl(page, control);
+            }
+        }
+    }
+
+    /**
+     * Add the page field values to the page model. Controls not already in
+     * the page model are added to the page.
+     *
+     * @param page the page to bind
+     */
+    void bindModel(Page page) {
+        for (int i = 0; i < getters.length; i++) {
+            Object value = getValue(getters[i], page);
+
+            if (value instanceof Control) {
+                addControl(page, (Control) value);
+
+            } else if (value != null) {
+                page.addModel(names[i], value);
+            }
+        }
+    }
+
+    /**
+     * Set the page field values as request attributes. Controls not already
+     * in the page model are added to the page.
+     *
+     * @param page the page to bind
+     * @param request the request to set the attributes on
+     */
+    void bindRequestAttributes(Page page, HttpServletRequest request) {
+        for (int i = 0; i < getters.length; i++) {
+            Object value = getValue(getters[i], page);
+
+            if (value instanceof Control) {
+                addControl(page, (Control) value);
+
+            } else if (value != null) {
+                request.setAttribute(names[i], value);
+            }
+        }
+    }
+
+    // -------------------------------------------------------- Private Methods
+
+    /**
+     * Add the given control to the page if it is not already in the page
+     * model.
+     *
+     * @param page the page to add the control to
+     * @param control the control to add
+     */
+    private static void addControl(Page page, Control control) {
+        if (!page.getModel().containsKey(control.getName())) {
+            page.addControl(control);
+        }
+    }
+
+    /**
+     * Return the value of the field with the given getter.
+     *
+     * @param getter the field getter handle
+     * @param page the page to get the field value from
+     * @return the field value
+     */
+    private static Object getValue(MethodHandle getter, Page page) {
+        try {
+            return (Object) getter.invokeExact(page);
+
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new RuntimeException(t);
+        }
+    }
+
+    /**
+     * Return a getter handle for the given field, typed as
+     * <tt>(Page)Object</tt>.
+     *
+     * @param field the field to create the getter for
+     * @return the field getter handle
+     */
+    private static MethodHandle createGetter(Field field) {
+        try {
+            MethodHandle getter;
+            try {
+                getter = MethodHandles.publicLookup().unreflectGetter(field);
+
+            } catch (IllegalAccessException e) {
+                // Public fields of non public page classes, and non public
+                // Bindable fields
+                field.setAccessible(true);
+                getter = MethodHandles.lookup().unreflectGetter(field);
+            }
+
+            if (Modifier.isStatic(field.getModifiers())) {
+                // Static field getters do not take the page argument
+                getter = MethodHandles.dropArguments(getter, 0, Page.class);
+            }
+            return getter.asType(GETTER_TYPE);
+
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Return true if a field of the given declared type could hold a Control.
+     *
+     * @param type the declared field type
+     * @return true if a field of the given type could hold a Control
+     */
+    private static boolean mayHoldControl(Class<?> type) {
+        if (type.isPrimitive() || type.isArray()) {
+            return false;
+        }
+
+        // Final types, e.g. String, can only hold a Control if they are one
+        return !Modifier.isFinal(type.getModifiers())
+            || Control.class.isAssignableFrom(type);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.click;
+
+/**
+ * Provides an interface that controls can implement to load their data in the
+ * prefetch phase of the page life cycle, concurrently with other controls.
+ * <p>
+ * Controls register themselves for prefetching through
+ * {@link ControlRegistry#registerPrefetch(Prefetchable)}, typically in their
+ * {@link Control#onRender() onRender} event instead of loading their data
+ * directly. After the page and controls <tt>onRender</tt> events, the
+ * ClickServlet invokes the {@link #prefetch()} method of the registered
+ * controls on its prefetch executor, and waits for all the prefetches to
+ * complete before rendering the page. The page latency is then bound by the
+ * slowest data retrieval, instead of the sum of all the data retrievals.
+ * <p>
+ * The {@link org.apache.click.control.Table} and
+ * {@link org.apache.click.control.Select} controls implement this interface,
+ * and register themselves when their <tt>prefetch</tt> property is enabled:
+ *
+ * <pre class="prettyprint">
+ * public class DashboardPage extends Page {
+ *
+ *     private Table orders = new Table("orders");
+ *     private Table invoices = new Table("invoices");
+ *
+ *     public DashboardPage() {
+ *         orders.setDataProvider(new OrderDataProvider());
+ *         orders.setPrefetch(true);
+ *
+ *         invoices.setDataProvider(new InvoiceDataProvider());
+ *         invoices.setPrefetch(true);
+ *         ...
+ *     }
+ * } </pre>
+ *
+ * The number of prefetch threads is configured with the ClickServlet
+ * <tt>prefetch-threads</tt> init parameter. If the parameter is not defined
+ * the registered controls are prefetched one after another on the request
+ * thread.
+ * <p>
+ * <b>Please note:</b> the <tt>prefetch</tt> method may be invoked on a thread
+ * other than the request thread. The thread local {@link Context} is available
+ * to the method, however the method should only modify the state of its own
+ * control, and must not modify the page or other controls.
+ */
+public interface Prefetchable {
+
+    /**
+     * Load the data of the control, for example by invoking the control
+     * DataProvider, so the data is available when the control is rendered.
+     */
+    public void prefetch();
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.click.ajax;
+
+import org.apache.click.ActionResult;
+import org.apache.click.Context;
+
+/**
+ * Provides a lightweight Ajax request handler, invoked directly by the
+ * ClickServlet without creating and processing the page.
+ * <p>
+ * An Ajax request targeting a control normally creates the page, binds its
+ * fields, and invokes the page <tt>onSecurityCheck</tt> and <tt>onInit</tt>
+ * events before the target control {@link AjaxBehavior} is resolved. For
+ * frequent, stateless requests such as auto completion lookups, an
+ * AjaxEndpoint can instead be registered with the
+ * {@link AjaxEndpointRegistry} for the page path and control id. Ajax requests
+ * to the page path with a request parameter named after the control id are
+ * then handled by the endpoint {@link #onAction(org.apache.click.Context) onAction}
+ * method, with only the request {@link Context} created.
+ * <p>
+ * Example usage:
+ *
+ * <pre class="prettyprint">
+ * AjaxEndpointRegistry registry = AjaxEndpointRegistry.getInstance(servletContext);
+ *
+ * registry.register("/customer-search.htm", "form_name", new AjaxEndpoint() {
+ *
+ *     public ActionResult onAction(Context context) {
+ *         String criteria = context.getRequestParameter("name");
+ *         List&lt;String&gt; names = getCustomerService().getCustomerNamesLike(criteria);
+ *         ...
+ *         return new ActionResult(html, ActionResult.HTML);
+ *     }
+ * }); </pre>
+ *
+ * <b>Please note:</b> endpoints are shared by all requests and must be thread
+ * safe. As the page is not created, the page <tt>onSecurityCheck</tt> event is
+ * not invoked, and endpoints must perform their own security checks. Controls
+ * and Behaviors cannot be registered while handling an endpoint request.
+ */
+public interface AjaxEndpoint {
+
+    /**
+     * Handle and respond to the Ajax request.
+     *
+     * @param context the request context
+     * @return the action result to render, or null if the endpoint rendered
+     * the response itself
+     */
+    public ActionResult onAction(Context context);
+}
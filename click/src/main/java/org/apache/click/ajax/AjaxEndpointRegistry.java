@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.click.ajax;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Provides the application registry of {@link AjaxEndpoint lightweight Ajax
+ * endpoints}, keyed on page path and control id.
+ * <p>
+ * The registry is stored in the ServletContext using the key
+ * {@value #CONTEXT_NAME}, and can be retrieved with
+ * {@link #getInstance(javax.servlet.ServletContext)}, for example in a
+ * <tt>ServletContextListener</tt> or a ClickServlet subclass <tt>init</tt>
+ * method.
+ * <p>
+ * The ClickServlet {@link #resolveEndpoint(String, HttpServletRequest) resolves}
+ * the endpoint of Ajax requests before creating the requested page.
+ */
+public class AjaxEndpointRegistry {
+
+    // Constants --------------------------------------------------------------
+
+    /** The ServletContext attribute name of the registry. */
+    public static final String CONTEXT_NAME = AjaxEndpointRegistry.class.getName();
+
+    // Variables --------------------------------------------------------------
+
+    /**
+     * The endpoint maps keyed on page path. The endpoint maps are keyed on
+     * control id, and copied on write.
+     */
+    private final Map<String, Map<String, AjaxEndpoint>> endpoints =
+        new ConcurrentHashMap<String, Map<String, AjaxEndpoint>>();
+
+    // Public Methods ---------------------------------------------------------
+
+    /**
+     * Return the application AjaxEndpointRegistry stored in the given
+     * ServletContext, creating and storing a new registry if not available.
+     *
+     * @param servletContext the application servlet context
+     * @return the application AjaxEndpointRegistry
+     */
+    public static AjaxEndpointRegistry getInstance(ServletContext servletContext) {
+        Validate.notNull(servletContext, "Null servletContext parameter");
+
+        synchronized (AjaxEndpointRegistry.class) {
+            AjaxEndpointRegistry registry =
+                (AjaxEndpointRegistry) servletContext.getAttribute(CONTEXT_NAME);
+
+            if (registry == null) {
+                registry = new AjaxEndpointRegistry();
+                servletContext.setAttribute(CONTEXT_NAME, registry);
+            }
+            return registry;
+        }
+    }
+
+    /**
+     * Register the endpoint handling the Ajax requests to the given page path
+     * with a request parameter named after the given control id. An endpoint
+     * already registered for the page path and control id is replaced.
+     *
+     * @param path the page path, for example "/customer-search.htm"
+     * @param id the control id sent as a request parameter
+     * @param endpoint the endpoint handling the requests
+     */
+    public synchronized void register(String path, String id, AjaxEndpoint endpoint) {
+        Validate.notNull(path, "Null path parameter");
+        Validate.notNull(id, "Null id parameter");
+        Validate.notNull(endpoint, "Null endpoint parameter");
+
+        path = normalizePath(path);
+
+        Map<String, AjaxEndpoint> pathEndpoints =
+            new LinkedHashMap<String, AjaxEndpoint>();
+        Map<String, AjaxEndpoint> existingEndpoints = endpoints.get(path);
+        if (existingEndpoints != null) {
+            pathEndpoints.putAll(existingEndpoints);
+        }
+        pathEndpoints.put(id, endpoint);
+
+        endpoints.put(path, Collections.unmodifiableMap(pathEndpoints));
+    }
+
+    /**
+     * Remove the endpoint registered for the given page path and control id.
+     *
+     * @param path the page path
+     * @param id the control id
+     * @return the removed endpoint, or null if no endpoint was registered
+     */
+    public synchronized AjaxEndpoint unregister(String path, String id) {
+        path = normalizePath(path);
+
+        Map<String, AjaxEndpoint> existingEndpoints = endpoints.get(path);
+        if (existingEndpoints == null || !existingEndpoints.containsKey(id)) {
+            return null;
+        }
+
+        Map<String, AjaxEndpoint> pathEndpoints =
+            new LinkedHashMap<String, AjaxEndpoint>(existingEndpoints);
+        AjaxEndpoint endpoint = pathEndpoints.remove(id);
+
+        if (pathEndpoints.isEmpty()) {
+            endpoints.remove(path);
+        } else {
+            endpoints.put(path, Collections.unmodifiableMap(pathEndpoints));
+        }
+        return endpoint;
+    }
+
+    /**
+     * Return the endpoint registered for the given page path and control id,
+     * or null if no endpoint is registered.
+     *
+     * @param path the page path
+     * @param id the control id
+     * @return the registered endpoint, or null
+     */
+    public AjaxEndpoint getEndpoint(String path, String id) {
+        Map<String, AjaxEndpoint> pathEndpoints = endpoints.get(normalizePath(path));
+        if (pathEndpoints == null) {
+            return null;
+        }
+        return pathEndpoints.get(id);
+    }
+
+    /**
+     * Return true if no endpoint is registered.
+     *
+     * @return true if no endpoint is registered
+     */
+    public boolean isEmpty() {
+        return endpoints.isEmpty();
+    }
+
+    /**
+     * Return the endpoint of the given request to the given page path, or
+     * null if no endpoint is registered for the page path and a request
+     * parameter name.
+     *
+     * @param path the requested page path
+     * @param request the servlet request
+     * @return the request endpoint, or null
+     */
+    public AjaxEndpoint resolveEndpoint(String path, HttpServletRequest request) {
+        Map<String, AjaxEndpoint> pathEndpoints = endpoints.get(path);
+        if (pathEndpoints == null) {
+            return null;
+        }
+
+        for (Map.Entry<String, AjaxEndpoint> entry : pathEndpoints.entrySet()) {
+            if (request.getParameter(entry.getKey()) != null) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    // Private Methods --------------------------------------------------------
+
+    /**
+     * Return the given path with a leading slash.
+     *
+     * @param path the page path
+     * @return the path with a leading slash
+     */
+    private String normalizePath(String path) {
+        if (path.length() > 0 && path.charAt(0) == '/') {
+            return path;
+        }
+        return "/" + path;
+    }
+}
@@ -27,6 +27,7 @@ import org.apache.click.Control;
 import org.apache.click.util.ClickUtils;
 import org.apache.click.util.ContainerUtils;
 import org.apache.click.util.HtmlStringBuffer;
+import org.apache.click.util.HtmlStringBufferArena;
 
 /**
  * Provides a default implementation of the {@link Container} interface
@@ -352,8 +353,10 @@ public abstract class AbstractContainer extends AbstractControl implements
      * Returns the HTML representation of this control.
      * <p>
      * This method delegates the rendering to the method
-     * {@link #render(org.apache.click.util.HtmlStringBuffer)}. The size of buffer
-     * is determined by {@link #getControlSizeEst()}.
+     * {@link #render(org.apache.click.util.HtmlStringBuffer)}. The buffer is
+     * recycled through the {@link HtmlStringBufferArena}, and is sized by the
+     * learned rendered size of the control, or initially by
+     * {@link #getControlSizeEst()}.
      *
      * @see Object#toString()
      *
@@ -361,9 +364,14 @@ public abstract class AbstractContainer extends AbstractControl implements
      */
     @Override
     public String toString() {
-        HtmlStringBuffer buffer = new HtmlStringBuffer(getControlSizeEst());
-        render(buffer);
-        return buffer.toString();
+        HtmlStringBuffer buffer = HtmlStringBufferArena.acquire(this, getControlSizeEst());
+        try {
+            render(buffer);
+            return HtmlStringBufferArena.getRenderedString(this, buffer);
+
+        } finally {
+            HtmlStringBufferArena.release(buffer);
+        }
     }
 
     // Protected Methods ------------------------------------------------------
@@ -43,6 +43,7 @@ import org.apache.click.Page;
 import org.apache.click.element.Element;
 import org.apache.click.util.ClickUtils;
 import org.apache.click.util.HtmlStringBuffer;
+import org.apache.click.util.HtmlStringBufferArena;
 
 /**
  * Provides a default implementation of the {@link Control} interface
@@ -901,8 +902,10 @@ public abstract class AbstractControl implements Control {
      * Returns the HTML representation of this control.
      * <p>
      * This method delegates the rendering to the method
-     * {@link #render(org.apache.click.util.HtmlStringBuffer)}. The size of buffer
-     * is determined by {@link #getControlSizeEst()}.
+     * {@link #render(org.apache.click.util.HtmlStringBuffer)}. The buffer is
+     * recycled through the {@link HtmlStringBufferArena}, and is sized by the
+     * learned rendered size of the control, or initially by
+     * {@link #getControlSizeEst()}.
      *
      * @see Object#toString()
      *
@@ -913,9 +916,14 @@ public abstract class AbstractControl implements Control {
         if (getTag() == null) {
             return "";
         }
-        HtmlStringBuffer buffer = new HtmlStringBuffer(getControlSizeEst());
-        render(buffer);
-        return buffer.toString();
+        HtmlStringBuffer buffer = HtmlStringBufferArena.acquire(this, getControlSizeEst());
+        try {
+            render(buffer);
+            return HtmlStringBufferArena.getRenderedString(this, buffer);
+
+        } finally {
+            HtmlStringBufferArena.release(buffer);
+        }
     }
 
     // Protected Methods ------------------------------------------------------
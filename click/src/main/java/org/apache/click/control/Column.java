@@ -20,9 +20,11 @@ package org.apache.click.control;
 
 import java.io.Serializable;
 import java.text.MessageFormat;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.Locale;
+import java.util.List;
+import java.util.ListIterator;
 import java.util.Map;
 import java.util.StringTokenizer;
 
@@ -30,6 +32,7 @@ import org.apache.click.Context;
 import org.apache.click.service.ConfigService;
 import org.apache.click.service.PropertyService;
 import org.apache.click.util.ClickUtils;
+import org.apache.click.util.FormatCache;
 import org.apache.click.util.HtmlStringBuffer;
 import org.apache.commons.lang3.math.NumberUtils;
 
@@ -248,6 +251,8 @@ public class Column implements Serializable {
 
     /**
      * The optional MessageFormat used to render the column table cell value.
+     * If not set, the {@link #format} pattern is rendered with a MessageFormat
+     * from the shared {@link FormatCache}.
      */
     protected MessageFormat messageFormat;
 
@@ -1163,11 +1168,6 @@ public class Column implements Serializable {
     public void renderTableData(Object row, HtmlStringBuffer buffer,
             Context context, int rowIndex) {
 
-        if (getMessageFormat() == null && getFormat() != null) {
-            Locale locale = context.getLocale();
-            setMessageFormat(new MessageFormat(getFormat(), locale));
-        }
-
         buffer.elementStart("td");
         if (getRenderId()) {
             String id = getId();
@@ -1235,7 +1235,16 @@ public class Column implements Serializable {
             ActionLink controlLink = getTable().getControlLink();
 
             controlLink.setParameter(Table.COLUMN, getName());
-            controlLink.setParameter(Table.PAGE, String.valueOf(getTable().getPageNumber()));
+
+            // Keysets are specific to the sort order, so sorting with keysets
+            // returns to the first page
+            controlLink.setParameter(Table.AFTER, null);
+            controlLink.setParameter(Table.BEFORE, null);
+            if (getTable().isKeysetPaging()) {
+                controlLink.setParameter(Table.PAGE, String.valueOf(0));
+            } else {
+                controlLink.setParameter(Table.PAGE, String.valueOf(getTable().getPageNumber()));
+            }
 
             if (sortedColumn) {
                 controlLink.setParameter(Table.ASCENDING, String.valueOf(ascending));
@@ -1360,10 +1369,16 @@ public class Column implements Serializable {
                 if (getAutolink() && renderLink(columnValue, buffer)) {
                     // Has been rendered
 
-                } else if (getMessageFormat() != null) {
+                } else if (getMessageFormat() != null || getFormat() != null) {
                     Object[] args = new Object[] { columnValue };
 
-                    String value = getMessageFormat().format(args);
+                    String value;
+                    if (getMessageFormat() != null) {
+                        value = getMessageFormat().format(args);
+                    } else {
+                        value = FormatCache.formatMessage(getFormat(),
+                            context.getLocale(), args);
+                    }
 
                     if (getMaxLength() > 0) {
                         value = ClickUtils.limitLength(value, getMaxLength());
@@ -1455,6 +1470,12 @@ public class Column implements Serializable {
 
         private static final long serialVersionUID = 1L;
 
+        /**
+         * The row count above which {@link #sort(java.util.List)} sorts the
+         * rows in parallel.
+         */
+        static final int PARALLEL_SORT_THRESHOLD = 10000;
+
         /** The sort ascending flag. */
         protected int ascendingSort;
 
@@ -1513,6 +1534,58 @@ public class Column implements Serializable {
             }
         }
 
+        /**
+         * Sort the given rows on the column values, in the same order as
+         * sorting the rows with this comparator.
+         * <p/>
+         * The column value of each row is read once, and string values are
+         * tokenized once, into a sort key. The sort keys are then sorted and
+         * the rows are reordered to match. Row lists larger than
+         * {@link #PARALLEL_SORT_THRESHOLD} are sorted in parallel.
+         *
+         * @param rowList the list of rows to sort
+         */
+        public void sort(List<Object> rowList) {
+            int size = rowList.size();
+            if (size < 2) {
+                return;
+            }
+
+            this.ascendingSort = column.getTable().isSortedAscending() ? 1 : -1;
+
+            SortKey[] keys = new SortKey[size];
+            boolean hasString = false;
+
+            int index = 0;
+            for (Object row : rowList) {
+                Object value = column.getProperty(row);
+                keys[index++] = new SortKey(row, value);
+                hasString |= value instanceof String;
+            }
+
+            // Comparable values are only compared as strings against strings
+            if (hasString) {
+                for (SortKey key : keys) {
+                    if (key.value instanceof Comparable) {
+                        key.tokenize();
+                    }
+                }
+            }
+
+            Comparator<SortKey> keyComparator = this::compareKeys;
+            if (size > PARALLEL_SORT_THRESHOLD) {
+                Arrays.parallelSort(keys, keyComparator);
+            } else {
+                Arrays.sort(keys, keyComparator);
+            }
+
+            ListIterator<Object> iterator = rowList.listIterator();
+            for (SortKey key : keys) {
+                iterator.next();
+                iterator.set(key.row);
+            }
+        }
+
         // ------------------------------------------------------ Protected Methods
 
         /**
@@ -1595,6 +1668,136 @@ public class Column implements Serializable {
             }
         }
 
+        // -------------------------------------------------------- Private Methods
+
+        /**
+         * Compare the given sort keys, as {@link #compare(Object, Object)}
+         * compares the key values.
+         *
+         * @param key1 the first sort key to compare
+         * @param key2 the second sort key to compare
+         * @return the comparison result
+         */
+        private int compareKeys(SortKey key1, SortKey key2) {
+            Object value1 = key1.value;
+            Object value2 = key2.value;
+
+            if (value1 instanceof Comparable && value2 instanceof Comparable) {
+
+                if (value1 instanceof String || value2 instanceof String) {
+                    return compareTokens(key1, key2) * ascendingSort;
+
+                } else {
+                    @SuppressWarnings("unchecked")
+                    Comparable<Object> comparable = (Comparable<Object>) value1;
+                    return comparable.compareTo(value2) * ascendingSort;
+                }
+
+            } else if (value1 != null && value2 != null) {
+
+                return value1.toString().compareToIgnoreCase(value2.toString())
+                    * ascendingSort;
+
+            } else if (value1 != null) {
+
+                return +1 * ascendingSort;
+
+            } else if (value2 != null) {
+
+                return -1 * ascendingSort;
+
+            } else {
+                return 0;
+            }
+        }
+
+        /**
+         * Compare the tokens of the given sort keys, as
+         * {@link #stringCompare(Object, Object)} compares the key values.
+         *
+         * @param key1 the first sort key to compare
+         * @param key2 the second sort key to compare
+         * @return the string comparison result
+         */
+        private static int compareTokens(SortKey key1, SortKey key2) {
+            String[] tokens1 = key1.tokens;
+            String[] tokens2 = key2.tokens;
+
+            for (int i = 0; i < tokens1.length; i++) {
+                if (i < tokens2.length) {
+
+                    int comp = 0;
+
+                    double number1 = key1.numbers[i];
+                    double number2 = key2.numbers[i];
+
+                    if (!Double.isNaN(number1) && !Double.isNaN(number2)) {
+                        comp = Double.compare(number1, number2);
+
+                    } else {
+                        comp = tokens1[i].compareToIgnoreCase(tokens2[i]);
+                    }
+
+                    if (comp != 0) {
+                        return comp;
+                    }
+
+                } else {
+                    return -1;
+                }
+            }
+
+            return 0;
+        }
+
+        // ------------------------------------------------------ Inner Classes
+
+        /**
+         * Provides the precomputed sort key of a table row.
+         */
+        private static final class SortKey {
+
+            /** The table row. */
+            final Object row;
+
+            /** The row column value. */
+            final Object value;
+
+            /** The value string tokens. */
+            String[] tokens;
+
+            /** The numeric token values, or NaN for non digit tokens. */
+            double[] numbers;
+
+            /**
+             * Create a sort key for the given row and column value.
+             *
+             * @param row the table row
+             * @param value the row column value
+             */
+            SortKey(Object row, Object value) {
+                this.row = row;
+                this.value = value;
+            }
+
+            /**
+             * Split the value string into the tokens compared by
+             * {@link ColumnComparator#stringCompare(Object, Object)}.
+             */
+            void tokenize() {
+                StringTokenizer st = new StringTokenizer(value.toString().trim());
+
+                tokens = new String[st.countTokens()];
+                numbers = new double[tokens.length];
+
+                for (int i = 0; i < tokens.length; i++) {
+                    String token = st.nextToken();
+                    tokens[i] = token;
+                    numbers[i] = NumberUtils.isDigits(token)
+                        ? Double.parseDouble(token) : Double.NaN;
+                }
+            }
+        }
     }
 
 }
@@ -27,6 +27,7 @@ import org.apache.click.Control;
 import org.apache.click.util.ClickUtils;
 import org.apache.click.util.ContainerUtils;
 import org.apache.click.util.HtmlStringBuffer;
+import org.apache.click.util.HtmlStringBufferArena;
 
 /**
  * Provides a FieldSet container control: &nbsp; &lt;fieldset&gt;.
@@ -1047,9 +1048,14 @@ public class FieldSet extends Field implements Container {
      */
     @Override
     public String toString() {
-        HtmlStringBuffer buffer = new HtmlStringBuffer(getControlSizeEst());
-        render(buffer);
-        return buffer.toString();
+        HtmlStringBuffer buffer = HtmlStringBufferArena.acquire(this, getControlSizeEst());
+        try {
+            render(buffer);
+            return HtmlStringBufferArena.getRenderedString(this, buffer);
+
+        } finally {
+            HtmlStringBufferArena.release(buffer);
+        }
     }
 
     // Protected methods -------------------------------------------------------
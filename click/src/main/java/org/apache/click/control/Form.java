@@ -40,6 +40,7 @@ import org.apache.click.service.LogService;
 import org.apache.click.util.ClickUtils;
 import org.apache.click.util.ContainerUtils;
 import org.apache.click.util.HtmlStringBuffer;
+import org.apache.click.util.HtmlStringBufferArena;
 import org.apache.commons.fileupload2.core.FileUploadException;
 import org.apache.commons.fileupload2.core.FileUploadByteCountLimitException;
 import org.apache.commons.fileupload2.core.FileUploadSizeException;
@@ -2237,11 +2238,14 @@ public class Form extends AbstractContainer implements Stateful {
 
         int bufferSize = getFormSizeEst(formFields);
 
-        HtmlStringBuffer buffer = new HtmlStringBuffer(bufferSize);
+        HtmlStringBuffer buffer = HtmlStringBufferArena.acquire(bufferSize);
+        try {
+            renderHeader(buffer, formFields);
+            return buffer.toString();
 
-        renderHeader(buffer, formFields);
-
-        return buffer.toString();
+        } finally {
+            HtmlStringBufferArena.release(buffer);
+        }
     }
 
     /**
@@ -2251,13 +2255,15 @@ public class Form extends AbstractContainer implements Stateful {
      * @return the rendered form end tag
      */
     public String endTag() {
-        HtmlStringBuffer buffer = new HtmlStringBuffer();
-
-        List<Field> formFields = ContainerUtils.getInputFields(this);
-
-        renderTagEnd(formFields, buffer);
+        HtmlStringBuffer buffer = HtmlStringBufferArena.acquire(128);
+        try {
+            List<Field> formFields = ContainerUtils.getInputFields(this);
+            renderTagEnd(formFields, buffer);
+            return buffer.toString();
 
-        return buffer.toString();
+        } finally {
+            HtmlStringBufferArena.release(buffer);
+        }
     }
 
     /**
@@ -28,6 +28,8 @@ import java.util.Map;
 
 import javax.servlet.ServletContext;
 
+import org.apache.click.ControlRegistry;
+import org.apache.click.Prefetchable;
 import org.apache.click.dataprovider.DataProvider;
 import org.apache.click.service.ConfigService;
 import org.apache.click.service.PropertyService;
@@ -283,7 +285,7 @@ import org.apache.click.util.HtmlStringBuffer;
  * @see Option
  * @see OptionGroup
  */
-public class Select extends Field {
+public class Select extends Field implements Prefetchable {
 
     private static final long serialVersionUID = 1L;
 
@@ -326,6 +328,12 @@ public class Select extends Field {
     /** The select data provider. */
     protected DataProvider<?> dataProvider;
 
+    /**
+     * The load options in the prefetch phase flag. The default value is
+     * false.
+     */
+    protected boolean prefetch;
+
     /**
      * The default option will be the first option added to the Select.
      * This property is often used when populating the Select from a
@@ -728,6 +736,31 @@ public class Select extends Field {
         multiple = value;
     }
 
+    /**
+     * Return true if the DataProvider options are loaded in the prefetch phase
+     * of the request life cycle.
+     *
+     * @return true if the options are loaded in the prefetch phase
+     */
+    public boolean isPrefetch() {
+        return prefetch;
+    }
+
+    /**
+     * Set whether the DataProvider options are loaded in the prefetch phase of
+     * the request life cycle, concurrently with the data of the other
+     * prefetched controls of the page, instead of being loaded in the
+     * {@link #onRender()} event.
+     * <p>
+     * <b>Please note</b> the DataProvider may then be invoked on a thread
+     * other than the request thread. See {@link Prefetchable} for details.
+     *
+     * @param prefetch true to load the options in the prefetch phase
+     */
+    public void setPrefetch(boolean prefetch) {
+        this.prefetch = prefetch;
+    }
+
     /**
      * Return the list of selected values.
      *
@@ -1008,11 +1041,30 @@ public class Select extends Field {
     /**
      * This method invokes {@link #getOptionList()} to ensure exceptions thrown
      * while retrieving options will be handled by the error page.
+     * <p>
+     * If {@link #setPrefetch(boolean) prefetch} is enabled the select is
+     * instead registered to retrieve its DataProvider options in the prefetch
+     * phase.
      *
      * @see org.apache.click.Control#onRender()
      */
     @Override
     public void onRender() {
+        if (isPrefetch() && optionList == null && getDataProvider() != null
+            && ControlRegistry.hasThreadLocalRegistry()) {
+            ControlRegistry.registerPrefetch(this);
+        } else {
+            getOptionList();
+        }
+    }
+
+    /**
+     * This method invokes {@link #getOptionList()} to retrieve the
+     * DataProvider options in the prefetch phase.
+     *
+     * @see Prefetchable#prefetch()
+     */
+    public void prefetch() {
         getOptionList();
     }
 
@@ -19,10 +19,12 @@
 package org.apache.click.control;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -30,14 +32,19 @@ import java.util.StringTokenizer;
 import org.apache.click.Context;
 
 import org.apache.click.Control;
+import org.apache.click.ControlRegistry;
+import org.apache.click.Prefetchable;
 import org.apache.click.Stateful;
 import org.apache.click.element.CssImport;
 import org.apache.click.element.CssStyle;
 import org.apache.click.element.Element;
 import org.apache.click.util.ClickUtils;
+import org.apache.click.util.PropertyUtils;
 import org.apache.click.dataprovider.DataProvider;
+import org.apache.click.dataprovider.DataQuery;
 import org.apache.click.util.HtmlStringBuffer;
 import org.apache.click.dataprovider.PagingDataProvider;
+import org.apache.click.dataprovider.QueryDataProvider;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 
@@ -279,6 +286,45 @@ import org.apache.commons.lang3.math.NumberUtils;
  *     });
  * } </pre>
  *
+ * Alternatively use a {@link org.apache.click.dataprovider.QueryDataProvider},
+ * which is passed a {@link org.apache.click.dataprovider.DataQuery} detailing
+ * the offset, limit and sort keys of the rows to load, as created by
+ * {@link #createDataQuery()}. The Table only requests the total number of
+ * rows when the loaded page is full, and the provider may return an estimated
+ * or {@link org.apache.click.dataprovider.QueryDataProvider#UNKNOWN_SIZE unknown}
+ * total:
+ *
+ * <pre class="prettyprint">
+ *     table.setDataProvider(new QueryDataProvider() {
+ *
+ *         public List getData(DataQuery query) {
+ *             return getCustomerService().getCustomers(query);
+ *         }
+ *
+ *         public int size(DataQuery query) {
+ *             return getCustomerService().getNumberOfCustomers(query);
+ *         }
+ *     }); </pre>
+ *
+ * For export style pages rendering very large unpaginated data sets, enable
+ * {@link #setStreamRows(boolean) streamRows}. The rows of the DataProvider
+ * are then rendered while iterating over its data, instead of being copied
+ * into the row list first, so a cursor backed Iterable only holds the
+ * current row in memory.
+ * <p>
+ * Offset based paging becomes slow on deep pages of very large data sets, as
+ * the datastore has to skip all the preceding rows. Setting a
+ * {@link #setKeysetColumn(String) keyset column}, a row property uniquely
+ * identifying rows such as <tt>"id"</tt>, enables keyset pagination for a
+ * QueryDataProvider. The paging links then carry the sorted column and keyset
+ * column values of the last row, or first row, of the page, and the provider
+ * is passed a {@link org.apache.click.dataprovider.DataQuery#hasKeyset() keyset}
+ * query for the rows following, or preceding, these values. NULL row values
+ * are carried as null keyset values, see
+ * {@link org.apache.click.dataprovider.DataQuery}. The paginator only
+ * renders first, previous and next links, as the total number of rows is not
+ * requested.
+ * <p>
  * For a live demonstration see the
  * <a href="http://click.avoka.com/click-examples/table/large-dataset-demo.htm">Large Dataset Demo</a>.
  * <p>
@@ -293,7 +339,7 @@ import org.apache.commons.lang3.math.NumberUtils;
  * @see Column
  * @see Decorator
  */
-public class Table extends AbstractControl implements Stateful {
+public class Table extends AbstractControl implements Prefetchable, Stateful {
 
     // Constants --------------------------------------------------------------
 
@@ -326,12 +372,25 @@ public class Table extends AbstractControl implements Stateful {
     /** The table top and bottom pagination banner position. */
     public static final int POSITION_BOTH = 3;
 
+    /** The control ActionLink keyset after parameter name: <code>"after"</code>. */
+    public static final String AFTER = "after";
+
     /** The control ActionLink page number parameter name: <code>"ascending"</code>. */
     public static final String ASCENDING = "ascending";
 
+    /** The control ActionLink keyset before parameter name: <code>"before"</code>. */
+    public static final String BEFORE = "before";
+
     /** The control ActionLink sorted column parameter name: <code>"column"</code>. */
     public static final String COLUMN = "column";
 
+    /**
+     * The control ActionLink keyset parameter value of a NULL row value:
+     * <code>"~"</code>. Row values starting with <code>"~"</code> are escaped
+     * with a second <code>"~"</code>.
+     */
+    public static final String KEYSET_NULL = "~";
+
     /** The control ActionLink page number parameter name: <code>"page"</code>. */
     public static final String PAGE = "page";
 
@@ -406,6 +465,18 @@ public class Table extends AbstractControl implements Stateful {
     /** The table HTML &lt;td&gt; height attribute. */
     protected String height;
 
+    /**
+     * The name of the row property uniquely identifying rows, which enables
+     * keyset pagination for a {@link QueryDataProvider}.
+     */
+    protected String keysetColumn;
+
+    /** The keyset values of the current page, in sort key order. */
+    protected String[] keysetValues;
+
+    /** The current page rows precede the keyset flag. */
+    protected boolean keysetBefore;
+
     /** The table data provider. */
     @SuppressWarnings("unchecked")
     protected DataProvider<?> dataProvider;
@@ -417,6 +488,13 @@ public class Table extends AbstractControl implements Stateful {
      */
     protected int rowCount;
 
+    /**
+     * The total number of rows is known flag. The row count is not known when
+     * a {@link QueryDataProvider} returns an unknown size, in which case the
+     * row count only includes the rows up to the next page.
+     */
+    protected boolean rowCountKnown = true;
+
     /**
      * The table rows set 'hover' CSS class on mouseover events flag. By default
      * hoverRows is false.
@@ -483,6 +561,21 @@ public class Table extends AbstractControl implements Stateful {
      */
     protected boolean sortable = false;
 
+    /**
+     * The render rows while iterating over the DataProvider data flag. By
+     * default streamRows is false.
+     *
+     * @see #setStreamRows(boolean)
+     */
+    protected boolean streamRows;
+
+    /**
+     * The load rows in the prefetch phase flag. By default prefetch is false.
+     *
+     * @see #setPrefetch(boolean)
+     */
+    protected boolean prefetch;
+
     /** The row list is sorted status. By default sorted is false. */
     protected boolean sorted = false;
 
@@ -940,6 +1033,120 @@ public class Table extends AbstractControl implements Stateful {
         this.hoverRows = hoverRows;
     }
 
+    /**
+     * Return the name of the row property uniquely identifying rows, which
+     * enables keyset pagination for a QueryDataProvider.
+     *
+     * @return the name of the row property uniquely identifying rows
+     */
+    public String getKeysetColumn() {
+        return keysetColumn;
+    }
+
+    /**
+     * Set the name of the row property uniquely identifying rows, e.g.
+     * <tt>"id"</tt>, which enables keyset pagination for a
+     * {@link QueryDataProvider}.
+     *
+     * @param keysetColumn the name of the row property uniquely identifying rows
+     */
+    public void setKeysetColumn(String keysetColumn) {
+        this.keysetColumn = keysetColumn;
+    }
+
+    /**
+     * Return true if the Table pages with keysets, i.e. a keyset column is
+     * defined and the data provider is a QueryDataProvider.
+     *
+     * @return true if the Table pages with keysets
+     */
+    public boolean isKeysetPaging() {
+        return getKeysetColumn() != null
+            && getDataProvider() instanceof QueryDataProvider<?>;
+    }
+
+    /**
+     * Return the keyset values of the current page, in sort key order, or
+     * null if the current page is not located with a keyset.
+     *
+     * @return the keyset values of the current page, or null
+     */
+    public String[] getKeysetValues() {
+        return keysetValues;
+    }
+
+    /**
+     * Return true if the current page rows precede the
+     * {@link #getKeysetValues() keyset values}, or false if they follow them.
+     *
+     * @return true if the current page rows precede the keyset values
+     */
+    public boolean isKeysetBefore() {
+        return keysetBefore;
+    }
+
+    /**
+     * Set the keyset values locating the current page, in sort key order.
+     *
+     * @param values the keyset values, or null to locate the page by number
+     * @param before true if the page rows precede the keyset values, or false
+     * if they follow them
+     */
+    public void setKeysetValues(String[] values, boolean before) {
+        this.keysetValues = values;
+        this.keysetBefore = before;
+    }
+
+    /**
+     * Return the keyset values of the given row, i.e. the sorted column value
+     * if the table is sorted, followed by the keyset column value. A NULL
+     * row value is returned as a null keyset value.
+     *
+     * @param row the row to return the keyset values for
+     * @return the keyset values of the row, in sort key order
+     */
+    public String[] getKeysetValues(Object row) {
+        Column column = null;
+        if (StringUtils.isNotBlank(getSortedColumn())) {
+            column = getColumns().get(getSortedColumn());
+        }
+
+        String[] values = new String[column != null ? 2 : 1];
+        int index = 0;
+        if (column != null) {
+            values[index++] = toKeysetValue(column.getProperty(row));
+        }
+
+        Column keyColumn = getColumns().get(getKeysetColumn());
+        if (keyColumn != null) {
+            values[index] = toKeysetValue(keyColumn.getProperty(row));
+        } else {
+            values[index] = toKeysetValue(PropertyUtils.getValue(row, getKeysetColumn()));
+        }
+        return values;
+    }
+
+    /**
+     * Return the keyset values of the given row encoded as control ActionLink
+     * parameter values, where a null keyset value is encoded as
+     * {@link #KEYSET_NULL}.
+     *
+     * @param row the row to return the keyset parameter values for
+     * @return the keyset parameter values of the row, in sort key order
+     */
+    public String[] getKeysetParameterValues(Object row) {
+        String[] values = getKeysetValues(row);
+        for (int i = 0; i < values.length; i++) {
+            String value = values[i];
+            if (value == null) {
+                values[i] = KEYSET_NULL;
+            } else if (value.startsWith(KEYSET_NULL)) {
+                values[i] = KEYSET_NULL + value;
+            }
+        }
+        return values;
+    }
+
     /**
      * Return the Table HTML HEAD elements for the following resource:
      *
@@ -1187,6 +1394,7 @@ public class Table extends AbstractControl implements Stateful {
     @SuppressWarnings("unchecked")
     public void setRowList(List<?> rowList) {
         this.rowList = rowList;
+        this.rowCountKnown = true;
         if (this.rowList == null) {
             this.rowCount = 0;
         } else {
@@ -1233,6 +1441,83 @@ public class Table extends AbstractControl implements Stateful {
         this.sortable = sortable;
     }
 
+    /**
+     * Return true if the rows are rendered while iterating over the
+     * DataProvider data.
+     *
+     * @see #setStreamRows(boolean)
+     *
+     * @return true if the rows are rendered while iterating over the data
+     */
+    public boolean getStreamRows() {
+        return streamRows;
+    }
+
+    /**
+     * Set whether the rows are rendered while iterating over the DataProvider
+     * data, instead of being copied into the row list first. Streaming the
+     * rows bounds the memory of rendering large data sets returned as a lazy,
+     * e.g. cursor backed, Iterable.
+     * <p>
+     * Rows are only streamed if the table has no row list, has a DataProvider
+     * which is not paging, has no page size, is not sorted and does not show
+     * the banner. See {@link #isStreamingRows()}.
+     * <p>
+     * <b>Please note</b> streamed rows are rendered through
+     * {@link #renderBodyRowColumns(HtmlStringBuffer, Object, int)}, and the
+     * {@link #getRowList() row list} is not available while rendering.
+     *
+     * @param streamRows true to render rows while iterating over the
+     * DataProvider data
+     */
+    public void setStreamRows(boolean streamRows) {
+        this.streamRows = streamRows;
+    }
+
+    /**
+     * Return true if the rows are loaded in the prefetch phase of the request
+     * life cycle.
+     *
+     * @see #setPrefetch(boolean)
+     *
+     * @return true if the rows are loaded in the prefetch phase
+     */
+    public boolean getPrefetch() {
+        return prefetch;
+    }
+
+    /**
+     * Set whether the rows are loaded in the prefetch phase of the request
+     * life cycle, concurrently with the data of the other prefetched controls
+     * of the page, instead of being loaded in the {@link #onRender()} event.
+     * <p>
+     * <b>Please note</b> the DataProvider may then be invoked on a thread
+     * other than the request thread. See {@link Prefetchable} for details.
+     *
+     * @param prefetch true to load the rows in the prefetch phase
+     */
+    public void setPrefetch(boolean prefetch) {
+        this.prefetch = prefetch;
+    }
+
+    /**
+     * Return true if the rows will be rendered while iterating over the
+     * DataProvider data, i.e. {@link #setStreamRows(boolean) streamRows} is
+     * enabled, the row list has not been created, the DataProvider is not
+     * paging, and the table has no page size, sorted column or banner.
+     *
+     * @return true if the rows will be rendered while iterating over the data
+     */
+    public boolean isStreamingRows() {
+        return getStreamRows()
+            && rowList == null
+            && getDataProvider() != null
+            && !isDataProviderPaging()
+            && getPageSize() == 0
+            && StringUtils.isBlank(getSortedColumn())
+            && !getShowBanner();
+    }
+
     /**
      * Return the sorted status of the table row list.
      *
@@ -1294,12 +1579,13 @@ public class Table extends AbstractControl implements Stateful {
      * <li>{@link #isSortedAscending()}</li>
      * <li>{@link #getSortedColumn()}</li>
      * <li>{@link #getControlLink() controlLink parameters}</li>
+     * <li>{@link #getKeysetValues() keyset values}</li>
      * </ul>
      *
      * @return the Table state
      */
     public Object getState() {
-        Object[] tableState = new Object[4];
+        Object[] tableState = new Object[6];
         boolean hasState = false;
 
         int currentPageNumber = getPageNumber();
@@ -1326,6 +1612,13 @@ public class Table extends AbstractControl implements Stateful {
             tableState[3] = controlLinkState;
         }
 
+        String[] currentKeysetValues = getKeysetValues();
+        if (currentKeysetValues != null) {
+            hasState = true;
+            tableState[4] = currentKeysetValues;
+            tableState[5] = Boolean.valueOf(isKeysetBefore());
+        }
+
         if (hasState) {
             return tableState;
         } else {
@@ -1364,6 +1657,11 @@ public class Table extends AbstractControl implements Stateful {
             Object controlLinkState = tableState[3];
             getControlLink().setState(controlLinkState);
         }
+
+        if (tableState.length > 4 && tableState[4] != null) {
+            boolean storedBefore = ((Boolean) tableState[5]).booleanValue();
+            setKeysetValues((String[]) tableState[4], storedBefore);
+        }
     }
 
     /**
@@ -1398,6 +1696,19 @@ public class Table extends AbstractControl implements Stateful {
         return rowCount;
     }
 
+    /**
+     * Return true if the total number of rows of the table is known. The
+     * total is not known when a {@link QueryDataProvider} returns
+     * {@link QueryDataProvider#UNKNOWN_SIZE}, in which case the
+     * {@link #getRowCount() row count} includes one row of the next page if
+     * the current page is full.
+     *
+     * @return true if the total number of rows of the table is known
+     */
+    public boolean isRowCountKnown() {
+        return rowCountKnown;
+    }
+
     /**
      * Return the index of the first row to display. Index starts from 0.
      * <p>
@@ -1457,6 +1768,9 @@ public class Table extends AbstractControl implements Stateful {
     /**
      * This method invokes {@link #getRowList()} to ensure exceptions thrown
      * while retrieving table rows will be handled by the error page.
+     * <p>
+     * If {@link #setPrefetch(boolean) prefetch} is enabled the table is
+     * instead registered to retrieve its rows in the prefetch phase.
      *
      * @see org.apache.click.Control#onRender()
      */
@@ -1467,6 +1781,23 @@ public class Table extends AbstractControl implements Stateful {
             Control control = getControls().get(i);
             control.onRender();
         }
+        if (!isStreamingRows()) {
+            if (getPrefetch() && rowList == null
+                && ControlRegistry.hasThreadLocalRegistry()) {
+                ControlRegistry.registerPrefetch(this);
+            } else {
+                getRowList();
+            }
+        }
+    }
+
+    /**
+     * This method invokes {@link #getRowList()} to retrieve the table rows
+     * in the prefetch phase.
+     *
+     * @see Prefetchable#prefetch()
+     */
+    public void prefetch() {
         getRowList();
     }
 
@@ -1488,6 +1819,8 @@ public class Table extends AbstractControl implements Stateful {
         localControlLink.defineParameter(COLUMN);
         localControlLink.defineParameter(ASCENDING);
         localControlLink.defineParameter(SORT);
+        localControlLink.defineParameter(AFTER);
+        localControlLink.defineParameter(BEFORE);
 
         localControlLink.onProcess();
 
@@ -1513,6 +1846,16 @@ public class Table extends AbstractControl implements Stateful {
             if ("true".equals(localControlLink.getParameter(SORT))) {
                 setSortedAscending(!isSortedAscending());
             }
+
+            String[] after = localControlLink.getParameterValues(AFTER);
+            String[] before = localControlLink.getParameterValues(BEFORE);
+            if (after != null) {
+                setKeysetValues(decodeKeysetValues(after), false);
+            } else if (before != null) {
+                setKeysetValues(decodeKeysetValues(before), true);
+            } else {
+                setKeysetValues(null, false);
+            }
         }
 
         boolean continueProcessing = true;
@@ -1563,6 +1906,8 @@ public class Table extends AbstractControl implements Stateful {
         int bufferSize = 0;
         if (getPageSize() > 0) {
             bufferSize = (getColumnList().size() * 60) * (getPageSize() + 1) + 1792;
+        } else if (isStreamingRows()) {
+            bufferSize = (getColumnList().size() * 60) * 64;
         } else {
             bufferSize = (getColumnList().size() * 60) * (getRowList().size() + 1);
         }
@@ -1579,8 +1924,11 @@ public class Table extends AbstractControl implements Stateful {
     @Override
     public void render(HtmlStringBuffer buffer) {
 
-        // Retrieve data to ensure rowCount has correct value
-        getRowList();
+        // Retrieve data to ensure rowCount has correct value, unless the rows
+        // are streamed while rendering
+        if (!isStreamingRows()) {
+            getRowList();
+        }
 
         // Range sanity check.
         int pageNumber = Math.min(getPageNumber(), getRowCount() - 1);
@@ -1706,7 +2054,10 @@ public class Table extends AbstractControl implements Stateful {
 
         List<Object> rowList = null;
 
-        if (dp != null) {
+        if (dp instanceof QueryDataProvider<?>) {
+            rowList = createRowList((QueryDataProvider<?>) dp);
+
+        } else if (dp != null) {
 
             boolean isPaginating = false;
 
@@ -1761,6 +2112,138 @@ public class Table extends AbstractControl implements Stateful {
         return rowList;
     }
 
+    /**
+     * Create a new table row list from the given query data provider. The
+     * provider is passed the query created by {@link #createDataQuery()},
+     * and its size is only requested if the retrieved page is full.
+     *
+     * @param dp the query data provider
+     * @return a new table row list
+     */
+    @SuppressWarnings("unchecked")
+    protected List<Object> createRowList(QueryDataProvider<?> dp) {
+        DataQuery query = createDataQuery();
+
+        Iterable<?> iterableData = dp.getData(query);
+
+        List<Object> rowList = null;
+        if (iterableData instanceof List<?>) {
+            rowList = (List<Object>) iterableData;
+
+        } else {
+            rowList = new ArrayList<Object>();
+            if (iterableData != null) {
+                for (Object row : iterableData) {
+                    rowList.add(row);
+                }
+            }
+        }
+
+        int offset = query.getOffset();
+        int limit = query.getLimit();
+
+        this.rowCountKnown = true;
+
+        if (query.hasKeyset()) {
+            // The total is not requested when paging with keysets. The page
+            // following the keyset is the last page if it is not full
+            offset = getFirstRow();
+            if (!query.isKeysetBefore() && rowList.size() < limit) {
+                this.rowCount = offset + rowList.size();
+            } else {
+                this.rowCountKnown = false;
+                this.rowCount = offset + rowList.size() + 1;
+            }
+
+        } else if (limit == 0 || (rowList.size() < limit && (offset == 0 || !rowList.isEmpty()))) {
+            // The retrieved page is the last page, so the total is known
+            // without counting the rows
+            this.rowCount = offset + rowList.size();
+
+        } else if (isKeysetPaging()) {
+            this.rowCountKnown = false;
+            this.rowCount = offset + rowList.size() + 1;
+
+        } else {
+            int size = dp.size(query);
+            if (size == QueryDataProvider.UNKNOWN_SIZE) {
+                // Include one row of the next page, so the next page can
+                // be navigated to
+                this.rowCountKnown = false;
+                this.rowCount = offset + rowList.size() + (rowList.isEmpty() ? 0 : 1);
+
+            } else {
+                this.rowCount = Math.max(size, offset + rowList.size());
+            }
+        }
+
+        // The rows are sorted by the data provider
+        setSorted(true);
+
+        return rowList;
+    }
+
+    /**
+     * Create the query passed to a {@link QueryDataProvider}, detailing the
+     * first row, the page size and the sorted column of the table.
+     * <p>
+     * When {@link #isKeysetPaging() paging with keysets} the keyset column is
+     * added as the last sort key, and the query details the
+     * {@link #getKeysetValues() keyset values} of the current page instead of
+     * the first row.
+     * <p>
+     * This method can be overridden to add filters to the query, for example:
+     *
+     * <pre class="prettyprint">
+     * Table table = new Table("table") {
+     *     protected DataQuery createDataQuery() {
+     *         DataQuery query = super.createDataQuery();
+     *         query.setFilter("name", nameField.getValue());
+     *         return query;
+     *     }
+     * }; </pre>
+     *
+     * @return the query passed to a query data provider
+     */
+    protected DataQuery createDataQuery() {
+        DataQuery query = new DataQuery(getFirstRow(), getPageSize());
+
+        String column = getSortedColumn();
+        boolean sorted = StringUtils.isNotBlank(column);
+        if (sorted) {
+            query.addSortKey(column, isSortedAscending());
+        }
+
+        if (isKeysetPaging()) {
+            query.addSortKey(getKeysetColumn(), !sorted || isSortedAscending());
+
+            String[] values = getKeysetValues();
+            if (values != null && values.length == query.getSortKeys().size()
+                && getPageNumber() > 0) {
+
+                query.setOffset(0);
+                if (isKeysetBefore()) {
+                    query.setKeysetBefore(Arrays.asList(values));
+                } else {
+                    query.setKeysetAfter(Arrays.asList(values));
+                }
+            }
+        }
+
+        return query;
+    }
+
+    /**
+     * Return true if the table data provider pages the rows, in which case the
+     * row list only contains the rows of the current page.
+     *
+     * @return true if the table data provider pages the rows
+     */
+    protected boolean isDataProviderPaging() {
+        DataProvider<?> dp = getDataProvider();
+        return dp instanceof PagingDataProvider<?> || dp instanceof QueryDataProvider<?>;
+    }
+
     /**
      * Render the table header row of column names.
      *
@@ -1805,10 +2288,17 @@ public class Table extends AbstractControl implements Stateful {
             }
         }
 
+        if (isStreamingRows()) {
+            renderStreamingBodyRows(buffer);
+            renderInlineBottomPaginator(buffer);
+            buffer.append("</tbody>");
+            return;
+        }
+
         int firstRow = 0;
         int lastRow = 0;
 
-        if (getDataProvider() instanceof PagingDataProvider) {
+        if (isDataProviderPaging()) {
             lastRow = getRowList().size();
         } else {
             firstRow = getFirstRow();
@@ -1825,86 +2315,144 @@ public class Table extends AbstractControl implements Stateful {
             for (int i = firstRow; i < lastRow; i++) {
                 Object row = getRowList().get(i);
 
-                buffer.append("<tr");
+                renderBodyRowStart(buffer, row, i, rowAttributes);
 
-                // Calculate if row is odd or even
-                boolean even = (i + 1) % 2 == 0;
-                String hoverClass = null;
-                if (even) {
-                    hoverClass = "even";
-                } else {
-                    hoverClass = "odd";
+                renderBodyRowColumns(buffer, i);
+
+                buffer.append("</tr>");
+                if (i < tableRows.size() - 1) {
+                    buffer.append("\n");
                 }
+            }
+        }
+
+        renderInlineBottomPaginator(buffer);
 
-                // Empty the row attributes
-                rowAttributes.clear();
+        buffer.append("</tbody>");
+    }
+
+    /**
+     * Render the table body rows while iterating over the DataProvider data,
+     * without creating the row list. Each row is rendered through
+     * {@link #renderBodyRowColumns(HtmlStringBuffer, Object, int)} and is not
+     * referenced after it is rendered. If the data iterator is
+     * <tt>AutoCloseable</tt>, e.g. a database cursor, it is closed after the
+     * rows are rendered.
+     *
+     * @see #setStreamRows(boolean)
+     *
+     * @param buffer the StringBuffer to render the table body rows in
+     */
+    protected void renderStreamingBodyRows(HtmlStringBuffer buffer) {
+        Iterable<?> iterableData = getDataProvider().getData();
 
-                // Allow user to add row attributes
-                addRowAttributes(rowAttributes, row, i);
+        int rowIndex = 0;
 
-                if (!rowAttributes.isEmpty()) {
-                    // Append id attribute if it was set
-                    buffer.appendAttribute("id", rowAttributes.get("id"));
+        if (iterableData != null) {
+            Iterator<?> iterator = iterableData.iterator();
+            try {
+                Map<String, String> rowAttributes = new HashMap<>(3);
 
-                    // Remove class attribute and append hoverClass to the value
-                    String cls = rowAttributes.remove("class");
+                while (iterator.hasNext()) {
+                    Object row = iterator.next();
 
-                    // Open class attribute
-                    buffer.append(" class=\"");
-                    if (cls != null) {
-                        buffer.append(cls).append(" ");
+                    if (rowIndex > 0) {
+                        buffer.append("\n");
                     }
-                    buffer.append(hoverClass);
 
-                    // Close class attribute
-                    buffer.append("\"");
+                    renderBodyRowStart(buffer, row, rowIndex, rowAttributes);
 
-                    // Render other attributes set by user.
-                    buffer.appendAttributes(rowAttributes);
-                } else {
-                    // If attributes was not set by user, render hoverClass
-                    // attribute
-                    buffer.append(" class=\"").append(hoverClass).append("\"");
+                    renderBodyRowColumns(buffer, row, rowIndex);
+
+                    buffer.append("</tr>");
+
+                    rowIndex++;
                 }
 
-                if (getHoverRows()) {
-                    buffer.append(" onmouseover=\"this.className='hover';\"");
-                    buffer.append(" onmouseout=\"this.className='");
-                    if (even) {
-                        buffer.append("even");
-                    } else {
-                        buffer.append("odd");
+            } finally {
+                if (iterator instanceof AutoCloseable) {
+                    try {
+                        ((AutoCloseable) iterator).close();
+                    } catch (Exception e) {
+                        ClickUtils.getLogService().error("close rows iterator error", e);
                     }
-                    buffer.append("';\"");
                 }
+            }
+        }
 
-                buffer.append(">\n");
+        this.rowCount = rowIndex;
 
-                renderBodyRowColumns(buffer, i);
+        if (rowIndex == 0) {
+            renderBodyNoRows(buffer);
+        }
+    }
 
-                buffer.append("</tr>");
-                if (i < tableRows.size() - 1) {
-                    buffer.append("\n");
-                }
-            }
+    /**
+     * Render the table body row start tag with the row attributes, for the
+     * given row and row index.
+     *
+     * @param buffer the StringBuffer to render the row start tag in
+     * @param row the row to render
+     * @param rowIndex the index of the row
+     * @param rowAttributes the row attributes map, which is cleared before use
+     */
+    protected void renderBodyRowStart(HtmlStringBuffer buffer, Object row,
+            int rowIndex, Map<String, String> rowAttributes) {
+
+        buffer.append("<tr");
+
+        // Calculate if row is odd or even
+        boolean even = (rowIndex + 1) % 2 == 0;
+        String hoverClass = null;
+        if (even) {
+            hoverClass = "even";
+        } else {
+            hoverClass = "odd";
         }
 
-        // If inline table bottom paginator configured render it.
-        if (getPaginatorAttachment() == PAGINATOR_INLINE) {
-            if (getBannerPosition() == POSITION_BOTTOM || getBannerPosition() == POSITION_BOTH) {
+        // Empty the row attributes
+        rowAttributes.clear();
 
-                buffer.append("\n<tr class=\"paging-inline\">\n");
-                buffer.append("<td class=\"paging-inline\" colspan=\"");
-                buffer.append(getColumnList().size());
-                buffer.append("\">");
+        // Allow user to add row attributes
+        addRowAttributes(rowAttributes, row, rowIndex);
 
-                renderPaginator(buffer);
+        if (!rowAttributes.isEmpty()) {
+            // Append id attribute if it was set
+            buffer.appendAttribute("id", rowAttributes.get("id"));
 
-                buffer.append("</td>\n</tr>\n");
+            // Remove class attribute and append hoverClass to the value
+            String cls = rowAttributes.remove("class");
+
+            // Open class attribute
+            buffer.append(" class=\"");
+            if (cls != null) {
+                buffer.append(cls).append(" ");
+            }
+            buffer.append(hoverClass);
+
+            // Close class attribute
+            buffer.append("\"");
+
+            // Render other attributes set by user.
+            buffer.appendAttributes(rowAttributes);
+        } else {
+            // If attributes was not set by user, render hoverClass
+            // attribute
+            buffer.append(" class=\"").append(hoverClass).append("\"");
+        }
+
+        if (getHoverRows()) {
+            buffer.append(" onmouseover=\"this.className='hover';\"");
+            buffer.append(" onmouseout=\"this.className='");
+            if (even) {
+                buffer.append("even");
+            } else {
+                buffer.append("odd");
             }
+            buffer.append("';\"");
         }
 
-        buffer.append("</tbody>");
+        buffer.append(">\n");
     }
 
     /**
@@ -1999,8 +2547,17 @@ public class Table extends AbstractControl implements Stateful {
      * @param rowIndex the 0-based index in tableRows to render
      */
     protected void renderBodyRowColumns(HtmlStringBuffer buffer, int rowIndex) {
-        Object row = getRowList().get(rowIndex);
+        renderBodyRowColumns(buffer, getRowList().get(rowIndex), rowIndex);
+    }
 
+    /**
+     * Render the current table body row cells for the given row.
+     *
+     * @param buffer the StringBuffer to render the table row cells in
+     * @param row the row to render
+     * @param rowIndex the index of the row to render
+     */
+    protected void renderBodyRowColumns(HtmlStringBuffer buffer, Object row, int rowIndex) {
         List<Column> tableColumns = getColumnList();
 
         for (int j = 0; j < tableColumns.size(); j++) {
@@ -2012,6 +2569,27 @@ public class Table extends AbstractControl implements Stateful {
         }
     }
 
+    /**
+     * Render the inline table bottom paginator, if configured.
+     *
+     * @param buffer the StringBuffer to render the paginator in
+     */
+    protected void renderInlineBottomPaginator(HtmlStringBuffer buffer) {
+        if (getPaginatorAttachment() == PAGINATOR_INLINE) {
+            if (getBannerPosition() == POSITION_BOTTOM || getBannerPosition() == POSITION_BOTH) {
+
+                buffer.append("\n<tr class=\"paging-inline\">\n");
+                buffer.append("<td class=\"paging-inline\" colspan=\"");
+                buffer.append(getColumnList().size());
+                buffer.append("\">");
+
+                renderPaginator(buffer);
+
+                buffer.append("</td>\n</tr>\n");
+            }
+        }
+    }
+
     /**
      * Render the table body content if no rows are in the row list.
      *
@@ -2187,7 +2765,16 @@ public class Table extends AbstractControl implements Stateful {
 
             Column column = getColumns().get(getSortedColumn());
 
-            Collections.sort(getRowList(), (Comparator) column.getComparator());
+            Comparator<?> comparator = column.getComparator();
+            if (comparator != null
+                && comparator.getClass() == Column.ColumnComparator.class) {
+                // Sort on precomputed sort keys of the rows. Subclasses may
+                // override the compare methods, so are sorted with compare
+                ((Column.ColumnComparator) comparator).sort((List<Object>) getRowList());
+
+            } else {
+                Collections.sort(getRowList(), (Comparator) comparator);
+            }
 
             setSorted(true);
         }
@@ -2195,6 +2782,39 @@ public class Table extends AbstractControl implements Stateful {
 
     // Private Methods --------------------------------------------------------
 
+    /**
+     * Return the given row property value rendered as a keyset value, or
+     * null if the value is null.
+     *
+     * @param value the row property value
+     * @return the keyset value, or null
+     */
+    private String toKeysetValue(Object value) {
+        return (value != null) ? value.toString() : null;
+    }
+
+    /**
+     * Return the keyset values of the given control ActionLink parameter
+     * values, decoding {@link #KEYSET_NULL} values as null.
+     *
+     * @param parameterValues the keyset parameter values
+     * @return the keyset values
+     */
+    private String[] decodeKeysetValues(String[] parameterValues) {
+        String[] values = new String[parameterValues.length];
+        for (int i = 0; i < values.length; i++) {
+            String value = parameterValues[i];
+            if (KEYSET_NULL.equals(value)) {
+                values[i] = null;
+            } else if (value != null && value.startsWith(KEYSET_NULL)) {
+                values[i] = value.substring(KEYSET_NULL.length());
+            } else {
+                values[i] = value;
+            }
+        }
+        return values;
+    }
+
     /**
      * Return true if a dark table style is selected, false otherwise.
      *
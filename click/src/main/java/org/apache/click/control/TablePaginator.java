@@ -18,7 +18,10 @@
  */
 package org.apache.click.control;
 
+import java.util.List;
+
 import org.apache.click.util.HtmlStringBuffer;
+import org.apache.click.util.HtmlStringBufferArena;
 
 /**
  * Provides the default Table Paginator.
@@ -102,7 +105,9 @@ public class TablePaginator implements Renderable {
 
             Object[] args = { rowCountStr, firstRow, lastRow};
 
-            if (table.getPageSize() > 0) {
+            if (!table.isRowCountKnown()) {
+                buffer.append(table.getMessage("table-page-banner-partial", args));
+            } else if (table.getPageSize() > 0) {
                 buffer.append(table.getMessage("table-page-banner", args));
             } else {
                 buffer.append(table.getMessage("table-page-banner-nolinks", args));
@@ -122,6 +127,14 @@ public class TablePaginator implements Renderable {
 
             final ActionLink controlLink = table.getControlLink();
 
+            controlLink.setParameter(Table.AFTER, null);
+            controlLink.setParameter(Table.BEFORE, null);
+
+            if (table.isKeysetPaging()) {
+                renderKeysetLinks(buffer);
+                return;
+            }
+
             if (table.getSortedColumn() != null) {
                 controlLink.setParameter(Table.SORT, null);
                 controlLink.setParameter(Table.COLUMN, table.getSortedColumn());
@@ -178,10 +191,13 @@ public class TablePaginator implements Renderable {
                 controlLink.setTitle(nextTitle);
                 nextLabel = controlLink.toString();
 
-                controlLink.setLabel(lastLabel);
-                controlLink.setParameter(Table.PAGE, String.valueOf(table.getNumberPages() - 1));
-                controlLink.setTitle(lastTitle);
-                lastLabel = controlLink.toString();
+                // The last page is unknown if the total number of rows is unknown
+                if (table.isRowCountKnown()) {
+                    controlLink.setLabel(lastLabel);
+                    controlLink.setParameter(Table.PAGE, String.valueOf(table.getNumberPages() - 1));
+                    controlLink.setTitle(lastTitle);
+                    lastLabel = controlLink.toString();
+                }
             }
 
             Object[] args =
@@ -208,11 +224,85 @@ public class TablePaginator implements Renderable {
      */
     @Override
     public String toString() {
-        HtmlStringBuffer buffer = new HtmlStringBuffer();
-
-        render(buffer);
+        HtmlStringBuffer buffer = HtmlStringBufferArena.acquire(128);
+        try {
+            render(buffer);
+            return buffer.toString();
 
-        return buffer.toString();
+        } finally {
+            HtmlStringBufferArena.release(buffer);
+        }
     }
 
+    // Protected Methods ------------------------------------------------------
+
+    /**
+     * Render the first, previous and next page links of a Table
+     * {@link Table#isKeysetPaging() paging with keysets}. The previous and
+     * next links carry the keyset values of the first and last rows of the
+     * current page, so the total number of rows is not required.
+     *
+     * @param buffer the string buffer to render the paging links to
+     */
+    protected void renderKeysetLinks(HtmlStringBuffer buffer) {
+        final Table table = getTable();
+
+        String firstLabel = table.getMessage("table-first-label");
+        String previousLabel = table.getMessage("table-previous-label");
+        String nextLabel = table.getMessage("table-next-label");
+        String lastLabel = table.getMessage("table-last-label");
+
+        final ActionLink controlLink = table.getControlLink();
+
+        if (table.getSortedColumn() != null) {
+            controlLink.setParameter(Table.SORT, null);
+            controlLink.setParameter(Table.COLUMN, table.getSortedColumn());
+            controlLink.setParameter(Table.ASCENDING, String.valueOf(table.isSortedAscending()));
+        } else {
+            controlLink.setParameter(Table.SORT, null);
+            controlLink.setParameter(Table.COLUMN, null);
+            controlLink.setParameter(Table.ASCENDING, null);
+        }
+
+        List<?> rowList = table.getRowList();
+        int pageNumber = table.getPageNumber();
+
+        if (pageNumber > 0) {
+            controlLink.setLabel(firstLabel);
+            controlLink.setParameter(Table.PAGE, String.valueOf(0));
+            controlLink.setTitle(table.getMessage("table-first-title"));
+            firstLabel = controlLink.toString();
+
+            controlLink.setLabel(previousLabel);
+            controlLink.setParameter(Table.PAGE, String.valueOf(pageNumber - 1));
+            if (pageNumber > 1 && !rowList.isEmpty()) {
+                controlLink.setParameterValues(Table.BEFORE, table.getKeysetParameterValues(rowList.get(0)));
+            }
+            controlLink.setTitle(table.getMessage("table-previous-title"));
+            previousLabel = controlLink.toString();
+            controlLink.setParameter(Table.BEFORE, null);
+        }
+
+        String pageLinks = "<strong>" + (pageNumber + 1) + "</strong>";
+
+        if (pageNumber < table.getNumberPages() - 1 && !rowList.isEmpty()) {
+            controlLink.setLabel(nextLabel);
+            controlLink.setParameter(Table.PAGE, String.valueOf(pageNumber + 1));
+            controlLink.setParameterValues(Table.AFTER,
+                table.getKeysetParameterValues(rowList.get(rowList.size() - 1)));
+            controlLink.setTitle(table.getMessage("table-next-title"));
+            nextLabel = controlLink.toString();
+            controlLink.setParameter(Table.AFTER, null);
+        }
+
+        Object[] args =
+            { firstLabel, previousLabel, pageLinks, nextLabel, lastLabel };
+
+        if (table.getShowBanner()) {
+            buffer.append(table.getMessage("table-page-links", args));
+        } else {
+            buffer.append(table.getMessage("table-page-links-nobanner", args));
+        }
+        controlLink.setTitle(null);
+    }
 }
@@ -0,0 +1,364 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.click.dataprovider;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Provides a query descriptor passed to a {@link QueryDataProvider}, detailing
+ * the range of rows, the sort order and the filters of the data to retrieve.
+ * <p>
+ * The query offset and limit are the index of the first row and the maximum
+ * number of rows to retrieve. A limit of 0 means there is no limit and all the
+ * rows from the offset should be retrieved.
+ * <p>
+ * A query can also detail a keyset, i.e. the sort key values of the last row
+ * of the previous page, or the first row of the next page. In this case the
+ * offset is 0, and the rows to retrieve are the rows following, or
+ * preceding, the keyset in the sort key order:
+ *
+ * <pre class="prettyprint">
+ * SELECT * FROM customer
+ * WHERE (name, id) &gt; (:name, :id)
+ * ORDER BY name, id
+ * LIMIT :limit </pre>
+ *
+ * The {@link #getKeysetValues() keyset values} correspond to the
+ * {@link #getSortKeys() sort keys}, and are rendered as strings. When the
+ * keyset {@link #isKeysetBefore() precedes} the rows, the rows must be
+ * returned in sort key order, i.e. retrieved in the reverse order and then
+ * reversed.
+ * <p>
+ * A keyset value is null when the row value of its sort key is NULL. The
+ * row value comparison above does not match NULLs, so when sorting on a
+ * nullable column the provider must order NULLs consistently, for example
+ * <tt>NULLS LAST</tt>, and expand the comparison for null keyset values. For
+ * example the rows following a NULL name are:
+ *
+ * <pre class="prettyprint">
+ * SELECT * FROM customer
+ * WHERE name IS NULL AND id &gt; :id
+ * ORDER BY name NULLS LAST, id
+ * LIMIT :limit </pre>
+ *
+ * while the rows following a non null name also include the NULL names:
+ *
+ * <pre class="prettyprint">
+ * WHERE (name, id) &gt; (:name, :id) OR name IS NULL </pre>
+ *
+ * @see QueryDataProvider
+ */
+public class DataQuery implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // Instance Variables -----------------------------------------------------
+
+    /** The index of the first row to retrieve. */
+    protected int offset;
+
+    /** The maximum number of rows to retrieve, 0 means no limit. */
+    protected int limit;
+
+    /** The list of sort keys, in order of precedence. */
+    protected List<SortKey> sortKeys;
+
+    /** The map of filter values keyed on filter name. */
+    protected Map<String, Object> filters;
+
+    /** The keyset values, in sort key order. */
+    protected List<String> keysetValues;
+
+    /** The rows precede the keyset flag. */
+    protected boolean keysetBefore;
+
+    // Constructors -----------------------------------------------------------
+
+    /**
+     * Create a DataQuery for all the rows.
+     */
+    public DataQuery() {
+    }
+
+    /**
+     * Create a DataQuery for the given range of rows.
+     *
+     * @param offset the index of the first row to retrieve
+     * @param limit the maximum number of rows to retrieve, 0 means no limit
+     */
+    public DataQuery(int offset, int limit) {
+        setOffset(offset);
+        setLimit(limit);
+    }
+
+    // Public Methods ---------------------------------------------------------
+
+    /**
+     * Return the index of the first row to retrieve. Index starts from 0.
+     *
+     * @return the index of the first row to retrieve
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Set the index of the first row to retrieve. Index starts from 0.
+     *
+     * @param offset the index of the first row to retrieve
+     */
+    public void setOffset(int offset) {
+        this.offset = offset;
+    }
+
+    /**
+     * Return the maximum number of rows to retrieve. A limit of 0 means there
+     * is no limit.
+     *
+     * @return the maximum number of rows to retrieve
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Set the maximum number of rows to retrieve. A limit of 0 means there
+     * is no limit.
+     *
+     * @param limit the maximum number of rows to retrieve
+     */
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Add a sort key with a lower precedence than the keys already added.
+     *
+     * @param column the name of the column to sort on
+     * @param ascending true to sort in ascending order, false otherwise
+     */
+    public void addSortKey(String column, boolean ascending) {
+        if (sortKeys == null) {
+            sortKeys = new ArrayList<SortKey>(1);
+        }
+        sortKeys.add(new SortKey(column, ascending));
+    }
+
+    /**
+     * Return the list of sort keys, in order of precedence.
+     *
+     * @return the list of sort keys, in order of precedence
+     */
+    public List<SortKey> getSortKeys() {
+        if (sortKeys == null) {
+            return Collections.emptyList();
+        }
+        return sortKeys;
+    }
+
+    /**
+     * Return true if the query has sort keys.
+     *
+     * @return true if the query has sort keys
+     */
+    public boolean hasSortKeys() {
+        return sortKeys != null && !sortKeys.isEmpty();
+    }
+
+    /**
+     * Return the value of the named filter, or null if the filter is not
+     * defined.
+     *
+     * @param name the filter name
+     * @return the filter value, or null if the filter is not defined
+     */
+    public Object getFilter(String name) {
+        if (filters == null) {
+            return null;
+        }
+        return filters.get(name);
+    }
+
+    /**
+     * Set the value of the named filter. A null value removes the filter.
+     *
+     * @param name the filter name
+     * @param value the filter value
+     */
+    public void setFilter(String name, Object value) {
+        if (value == null) {
+            if (filters != null) {
+                filters.remove(name);
+            }
+            return;
+        }
+        if (filters == null) {
+            filters = new LinkedHashMap<String, Object>();
+        }
+        filters.put(name, value);
+    }
+
+    /**
+     * Return the map of filter values keyed on filter name.
+     *
+     * @return the map of filter values keyed on filter name
+     */
+    public Map<String, Object> getFilters() {
+        if (filters == null) {
+            return Collections.emptyMap();
+        }
+        return filters;
+    }
+
+    /**
+     * Return true if the query has filters.
+     *
+     * @return true if the query has filters
+     */
+    public boolean hasFilters() {
+        return filters != null && !filters.isEmpty();
+    }
+
+    /**
+     * Set the keyset values of the last row of the previous page, so the
+     * rows following the keyset are retrieved.
+     *
+     * @param values the keyset values, in sort key order
+     */
+    public void setKeysetAfter(List<String> values) {
+        this.keysetValues = values;
+        this.keysetBefore = false;
+    }
+
+    /**
+     * Set the keyset values of the first row of the next page, so the rows
+     * preceding the keyset are retrieved.
+     *
+     * @param values the keyset values, in sort key order
+     */
+    public void setKeysetBefore(List<String> values) {
+        this.keysetValues = values;
+        this.keysetBefore = true;
+    }
+
+    /**
+     * Return the keyset values, in sort key order. A keyset value is null if
+     * the row value of its sort key is NULL.
+     *
+     * @return the keyset values, in sort key order
+     */
+    public List<String> getKeysetValues() {
+        if (keysetValues == null) {
+            return Collections.emptyList();
+        }
+        return keysetValues;
+    }
+
+    /**
+     * Return true if the query has a keyset.
+     *
+     * @return true if the query has a keyset
+     */
+    public boolean hasKeyset() {
+        return keysetValues != null && !keysetValues.isEmpty();
+    }
+
+    /**
+     * Return true if the rows to retrieve precede the keyset, or false if
+     * the rows follow the keyset.
+     *
+     * @return true if the rows to retrieve precede the keyset
+     */
+    public boolean isKeysetBefore() {
+        return keysetBefore;
+    }
+
+    /**
+     * Return a string representation of the query.
+     *
+     * @return a string representation of the query
+     */
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[offset=" + offset + ",limit="
+            + limit + ",sortKeys=" + getSortKeys() + ",filters="
+            + getFilters() + (hasKeyset() ? (keysetBefore ? ",before=" : ",after=")
+            + keysetValues : "") + "]";
+    }
+
+    // Inner Classes ----------------------------------------------------------
+
+    /**
+     * Provides a query sort key, the name of a column and its sort direction.
+     */
+    public static class SortKey implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /** The name of the column to sort on. */
+        private final String column;
+
+        /** The ascending sort order flag. */
+        private final boolean ascending;
+
+        /**
+         * Create a SortKey for the given column and sort direction.
+         *
+         * @param column the name of the column to sort on
+         * @param ascending true to sort in ascending order, false otherwise
+         */
+        public SortKey(String column, boolean ascending) {
+            this.column = column;
+            this.ascending = ascending;
+        }
+
+        /**
+         * Return the name of the column to sort on.
+         *
+         * @return the name of the column to sort on
+         */
+        public String getColumn() {
+            return column;
+        }
+
+        /**
+         * Return true if the sort order is ascending.
+         *
+         * @return true if the sort order is ascending
+         */
+        public boolean isAscending() {
+            return ascending;
+        }
+
+        /**
+         * Return a string representation of the sort key.
+         *
+         * @return a string representation of the sort key
+         */
+        @Override
+        public String toString() {
+            return column + (ascending ? " asc" : " desc");
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.click.dataprovider;
+
+/**
+ * An interface to provide paginated, sorted and filtered data on demand to
+ * controls. The control passes a {@link DataQuery} detailing the offset,
+ * limit, sort keys and filters of the data to retrieve, so the provider
+ * does not need access to the control, and paging and sorting are
+ * performed by the datastore.
+ * <p>
+ * Example usage:
+ *
+ * <pre class="prettyprint">
+ * public class MyPage extends Page {
+ *
+ *     private Table table = new Table("table");
+ *
+ *     public MyPage() {
+ *
+ *         ...
+ *
+ *         table.setDataProvider(new QueryDataProvider<Customer>() {
+ *
+ *             // Return a page of customers
+ *             public List<Customer> getData(DataQuery query) {
+ *                 return getCustomerService().getCustomers(query);
+ *             }
+ *
+ *             // Return the total number of customers to page over
+ *             public int size(DataQuery query) {
+ *                 return getCustomerService().getNumberOfCustomers(query);
+ *             }
+ *         });
+ *     }
+ * } </pre>
+ *
+ * The Table only invokes {@link #size(DataQuery)} when the total cannot be
+ * derived from the retrieved rows, i.e. when the retrieved page is full. When
+ * counting is expensive, size may return an estimate, or {@link #UNKNOWN_SIZE}
+ * in which case the Table only pages forward one page at a time.
+ */
+public interface QueryDataProvider<T> extends DataProvider<T> {
+
+    /** The size returned when the total number of results is unknown. */
+    public static final int UNKNOWN_SIZE = -1;
+
+    /**
+     * Return the data items for the given query.
+     *
+     * @param query the query detailing the data items to return
+     * @return the data items for the given query
+     */
+    public Iterable<T> getData(DataQuery query);
+
+    /**
+     * Return the total number of results for the given query, ignoring its
+     * offset and limit. The returned value may be an estimate, or
+     * {@link #UNKNOWN_SIZE} if the total is not known.
+     *
+     * @param query the query to return the total number of results for
+     * @return the total number of results, an estimate or UNKNOWN_SIZE
+     */
+    public int size(DataQuery query);
+
+    /**
+     * Return all the data items, by invoking {@link #getData(DataQuery)} with
+     * a query without limit, sort keys or filters.
+     *
+     * @return all the data items supplied by the data provider
+     */
+    @Override
+    public default Iterable<T> getData() {
+        return getData(new DataQuery());
+    }
+}
@@ -18,6 +18,8 @@
  */
 package org.apache.click.element;
 
+import org.apache.click.Context;
+import org.apache.click.util.ClickUtils;
 import org.apache.click.util.HtmlStringBuffer;
 import org.apache.commons.lang3.StringUtils;
 
@@ -123,6 +125,12 @@ import org.apache.commons.lang3.StringUtils;
  * </ul>
  * <b>Please note:</b> <a href="../../../../extras-api/org/apache/click/extras/filter/PerformanceFilter.html">PerformanceFilter</a>
  * handles the above steps for you.
+ * <p>
+ * When the application uses a {@link org.apache.click.service.BasicResourceService}
+ * (the default), resources served by the application are rendered with a
+ * content fingerprint instead of the version indicator, see
+ * {@link org.apache.click.util.ClickUtils#getFingerprintedResourcePath(Context, String)}.
+ * A resource path is then only changed when the resource content changes.
  *
  * <a name="conditional-comment"></a>
  * <h3>Conditional comment support for Internet Explorer</h3>
@@ -338,6 +346,10 @@ public class ResourceElement extends Element {
      * {@link #getVersionIndicator()} to the resourcePath, if it was set.
      * If the version indicator is not defined this method will only render the
      * resourcePath.
+     * <p>
+     * If a {@link ClickUtils#getFingerprintedResourcePath(Context, String)
+     * fingerprinted resource path} is available for the resourcePath it is
+     * rendered instead of the version indicated resourcePath.
      *
      * @param buffer the buffer to render to
      * @param attribute the attribute name to render
@@ -352,6 +364,16 @@ public class ResourceElement extends Element {
             return;
         }
 
+        // Prefer the content fingerprint over the global version indicator
+        if (Context.hasThreadLocalContext()) {
+            String fingerprintedPath =
+                ClickUtils.getFingerprintedResourcePath(getContext(), resourcePath);
+            if (fingerprintedPath != null) {
+                buffer.appendAttribute(attribute, fingerprintedPath);
+                return;
+            }
+        }
+
         // If version indicator is not defined render resource path only
         if (StringUtils.isBlank(versionIndicator)) {
             buffer.appendAttribute(attribute, resourcePath);
@@ -18,19 +18,36 @@
  */
 package org.apache.click.service;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
 import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import org.apache.click.util.ClickUtils;
 import org.apache.click.util.HtmlStringBuffer;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
 
 /**
  * Provides a lightweight HTTP resource service that serves static resources
@@ -41,12 +58,160 @@ import org.apache.commons.io.IOUtils;
  * It is the ideal choice for modern, restricted, or immutable environments
  * like Docker containers or Cloud PaaS (e.g., Google App Engine).
  *
+ * <h3>Conditional Requests</h3>
+ * Every rendered resource includes a strong <tt>ETag</tt> header, computed
+ * from the resource content when the resource is loaded, and a
+ * <tt>Last-Modified</tt> header. When a browser revalidates a resource with
+ * an <tt>If-None-Match</tt> or <tt>If-Modified-Since</tt> header which
+ * matches the current resource, a <tt>304 Not Modified</tt> status is
+ * returned and the resource body is not sent.
+ *
+ * <h3>Precompressed Resources</h3>
+ * In production and profile modes, textual resources (CSS, JavaScript, HTML,
+ * XML, SVG, JSON) larger than the {@link #setCompressionThreshold(int)
+ * compression threshold} are GZIP compressed once when they are loaded, and
+ * the compressed variant is cached alongside the raw bytes. The variant sent
+ * to the browser is selected from the request <tt>Accept-Encoding</tt>
+ * header, and a <tt>Vary: Accept-Encoding</tt> header is included, so
+ * resources are never compressed per request. Additional encodings can be
+ * provided by overriding {@link #encodeResource(String, CachedResource)}.
+ * <p/>
+ * Resource compression can be configured through <tt>click.xml</tt>:
+ *
+ * <pre class="codeConfig">
+ * &lt;resource-service classname="org.apache.click.service.BasicResourceService"&gt;
+ *     &lt;property name="<span class="blue">compressionEnabled</span>" value="<span class="red">true</span>"/&gt;
+ *     &lt;property name="<span class="blue">compressionThreshold</span>" value="<span class="red">1024</span>"/&gt;
+ * &lt;/resource-service&gt; </pre>
+ *
+ * <h3>Resource Cache</h3>
+ * In production and profile modes loaded resources are cached in a
+ * {@link ResourceCache} bounded by the {@link #setCacheMaxSize(long) cache
+ * max size} in bytes, evicting the least recently used resources when full.
+ * Paths which could not be found are also cached, up to the
+ * {@link #setCacheMaxMissingEntries(int) cache max missing entries}, so that
+ * requests for missing resources return 404 without probing the servlet
+ * context and classpath again.
+ * <p/>
+ * Cache hits, misses and evictions are recorded by a
+ * {@link ResourceCacheStats} instance, by default
+ * {@link DefaultResourceCacheStats}, which is available through
+ * {@link #getResourceCache()}.
+ *
+ * <pre class="codeConfig">
+ * &lt;resource-service classname="org.apache.click.service.BasicResourceService"&gt;
+ *     &lt;property name="<span class="blue">cacheMaxSize</span>" value="<span class="red">67108864</span>"/&gt;
+ *     &lt;property name="<span class="blue">cacheMaxMissingEntries</span>" value="<span class="red">1000</span>"/&gt;
+ *     &lt;property name="<span class="blue">cacheStatsClassname</span>" value="<span class="red">com.mycorp.service.JmxResourceCacheStats</span>"/&gt;
+ * &lt;/resource-service&gt; </pre>
+ *
+ * <h3>Large File Resources</h3>
+ * When a {@link #setFileResourceThreshold(long) file resource threshold} is
+ * configured, resources found in the web application directory (resolved
+ * through <tt>ServletContext.getRealPath()</tt>) which are at least that
+ * many bytes are not read onto the heap. Instead they are served from the
+ * file system:
+ * <ul>
+ * <li>if the container supports sendfile (Tomcat's
+ * <tt>org.apache.tomcat.sendfile.support</tt> request attribute) the file is
+ * handed to the container to be sent without copying through user space</li>
+ * <li>in production and profile modes the file is memory-mapped once and the
+ * mapped buffer is written to the response</li>
+ * <li>otherwise the file is streamed through a <tt>FileChannel</tt></li>
+ * </ul>
+ * File resources use an ETag derived from the file length and modification
+ * time, are not precompressed and only account for their metadata in the
+ * resource cache size.
+ *
+ * <pre class="codeConfig">
+ * &lt;resource-service classname="org.apache.click.service.BasicResourceService"&gt;
+ *     &lt;property name="<span class="blue">fileResourceThreshold</span>" value="<span class="red">262144</span>"/&gt;
+ * &lt;/resource-service&gt; </pre>
+ *
+ * <h3>Fingerprinted Resource Paths</h3>
+ * When resource versioning is active (see
+ * {@link ClickUtils#ENABLE_RESOURCE_VERSION}) in production and profile modes,
+ * {@link org.apache.click.element.JsImport JsImport},
+ * {@link org.apache.click.element.CssImport CssImport} and other
+ * {@link org.apache.click.element.ResourceElement resource elements} render
+ * paths containing a hash of the resource content instead of the global
+ * version indicator, for example <tt>/click/control_3f2a9c0b41de.js</tt>.
+ * Unchanged resources therefore keep the same path, and stay cached by
+ * browsers, across application releases.
+ * <p/>
+ * The content hash is computed when the resource is first loaded, or for
+ * resources deployed by {@link ClickResourceService} when the resource is
+ * deployed. Requests for a fingerprinted path are mapped back to the real
+ * resource path and are rendered with a far future <tt>Cache-Control</tt>
+ * header. Fingerprinting can be disabled with the
+ * {@link #setFingerprintEnabled(boolean) fingerprintEnabled} property.
+ *
  * @since 2.5.0
  */
 public class BasicResourceService implements ResourceService {
 
-    /** The click resources cache. */
-    protected Map<String, byte[]> resourceCache = new ConcurrentHashMap<String, byte[]>();
+    /** The number of content hash characters in a resource fingerprint. */
+    protected static final int FINGERPRINT_LENGTH = 12;
+
+    /** The Cache-Control header value of fingerprinted resource requests. */
+    protected static final String FINGERPRINT_CACHE_CONTROL =
+        "public, max-age=31536000, immutable";
+
+    /** The fingerprinted resource path pattern, e.g. /click/control_3f2a9c0b41de.js. */
+    private static final Pattern FINGERPRINTED_PATH_PATTERN = Pattern.compile(
+        "(.*)" + ClickUtils.VERSION_INDICATOR_SEP + "([0-9a-f]{" + FINGERPRINT_LENGTH + "})(\\.[^./]+)");
+
+    /**
+     * The click resources cache, created when the service is initialized.
+     * <p/>
+     * Please note this field was previously a <tt>Map&lt;String, byte[]&gt;</tt>
+     * of resource data. Subclasses should use the {@link ResourceCache} get
+     * and put methods, or {@link #getResourceCache()}.
+     */
+    protected ResourceCache resourceCache;
+
+    /**
+     * The maximum size in bytes of the resource cache, default value is 64 MB.
+     */
+    protected long cacheMaxSize = 64 * 1024 * 1024;
+
+    /**
+     * The maximum number of missing resource paths to cache, default value
+     * is 1000.
+     */
+    protected int cacheMaxMissingEntries = 1000;
+
+    /**
+     * The minimum size in bytes of web application files to serve directly
+     * from the file system, default value is 0 which disables file resources.
+     */
+    protected long fileResourceThreshold;
+
+    /** Indicates if fingerprinted resource paths are used, default is true. */
+    protected boolean fingerprintEnabled = true;
+
+    /** The resource content fingerprints keyed on resource path. */
+    protected Map<String, String> fingerprints = new ConcurrentHashMap<String, String>();
+
+    /** The resource paths keyed on fingerprinted resource path. */
+    protected Map<String, String> fingerprintedPaths = new ConcurrentHashMap<String, String>();
+
+    /** The ResourceCacheStats class name, default is DefaultResourceCacheStats. */
+    protected String cacheStatsClassname = DefaultResourceCacheStats.class.getName();
+
+    /**
+     * The time the service was initialized, used as the Last-Modified date
+     * of resources which do not provide a modification date.
+     */
+    protected long startupTime = System.currentTimeMillis();
+
+    /** Indicates if resources are compressed when cached, default is true. */
+    protected boolean compressionEnabled = true;
+
+    /**
+     * The minimum resource size in bytes to compress, default value is 1024.
+     */
+    protected int compressionThreshold = 1024;
 
     /** The application log service. */
     protected LogService logService;
@@ -64,13 +229,26 @@ public class BasicResourceService implements ResourceService {
 
         configService = ClickUtils.getConfigService(servletContext);
         logService = configService.getLogService();
+
+        // HTTP dates have a one second resolution
+        startupTime = (System.currentTimeMillis() / 1000) * 1000;
+
+        resourceCache = new ResourceCache(getCacheMaxSize(),
+            getCacheMaxMissingEntries(), createCacheStats());
     }
 
     /**
      * @see ResourceService#onDestroy()
      */
     public void onDestroy() {
-        resourceCache.clear();
+        if (resourceCache != null) {
+            if (logService != null && logService.isDebugEnabled()) {
+                logService.debug("resource cache: " + resourceCache.getStats());
+            }
+            resourceCache.clear();
+        }
+        fingerprints.clear();
+        fingerprintedPaths.clear();
     }
 
     /**
@@ -99,13 +277,30 @@ public class BasicResourceService implements ResourceService {
 
         String resourcePath = ClickUtils.getResourcePath(request);
 
-        byte[] resourceData = resourceCache.get(resourcePath);
+        String realPath = resolveFingerprintedPath(resourcePath);
+        if (realPath != null) {
+            // Only a current fingerprint is guaranteed to never change
+            if (isCurrentFingerprint(resourcePath)) {
+                response.setHeader("Cache-Control", FINGERPRINT_CACHE_CONTROL);
+            }
+            resourcePath = realPath;
+        }
+
+        CachedResource resource = resourceCache.get(resourcePath);
+
+        if (resource == null) {
+            if (resourceCache.isMissing(resourcePath)) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
 
-        if (resourceData == null) {
             // Lazily load resource
-            resourceData = loadResourceData(resourcePath);
+            resource = loadResource(resourcePath);
 
-            if (resourceData == null) {
+            if (resource == null) {
+                if (isCacheable()) {
+                    resourceCache.putMissing(resourcePath);
+                }
                 response.sendError(HttpServletResponse.SC_NOT_FOUND);
                 return;
             }
@@ -116,6 +311,16 @@ public class BasicResourceService implements ResourceService {
             response.setContentType(mimeType);
         }
 
+        String contentEncoding = null;
+        if (!resource.getEncodings().isEmpty()) {
+            contentEncoding = selectEncoding(request, resource.getEncodings());
+            response.setHeader("Vary", "Accept-Encoding");
+        }
+
+        String etag = resource.getETag(contentEncoding);
+        response.setHeader("ETag", etag);
+        response.setDateHeader("Last-Modified", resource.getLastModified());
+
         if (logService.isDebugEnabled()) {
             HtmlStringBuffer buffer = new HtmlStringBuffer(200);
             buffer.append("handleRequest: ");
@@ -124,11 +329,506 @@ public class BasicResourceService implements ResourceService {
             buffer.append(request.getRequestURL());
             logService.debug(buffer);
         }
-        renderResource(response, resourceData);
+
+        if (isNotModified(request, etag, resource.getLastModified())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        if (contentEncoding != null) {
+            response.setHeader("Content-Encoding", contentEncoding);
+        }
+
+        if (resource.getFile() != null) {
+            renderFileResource(request, response, resource);
+        } else {
+            renderResource(response, resource.getData(contentEncoding));
+        }
+    }
+
+    /**
+     * Return the resource cache.
+     *
+     * @return the resource cache
+     */
+    public ResourceCache getResourceCache() {
+        return resourceCache;
+    }
+
+    /**
+     * Return the maximum size in bytes of the resource cache.
+     *
+     * @return the maximum size in bytes of the resource cache
+     */
+    public long getCacheMaxSize() {
+        return cacheMaxSize;
+    }
+
+    /**
+     * Set the maximum size in bytes of the resource cache. A value of zero
+     * or less disables the limit.
+     *
+     * @param cacheMaxSize the maximum size in bytes of the resource cache
+     */
+    public void setCacheMaxSize(long cacheMaxSize) {
+        this.cacheMaxSize = cacheMaxSize;
+    }
+
+    /**
+     * Return the maximum number of missing resource paths to cache.
+     *
+     * @return the maximum number of missing resource paths to cache
+     */
+    public int getCacheMaxMissingEntries() {
+        return cacheMaxMissingEntries;
+    }
+
+    /**
+     * Set the maximum number of missing resource paths to cache. A value of
+     * zero disables caching of missing resource paths.
+     *
+     * @param cacheMaxMissingEntries the maximum number of missing resource
+     * paths to cache
+     */
+    public void setCacheMaxMissingEntries(int cacheMaxMissingEntries) {
+        this.cacheMaxMissingEntries = cacheMaxMissingEntries;
+    }
+
+    /**
+     * Return the content fingerprint of the resource with the given path, or
+     * null if fingerprints are disabled or the resource cannot be found.
+     * <p/>
+     * The fingerprint is computed from the resource content the first time
+     * it is requested and is then cached. Fingerprints are only available in
+     * production and profile modes.
+     *
+     * @param resourcePath the resource path, e.g. /click/control.js
+     * @return the resource content fingerprint, or null
+     */
+    public String getFingerprint(String resourcePath) {
+        if (!isFingerprintEnabled() || !isCacheable() || resourcePath == null) {
+            return null;
+        }
+
+        String fingerprint = fingerprints.get(resourcePath);
+        if (fingerprint != null) {
+            return fingerprint;
+        }
+
+        try {
+            CachedResource resource = resourceCache.get(resourcePath);
+            if (resource == null && !resourceCache.isMissing(resourcePath)) {
+                resource = loadResource(resourcePath);
+            }
+            if (resource == null) {
+                return null;
+            }
+
+            fingerprint = resource.getFingerprint();
+            fingerprints.put(resourcePath, fingerprint);
+            return fingerprint;
+
+        } catch (IOException e) {
+            logService.warn("could not fingerprint resource: " + resourcePath, e);
+            return null;
+        }
+    }
+
+    /**
+     * Return the fingerprinted path of the resource with the given path, or
+     * null if the resource has no fingerprint. The fingerprint is inserted
+     * before the resource extension, for example <tt>/click/control.js</tt>
+     * becomes <tt>/click/control_3f2a9c0b41de.js</tt>.
+     *
+     * @param resourcePath the resource path, e.g. /click/control.js
+     * @return the fingerprinted resource path, or null
+     */
+    public String getFingerprintedPath(String resourcePath) {
+        if (resourcePath == null) {
+            return null;
+        }
+
+        int extensionIndex = resourcePath.lastIndexOf('.');
+        if (extensionIndex <= resourcePath.lastIndexOf('/')) {
+            return null;
+        }
+
+        String fingerprint = getFingerprint(resourcePath);
+        if (fingerprint == null) {
+            return null;
+        }
+
+        HtmlStringBuffer buffer = new HtmlStringBuffer(resourcePath.length()
+            + FINGERPRINT_LENGTH + 1);
+        buffer.append(resourcePath.substring(0, extensionIndex));
+        buffer.append(ClickUtils.VERSION_INDICATOR_SEP);
+        buffer.append(fingerprint);
+        buffer.append(resourcePath.substring(extensionIndex));
+
+        String fingerprintedPath = buffer.toString();
+        fingerprintedPaths.put(fingerprintedPath, resourcePath);
+
+        return fingerprintedPath;
+    }
+
+    /**
+     * Return the real resource path of the given fingerprinted resource path,
+     * or null if the given path is not a fingerprinted path of an existing
+     * resource.
+     * <p/>
+     * Fingerprints of resources which have since changed, for example
+     * requested by pages rendered before a redeploy, are resolved to the
+     * current resource.
+     *
+     * @param path the requested path, e.g. /click/control_3f2a9c0b41de.js
+     * @return the real resource path, or null
+     */
+    public String resolveFingerprintedPath(String path) {
+        if (!isFingerprintEnabled() || !isCacheable() || path == null) {
+            return null;
+        }
+
+        String realPath = fingerprintedPaths.get(path);
+        if (realPath != null) {
+            return realPath;
+        }
+
+        Matcher matcher = FINGERPRINTED_PATH_PATTERN.matcher(path);
+        if (!matcher.matches()) {
+            return null;
+        }
+
+        String candidatePath = matcher.group(1) + matcher.group(3);
+        String fingerprint = getFingerprint(candidatePath);
+        if (fingerprint == null) {
+            return null;
+        }
+
+        if (fingerprint.equals(matcher.group(2))) {
+            fingerprintedPaths.put(path, candidatePath);
+        }
+        return candidatePath;
+    }
+
+    /**
+     * Return true if the given path is a fingerprinted path of the current
+     * content of an existing resource. The content of a current fingerprinted
+     * path never changes, so it can be cached forever.
+     * <p/>
+     * Stale fingerprints, for example requested from another node during a
+     * rolling deploy, are resolved to the current resource by
+     * {@link #resolveFingerprintedPath(String)}, but are not current.
+     *
+     * @param path the requested path, e.g. /click/control_3f2a9c0b41de.js
+     * @return true if the path is a current fingerprinted resource path
+     */
+    public boolean isCurrentFingerprint(String path) {
+        return resolveFingerprintedPath(path) != null
+            && fingerprintedPaths.containsKey(path);
+    }
+
+    /**
+     * Return true if fingerprinted resource paths are used.
+     *
+     * @return true if fingerprinted resource paths are used
+     */
+    public boolean isFingerprintEnabled() {
+        return fingerprintEnabled;
+    }
+
+    /**
+     * Set whether fingerprinted resource paths are used.
+     *
+     * @param fingerprintEnabled true to use fingerprinted resource paths
+     */
+    public void setFingerprintEnabled(boolean fingerprintEnabled) {
+        this.fingerprintEnabled = fingerprintEnabled;
+    }
+
+    /**
+     * Return the minimum size in bytes of web application files to serve
+     * directly from the file system.
+     *
+     * @return the minimum size in bytes of file resources
+     */
+    public long getFileResourceThreshold() {
+        return fileResourceThreshold;
+    }
+
+    /**
+     * Set the minimum size in bytes of web application files to serve
+     * directly from the file system. A value of zero or less disables file
+     * resources, which is the default.
+     *
+     * @param fileResourceThreshold the minimum size in bytes of file resources
+     */
+    public void setFileResourceThreshold(long fileResourceThreshold) {
+        this.fileResourceThreshold = fileResourceThreshold;
+    }
+
+    /**
+     * Return the ResourceCacheStats class name.
+     *
+     * @return the ResourceCacheStats class name
+     */
+    public String getCacheStatsClassname() {
+        return cacheStatsClassname;
+    }
+
+    /**
+     * Set the ResourceCacheStats class name.
+     *
+     * @param cacheStatsClassname the ResourceCacheStats class name
+     */
+    public void setCacheStatsClassname(String cacheStatsClassname) {
+        this.cacheStatsClassname = cacheStatsClassname;
+    }
+
+    /**
+     * Return true if resources are compressed when cached.
+     *
+     * @return true if resources are compressed when cached
+     */
+    public boolean isCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    /**
+     * Set whether resources are compressed when cached.
+     *
+     * @param compressionEnabled true to compress resources when cached
+     */
+    public void setCompressionEnabled(boolean compressionEnabled) {
+        this.compressionEnabled = compressionEnabled;
+    }
+
+    /**
+     * Return the minimum resource size in bytes to compress.
+     *
+     * @return the minimum resource size in bytes to compress
+     */
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    /**
+     * Set the minimum resource size in bytes to compress.
+     *
+     * @param compressionThreshold the minimum resource size in bytes to
+     * compress
+     */
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
     }
 
     // ------------------------------------------------------ Protected Methods
 
+    /**
+     * Return true if the browser's cached copy of the given resource is still
+     * valid, false otherwise.
+     * <p>
+     * If the request contains an <tt>If-None-Match</tt> header its entity tags
+     * are compared against the resource ETag, and the
+     * <tt>If-Modified-Since</tt> header is ignored as specified by RFC 7232.
+     * Otherwise the <tt>If-Modified-Since</tt> date is compared against the
+     * resource Last-Modified date.
+     *
+     * @param request the servlet resource request
+     * @param etag the ETag of the resource variant to render
+     * @param lastModified the resource last modified time in milliseconds
+     * @return true if a 304 Not Modified response should be returned
+     */
+    protected boolean isNotModified(HttpServletRequest request, String etag,
+        long lastModified) {
+
+        String method = request.getMethod();
+        if (method != null && !"GET".equals(method) && !"HEAD".equals(method)) {
+            return false;
+        }
+
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            return matchesETag(ifNoneMatch, etag);
+        }
+
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader("If-Modified-Since");
+        } catch (IllegalArgumentException e) {
+            // Ignore invalid dates, the full resource will be rendered
+            return false;
+        }
+
+        return ifModifiedSince != -1
+            && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    /**
+     * Compute and register the content fingerprint of the resource with the
+     * given path, without caching the resource content. The resource is read
+     * from the servlet context, and if not found from the classpath under the
+     * folder 'META-INF/resources', matching the resource which is rendered.
+     * <p/>
+     * This method is invoked by {@link ClickResourceService} for every
+     * resource it deploys.
+     *
+     * @param resourcePath the resource path, e.g. /click/control.js
+     * @throws IOException if the resource cannot be read
+     */
+    protected void registerFingerprint(String resourcePath) throws IOException {
+        if (!isFingerprintEnabled() || !isCacheable()) {
+            return;
+        }
+
+        InputStream inputStream = configService.getServletContext()
+            .getResourceAsStream(resourcePath);
+
+        if (inputStream == null) {
+            ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+            inputStream = classLoader.getResourceAsStream("META-INF/resources" + resourcePath);
+        }
+
+        if (inputStream == null) {
+            return;
+        }
+
+        try {
+            String fingerprint = DigestUtils.md5Hex(inputStream)
+                .substring(0, FINGERPRINT_LENGTH);
+            fingerprints.put(resourcePath, fingerprint);
+
+        } finally {
+            ClickUtils.close(inputStream);
+        }
+    }
+
+    /**
+     * Return a new ResourceCacheStats instance for the configured
+     * {@link #getCacheStatsClassname() cache stats class name}.
+     *
+     * @return a new ResourceCacheStats instance
+     * @throws IOException if the ResourceCacheStats cannot be created
+     */
+    protected ResourceCacheStats createCacheStats() throws IOException {
+        if (StringUtils.isBlank(getCacheStatsClassname())) {
+            return new DefaultResourceCacheStats();
+        }
+
+        try {
+            Class<? extends ResourceCacheStats> statsClass =
+                ClickUtils.classForName(getCacheStatsClassname(), ResourceCacheStats.class);
+
+            return statsClass.getDeclaredConstructor().newInstance();
+
+        } catch (Exception e) {
+            throw new IOException("Could not create ResourceCacheStats: "
+                + getCacheStatsClassname(), e);
+        }
+    }
+
+    /**
+     * Add the encoded variants of the given resource. This method is invoked
+     * once when a resource is loaded in production and profile modes, and the
+     * variants are cached together with the resource.
+     * <p/>
+     * By default a GZIP variant is added to compressible resources larger than
+     * the compression threshold. Subclasses can override this method to add
+     * other encodings, for example <tt>br</tt>, using
+     * {@link CachedResource#addEncoding(String, byte[])}. Encodings are
+     * preferred in the order they are added.
+     *
+     * @param resourcePath the path of the resource
+     * @param resource the resource to encode
+     * @throws IOException if the resource cannot be encoded
+     */
+    protected void encodeResource(String resourcePath, CachedResource resource)
+        throws IOException {
+
+        byte[] data = resource.getData();
+        if (data == null
+            || data.length < getCompressionThreshold()
+            || !isCompressible(resourcePath)) {
+            return;
+        }
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(data.length / 2);
+        GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream);
+        try {
+            gzipStream.write(data);
+        } finally {
+            gzipStream.close();
+        }
+
+        // Only keep the compressed variant if it is smaller
+        if (outputStream.size() < data.length) {
+            resource.addEncoding("gzip", outputStream.toByteArray());
+        }
+    }
+
+    /**
+     * Return true if the resource with the given path benefits from
+     * compression. By default textual resources are compressible, while
+     * images, fonts and archives which are already compressed are not.
+     *
+     * @param resourcePath the path of the resource
+     * @return true if the resource should be compressed
+     */
+    protected boolean isCompressible(String resourcePath) {
+        String mimeType = ClickUtils.getMimeType(resourcePath);
+        if (mimeType == null) {
+            return false;
+        }
+
+        return mimeType.startsWith("text/")
+            || mimeType.contains("javascript")
+            || mimeType.contains("json")
+            || mimeType.contains("xml");
+    }
+
+    /**
+     * Return the content encoding to render for the given request, selected
+     * from the given available encodings in order of preference, or null if
+     * the request does not accept any of the encodings.
+     *
+     * @param request the servlet resource request
+     * @param encodings the available encodings in order of preference
+     * @return the content encoding to render, or null to render the raw data
+     */
+    protected String selectEncoding(HttpServletRequest request,
+        Set<String> encodings) {
+
+        Map<String, Boolean> accepted = new LinkedHashMap<String, Boolean>();
+
+        Enumeration<String> headers = request.getHeaders("Accept-Encoding");
+        while (headers != null && headers.hasMoreElements()) {
+            for (String coding : StringUtils.split(headers.nextElement(), ',')) {
+                String name = coding.trim();
+                boolean acceptable = true;
+
+                int index = name.indexOf(';');
+                if (index != -1) {
+                    String params = name.substring(index + 1).replace(" ", "");
+                    name = name.substring(0, index).trim();
+                    acceptable = !params.matches("(?i)q=0(\\.0*)?");
+                }
+
+                accepted.put(name.toLowerCase(), acceptable);
+            }
+        }
+
+        for (String encoding : encodings) {
+            Boolean acceptable = accepted.get(encoding);
+            if (acceptable == null) {
+                acceptable = accepted.get("*");
+            }
+            if (acceptable != null && acceptable) {
+                return encoding;
+            }
+        }
+
+        return null;
+    }
+
     /**
      * Return the list of directories that contains cacheable resources.
      * <p>
@@ -198,43 +898,166 @@ public class BasicResourceService implements ResourceService {
      * Store the resource under the given resource path.
      *
      * @param resourcePath the path to store the resource under
-     * @param data the resource byte array
+     * @param resource the resource to store
      */
-    private void storeResourceData(String resourcePath, byte[] data) {
+    private void storeResource(String resourcePath, CachedResource resource) {
         // Only cache in production modes
-        if (configService.isProductionMode() || configService.isProfileMode()) {
-            resourceCache.put(resourcePath, data);
+        if (isCacheable()) {
+            resourceCache.put(resourcePath, resource);
         }
     }
 
+    /**
+     * Return true if resources are cached, which is only the case in
+     * production and profile modes.
+     *
+     * @return true if resources are cached
+     */
+    private boolean isCacheable() {
+        return configService.isProductionMode() || configService.isProfileMode();
+    }
+
     /**
      * Load the resource for the given resourcePath. This method will load the
      * resource from the servlet context, and if not found, load it from the
      * classpath under the folder 'META-INF/resources'.
      *
      * @param resourcePath the path to the resource to load
-     * @return the resource as a byte array
+     * @return the loaded resource or null if the resource was not found
      * @throws IOException if the resources cannot be loaded
      */
-    private byte[] loadResourceData(String resourcePath) throws IOException {
-
-        byte[] resourceData = null;
+    private CachedResource loadResource(String resourcePath) throws IOException {
 
         ServletContext servletContext = configService.getServletContext();
 
-        resourceData = getServletResourceData(servletContext, resourcePath);
+        CachedResource fileResource = loadFileResource(servletContext, resourcePath);
+        if (fileResource != null) {
+            storeResource(resourcePath, fileResource);
+            return fileResource;
+        }
+
+        URL resourceUrl = null;
+        byte[] resourceData = getServletResourceData(servletContext, resourcePath);
+
         if (resourceData != null) {
-            storeResourceData(resourcePath, resourceData);
+            resourceUrl = servletContext.getResource(resourcePath);
+
         } else {
-            resourceData = getClasspathResourceData("META-INF/resources"
-                + resourcePath);
+            String classpathPath = "META-INF/resources" + resourcePath;
+            resourceData = getClasspathResourceData(classpathPath);
 
             if (resourceData != null) {
-                storeResourceData(resourcePath, resourceData);
+                ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+                resourceUrl = classLoader.getResource(classpathPath);
+            }
+        }
+
+        if (resourceData == null) {
+            return null;
+        }
+
+        CachedResource resource =
+            new CachedResource(resourceData, getLastModified(resourceUrl));
+
+        // Encode once when cached, rather than compressing on every request
+        if (isCompressionEnabled() && isCacheable()) {
+            encodeResource(resourcePath, resource);
+        }
+
+        storeResource(resourcePath, resource);
+
+        return resource;
+    }
+
+    /**
+     * Return a file backed resource for the given resourcePath if the resource
+     * is a web application file at least as large as the file resource
+     * threshold, otherwise return null.
+     *
+     * @param servletContext the application servlet context
+     * @param resourcePath the path to the resource to load
+     * @return the file backed resource or null
+     */
+    private CachedResource loadFileResource(ServletContext servletContext,
+        String resourcePath) {
+
+        if (getFileResourceThreshold() <= 0) {
+            return null;
+        }
+
+        String realPath = servletContext.getRealPath(resourcePath);
+        if (realPath == null) {
+            return null;
+        }
+
+        File file = new File(realPath);
+        if (!file.isFile() || file.length() < getFileResourceThreshold()) {
+            return null;
+        }
+
+        long lastModified = file.lastModified();
+        if (lastModified <= 0) {
+            lastModified = startupTime;
+        }
+
+        return new CachedResource(file, (lastModified / 1000) * 1000);
+    }
+
+    /**
+     * Return the last modified time of the given resource URL, or the service
+     * startup time if the modification time cannot be determined.
+     *
+     * @param resourceUrl the resource URL, can be null
+     * @return the last modified time in milliseconds, rounded down to seconds
+     */
+    private long getLastModified(URL resourceUrl) {
+        long lastModified = 0;
+
+        if (resourceUrl != null) {
+            try {
+                URLConnection connection = resourceUrl.openConnection();
+                connection.setUseCaches(false);
+                lastModified = connection.getLastModified();
+                ClickUtils.close(connection.getInputStream());
+
+            } catch (IOException e) {
+                // Fallback to the startup time
+                lastModified = 0;
             }
         }
 
-        return resourceData;
+        if (lastModified <= 0) {
+            return startupTime;
+        }
+
+        return (lastModified / 1000) * 1000;
+    }
+
+    /**
+     * Return true if the given If-None-Match header value contains an entity
+     * tag matching the given ETag. Weak comparison is used as specified by
+     * RFC 7232 for If-None-Match.
+     *
+     * @param ifNoneMatch the If-None-Match header value
+     * @param etag the resource ETag
+     * @return true if the header matches the ETag
+     */
+    private boolean matchesETag(String ifNoneMatch, String etag) {
+        if ("*".equals(ifNoneMatch.trim())) {
+            return true;
+        }
+
+        for (String tag : StringUtils.split(ifNoneMatch, ',')) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+
+        return false;
     }
 
     /**
@@ -314,4 +1137,304 @@ public class BasicResourceService implements ResourceService {
             ClickUtils.close(outputStream);
         }
     }
+
+    /**
+     * Render the given file backed resource to the response without loading
+     * the file onto the heap.
+     *
+     * @param request the servlet resource request
+     * @param response the response object
+     * @param resource the file backed resource
+     * @throws IOException if the resource could not be rendered
+     */
+    private void renderFileResource(HttpServletRequest request,
+        HttpServletResponse response, CachedResource resource) throws IOException {
+
+        File file = resource.getFile();
+        long length = resource.getLength();
+
+        response.setContentLengthLong(length);
+
+        // Let the container send the file with zero copy if supported
+        if (Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
+            request.setAttribute("org.apache.tomcat.sendfile.filename", file.getAbsolutePath());
+            request.setAttribute("org.apache.tomcat.sendfile.start", Long.valueOf(0));
+            request.setAttribute("org.apache.tomcat.sendfile.end", Long.valueOf(length));
+            return;
+        }
+
+        OutputStream outputStream = null;
+        try {
+            outputStream = response.getOutputStream();
+            WritableByteChannel outputChannel = Channels.newChannel(outputStream);
+
+            ByteBuffer buffer = null;
+            if (isCacheable()) {
+                buffer = resource.getMappedBuffer();
+            }
+
+            if (buffer != null) {
+                while (buffer.hasRemaining()) {
+                    outputChannel.write(buffer);
+                }
+
+            } else {
+                FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+                try {
+                    long position = 0;
+                    while (position < length) {
+                        long count = fileChannel.transferTo(position, length - position, outputChannel);
+                        if (count <= 0) {
+                            break;
+                        }
+                        position += count;
+                    }
+                } finally {
+                    fileChannel.close();
+                }
+            }
+
+            outputStream.flush();
+
+        } finally {
+            ClickUtils.close(outputStream);
+        }
+    }
+
+    // Inner Classes ----------------------------------------------------------
+
+    /**
+     * Provides a loaded resource together with its validators and encoded
+     * variants. The ETag is computed once from the resource content when the
+     * resource is created, and each encoded variant has its own strong ETag.
+     * <p/>
+     * Encoded variants must be added before the resource is cached, after
+     * which the resource is treated as immutable.
+     * <p/>
+     * A resource may alternatively be backed by a web application file, in
+     * which case {@link #getData()} returns null and the content is read from
+     * {@link #getFile()}.
+     */
+    public static class CachedResource {
+
+        /** The resource content, or null for a file backed resource. */
+        private final byte[] data;
+
+        /** The resource file, or null for an in memory resource. */
+        private final File file;
+
+        /** The resource content length in bytes. */
+        private final long length;
+
+        /** The lazily mapped file content of a file backed resource. */
+        private volatile ByteBuffer mappedBuffer;
+
+        /** The strong entity tag of the resource content. */
+        private final String etag;
+
+        /** The resource last modified time in milliseconds. */
+        private final long lastModified;
+
+        /** The encoded variants of the content keyed on content encoding. */
+        private final Map<String, byte[]> encodedData = new LinkedHashMap<String, byte[]>();
+
+        /** The ETags of the encoded variants keyed on content encoding. */
+        private final Map<String, String> encodedETags = new LinkedHashMap<String, String>();
+
+        /**
+         * Create a cached resource for the given content and modification
+         * time.
+         *
+         * @param data the resource content
+         * @param lastModified the resource last modified time in milliseconds
+         */
+        public CachedResource(byte[] data, long lastModified) {
+            this.data = data;
+            this.file = null;
+            this.length = data.length;
+            this.etag = "\"" + DigestUtils.md5Hex(data) + "\"";
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * Create a file backed resource for the given file and modification
+         * time. The ETag is derived from the file length and modification
+         * time so the file content is not read.
+         *
+         * @param file the resource file
+         * @param lastModified the resource last modified time in milliseconds
+         */
+        public CachedResource(File file, long lastModified) {
+            this.data = null;
+            this.file = file;
+            this.length = file.length();
+            this.etag = "\"" + Long.toHexString(length) + "-"
+                + Long.toHexString(lastModified) + "\"";
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * Return the resource fingerprint used in fingerprinted resource
+         * paths. For in memory resources the fingerprint is the start of the
+         * content MD5 hash, for file backed resources it is derived from the
+         * file length and modification time.
+         *
+         * @return the resource fingerprint
+         */
+        public String getFingerprint() {
+            if (data != null) {
+                return etag.substring(1, FINGERPRINT_LENGTH + 1);
+            }
+            return DigestUtils.md5Hex(etag).substring(0, FINGERPRINT_LENGTH);
+        }
+
+        /**
+         * Return the resource file, or null if the resource is held in memory.
+         *
+         * @return the resource file, or null if the resource is held in memory
+         */
+        public File getFile() {
+            return file;
+        }
+
+        /**
+         * Return the resource content length in bytes.
+         *
+         * @return the resource content length in bytes
+         */
+        public long getLength() {
+            return length;
+        }
+
+        /**
+         * Return a read only view of the memory-mapped content of a file
+         * backed resource, mapping the file on first access. Null is returned
+         * for in memory resources and files too large to be mapped.
+         *
+         * @return a view of the mapped file content, or null
+         * @throws IOException if the file cannot be mapped
+         */
+        public ByteBuffer getMappedBuffer() throws IOException {
+            if (file == null || length > Integer.MAX_VALUE) {
+                return null;
+            }
+
+            ByteBuffer buffer = mappedBuffer;
+            if (buffer == null) {
+                synchronized (this) {
+                    buffer = mappedBuffer;
+                    if (buffer == null) {
+                        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+                        try {
+                            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+                        } finally {
+                            channel.close();
+                        }
+                        mappedBuffer = buffer;
+                    }
+                }
+            }
+
+            // Each caller gets an independent position and limit
+            return buffer.duplicate();
+        }
+
+        /**
+         * Return the resource content.
+         *
+         * @return the resource content
+         */
+        public byte[] getData() {
+            return data;
+        }
+
+        /**
+         * Return the resource content for the given content encoding, or the
+         * raw content if the content encoding is null.
+         *
+         * @param contentEncoding the content encoding, or null for the raw
+         * content
+         * @return the resource content for the given content encoding
+         */
+        public byte[] getData(String contentEncoding) {
+            if (contentEncoding == null) {
+                return data;
+            }
+            return encodedData.get(contentEncoding);
+        }
+
+        /**
+         * Return the quoted strong entity tag of the resource content.
+         *
+         * @return the resource ETag
+         */
+        public String getETag() {
+            return etag;
+        }
+
+        /**
+         * Return the quoted strong entity tag of the resource content for the
+         * given content encoding, or the raw content ETag if the content
+         * encoding is null.
+         *
+         * @param contentEncoding the content encoding, or null for the raw
+         * content
+         * @return the resource ETag for the given content encoding
+         */
+        public String getETag(String contentEncoding) {
+            if (contentEncoding == null) {
+                return etag;
+            }
+            return encodedETags.get(contentEncoding);
+        }
+
+        /**
+         * Add an encoded variant of the resource content.
+         *
+         * @param contentEncoding the content encoding, e.g. "gzip"
+         * @param encoded the encoded resource content
+         */
+        public void addEncoding(String contentEncoding, byte[] encoded) {
+            encodedData.put(contentEncoding, encoded);
+            encodedETags.put(contentEncoding,
+                etag.substring(0, etag.length() - 1) + "-" + contentEncoding + "\"");
+        }
+
+        /**
+         * Return the total heap size in bytes of the resource content and its
+         * encoded variants. File backed resources are not held on the heap
+         * and have a size of zero.
+         *
+         * @return the total heap size in bytes of the resource
+         */
+        public long getSize() {
+            if (data == null) {
+                return 0;
+            }
+
+            long size = data.length;
+            for (byte[] encoded : encodedData.values()) {
+                size += encoded.length;
+            }
+            return size;
+        }
+
+        /**
+         * Return the available content encodings in order of preference.
+         *
+         * @return the available content encodings
+         */
+        public Set<String> getEncodings() {
+            return encodedData.keySet();
+        }
+
+        /**
+         * Return the resource last modified time in milliseconds.
+         *
+         * @return the resource last modified time
+         */
+        public long getLastModified() {
+            return lastModified;
+        }
+    }
 }
@@ -180,7 +180,9 @@ public class ClickResourceService extends BasicResourceService {
      * 'META-INF/resources/'. For backwards compatibility resources under the
      * directory 'META-INF/web/' are also deployed.
      * <p>
-     * Only jars and folders available on the classpath are scanned.
+     * Only jars and folders available on the classpath are scanned. The
+     * content fingerprint of each deployed resource is registered for
+     * fingerprinted resource paths.
      *
      * @throws IOException if the resources cannot be deployed
      */
@@ -215,8 +217,9 @@ public class ClickResourceService extends BasicResourceService {
      * @param file the file to deploy
      * @param prefix the file prefix that must be removed when the file is
      * deployed
+     * @throws IOException if the deployed file cannot be fingerprinted
      */
-    private void deployFile(String file, String prefix) {
+    private void deployFile(String file, String prefix) throws IOException {
         // Only deploy resources containing the prefix
         int pathIndex = file.indexOf(prefix);
         if (pathIndex == 0) {
@@ -238,6 +241,10 @@ public class ClickResourceService extends BasicResourceService {
             ClickUtils.deployFile(configService.getServletContext(),
                                   file,
                                   targetDir);
+
+            // Fingerprint the deployed resource, which may be a customized
+            // copy in the web folder
+            registerFingerprint(resourceName);
         }
     }
     
@@ -19,6 +19,7 @@
 package org.apache.click.service;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -312,6 +313,27 @@ public interface ConfigService {
      */
     public List<Class<? extends Page>> getPageClassList();
 
+    /**
+     * Return the list of configured page paths.
+     * <p>
+     * The default implementation returns the path of each configured page
+     * class, see {@link #getPageClassList()} and {@link #getPagePath(Class)}.
+     * Implementations mapping a page class to several paths should override
+     * this method to return all the page paths.
+     *
+     * @return the list of configured page paths
+     */
+    public default List<String> getPagePathList() {
+        List<String> pagePathList = new ArrayList<String>();
+        for (Class<? extends Page> pageClass : getPageClassList()) {
+            String path = getPagePath(pageClass);
+            if (path != null) {
+                pagePathList.add(path);
+            }
+        }
+        return pagePathList;
+    }
+
     /**
      * Return Map of bindable fields for the given page class.
      *
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.click.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Provides a default ResourceCacheStats which counts cache hits, misses and
+ * evictions.
+ */
+public class DefaultResourceCacheStats implements ResourceCacheStats {
+
+    /** The number of cache hits. */
+    private final AtomicLong hitCount = new AtomicLong();
+
+    /** The number of cache misses. */
+    private final AtomicLong missCount = new AtomicLong();
+
+    /** The number of cache evictions. */
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /** The number of bytes evicted from the cache. */
+    private final AtomicLong evictionSize = new AtomicLong();
+
+    /**
+     * @see ResourceCacheStats#recordHit(String)
+     *
+     * @param resourcePath the path of the requested resource
+     */
+    public void recordHit(String resourcePath) {
+        hitCount.incrementAndGet();
+    }
+
+    /**
+     * @see ResourceCacheStats#recordMiss(String)
+     *
+     * @param resourcePath the path of the requested resource
+     */
+    public void recordMiss(String resourcePath) {
+        missCount.incrementAndGet();
+    }
+
+    /**
+     * @see ResourceCacheStats#recordEviction(String, long)
+     *
+     * @param resourcePath the path of the evicted resource
+     * @param size the size in bytes of the evicted resource
+     */
+    public void recordEviction(String resourcePath, long size) {
+        evictionCount.incrementAndGet();
+        evictionSize.addAndGet(size);
+    }
+
+    /**
+     * Return the number of cache hits.
+     *
+     * @return the number of cache hits
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Return the number of cache misses.
+     *
+     * @return the number of cache misses
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Return the number of cache evictions.
+     *
+     * @return the number of cache evictions
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * Return the number of bytes evicted from the cache.
+     *
+     * @return the number of bytes evicted from the cache
+     */
+    public long getEvictionSize() {
+        return evictionSize.get();
+    }
+
+    /**
+     * Return a string representation of the cache statistics.
+     *
+     * @return a string representation of the cache statistics
+     */
+    @Override
+    public String toString() {
+        return "hits=" + getHitCount() + ", misses=" + getMissCount()
+            + ", evictions=" + getEvictionCount()
+            + ", evictedBytes=" + getEvictionSize();
+    }
+}
@@ -36,7 +36,7 @@ import org.mvel2.MVEL;
 public class MVELPropertyService implements PropertyService {
 
     // Expression cache with support for multiple classloader caching
-    private static final ClassLoaderCache<Map<String, Serializable>> EXPRESSION_CL_CACHE = new ClassLoaderCache<Map<String, Serializable>>();
+    private static final ClassLoaderCache<Map<String, Serializable>> EXPRESSION_CL_CACHE = new ClassLoaderCache<Map<String, Serializable>>("mvel-expression", 5000);
 
     // Public Methods --------------------------------------------------------
     /**
@@ -111,7 +111,7 @@ public class MVELPropertyService implements PropertyService {
     private static Map<String, Serializable> getExpressionCache() {
         Map<String, Serializable> expressionCache = EXPRESSION_CL_CACHE.get();
         if (expressionCache == null) {
-            expressionCache = new ConcurrentHashMap<String, Serializable>();
+            expressionCache = EXPRESSION_CL_CACHE.createMap();
             EXPRESSION_CL_CACHE.put(expressionCache);
         }
 
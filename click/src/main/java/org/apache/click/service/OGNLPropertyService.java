@@ -42,7 +42,7 @@ import org.apache.click.util.PropertyUtils;
 public class OGNLPropertyService implements PropertyService {
 
     // OGNL Expression cache with support for multiple classloader caching
-    private static final ClassLoaderCache<Map<String, Object>> EXPRESSION_CL_CACHE = new ClassLoaderCache<Map<String, Object>>();
+    private static final ClassLoaderCache<Map<String, Object>> EXPRESSION_CL_CACHE = new ClassLoaderCache<Map<String, Object>>("ognl-expression", 5000);
 
     // Protected Variables ---------------------------------------------------
     /**
@@ -221,7 +221,7 @@ public class OGNLPropertyService implements PropertyService {
     private static Map<String, Object> getExpressionCache() {
         Map<String, Object> expressionCache = EXPRESSION_CL_CACHE.get();
         if (expressionCache == null) {
-            expressionCache = new ConcurrentHashMap<String, Object>();
+            expressionCache = EXPRESSION_CL_CACHE.createMap();
             EXPRESSION_CL_CACHE.put(expressionCache);
         }
 
@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.click.service;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.servlet.ServletContext;
+import org.apache.click.servlet.MockServletContext;
+import org.apache.click.util.ClickUtils;
+import org.apache.click.util.HtmlStringBuffer;
+
+/**
+ * Provides a build time generator of the Click page mapping manifest.
+ * <p>
+ * At startup the {@link XmlConfigService} automaps pages by scanning the web
+ * application for templates and loading the matching page classes, probing
+ * several candidate class names for each template. For applications with
+ * many templates this can take a significant part of the startup time.
+ * <p>
+ * This builder maps the pages of an exploded web application at build time,
+ * exactly as the XmlConfigService would at startup, and writes the mapped
+ * page paths and class names to the manifest
+ * <code>WEB-INF/click-pages.properties</code>. In <tt>production</tt> and
+ * <tt>profile</tt> modes the XmlConfigService loads the manifest instead of
+ * scanning the templates, when the manifest is available.
+ * <p>
+ * The builder is run with the exploded web application directory and the
+ * application classes on the classpath, for example with the Maven
+ * <tt>exec-maven-plugin</tt> after the web application is exploded:
+ *
+ * <pre class="prettyprint">
+ * &lt;plugin&gt;
+ *   &lt;groupId&gt;org.codehaus.mojo&lt;/groupId&gt;
+ *   &lt;artifactId&gt;exec-maven-plugin&lt;/artifactId&gt;
+ *   &lt;executions&gt;
+ *     &lt;execution&gt;
+ *       &lt;phase&gt;prepare-package&lt;/phase&gt;
+ *       &lt;goals&gt;&lt;goal&gt;java&lt;/goal&gt;&lt;/goals&gt;
+ *       &lt;configuration&gt;
+ *         &lt;mainClass&gt;org.apache.click.service.PageManifestBuilder&lt;/mainClass&gt;
+ *         &lt;arguments&gt;
+ *           &lt;argument&gt;${project.build.directory}/${project.build.finalName}&lt;/argument&gt;
+ *         &lt;/arguments&gt;
+ *       &lt;/configuration&gt;
+ *     &lt;/execution&gt;
+ *   &lt;/executions&gt;
+ * &lt;/plugin&gt; </pre>
+ *
+ * <b>Please note</b> the manifest must be regenerated whenever templates or
+ * page classes are added, renamed or removed, as a page missing from the
+ * manifest is not mapped. The manifest should therefore be generated into
+ * the build output, and not into the web application sources.
+ */
+public class PageManifestBuilder {
+
+    // Public Methods ---------------------------------------------------------
+
+    /**
+     * Build the page mapping manifest of the given exploded web application
+     * directory, and write it to the <code>WEB-INF/click-pages.properties</code>
+     * file of the web application, or to the given manifest file.
+     * <p>
+     * Usage: <tt>PageManifestBuilder webappDirectory [manifestFile]</tt>
+     *
+     * @param args the web application directory and optional manifest file
+     * @throws Exception if the pages could not be mapped or the manifest
+     * could not be written
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("usage: PageManifestBuilder webappDirectory [manifestFile]");
+            System.exit(1);
+        }
+
+        File webappDir = new File(args[0]);
+        File manifestFile = new File(webappDir, XmlConfigService.PAGE_MANIFEST_PATH.substring(1));
+        if (args.length > 1) {
+            manifestFile = new File(args[1]);
+        }
+
+        MockServletContext servletContext = new MockServletContext();
+        servletContext.setWebappPath(webappDir.getAbsolutePath());
+
+        Map<String, String> pageManifest = buildPageManifest(servletContext);
+        writePageManifest(pageManifest, manifestFile);
+
+        System.out.println("wrote " + pageManifest.size() + " pages to "
+            + manifestFile.getAbsolutePath());
+    }
+
+    /**
+     * Return the page class names keyed on page path of the given web
+     * application, mapped by the XmlConfigService without loading an existing
+     * manifest.
+     *
+     * @param servletContext the web application servlet context
+     * @return the sorted map of page class names keyed on page path
+     * @throws Exception if the pages could not be mapped
+     */
+    public static Map<String, String> buildPageManifest(ServletContext servletContext)
+        throws Exception {
+
+        XmlConfigService configService = new XmlConfigService();
+        configService.usePageManifest = false;
+
+        servletContext.setAttribute(ConfigService.CONTEXT_NAME, configService);
+        try {
+            configService.onInit(servletContext);
+
+            Map<String, String> pageManifest = new TreeMap<String, String>();
+            for (XmlConfigService.PageElm page : configService.pageByPathMap.values()) {
+                pageManifest.put(page.getPath(), page.getPageClass().getName());
+            }
+            return pageManifest;
+
+        } finally {
+            configService.onDestroy();
+            servletContext.removeAttribute(ConfigService.CONTEXT_NAME);
+        }
+    }
+
+    /**
+     * Write the given page class names keyed on page path to the given
+     * manifest file, in properties file format and sorted on path.
+     *
+     * @param pageManifest the page class names keyed on page path
+     * @param manifestFile the manifest file to write
+     * @throws IOException if the manifest could not be written
+     */
+    public static void writePageManifest(Map<String, String> pageManifest,
+        File manifestFile) throws IOException {
+
+        File dir = manifestFile.getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            throw new IOException("could not create directory: " + dir);
+        }
+
+        Writer writer = new OutputStreamWriter(new FileOutputStream(manifestFile), "ISO-8859-1");
+        try {
+            writer.write("# Click page mapping manifest, generated by PageManifestBuilder\n");
+
+            for (Map.Entry<String, String> entry : new TreeMap<String, String>(pageManifest).entrySet()) {
+                HtmlStringBuffer buffer = new HtmlStringBuffer(80);
+                appendEscaped(buffer, entry.getKey());
+                buffer.append('=');
+                appendEscaped(buffer, entry.getValue());
+                buffer.append('\n');
+                writer.write(buffer.toString());
+            }
+
+        } finally {
+            ClickUtils.close(writer);
+        }
+    }
+
+    // Private Methods --------------------------------------------------------
+
+    /**
+     * Append the given value to the buffer, escaped for the properties file
+     * format.
+     *
+     * @param buffer the buffer to append to
+     * @param value the value to escape
+     */
+    private static void appendEscaped(HtmlStringBuffer buffer, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '=' || c == ':' || c == ' ' || c == '#' || c == '!') {
+                buffer.append('\\').append(c);
+
+            } else if (c < 0x20 || c > 0x7e) {
+                buffer.append(String.format("\\u%04x", (int) c));
+
+            } else {
+                buffer.append(c);
+            }
+        }
+    }
+}
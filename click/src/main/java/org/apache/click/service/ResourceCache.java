@@ -0,0 +1,337 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.click.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.click.service.BasicResourceService.CachedResource;
+
+/**
+ * Provides a size bounded cache of {@link CachedResource} instances keyed on
+ * resource path, used by {@link BasicResourceService}.
+ * <p/>
+ * The cache holds at most {@link #getMaxSize() maxSize} bytes of resource
+ * data, including the encoded variants of each resource. When the limit is
+ * exceeded the least recently used resources are evicted, until the cache is
+ * down to 90% of the maximum size. Lookups do not lock, the recency of each
+ * entry is recorded with a logical clock and the eviction pass is performed
+ * under a lock only when the cache is full. Evicting below the maximum size
+ * leaves room for new resources, so the eviction pass does not run on every
+ * put once the cache is full.
+ * <p/>
+ * Paths which could not be found are cached separately, up to
+ * {@link #getMaxMissingEntries() maxMissingEntries} paths, so that repeated
+ * requests for missing resources do not probe the servlet context and
+ * classpath again.
+ * <p/>
+ * Cache hits, misses and evictions are recorded through the configured
+ * {@link ResourceCacheStats}.
+ */
+public class ResourceCache {
+
+    // -------------------------------------------------------------- Variables
+
+    /** The cache entries keyed on resource path. */
+    private final Map<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+    /** The resource paths which could not be found. */
+    private final Map<String, Boolean> missingPaths = new ConcurrentHashMap<String, Boolean>();
+
+    /** The total size in bytes of the cached resources. */
+    private final AtomicLong size = new AtomicLong();
+
+    /** The logical clock used to record entry access order. */
+    private final AtomicLong clock = new AtomicLong();
+
+    /** The maximum size in bytes of the cached resources. */
+    private final long maxSize;
+
+    /** The size in bytes the cache is evicted down to when full. */
+    private final long lowWaterSize;
+
+    /** The maximum number of missing resource paths to cache. */
+    private final int maxMissingEntries;
+
+    /** The cache statistics. */
+    private final ResourceCacheStats stats;
+
+    // ----------------------------------------------------------- Constructors
+
+    /**
+     * Create a resource cache with the given limits and statistics.
+     *
+     * @param maxSize the maximum size in bytes of the cached resources, or
+     * zero for no limit
+     * @param maxMissingEntries the maximum number of missing resource paths to
+     * cache, or zero to disable caching missing paths
+     * @param stats the cache statistics
+     */
+    public ResourceCache(long maxSize, int maxMissingEntries,
+        ResourceCacheStats stats) {
+
+        if (stats == null) {
+            throw new IllegalArgumentException("Null stats parameter");
+        }
+        this.maxSize = maxSize;
+        this.lowWaterSize = maxSize - maxSize / 10;
+        this.maxMissingEntries = maxMissingEntries;
+        this.stats = stats;
+    }
+
+    // --------------------------------------------------------- Public Methods
+
+    /**
+     * Return the cached resource for the given path, or null if the resource
+     * is not cached.
+     *
+     * @param resourcePath the resource path
+     * @return the cached resource, or null if the resource is not cached
+     */
+    public CachedResource get(String resourcePath) {
+        Entry entry = entries.get(resourcePath);
+
+        if (entry == null) {
+            if (missingPaths.containsKey(resourcePath)) {
+                stats.recordHit(resourcePath);
+            } else {
+                stats.recordMiss(resourcePath);
+            }
+            return null;
+        }
+
+        entry.lastAccess = clock.incrementAndGet();
+        stats.recordHit(resourcePath);
+
+        return entry.resource;
+    }
+
+    /**
+     * Return true if the given resource path is cached as not found.
+     *
+     * @param resourcePath the resource path
+     * @return true if the resource path is cached as not found
+     */
+    public boolean isMissing(String resourcePath) {
+        return missingPaths.containsKey(resourcePath);
+    }
+
+    /**
+     * Cache the given resource under the given path, evicting the least
+     * recently used resources if the maximum size is exceeded. Resources
+     * larger than the maximum size are not cached.
+     *
+     * @param resourcePath the resource path
+     * @param resource the resource to cache
+     */
+    public void put(String resourcePath, CachedResource resource) {
+        long resourceSize = resource.getSize();
+        if (maxSize > 0 && resourceSize > maxSize) {
+            return;
+        }
+
+        Entry entry = new Entry(resource, resourceSize, clock.incrementAndGet());
+
+        missingPaths.remove(resourcePath);
+
+        Entry previous = entries.put(resourcePath, entry);
+        if (previous != null) {
+            size.addAndGet(-previous.size);
+        }
+
+        if (size.addAndGet(resourceSize) > maxSize && maxSize > 0) {
+            evict();
+        }
+    }
+
+    /**
+     * Cache the given resource path as not found.
+     *
+     * @param resourcePath the resource path which could not be found
+     */
+    public void putMissing(String resourcePath) {
+        if (maxMissingEntries <= 0) {
+            return;
+        }
+
+        // Discard an arbitrary path when full, missing paths are cheap to
+        // probe again
+        if (missingPaths.size() >= maxMissingEntries) {
+            Iterator<String> iterator = missingPaths.keySet().iterator();
+            if (iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+
+        missingPaths.put(resourcePath, Boolean.TRUE);
+    }
+
+    /**
+     * Remove all the cached resources and missing resource paths.
+     */
+    public void clear() {
+        synchronized (this) {
+            entries.clear();
+            missingPaths.clear();
+            size.set(0);
+        }
+    }
+
+    /**
+     * Return the number of cached resources.
+     *
+     * @return the number of cached resources
+     */
+    public int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     * Return the number of cached missing resource paths.
+     *
+     * @return the number of cached missing resource paths
+     */
+    public int getMissingEntryCount() {
+        return missingPaths.size();
+    }
+
+    /**
+     * Return the total size in bytes of the cached resources.
+     *
+     * @return the total size in bytes of the cached resources
+     */
+    public long getSize() {
+        return size.get();
+    }
+
+    /**
+     * Return the maximum size in bytes of the cached resources, or zero if
+     * there is no limit.
+     *
+     * @return the maximum size in bytes of the cached resources
+     */
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Return the maximum number of missing resource paths to cache.
+     *
+     * @return the maximum number of missing resource paths to cache
+     */
+    public int getMaxMissingEntries() {
+        return maxMissingEntries;
+    }
+
+    /**
+     * Return the cache statistics.
+     *
+     * @return the cache statistics
+     */
+    public ResourceCacheStats getStats() {
+        return stats;
+    }
+
+    // -------------------------------------------------------- Private Methods
+
+    /**
+     * Evict the least recently used resources until the cache size is within
+     * the low water size, 90% of the maximum size.
+     */
+    private synchronized void evict() {
+        if (size.get() <= maxSize) {
+            return;
+        }
+
+        // Snapshot the access times as they change concurrently
+        List<Candidate> candidates = new ArrayList<Candidate>(entries.size());
+        for (Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+            candidates.add(new Candidate(mapEntry.getKey(), mapEntry.getValue()));
+        }
+
+        Collections.sort(candidates, new Comparator<Candidate>() {
+            public int compare(Candidate c1, Candidate c2) {
+                return Long.compare(c1.lastAccess, c2.lastAccess);
+            }
+        });
+
+        for (Candidate candidate : candidates) {
+            if (size.get() <= lowWaterSize) {
+                break;
+            }
+
+            if (entries.remove(candidate.resourcePath, candidate.entry)) {
+                size.addAndGet(-candidate.entry.size);
+                stats.recordEviction(candidate.resourcePath, candidate.entry.size);
+            }
+        }
+    }
+
+    // ---------------------------------------------------------- Inner Classes
+
+    /**
+     * Provides a cache entry which records the entry's last access time.
+     */
+    private static class Entry {
+
+        /** The cached resource. */
+        final CachedResource resource;
+
+        /** The resource size in bytes. */
+        final long size;
+
+        /** The logical time the entry was last accessed. */
+        volatile long lastAccess;
+
+        Entry(CachedResource resource, long size, long lastAccess) {
+            this.resource = resource;
+            this.size = size;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    /**
+     * Provides an eviction candidate, with the entry's access time at the
+     * start of the eviction pass.
+     */
+    private static class Candidate {
+
+        /** The resource path of the entry. */
+        final String resourcePath;
+
+        /** The cache entry. */
+        final Entry entry;
+
+        /** The logical time the entry was last accessed. */
+        final long lastAccess;
+
+        Candidate(String resourcePath, Entry entry) {
+            this.resourcePath = resourcePath;
+            this.entry = entry;
+            this.lastAccess = entry.lastAccess;
+        }
+    }
+}
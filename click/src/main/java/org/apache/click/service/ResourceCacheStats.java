@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.click.service;
+
+/**
+ * Provides a statistics interface for recording {@link ResourceCache} hits,
+ * misses and evictions.
+ *
+ * <h3>Configuration</h3>
+ * The default ResourceCacheStats is {@link DefaultResourceCacheStats}.
+ * <p>
+ * However you can instruct Click to use a different implementation, for
+ * example one which publishes the counters to your monitoring system, by
+ * adding the following property to the <code>resource-service</code> element
+ * of your <code>click.xml</code> configuration file.
+ *
+ * <pre class="codeConfig">
+ * &lt;resource-service classname="org.apache.click.service.BasicResourceService"&gt;
+ *     &lt;property name="<span class="blue">cacheStatsClassname</span>" value="<span class="red">com.mycorp.service.JmxResourceCacheStats</span>"/&gt;
+ * &lt;/resource-service&gt; </pre>
+ *
+ * Implementations must be thread safe as they are invoked concurrently by
+ * request threads.
+ */
+public interface ResourceCacheStats {
+
+    /**
+     * Record a cache hit for the given resource path. Lookups of resource
+     * paths which are cached as not found are also recorded as hits.
+     *
+     * @param resourcePath the path of the requested resource
+     */
+    public void recordHit(String resourcePath);
+
+    /**
+     * Record a cache miss for the given resource path.
+     *
+     * @param resourcePath the path of the requested resource
+     */
+    public void recordMiss(String resourcePath);
+
+    /**
+     * Record the eviction of the given resource from the cache.
+     *
+     * @param resourcePath the path of the evicted resource
+     * @param size the size in bytes of the evicted resource
+     */
+    public void recordEviction(String resourcePath, long size);
+
+}
@@ -20,27 +20,47 @@ package org.apache.click.service;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.io.Writer;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.servlet.ServletContext;
 
 import org.apache.click.Context;
+import org.apache.click.Control;
 import org.apache.click.Page;
+import org.apache.click.control.AbstractContainer;
+import org.apache.click.control.AbstractControl;
 
 import org.apache.click.util.ClickUtils;
 import org.apache.click.util.ErrorReport;
+import org.apache.click.util.StreamingHtmlStringBuffer;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.app.event.EventCartridge;
+import org.apache.velocity.app.event.ReferenceInsertionEventHandler;
+import org.apache.velocity.context.InternalContextAdapter;
 import org.apache.velocity.exception.ParseErrorException;
 import org.apache.velocity.exception.ResourceNotFoundException;
 import org.apache.velocity.exception.TemplateInitException;
+import org.apache.velocity.runtime.Renderable;
 import org.apache.velocity.runtime.RuntimeConstants;
 import org.apache.velocity.runtime.resource.loader.ClasspathResourceLoader;
 import org.apache.velocity.tools.view.WebappResourceLoader;
@@ -157,10 +177,45 @@ import org.apache.velocity.tools.view.WebappResourceLoader;
  * Disabling caching is useful for application development where you can edit page
  * templates on a running application server and see the changes immediately.
  * <p>
+ * Reloading every template on every request is however slow. To keep page
+ * templates cached until they are edited, enable template watching in your
+ * <code>WEB-INF/velocity.properties</code> file:
+ *
+ * <pre class="codeConfig">
+ * webapp.resource.loader.watch=true </pre>
+ *
+ * When watching, webapp caching is enabled and the directories of the loaded
+ * templates are watched for changes, so only the modified templates are
+ * reloaded. Modifications are picked up within a second. This mode is ignored
+ * in <code>production</code> and <code>profile</code> modes.
+ * <p>
  * <b>Please Note</b> Velocity caching should be used for production as Velocity
  * template reloading is much much slower and the process of parsing and
  * introspecting templates and macros can use a lot of memory.
  *
+ * <h3>Template Warm Up</h3>
+ *
+ * In <code>production</code> and <code>profile</code> modes templates are parsed
+ * when they are first rendered, so the first requests after a deployment stall
+ * while many threads parse the templates concurrently. The service can instead
+ * parse the page templates and the macro library on startup, using several
+ * threads, by setting the <tt>warmUp</tt> property:
+ *
+ * <pre class="codeConfig">
+ * &lt;click-app&gt;
+ *   ..
+ *   &lt;template-service&gt;
+ *     &lt;property name="<span class="blue">warmUp</span>" value="<span class="red">true</span>"/&gt;
+ *     &lt;property name="<span class="blue">warmUpThreads</span>" value="<span class="red">4</span>"/&gt;
+ *     &lt;property name="<span class="blue">warmUpRender</span>" value="<span class="red">true</span>"/&gt;
+ *   &lt;/template-service&gt;
+ * &lt;/click-app&gt; </pre>
+ *
+ * The number of warm up threads defaults to the number of available processors.
+ * When <tt>warmUpRender</tt> is set each template is also rendered once with
+ * an empty model, to exercise the rendering code before the application
+ * receives requests. The warm up timing is logged at <code>INFO</code> level.
+ *
  * <h3>Velocity Logging</h3>
  * Velocity logging is very verbose at the best of times, so this service
  * keeps the logging level at <code>ERROR</code> in all modes except <code>trace</code>
@@ -206,6 +261,12 @@ public class VelocityTemplateService implements TemplateService {
      */
     protected static final String VM_FILE_PATH = "/click/VM_global_library.vm";
 
+    /**
+     * The webapp template watching property: &nbsp;
+     * "<code>webapp.resource.loader.watch</code>".
+     */
+    protected static final String WEBAPP_WATCH_PROPERTY = "webapp.resource.loader.watch";
+
     // -------------------------------------------------------------- Variables
 
     /** The application configuration service. */
@@ -220,6 +281,26 @@ public class VelocityTemplateService implements TemplateService {
     /** The VelocityEngine instance. */
     protected VelocityEngine velocityEngine = new VelocityEngine();
 
+    /**
+     * The reference insertion handler which renders controls straight to the
+     * template writer, or null to render controls through their
+     * <tt>toString()</tt> method.
+     */
+    protected ReferenceInsertionEventHandler controlInsertionHandler =
+        new ControlInsertionHandler();
+
+    /** The parse templates on startup flag. */
+    protected boolean warmUp;
+
+    /** The render templates once on startup flag. */
+    protected boolean warmUpRender;
+
+    /**
+     * The number of threads parsing the templates on startup, 0 means the
+     * number of available processors.
+     */
+    protected int warmUpThreads;
+
     // --------------------------------------------------------- Public Methods
 
     /**
@@ -264,6 +345,70 @@ public class VelocityTemplateService implements TemplateService {
             deployedNotFoundTemplate = true;
         } catch (ResourceNotFoundException rnfe) {
         }
+
+        // Parse the templates before the application receives requests
+        if (isWarmUp()
+            && (configService.isProductionMode() || configService.isProfileMode())) {
+            warmUpTemplates(getWarmUpTemplates(properties));
+        }
+    }
+
+    /**
+     * Return true if the templates are parsed on startup.
+     *
+     * @return true if the templates are parsed on startup
+     */
+    public boolean isWarmUp() {
+        return warmUp;
+    }
+
+    /**
+     * Set whether the page templates and macro library are parsed on startup,
+     * in <code>production</code> and <code>profile</code> modes.
+     *
+     * @param warmUp true to parse the templates on startup
+     */
+    public void setWarmUp(boolean warmUp) {
+        this.warmUp = warmUp;
+    }
+
+    /**
+     * Return true if the templates are rendered once on startup.
+     *
+     * @return true if the templates are rendered once on startup
+     */
+    public boolean isWarmUpRender() {
+        return warmUpRender;
+    }
+
+    /**
+     * Set whether the templates parsed on startup are also rendered once with
+     * an empty model, to warm up the rendering code.
+     *
+     * @param warmUpRender true to render the templates once on startup
+     */
+    public void setWarmUpRender(boolean warmUpRender) {
+        this.warmUpRender = warmUpRender;
+    }
+
+    /**
+     * Return the number of threads parsing the templates on startup, 0 means
+     * the number of available processors.
+     *
+     * @return the number of threads parsing the templates on startup
+     */
+    public int getWarmUpThreads() {
+        return warmUpThreads;
+    }
+
+    /**
+     * Set the number of threads parsing the templates on startup, 0 means
+     * the number of available processors.
+     *
+     * @param warmUpThreads the number of threads parsing the templates
+     */
+    public void setWarmUpThreads(int warmUpThreads) {
+        this.warmUpThreads = warmUpThreads;
     }
 
     /**
@@ -271,6 +416,15 @@ public class VelocityTemplateService implements TemplateService {
      */
     @Override
     public void onDestroy() {
+        // Stop watching the templates
+        if (velocityEngine != null) {
+            Object loader = velocityEngine.getApplicationAttribute(
+                WebappResourceLoader.class.getName());
+            if (loader instanceof WebappResourceLoader) {
+                ((WebappResourceLoader) loader).close();
+            }
+        }
+
         // Dereference any allocated objects
         velocityEngine = null;
         configService = null;
@@ -422,6 +576,16 @@ public class VelocityTemplateService implements TemplateService {
             }
         }
 
+        // Keep webapp templates cached until they are modified when watching
+        if ("true".equals(velProps.get(WEBAPP_WATCH_PROPERTY))
+            && !configService.isProductionMode() && !configService.isProfileMode()) {
+            velProps.put("webapp.resource.loader.cache", "true");
+            velProps.put("webapp.resource.loader.modificationCheckInterval", "1");
+
+        } else {
+            velProps.remove(WEBAPP_WATCH_PROPERTY);
+        }
+
         ConfigService configService_ = ClickUtils.getConfigService(servletContext);
         LogService logger = configService_.getLogService();
         if (logger.isTraceEnabled()) {
@@ -437,6 +601,97 @@ public class VelocityTemplateService implements TemplateService {
         return velProps;
     }
 
+    /**
+     * Return the paths of the templates to parse on startup: the macro
+     * libraries and the page templates.
+     *
+     * @param properties the Velocity Engine initialization properties
+     * @return the paths of the templates to parse on startup
+     */
+    protected List<String> getWarmUpTemplates(Properties properties) {
+        Set<String> templates = new LinkedHashSet<>();
+
+        for (String key : new String[] { "velocimacro.library", RuntimeConstants.VM_LIBRARY }) {
+            Object library = properties.get(key);
+            if (library != null) {
+                for (String path : StringUtils.split(library.toString(), ',')) {
+                    if (StringUtils.isNotBlank(path)) {
+                        templates.add(path.trim());
+                    }
+                }
+            }
+        }
+
+        List<String> pagePaths = configService.getPagePathList();
+        Collections.sort(pagePaths);
+        for (String path : pagePaths) {
+            if (path.endsWith(".htm")) {
+                templates.add(path);
+            }
+        }
+
+        return new ArrayList<>(templates);
+    }
+
+    /**
+     * Parse the given templates, and render them once with an empty model if
+     * {@link #isWarmUpRender()} is true, using the
+     * {@link #getWarmUpThreads() warm up threads}. Templates which cannot be
+     * loaded are logged and skipped.
+     *
+     * @param templates the paths of the templates to parse
+     * @return the number of templates parsed
+     * @throws InterruptedException if the thread is interrupted while waiting
+     * for the templates to be parsed
+     */
+    protected int warmUpTemplates(List<String> templates) throws InterruptedException {
+        final LogService logService = configService.getLogService();
+        long start = System.nanoTime();
+
+        int threads = getWarmUpThreads();
+        if (threads <= 0) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+        threads = Math.max(1, Math.min(threads, templates.size()));
+
+        final AtomicInteger parsed = new AtomicInteger();
+        final boolean render = isWarmUpRender();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (final String path : templates) {
+                executor.execute(new Runnable() {
+                    public void run() {
+                        try {
+                            Template template = velocityEngine.getTemplate(path);
+                            if (render) {
+                                template.merge(new VelocityContext(), Writer.nullWriter());
+                            }
+                            parsed.incrementAndGet();
+
+                        } catch (ResourceNotFoundException rnfe) {
+                            logService.warn("could not find template to warm up: " + path);
+
+                        } catch (Exception e) {
+                            logService.warn("could not warm up template: " + path, e);
+                        }
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+        }
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+
+        if (logService.isInfoEnabled()) {
+            long time = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            logService.info("warmed up " + parsed.get() + " of " + templates.size()
+                + " templates in " + time + " ms using " + threads + " threads");
+        }
+
+        return parsed.get();
+    }
+
     /**
      * Provides the underlying Velocity template rendering.
      *
@@ -453,6 +708,12 @@ public class VelocityTemplateService implements TemplateService {
         @SuppressWarnings("unchecked")
         final VelocityContext velocityContext = new VelocityContext((Map<String, Object>) model);
 
+        if (controlInsertionHandler != null) {
+            EventCartridge eventCartridge = new EventCartridge();
+            eventCartridge.addReferenceInsertionEventHandler(controlInsertionHandler);
+            velocityContext.attachEventCartridge(eventCartridge);
+        }
+
         try {
             String charset = configService.getCharset();
             Template template = (charset != null) 
@@ -488,6 +749,132 @@ public class VelocityTemplateService implements TemplateService {
 
     // Inner Classes ----------------------------------------------------------
 
+    /**
+     * Provides a reference insertion handler which renders controls straight
+     * to the template writer, through a {@link StreamingHtmlStringBuffer},
+     * instead of rendering each control to a String.
+     * <p/>
+     * Only controls which use the <tt>toString()</tt> method of
+     * {@link AbstractControl} or {@link AbstractContainer} are streamed, as
+     * these render the same output as
+     * {@link Control#render(org.apache.click.util.HtmlStringBuffer)}. Other
+     * values are inserted unchanged.
+     */
+    protected static class ControlInsertionHandler implements ReferenceInsertionEventHandler {
+
+        /** The classes declaring the toString() method, keyed on control class. */
+        private final Map<Class<?>, Class<?>> toStringClasses =
+            new ConcurrentHashMap<Class<?>, Class<?>>();
+
+        /**
+         * Return a Renderable for streamed controls, and otherwise the given
+         * value.
+         *
+         * @see ReferenceInsertionEventHandler#referenceInsert(org.apache.velocity.context.Context, String, Object)
+         *
+         * @param context the Velocity context
+         * @param reference the reference literal
+         * @param value the reference value
+         * @return the value to insert
+         */
+        public Object referenceInsert(org.apache.velocity.context.Context context,
+            String reference, Object value) {
+
+            if (!(value instanceof Control)) {
+                return value;
+            }
+
+            Class<?> toStringClass = getToStringClass(value.getClass());
+
+            if (toStringClass == AbstractContainer.class) {
+                return new ControlRenderable((Control) value);
+
+            } else if (toStringClass == AbstractControl.class) {
+                // AbstractControl renders controls without a tag as empty
+                if (((AbstractControl) value).getTag() == null) {
+                    return "";
+                }
+                return new ControlRenderable((Control) value);
+
+            } else {
+                return value;
+            }
+        }
+
+        /**
+         * Return the class which declares the toString() method of the given
+         * class.
+         *
+         * @param type the class to check
+         * @return the class which declares the toString() method
+         */
+        private Class<?> getToStringClass(Class<?> type) {
+            Class<?> toStringClass = toStringClasses.get(type);
+            if (toStringClass == null) {
+                try {
+                    toStringClass = type.getMethod("toString").getDeclaringClass();
+                } catch (NoSuchMethodException nsme) {
+                    toStringClass = Object.class;
+                }
+                toStringClasses.put(type, toStringClass);
+            }
+            return toStringClass;
+        }
+    }
+
+    /**
+     * Provides a Renderable which renders a control straight to the template
+     * writer.
+     */
+    static class ControlRenderable implements Renderable {
+
+        /** The control to render. */
+        private final Control control;
+
+        /**
+         * Create a Renderable for the given control.
+         *
+         * @param control the control to render
+         */
+        ControlRenderable(Control control) {
+            this.control = control;
+        }
+
+        /**
+         * Render the control to the given writer.
+         *
+         * @see Renderable#render(InternalContextAdapter, Writer)
+         *
+         * @param context the Velocity context
+         * @param writer the writer to render the control to
+         * @return true
+         * @throws IOException if an IO error occurs
+         */
+        public boolean render(InternalContextAdapter context, Writer writer)
+            throws IOException {
+
+            StreamingHtmlStringBuffer buffer = new StreamingHtmlStringBuffer(writer);
+            try {
+                control.render(buffer);
+                buffer.flush();
+
+            } catch (UncheckedIOException uioe) {
+                throw uioe.getCause();
+            }
+            return true;
+        }
+
+        /**
+         * @see Object#toString()
+         *
+         * @return the HTML representation of the control
+         */
+        @Override
+        public String toString() {
+            return control.toString();
+        }
+    }
+
     /*
      * NOTE: The LogChuteAdapter inner class was removed in the migration to 
      * Velocity 2.x (Issue #17). Velocity now uses SLF4J natively, making 
@@ -32,6 +32,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.TreeMap;
@@ -107,6 +108,12 @@ public class XmlConfigService implements ConfigService, EntityResolver {
      */
     static final String MACRO_VM_FILE_NAME = "macro.vm";
 
+    /**
+     * The page mapping manifest path: &nbsp;
+     * "<code>/WEB-INF/click-pages.properties</code>".
+     */
+    static final String PAGE_MANIFEST_PATH = "/WEB-INF/click-pages.properties";
+
     /**
      * The production application mode.
      */
@@ -186,6 +193,12 @@ public class XmlConfigService implements ConfigService, EntityResolver {
      */
     final Map<String, PageElm> pageByPathMap = new ConcurrentHashMap<>();
 
+    /**
+     * The load the page mapping manifest flag, disabled while building the
+     * manifest.
+     */
+    boolean usePageManifest = true;
+
     /**
      * The map of ClickApp.PageElm keyed on class.
      */
@@ -717,6 +730,16 @@ public class XmlConfigService implements ConfigService, EntityResolver {
         return classList;
     }
 
+    /**
+     * @see ConfigService#getPagePathList()
+     *
+     * @return the list of configured page paths
+     */
+    @Override
+    public List<String> getPagePathList() {
+        return new ArrayList<>(pageByPathMap.keySet());
+    }
+
     /**
      * @see ConfigService#getPageHeaders(String)
      *
@@ -1016,7 +1039,12 @@ public class XmlConfigService implements ConfigService, EntityResolver {
             throw new RuntimeException(msg);
         }
 
-        List<String> templates = getTemplateFiles();
+        // Load the page manifest, otherwise scan the application templates
+        Map<String, String> pageManifest = loadPageManifest();
+        List<String> templates = null;
+        if (pageManifest == null) {
+            templates = getTemplateFiles();
+        }
 
         for (Element pagesElm : pagesList) {
 
@@ -1090,7 +1118,11 @@ public class XmlConfigService implements ConfigService, EntityResolver {
             buildManualPageMapping(pagesElm, pagesPackage);
 
             if (automap) {
-                buildAutoPageMapping(pagesElm, pagesPackage, templates);
+                if (pageManifest != null) {
+                    buildManifestPageMapping(pagesElm, pagesPackage, pageManifest);
+                } else {
+                    buildAutoPageMapping(pagesElm, pagesPackage, templates);
+                }
             }
         }
 
@@ -1182,6 +1214,69 @@ public class XmlConfigService implements ConfigService, EntityResolver {
         }
     }
 
+    /**
+     * Build the {@link #pageByPathMap} from the page mapping manifest, instead
+     * of scanning the application templates and matching Java classes.
+     * <p>
+     * Only the manifest pages of the given pages package, or excluded pages,
+     * are mapped. This method also rebuilds the {@link #excludesList}.
+     *
+     * @see PageManifestBuilder
+     *
+     * @param pagesElm the xml element containing the excluded URL paths
+     * @param pagesPackage the pages package prefix
+     * @param pageManifest the map of page class names keyed on path
+     * @throws java.lang.ClassNotFoundException if a manifest Page class can
+     * not be found on the classpath
+     */
+    void buildManifestPageMapping(Element pagesElm, String pagesPackage,
+        Map<String, String> pageManifest) throws ClassNotFoundException {
+
+        // Build list of automap path page class overrides
+        excludesList.clear();
+
+        for (Element childElm : ClickUtils.getChildren(pagesElm, "excludes")) {
+            excludesList.add(new XmlConfigService.ExcludesElm(childElm));
+        }
+
+        if (logService.isDebugEnabled()) {
+            logService.debug("manifest pages:");
+        }
+
+        String packagePrefix = "";
+        if (pagesPackage.length() > 0) {
+            packagePrefix = pagesPackage + ".";
+        }
+
+        for (Map.Entry<String, String> entry : pageManifest.entrySet()) {
+            String pagePath = entry.getKey();
+            String className = entry.getValue();
+
+            if (pageByPathMap.containsKey(pagePath)) {
+                continue;
+            }
+
+            if (className.startsWith(packagePrefix)
+                || className.equals(ExcludePage.class.getName())) {
+
+                Class<? extends Page> pageClass =
+                    ClickUtils.classForName(className, Page.class);
+
+                XmlConfigService.PageElm page
+                        = new XmlConfigService.PageElm(pagePath,
+                                pageClass,
+                                commonHeaders,
+                                autobinding);
+
+                pageByPathMap.put(page.getPath(), page);
+
+                if (logService.isDebugEnabled()) {
+                    logService.debug(pagePath + " -> " + className);
+                }
+            }
+        }
+    }
+
     /**
      * Build the {@link #pageByClassMap} from the {@link #pageByPathMap} and
      * delegate to {@link #addToClassMap(PageElm)}.
@@ -1618,6 +1713,50 @@ public class XmlConfigService implements ConfigService, EntityResolver {
         }
     }
 
+    /**
+     * Return the map of page class names keyed on path loaded from the
+     * {@link #PAGE_MANIFEST_PATH page mapping manifest}, or null if the
+     * manifest is not available. The manifest is only loaded in
+     * <tt>production</tt> and <tt>profile</tt> modes, as templates are
+     * expected to change in the other modes.
+     *
+     * @return the map of page class names keyed on path, or null
+     */
+    private Map<String, String> loadPageManifest() {
+        if (!usePageManifest || mode > PROFILE) {
+            return null;
+        }
+
+        InputStream inputStream = servletContext.getResourceAsStream(PAGE_MANIFEST_PATH);
+        if (inputStream == null) {
+            return null;
+        }
+
+        Properties properties = new Properties();
+        try {
+            properties.load(inputStream);
+
+        } catch (IOException ioe) {
+            String msg = "could not load page manifest: " + PAGE_MANIFEST_PATH;
+            throw new RuntimeException(msg, ioe);
+
+        } finally {
+            ClickUtils.close(inputStream);
+        }
+
+        Map<String, String> pageManifest = new TreeMap<String, String>();
+        for (String path : properties.stringPropertyNames()) {
+            pageManifest.put(path, properties.getProperty(path).trim());
+        }
+
+        if (logService.isInfoEnabled()) {
+            logService.info("loaded " + pageManifest.size()
+                + " pages from manifest " + PAGE_MANIFEST_PATH);
+        }
+
+        return pageManifest;
+    }
+
     /**
      * Return the list of templates within the web application.
      *
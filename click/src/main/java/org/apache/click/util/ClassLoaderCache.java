@@ -18,19 +18,104 @@
  */
 package org.apache.click.util;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 /**
  * Provides a classloader object map cache keyed on the current threads
  * classloader.
+ * <p>
+ * The classloaders are weakly referenced, so the cache does not prevent an
+ * undeployed web application classloader from being garbage collected. As the
+ * cached objects usually reference classes of their classloader, the
+ * ClickServlet also removes the web application objects from all the caches
+ * when it is destroyed, see {@link #removeAll(ClassLoader)}.
+ * <p>
+ * The maps cached against a classloader can be size bounded by creating them
+ * with {@link #createMap()}. When a bounded map exceeds the
+ * {@link #getMaxSize() maximum size} of its cache, the least recently used
+ * quarter of its entries are evicted. For example:
+ *
+ * <pre class="prettyprint">
+ * private static final ClassLoaderCache&lt;Map&lt;String, Object&gt;&gt; EXPRESSION_CACHE
+ *     = new ClassLoaderCache&lt;Map&lt;String, Object&gt;&gt;("expression", 5000);
+ *
+ * Map&lt;String, Object&gt; cache = EXPRESSION_CACHE.get();
+ * if (cache == null) {
+ *     cache = EXPRESSION_CACHE.createMap();
+ *     EXPRESSION_CACHE.put(cache);
+ * } </pre>
+ *
+ * Named caches are registered so their sizes can be monitored, see
+ * {@link #getCaches()}.
  *
  * @param <E> the class to cache against the current threads classloader
  */
 public class ClassLoaderCache<E> {
 
-    // The cache map keyed by classloader
-    private final Map<ClassLoader, E> classLoaderMap = new ConcurrentHashMap<>();
+    /** The registered named caches. */
+    private static final List<ClassLoaderCache<?>> CACHES =
+        new CopyOnWriteArrayList<ClassLoaderCache<?>>();
+
+    // The cache map keyed by weakly referenced classloader
+    private final ConcurrentMap<LoaderKey, E> classLoaderMap = new ConcurrentHashMap<>();
+
+    // The queue of garbage collected classloader keys
+    private final ReferenceQueue<ClassLoader> queue = new ReferenceQueue<ClassLoader>();
+
+    // The cached variable of the null (bootstrap) classloader
+    private volatile E nullLoaderValue;
+
+    // The last cached variable found, to avoid a key lookup per call
+    private volatile Entry<E> lastEntry;
+
+    /** The cache name, or null if the cache is not registered. */
+    private final String name;
+
+    /** The maximum size of the maps created by the cache, 0 means no limit. */
+    private volatile int maxSize;
+
+    // Constructors -----------------------------------------------------------
+
+    /**
+     * Create an unnamed and unbounded ClassLoaderCache.
+     */
+    public ClassLoaderCache() {
+        this(null, 0);
+    }
+
+    /**
+     * Create a ClassLoaderCache with the given name and maximum size of the
+     * maps it creates. A named cache is registered for monitoring.
+     *
+     * @param name the cache name
+     * @param maxSize the maximum size of the maps created by the cache,
+     * 0 means no limit
+     */
+    public ClassLoaderCache(String name, int maxSize) {
+        this.name = name;
+        setMaxSize(maxSize);
+        if (name != null) {
+            CACHES.add(this);
+        }
+    }
+
+    // Public Methods ---------------------------------------------------------
 
     /**
      * Return the cached variable for the current thread classloader.
@@ -38,8 +123,22 @@ public class ClassLoaderCache<E> {
      * @return the cached variable for the current thread classloader.
      */
     public E get() {
-         ClassLoader cl = Thread.currentThread().getContextClassLoader();
-         return classLoaderMap.get(cl);
+        ClassLoader cl = Thread.currentThread().getContextClassLoader();
+        if (cl == null) {
+            return nullLoaderValue;
+        }
+
+        Entry<E> entry = lastEntry;
+        if (entry != null && entry.key.get() == cl) {
+            return entry.value;
+        }
+
+        LoaderKey key = new LoaderKey(cl, null);
+        E e = classLoaderMap.get(key);
+        if (e != null) {
+            lastEntry = new Entry<E>(key, e);
+        }
+        return e;
     }
 
     /**
@@ -48,15 +147,476 @@ public class ClassLoaderCache<E> {
      * @param e the cached variable for the current thread classloader.
      */
     public void put(E e) {
-         ClassLoader cl = Thread.currentThread().getContextClassLoader();
-         classLoaderMap.put(cl, e);
+        ClassLoader cl = Thread.currentThread().getContextClassLoader();
+        if (cl == null) {
+            nullLoaderValue = e;
+            return;
+        }
+
+        expungeStaleKeys();
+
+        LoaderKey key = new LoaderKey(cl, queue);
+        classLoaderMap.put(key, e);
+        lastEntry = new Entry<E>(key, e);
+    }
+
+    /**
+     * Remove the cached variable of the given classloader.
+     *
+     * @param classLoader the classloader to remove the cached variable of
+     */
+    public void remove(ClassLoader classLoader) {
+        if (classLoader == null) {
+            nullLoaderValue = null;
+            return;
+        }
+        lastEntry = null;
+        classLoaderMap.remove(new LoaderKey(classLoader, null));
+        expungeStaleKeys();
     }
 
     /**
      * Clear the classloader map cache.
      */
     public void clear() {
+        lastEntry = null;
+        nullLoaderValue = null;
         classLoaderMap.clear();
+        expungeStaleKeys();
+    }
+
+    /**
+     * Return the cache name, or null if the cache is not named.
+     *
+     * @return the cache name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Return the maximum size of the maps created by the cache. A max size of
+     * 0 means there is no limit.
+     *
+     * @return the maximum size of the maps created by the cache
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Set the maximum size of the maps created by the cache. A max size of
+     * 0 means there is no limit. The maps already created are trimmed on
+     * their next insertion.
+     *
+     * @param maxSize the maximum size of the maps created by the cache
+     */
+    public void setMaxSize(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Invalid max size: " + maxSize);
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Create a concurrent map bounded by the {@link #getMaxSize() maximum size}
+     * of the cache, to be cached against the current thread classloader.
+     *
+     * @param <K> the map key type
+     * @param <V> the map value type
+     * @return a new concurrent map bounded by the cache maximum size
+     */
+    public <K, V> ConcurrentMap<K, V> createMap() {
+        return new BoundedMap<K, V>(this);
+    }
+
+    /**
+     * Return the number of classloaders with a cached variable.
+     *
+     * @return the number of classloaders with a cached variable
+     */
+    public int size() {
+        expungeStaleKeys();
+        return classLoaderMap.size() + (nullLoaderValue != null ? 1 : 0);
+    }
+
+    /**
+     * Return the total number of entries of the cached maps and collections,
+     * across all the classloaders.
+     *
+     * @return the total number of entries of the cached maps and collections
+     */
+    public int getEntryCount() {
+        expungeStaleKeys();
+        int count = entryCount(nullLoaderValue);
+        for (E e : classLoaderMap.values()) {
+            count += entryCount(e);
+        }
+        return count;
+    }
+
+    /**
+     * Return a string representation of the cache.
+     *
+     * @return a string representation of the cache
+     */
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[name=" + name + ",classLoaders="
+            + size() + ",entries=" + getEntryCount() + ",maxSize=" + maxSize
+            + "]";
+    }
+
+    // Public Static Methods --------------------------------------------------
+
+    /**
+     * Return the list of the named caches, to monitor their size.
+     *
+     * @return the list of the named caches
+     */
+    public static List<ClassLoaderCache<?>> getCaches() {
+        return CACHES;
+    }
+
+    /**
+     * Return the named cache, or null if there is no cache with the given
+     * name.
+     *
+     * @param name the cache name
+     * @return the named cache, or null if not found
+     */
+    public static ClassLoaderCache<?> getCache(String name) {
+        for (ClassLoaderCache<?> cache : CACHES) {
+            if (cache.getName().equals(name)) {
+                return cache;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Remove the cached variables of the given classloader from all the named
+     * caches. This method is invoked when a web application is destroyed, so
+     * its classes can be garbage collected.
+     *
+     * @param classLoader the classloader to remove the cached variables of
+     */
+    public static void removeAll(ClassLoader classLoader) {
+        for (ClassLoaderCache<?> cache : CACHES) {
+            cache.remove(classLoader);
+        }
+    }
+
+    // Private Methods --------------------------------------------------------
+
+    /**
+     * Remove the keys of the garbage collected classloaders.
+     */
+    private void expungeStaleKeys() {
+        Reference<? extends ClassLoader> ref;
+        while ((ref = queue.poll()) != null) {
+            classLoaderMap.remove(ref);
+            Entry<E> entry = lastEntry;
+            if (entry != null && entry.key == ref) {
+                lastEntry = null;
+            }
+        }
+    }
+
+    /**
+     * Return the number of entries of the given map or collection.
+     *
+     * @param value the cached variable
+     * @return the number of entries of the map or collection, 0 otherwise
+     */
+    private static int entryCount(Object value) {
+        if (value instanceof Map) {
+            return ((Map<?, ?>) value).size();
+        } else if (value instanceof Collection) {
+            return ((Collection<?>) value).size();
+        }
+        return 0;
+    }
+
+    // Inner Classes ----------------------------------------------------------
+
+    /**
+     * Provides a weak classloader key compared by identity.
+     */
+    private static class LoaderKey extends WeakReference<ClassLoader> {
+
+        private final int hash;
+
+        LoaderKey(ClassLoader classLoader, ReferenceQueue<ClassLoader> queue) {
+            super(classLoader, queue);
+            hash = System.identityHashCode(classLoader);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) {
+                return true;
+            }
+            if (!(o instanceof LoaderKey)) {
+                return false;
+            }
+            ClassLoader classLoader = get();
+            return classLoader != null && classLoader == ((LoaderKey) o).get();
+        }
+    }
+
+    /**
+     * Provides the last cached variable found.
+     */
+    private static class Entry<E> {
+
+        private final LoaderKey key;
+
+        private final E value;
+
+        Entry(LoaderKey key, E value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Provides a concurrent map evicting the least recently used quarter of
+     * its entries when it exceeds the maximum size of its cache.
+     * <p>
+     * The recency of each entry is recorded with a logical clock, which is
+     * advanced when an entry is inserted. Reading an entry only sets its
+     * access time, so cache hits do not lock.
+     */
+    private static class BoundedMap<K, V> extends ConcurrentHashMap<K, V> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient ClassLoaderCache<?> cache;
+
+        /** The access times of the entries, keyed on entry key. */
+        private final transient ConcurrentHashMap<Object, AccessTime> accessTimes =
+            new ConcurrentHashMap<Object, AccessTime>();
+
+        /** The logical clock, advanced when an entry is inserted. */
+        private final transient AtomicLong clock = new AtomicLong();
+
+        /** The eviction in progress flag. */
+        private final transient AtomicBoolean evicting = new AtomicBoolean();
+
+        BoundedMap(ClassLoaderCache<?> cache) {
+            this.cache = cache;
+        }
+
+        @Override
+        public V get(Object key) {
+            V value = super.get(key);
+            if (value != null) {
+                accessed(key);
+            }
+            return value;
+        }
+
+        @Override
+        public V put(K key, V value) {
+            V previous = super.put(key, value);
+            if (previous == null) {
+                inserted(key);
+            } else {
+                accessed(key);
+            }
+            return previous;
+        }
+
+        @Override
+        public V putIfAbsent(K key, V value) {
+            V previous = super.putIfAbsent(key, value);
+            if (previous == null) {
+                inserted(key);
+            } else {
+                accessed(key);
+            }
+            return previous;
+        }
+
+        @Override
+        public void putAll(Map<? extends K, ? extends V> map) {
+            for (Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+                put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        @Override
+        public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+            V value = get(key);
+            if (value != null) {
+                return value;
+            }
+            value = super.computeIfAbsent(key, mappingFunction);
+            if (value != null) {
+                inserted(key);
+            }
+            return value;
+        }
+
+        @Override
+        public V compute(K key,
+                BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+            V value = super.compute(key, remappingFunction);
+            updated(key, value);
+            return value;
+        }
+
+        @Override
+        public V merge(K key, V value,
+                BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+            V merged = super.merge(key, value, remappingFunction);
+            updated(key, merged);
+            return merged;
+        }
+
+        @Override
+        public V remove(Object key) {
+            V previous = super.remove(key);
+            accessTimes.remove(key);
+            return previous;
+        }
+
+        @Override
+        public boolean remove(Object key, Object value) {
+            boolean removed = super.remove(key, value);
+            if (removed) {
+                accessTimes.remove(key);
+            }
+            return removed;
+        }
+
+        @Override
+        public void clear() {
+            super.clear();
+            accessTimes.clear();
+        }
+
+        /**
+         * Record the access of the entry with the given key.
+         */
+        private void accessed(Object key) {
+            AccessTime accessTime = accessTimes.get(key);
+            if (accessTime != null) {
+                accessTime.time = clock.get();
+            }
+        }
+
+        /**
+         * Record the insertion of the entry with the given key, and evict the
+         * least recently used entries if the map exceeds its maximum size.
+         */
+        private void inserted(K key) {
+            accessTimes.put(key, new AccessTime(clock.incrementAndGet()));
+            evict(key);
+        }
+
+        /**
+         * Record the update of the entry with the given key to the given
+         * value, which is null if the entry was removed.
+         */
+        private void updated(K key, V value) {
+            if (value == null) {
+                accessTimes.remove(key);
+            } else if (accessTimes.containsKey(key)) {
+                accessed(key);
+            } else {
+                inserted(key);
+            }
+        }
+
+        /**
+         * Evict the least recently used quarter of the entries if the map
+         * exceeds its maximum size. The entry just inserted is not evicted.
+         *
+         * @param insertedKey the key of the entry just inserted
+         */
+        private void evict(Object insertedKey) {
+            int max = cache.getMaxSize();
+            if (max <= 0 || size() <= max) {
+                return;
+            }
+
+            // Another thread is already evicting the least recently used entries
+            if (!evicting.compareAndSet(false, true)) {
+                return;
+            }
+
+            try {
+                // Snapshot the access times as they change concurrently
+                List<Candidate> candidates = new ArrayList<Candidate>(size());
+                for (K key : keySet()) {
+                    if (!key.equals(insertedKey)) {
+                        AccessTime accessTime = accessTimes.get(key);
+                        candidates.add(new Candidate(key,
+                            (accessTime != null) ? accessTime.time : 0));
+                    }
+                }
+
+                Collections.sort(candidates, new Comparator<Candidate>() {
+                    public int compare(Candidate c1, Candidate c2) {
+                        return Long.compare(c1.time, c2.time);
+                    }
+                });
+
+                int count = Math.min(size() - max + max / 4, candidates.size());
+                for (int i = 0; i < count; i++) {
+                    Object key = candidates.get(i).key;
+                    super.remove(key);
+                    accessTimes.remove(key);
+                }
+
+                // Remove the access times of entries removed through the views
+                for (Iterator<Object> i = accessTimes.keySet().iterator(); i.hasNext();) {
+                    if (super.get(i.next()) == null) {
+                        i.remove();
+                    }
+                }
+
+            } finally {
+                evicting.set(false);
+            }
+        }
+    }
+
+    /**
+     * Provides the mutable access time of a bounded map entry.
+     */
+    private static class AccessTime {
+
+        /** The logical time the entry was last accessed. */
+        volatile long time;
+
+        AccessTime(long time) {
+            this.time = time;
+        }
     }
 
+    /**
+     * Provides a bounded map eviction candidate, with the entry's access time
+     * at the start of the eviction pass.
+     */
+    private static class Candidate {
+
+        /** The entry key. */
+        final Object key;
+
+        /** The logical time the entry was last accessed. */
+        final long time;
+
+        Candidate(Object key, long time) {
+            this.key = key;
+            this.time = time;
+        }
+    }
 }
@@ -0,0 +1,376 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.click.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Provides cached JavaBean property metadata of a class, used by
+ * {@link ContainerUtils} to copy values between containers and objects.
+ * <p/>
+ * The metadata of each class is built once and cached against the current
+ * threads classloader. Property getters and setters are resolved on first
+ * use and invoked through method handles.
+ * <p/>
+ * <b>PLEASE NOTE</b> this class is <b>not</b> for public use.
+ */
+final class ClassProperties {
+
+    // -------------------------------------------------------------- Constants
+
+    /** The cache of class property metadata, keyed on classloader and class. */
+    private static final ClassLoaderCache<Map<Class<?>, ClassProperties>> CLASSLOADER_CACHE
+        = new ClassLoaderCache<Map<Class<?>, ClassProperties>>("class-properties", 5000);
+
+    /** The marker of a property without a getter method. */
+    private static final Property NO_PROPERTY = new Property(null, null, null, null, null);
+
+    /** The method type of the getter handles. */
+    private static final MethodType GETTER_TYPE =
+        MethodType.methodType(Object.class, Object.class);
+
+    /** The method type of the setter handles. */
+    private static final MethodType SETTER_TYPE =
+        MethodType.methodType(void.class, Object.class, Object.class);
+
+    // -------------------------------------------------------------- Variables
+
+    /** The class of the properties. */
+    private final Class<?> type;
+
+    /** The names of the class get, is and set properties. */
+    private final Set<String> propertyNames;
+
+    /** The resolved properties keyed on property name. */
+    private final Map<String, Property> properties =
+        new ConcurrentHashMap<String, Property>();
+
+    /** The split property paths keyed on path. */
+    private final Map<String, String[]> paths = new ConcurrentHashMap<String, String[]>();
+
+    // ----------------------------------------------------------- Constructors
+
+    /**
+     * Create the property metadata of the given class.
+     *
+     * @param type the class to create the property metadata of
+     */
+    private ClassProperties(Class<?> type) {
+        this.type = type;
+
+        Set<String> names = new TreeSet<String>();
+
+        for (Method method : type.getMethods()) {
+            String methodName = method.getName();
+
+            if (methodName.startsWith("get") && methodName.length() > 3) {
+                names.add(toPropertyName(methodName, 3));
+            }
+            if (methodName.startsWith("is") && methodName.length() > 2) {
+                names.add(toPropertyName(methodName, 2));
+            }
+            if (methodName.startsWith("set") && methodName.length() > 3) {
+                names.add(toPropertyName(methodName, 3));
+            }
+        }
+
+        propertyNames = Collections.unmodifiableSet(names);
+    }
+
+    // ------------------------------------------------ Package Private Methods
+
+    /**
+     * Return the cached property metadata of the given class.
+     *
+     * @param type the class to return the property metadata of
+     * @return the property metadata of the given class
+     */
+    static ClassProperties getClassProperties(Class<?> type) {
+        Map<Class<?>, ClassProperties> cache = CLASSLOADER_CACHE.get();
+        if (cache == null) {
+            cache = CLASSLOADER_CACHE.createMap();
+            CLASSLOADER_CACHE.put(cache);
+        }
+
+        ClassProperties classProperties = cache.get(type);
+        if (classProperties == null) {
+            classProperties = new ClassProperties(type);
+            cache.put(type, classProperties);
+        }
+        return classProperties;
+    }
+
+    /**
+     * Return the names of the class properties, derived from the names of
+     * the class public get, is and set methods.
+     *
+     * @return the names of the class properties
+     */
+    Set<String> getPropertyNames() {
+        return propertyNames;
+    }
+
+    /**
+     * Return the property with the given name, or null if the class has no
+     * getter for the property. The getter is either a 'get' or an 'is'
+     * method, or a method with the property name.
+     *
+     * @param name the property name
+     * @return the property with the given name, or null
+     */
+    Property getProperty(String name) {
+        Property property = properties.get(name);
+
+        if (property == null) {
+            property = createProperty(name);
+            properties.put(name, property);
+        }
+
+        return (property != NO_PROPERTY) ? property : null;
+    }
+
+    /**
+     * Return the given property path split on the '.' character, for
+     * example <tt>"address.city"</tt> is returned as
+     * <tt>["address", "city"]</tt>.
+     *
+     * @param path the property path
+     * @return the property path elements
+     */
+    String[] getPath(String path) {
+        String[] elements = paths.get(path);
+
+        if (elements == null) {
+            elements = path.split("\\.", -1);
+            paths.put(path, elements);
+        }
+
+        return elements;
+    }
+
+    // -------------------------------------------------------- Private Methods
+
+    /**
+     * Resolve the getter, setter and constructor of the given property.
+     *
+     * @param name the property name
+     * @return the property, or NO_PROPERTY if the class has no getter for
+     * the property
+     */
+    private Property createProperty(String name) {
+        Method getter = findMethod(ClickUtils.toGetterName(name));
+        if (getter == null) {
+            getter = findMethod(ClickUtils.toIsGetterName(name));
+        }
+        if (getter == null) {
+            // Record and fluent accessors, as PropertyUtils
+            getter = findMethod(name);
+        }
+        if (getter == null) {
+            return NO_PROPERTY;
+        }
+
+        Class<?> propertyType = getter.getReturnType();
+
+        Method setter = null;
+        try {
+            setter = type.getMethod(ClickUtils.toSetterName(name), propertyType);
+        } catch (NoSuchMethodException e) {
+            // Not a writable property
+        }
+
+        MethodHandle constructor = null;
+        if (!propertyType.isPrimitive() && !propertyType.isInterface()) {
+            try {
+                constructor = MethodHandles.publicLookup().findConstructor(propertyType,
+                    MethodType.methodType(void.class)).asType(MethodType.methodType(Object.class));
+            } catch (NoSuchMethodException e) {
+                // Property instances cannot be created
+            } catch (IllegalAccessException e) {
+                // Property instances cannot be created
+            }
+        }
+
+        return new Property(getter, setter, toHandle(getter, GETTER_TYPE),
+            (setter != null) ? toHandle(setter, SETTER_TYPE) : null, constructor);
+    }
+
+    /**
+     * Return the public no-argument method with the given name, or null if
+     * the class has no such method.
+     *
+     * @param methodName the method name
+     * @return the public no-argument method, or null
+     */
+    private Method findMethod(String methodName) {
+        try {
+            return type.getMethod(methodName);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Return a method handle of the given type for the given method.
+     *
+     * @param method the method to return a handle for
+     * @param methodType the handle type
+     * @return the method handle
+     */
+    private static MethodHandle toHandle(Method method, MethodType methodType) {
+        try {
+            MethodHandle handle;
+            try {
+                handle = MethodHandles.publicLookup().unreflect(method);
+
+            } catch (IllegalAccessException e) {
+                // Public methods of non public classes
+                method.setAccessible(true);
+                handle = MethodHandles.lookup().unreflect(method);
+            }
+            return handle.asType(methodType);
+
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        } catch (RuntimeException e) {
+            // Inaccessible module members are invoked reflectively instead
+            return null;
+        }
+    }
+
+    /**
+     * Return the property name of the given accessor method name.
+     *
+     * @param methodName the accessor method name
+     * @param prefixLength the length of the accessor prefix
+     * @return the property name
+     */
+    private static String toPropertyName(String methodName, int prefixLength) {
+        return Character.toLowerCase(methodName.charAt(prefixLength))
+            + methodName.substring(prefixLength + 1);
+    }
+
+    // ---------------------------------------------------------- Inner Classes
+
+    /**
+     * Provides the cached getter, setter and constructor of a property.
+     */
+    static final class Property {
+
+        /** The property getter method. */
+        final Method getterMethod;
+
+        /** The property setter method, or null if not writable. */
+        final Method setterMethod;
+
+        /** The getter handle, typed as (Object)Object. */
+        private final MethodHandle getter;
+
+        /** The setter handle, typed as (Object,Object)void. */
+        private final MethodHandle setter;
+
+        /** The property type no-argument constructor handle, or null. */
+        private final MethodHandle constructor;
+
+        /**
+         * Create a property with the given accessors.
+         *
+         * @param getterMethod the getter method
+         * @param setterMethod the setter method, or null
+         * @param getter the getter handle, or null to invoke the method
+         * @param setter the setter handle, or null to invoke the method
+         * @param constructor the property type constructor handle, or null
+         */
+        Property(Method getterMethod, Method setterMethod, MethodHandle getter,
+            MethodHandle setter, MethodHandle constructor) {
+
+            this.getterMethod = getterMethod;
+            this.setterMethod = setterMethod;
+            this.getter = getter;
+            this.setter = setter;
+            this.constructor = constructor;
+        }
+
+        /**
+         * Return the property type, which is the getter return type.
+         *
+         * @return the property type
+         */
+        Class<?> getType() {
+            return getterMethod.getReturnType();
+        }
+
+        /**
+         * Return true if the property type has a public no-argument
+         * constructor.
+         *
+         * @return true if property instances can be created
+         */
+        boolean isInstantiable() {
+            return constructor != null;
+        }
+
+        /**
+         * Return the property value of the given object.
+         *
+         * @param object the object to get the property value of
+         * @return the property value
+         * @throws Throwable if the getter throws an exception
+         */
+        Object getValue(Object object) throws Throwable {
+            if (getter == null) {
+                return getterMethod.invoke(object);
+            }
+            return (Object) getter.invokeExact(object);
+        }
+
+        /**
+         * Set the property value of the given object.
+         *
+         * @param object the object to set the property value of
+         * @param value the property value
+         * @throws Throwable if the setter throws an exception
+         */
+        void setValue(Object object, Object value) throws Throwable {
+            if (setter == null) {
+                setterMethod.invoke(object, value);
+            } else {
+                setter.invokeExact(object, value);
+            }
+        }
+
+        /**
+         * Return a new instance of the property type.
+         *
+         * @return a new instance of the property type
+         * @throws Throwable if the constructor throws an exception
+         */
+        Object newInstance() throws Throwable {
+            return (Object) constructor.invokeExact();
+        }
+    }
+}
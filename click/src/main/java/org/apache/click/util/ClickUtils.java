@@ -34,7 +34,9 @@ import java.io.UnsupportedEncodingException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.net.URL;
@@ -73,8 +75,10 @@ import org.apache.click.control.ActionLink;
 import org.apache.click.control.Container;
 import org.apache.click.control.Field;
 import org.apache.click.control.Form;
+import org.apache.click.service.BasicResourceService;
 import org.apache.click.service.ConfigService;
 import org.apache.click.service.LogService;
+import org.apache.click.service.ResourceService;
 
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.fileupload2.javax.JavaxServletFileUpload;
@@ -154,6 +158,14 @@ public class ClickUtils {
     /** Ajax request header or parameter: "<code>X-Requested-With</code>". */
     private static final String X_REQUESTED_WITH = "X-Requested-With";
 
+    /** The cache of listener method handles, keyed on class and method name. */
+    private static final ClassLoaderCache<Map<PropertyUtils.CacheKey, MethodHandle>> LISTENER_CLASSLOADER_CACHE
+        = new ClassLoaderCache<Map<PropertyUtils.CacheKey, MethodHandle>>("action-listener", 10000);
+
+    /** The method type of the listener method handles. */
+    private static final MethodType LISTENER_TYPE =
+        MethodType.methodType(Object.class, Object.class);
+
     /**
      * The array of escaped HTML character values, indexed on char value.
      * <p>
@@ -940,95 +952,16 @@ public class ClickUtils {
      * </li>
      * </ul>
      *
+     * The returned {@link TemplateModel} reads through to the page model,
+     * which is not copied, and creates the other objects when they are first
+     * read.
+     *
      * @param page the page to populate the template model from
      * @param context the request context
      * @return a template model as a map
      */
     public static Map<String, Object> createTemplateModel(final Page page, Context context) {
-
-        ConfigService configService = ClickUtils.getConfigService(context.getServletContext());
-        LogService logger = configService.getLogService();
-
-        final Map<String, Object> model = new HashMap<String, Object>(page.getModel());
-
-        final HttpServletRequest request = context.getRequest();
-
-        Object pop = model.put("request", request);
-        if (pop != null && !page.isStateful()) {
-            String msg = page.getClass().getName() + " on " + page.getPath()
-                         + " model contains an object keyed with reserved "
-                         + "name \"request\". The page model object "
-                         + pop + " has been replaced with the request object";
-            logger.warn(msg);
-        }
-
-        pop = model.put("response", context.getResponse());
-        if (pop != null && !page.isStateful()) {
-            String msg = page.getClass().getName() + " on " + page.getPath()
-                         + " model contains an object keyed with reserved "
-                         + "name \"response\". The page model object "
-                         + pop + " has been replaced with the response object";
-            logger.warn(msg);
-        }
-
-        SessionMap sessionMap = new SessionMap(request.getSession(false));
-        pop = model.put("session", sessionMap);
-        if (pop != null && !page.isStateful()) {
-            String msg = page.getClass().getName() + " on " + page.getPath()
-                         + " model contains an object keyed with reserved "
-                         + "name \"session\". The page model object "
-                         + pop + " has been replaced with the request "
-                         + " session";
-            logger.warn(msg);
-        }
-
-        pop = model.put("context", request.getContextPath());
-        if (pop != null && !page.isStateful()) {
-            String msg = page.getClass().getName() + " on " + page.getPath()
-                         + " model contains an object keyed with reserved "
-                         + "name \"context\". The page model object "
-                         + pop + " has been replaced with the request "
-                         + " context path";
-            logger.warn(msg);
-        }
-
-        Format format = page.getFormat();
-        if (format != null) {
-            pop = model.put("format", format);
-            if (pop != null && !page.isStateful()) {
-                String msg = page.getClass().getName() + " on "
-                        + page.getPath()
-                        + " model contains an object keyed with reserved "
-                        + "name \"format\". The page model object " + pop
-                        + " has been replaced with the format object";
-                logger.warn(msg);
-            }
-        }
-
-        String path = page.getPath();
-        if (path != null) {
-           pop = model.put("path", path);
-            if (pop != null && !page.isStateful()) {
-                String msg = page.getClass().getName() + " on "
-                        + page.getPath()
-                        + " model contains an object keyed with reserved "
-                        + "name \"path\". The page model object " + pop
-                        + " has been replaced with the page path";
-                logger.warn(msg);
-            }
-        }
-
-        pop = model.put("messages", page.getMessages());
-        if (pop != null && !page.isStateful()) {
-            String msg = page.getClass().getName() + " on " + page.getPath()
-                         + " model contains an object keyed with reserved "
-                         + "name \"messages\". The page model object "
-                         + pop + " has been replaced with the request "
-                         + " messages";
-            logger.warn(msg);
-        }
-
-        return model;
+        return new TemplateModel(page, context);
     }
 
     /**
@@ -1394,6 +1327,62 @@ public class ClickUtils {
         }
     }
 
+    /**
+     * If resource versioning is active this method will return the given
+     * resource path with a content fingerprint inserted before the resource
+     * extension, otherwise this method will return null.
+     * <p>
+     * Fingerprinted resource paths become active under the same conditions as
+     * the {@link #getResourceVersionIndicator(Context) resource version indicator},
+     * and additionally the application ResourceService must be a
+     * {@link BasicResourceService} with fingerprints enabled. Unlike the
+     * version indicator the fingerprint only changes when the resource
+     * content changes.
+     * <p>
+     * The given resourcePath may include the web application context path,
+     * in which case the returned path includes it as well. For example
+     * <code>"/myApp/click/control.js"</code> is returned as
+     * <code>"/myApp/click/control_3f2a9c0b41de.js"</code>.
+     *
+     * @see BasicResourceService#getFingerprintedPath(String)
+     *
+     * @param context the request context
+     * @param resourcePath the resource path to fingerprint
+     * @return the fingerprinted resource path, or null if not available
+     */
+    public static String getFingerprintedResourcePath(Context context,
+        String resourcePath) {
+
+        if (resourcePath == null || resourcePath.indexOf('?') != -1
+            || !isEnableResourceVersion(context)) {
+            return null;
+        }
+
+        ConfigService configService = getConfigService(context.getServletContext());
+        if (!configService.isProductionMode() && !configService.isProfileMode()) {
+            return null;
+        }
+
+        ResourceService resourceService = configService.getResourceService();
+        if (!(resourceService instanceof BasicResourceService)) {
+            return null;
+        }
+
+        String contextPath = context.getRequest().getContextPath();
+        if (!resourcePath.startsWith(contextPath + "/")) {
+            return null;
+        }
+
+        String fingerprintedPath = ((BasicResourceService) resourceService)
+            .getFingerprintedPath(resourcePath.substring(contextPath.length()));
+
+        if (fingerprintedPath == null) {
+            return null;
+        }
+
+        return contextPath + fingerprintedPath;
+    }
+
     /**
      * If resource versioning is active this method will return the
      * application version indicator for static web resources
@@ -3334,6 +3323,9 @@ public class ClickUtils {
 
     /**
      * Invoke the named method on the given target object and return the result.
+     * <p/>
+     * The target method is resolved once per target class and method name,
+     * and invoked through the cached method handle.
      *
      * @param target the target object with the method to invoke
      * @param method the name of the method to invoke
@@ -3347,66 +3339,111 @@ public class ClickUtils {
             throw new IllegalArgumentException("Null method parameter");
         }
 
-        Method targetMethod = null;
-        boolean isAccessible = true;
+        MethodHandle handle = getListenerHandle(target, method);
+
         try {
-            Class<?> targetClass = target.getClass();
-            targetMethod = targetClass.getMethod(method);
+            return (Object) handle.invokeExact(target);
 
-            // Change accessible for anonymous inner classes public methods
-            // only. Conditional checks:
-            // #1 - Target method is not accessible
-            // #2 - Anonymous inner classes are not public
-            // #3 - Only modify public methods
-            // #4 - Anonymous inner classes have no declaring class
-            // #5 - Anonymous inner classes have $ in name
-            if (!targetMethod.isAccessible()
-                && !Modifier.isPublic(targetClass.getModifiers())
-                && Modifier.isPublic(targetMethod.getModifiers())
-                && targetClass.getDeclaringClass() == null
-                && targetClass.getName().indexOf('$') != -1) {
+        } catch (RuntimeException e) {
+            throw e;
 
-                isAccessible = false;
-                targetMethod.setAccessible(true);
-            }
+        } catch (Exception e) {
+            String msg = "Exception occurred invoking public method: "
+                + findPublicMethod(target.getClass(), method);
 
-            return targetMethod.invoke(target);
+            throw new RuntimeException(msg, e);
 
-        } catch (InvocationTargetException ite) {
+        } catch (Throwable e) {
+            String msg = "Error occurred invoking public method: "
+                + findPublicMethod(target.getClass(), method);
 
-            Throwable e = ite.getTargetException();
-            if (e instanceof RuntimeException) {
-                throw (RuntimeException) e;
+            throw new RuntimeException(msg, e);
+        }
+    }
 
-            } else if (e instanceof Exception) {
-                String msg =
-                    "Exception occurred invoking public method: " + targetMethod;
+    /**
+     * Return the cached method handle of the named public no-argument method
+     * of the given target, typed as <tt>(Object)Object</tt>.
+     *
+     * @param target the target object with the method to invoke
+     * @param method the name of the method to invoke
+     * @return the target method handle
+     */
+    private static MethodHandle getListenerHandle(Object target, String method) {
+        Map<PropertyUtils.CacheKey, MethodHandle> cache = LISTENER_CLASSLOADER_CACHE.get();
+        if (cache == null) {
+            cache = LISTENER_CLASSLOADER_CACHE.createMap();
+            LISTENER_CLASSLOADER_CACHE.put(cache);
+        }
 
-                throw new RuntimeException(msg, e);
+        PropertyUtils.CacheKey key = new PropertyUtils.CacheKey(target, method);
 
-            } else if (e instanceof Error) {
-                String msg =
-                    "Error occurred invoking public method: " + targetMethod;
+        MethodHandle handle = cache.get(key);
+        if (handle == null) {
+            handle = createListenerHandle(target.getClass(), method);
+            cache.put(key, handle);
+        }
+        return handle;
+    }
 
-                throw new RuntimeException(msg, e);
+    /**
+     * Create a method handle of the named public no-argument method of the
+     * given class, typed as <tt>(Object)Object</tt>.
+     *
+     * @param targetClass the target class
+     * @param method the name of the method
+     * @return the target method handle
+     */
+    private static MethodHandle createListenerHandle(Class<?> targetClass, String method) {
+        Method targetMethod = null;
+        try {
+            targetMethod = targetClass.getMethod(method);
 
-            } else {
-                String msg =
-                    "Error occurred invoking public method: " + targetMethod;
+            MethodHandle handle;
 
-                throw new RuntimeException(msg, e);
+            // Access anonymous inner classes public methods only. Conditional
+            // checks:
+            // #1 - Anonymous inner classes are not public
+            // #2 - Only access public methods
+            // #3 - Anonymous inner classes have no declaring class
+            // #4 - Anonymous inner classes have $ in name
+            if (!Modifier.isPublic(targetClass.getModifiers())
+                && Modifier.isPublic(targetMethod.getModifiers())
+                && targetClass.getDeclaringClass() == null
+                && targetClass.getName().indexOf('$') != -1) {
+
+                // The method instance is private to the cache, so the
+                // accessible flag is set once and never reset
+                targetMethod.setAccessible(true);
+                handle = MethodHandles.lookup().unreflect(targetMethod);
+
+            } else {
+                handle = MethodHandles.publicLookup().unreflect(targetMethod);
             }
 
+            return handle.asType(LISTENER_TYPE);
+
         } catch (Exception e) {
             String msg =
                 "Exception occurred invoking public method: " + targetMethod;
 
             throw new RuntimeException(msg, e);
+        }
+    }
 
-        } finally {
-            if (targetMethod != null && !isAccessible) {
-                targetMethod.setAccessible(false);
-            }
+    /**
+     * Return the named public no-argument method of the given class, or null
+     * if the class has no such method.
+     *
+     * @param targetClass the target class
+     * @param method the name of the method
+     * @return the public method, or null
+     */
+    private static Method findPublicMethod(Class<?> targetClass, String method) {
+        try {
+            return targetClass.getMethod(method);
+        } catch (NoSuchMethodException e) {
+            return null;
         }
     }
 }
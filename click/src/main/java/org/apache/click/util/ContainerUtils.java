@@ -18,18 +18,13 @@
  */
 package org.apache.click.util;
 
-import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeSet;
 
-import javax.servlet.ServletContext;
-
-import org.apache.click.Context;
 import org.apache.click.Control;
 import org.apache.click.Page;
 import org.apache.click.control.Button;
@@ -40,8 +35,10 @@ import org.apache.click.control.Form;
 import org.apache.click.control.Label;
 import org.apache.click.service.ConfigService;
 import org.apache.click.service.LogService;
+import org.apache.click.service.OGNLPropertyService;
 import org.apache.click.service.PropertyService;
 import org.apache.commons.lang3.ClassUtils;
+import org.apache.commons.lang3.StringUtils;
 
 /**
  * Provides Container access and copy utilities.
@@ -130,7 +127,9 @@ public class ContainerUtils {
 
         LogService logService = ClickUtils.getLogService();
 
-        Set<String> properties = getObjectPropertyNames(object);
+        ClassProperties classProperties =
+            ClassProperties.getClassProperties(object.getClass());
+        Set<String> properties = classProperties.getPropertyNames();
 
         for (Field field : fieldList) {
 
@@ -146,7 +145,9 @@ public class ContainerUtils {
 
             String fieldName = field.getName();
 
-            ensureObjectPathNotNull(object, fieldName);
+            if (fieldName.indexOf('.') != -1) {
+                ensureObjectPathNotNull(object, classProperties.getPath(fieldName), fieldName);
+            }
 
             ConfigService configService = ClickUtils.getConfigService();
             PropertyService propertyService = configService.getPropertyService();
@@ -256,10 +257,19 @@ public class ContainerUtils {
             return;
         }
 
-        Set<String> properties = getObjectPropertyNames(object);
+        ClassProperties classProperties =
+            ClassProperties.getClassProperties(object.getClass());
+        Set<String> properties = classProperties.getPropertyNames();
 
         LogService logService = ClickUtils.getLogService();
 
+        PropertyService propertyService =
+            ClickUtils.getConfigService().getPropertyService();
+
+        // The cached getters only match the reads of the default service
+        boolean useClassProperties =
+            propertyService.getClass() == OGNLPropertyService.class;
+
         for (Field field : fieldList) {
 
             if (!hasMatchingProperty(field, properties)) {
@@ -268,7 +278,13 @@ public class ContainerUtils {
 
             String fieldName = field.getName();
             try {
-                Object result = getPropertyService().getValue(object, fieldName);
+                Object result;
+                if (useClassProperties) {
+                    result = getObjectPathValue(object,
+                        classProperties.getPath(fieldName), fieldName);
+                } else {
+                    result = propertyService.getValue(object, fieldName);
+                }
 
                 field.setValueObject(result);
 
@@ -756,49 +772,53 @@ public class ContainerUtils {
 
     // -------------------------------------------------------- Private Methods
     /**
-     * Extract and return the specified object property names.
+     * Return the value of the given property path of the object, using the
+     * cached property getters of each object in the path.
      * <p>
-     * If the object is a Map instance, this method returns the maps key set.
+     * If an object in the path is null, this method returns null. If an
+     * object in the path is a Map instance, this method returns the map value
+     * for the remaining path.
      *
-     * @param object the object to extract property names from
-     * @return the unique set of property names
+     * @param object the object to get the property value from
+     * @param path the property path elements
+     * @param pathName the full property path, e.g. "address.city"
+     * @return the value of the object property path
+     * @throws RuntimeException if a property getter is not found or fails
      */
-    private static Set<String> getObjectPropertyNames(Object object) {
-        if (object instanceof Map<?, ?>) {
-            // Cast through a raw detour to map the keys safely to a Set<String>
-            @SuppressWarnings("unchecked")
-            Set<String> keys = (Set<String>) (Set<?>) ((Map<?, ?>) object).keySet();
-            return keys;
-        }
+    private static Object getObjectPathValue(Object object, String[] path,
+            String pathName) {
 
-        Set<String> hashSet = new TreeSet<String>();
+        Object result = object;
 
-        Method[] methods = object.getClass().getMethods();
-
-        for (Method method : methods) {
-            String methodName = method.getName();
+        for (int i = 0; i < path.length; i++) {
+            if (result == null) {
+                return null;
+            }
 
-            if (methodName.startsWith("get") && methodName.length() > 3) {
-                String propertyName
-                        = Character.toLowerCase(methodName.charAt(3))
-                        + methodName.substring(4);
-                hashSet.add(propertyName);
+            if (result instanceof Map<?, ?>) {
+                // Map values are keyed on the remaining path
+                return ((Map<?, ?>) result).get(StringUtils.join(path, '.', i, path.length));
             }
-            if (methodName.startsWith("is") && methodName.length() > 2) {
-                String propertyName
-                        = Character.toLowerCase(methodName.charAt(2))
-                        + methodName.substring(3);
-                hashSet.add(propertyName);
+
+            String property = path[i];
+            ClassProperties.Property getter =
+                ClassProperties.getClassProperties(result.getClass()).getProperty(property);
+
+            if (getter == null) {
+                throw new RuntimeException("No matching getter found for '"
+                    + property + "' on " + result.getClass().getName());
             }
-            if (methodName.startsWith("set") && methodName.length() > 3) {
-                String propertyName
-                        = Character.toLowerCase(methodName.charAt(3))
-                        + methodName.substring(4);
-                hashSet.add(propertyName);
+
+            try {
+                result = getter.getValue(result);
+
+            } catch (Throwable e) {
+                throw new RuntimeException("Error getting property '" + property
+                    + "' from " + result.getClass(), e);
             }
         }
 
-        return hashSet;
+        return result;
     }
 
     /**
@@ -823,67 +843,73 @@ public class ContainerUtils {
      * the specified path.
      * <p>
      * If any object in the graph is null, a new instance of that object class
-     * is instantiated.
+     * is instantiated. The getters, setters and constructors in the path are
+     * looked up from the cached class properties.
      *
      * @param object the object which path must be navigable without
      * encountering null values
-     * @param path the navigation path
+     * @param path the navigation path elements
+     * @param pathName the full navigation path (used for logging purposes)
      */
-    private static void ensureObjectPathNotNull(Object object, String path) {
+    private static void ensureObjectPathNotNull(Object object, String[] path,
+            String pathName) {
 
-        final int index = path.indexOf('.');
+        Object current = object;
 
-        if (index == -1) {
-            return;
-        }
-
-        String property = path.substring(0, index);
-        Method getterMethod = findGetter(object, property, path);
-        Object result = invokeGetter(getterMethod, object, property, path);
+        // The last path element is the property to set
+        for (int i = 0; i < path.length - 1; i++) {
+            String property = path[i];
 
-        if (result == null) {
-            // Find the target class of the object in the path to create
-            Class<?> targetClass = getterMethod.getReturnType();
-
-            Constructor<?> constructor = null;
-            try {
-                // Lookup default no-arg constructor
-                constructor = targetClass.getConstructor((Class[]) null);
+            ClassProperties.Property classProperty =
+                ClassProperties.getClassProperties(current.getClass()).getProperty(property);
 
-            } catch (NoSuchMethodException e) {
-                // Log detailed error message of looking up constructor failed
-                HtmlStringBuffer buffer = new HtmlStringBuffer();
-                logBasicDescription(buffer, object, path, property);
-                buffer.append("Attempt to construct instance of class '");
-                buffer.append(targetClass.getName()).append("' resulted in error: '");
-                buffer.append(targetClass.getName()).append("' does not seem");
-                buffer.append(" to have a default no argument constructor.");
-                buffer.append(" Please note another common problem is that the");
-                buffer.append(" class is either not public or not static.");
-                throw new RuntimeException(buffer.toString(), e);
+            if (classProperty == null) {
+                // Log detailed error message of why getter lookup failed
+                findGetter(current, property, pathName);
             }
 
-            try {
-                // Create target object instance
-                result = constructor.newInstance(new Object[]{});
+            Object result = invokeGetter(classProperty, current, property, pathName);
+
+            if (result == null) {
+                // Find the target class of the object in the path to create
+                Class<?> targetClass = classProperty.getType();
+
+                if (!classProperty.isInstantiable()) {
+                    // Log detailed error message of looking up constructor failed
+                    HtmlStringBuffer buffer = new HtmlStringBuffer();
+                    logBasicDescription(buffer, current, pathName, property);
+                    buffer.append("Attempt to construct instance of class '");
+                    buffer.append(targetClass.getName()).append("' resulted in error: '");
+                    buffer.append(targetClass.getName()).append("' does not seem");
+                    buffer.append(" to have a default no argument constructor.");
+                    buffer.append(" Please note another common problem is that the");
+                    buffer.append(" class is either not public or not static.");
+                    throw new RuntimeException(buffer.toString());
+                }
 
-            } catch (Exception e) {
-                // Log detailed error message of why creating target failed
-                HtmlStringBuffer buffer = new HtmlStringBuffer();
-                logBasicDescription(buffer, object, path, property);
-                buffer.append("Result: could not create");
-                buffer.append(" object with constructor '");
-                buffer.append(constructor.getName()).append("'.");
-                throw new RuntimeException(buffer.toString(), e);
+                try {
+                    // Create target object instance
+                    result = classProperty.newInstance();
+
+                } catch (Throwable e) {
+                    // Log detailed error message of why creating target failed
+                    HtmlStringBuffer buffer = new HtmlStringBuffer();
+                    logBasicDescription(buffer, current, pathName, property);
+                    buffer.append("Result: could not create");
+                    buffer.append(" object with constructor '");
+                    buffer.append(targetClass.getName()).append("'.");
+                    throw new RuntimeException(buffer.toString(), e);
+                }
+
+                if (classProperty.setterMethod == null) {
+                    // Log detailed error message of why setter lookup failed
+                    findSetter(current, property, targetClass, pathName);
+                }
+                invokeSetter(classProperty, current, result, property, pathName);
             }
 
-            Method setterMethod = findSetter(object, property, targetClass, path);
-            invokeSetter(setterMethod, object, result, property, path);
+            current = result;
         }
-
-        String remainingPath = path.substring(index + 1);
-
-        ensureObjectPathNotNull(result, remainingPath);
     }
 
     /**
@@ -930,25 +956,26 @@ public class ContainerUtils {
     }
 
     /**
-     * Invoke the getterMethod for the given source object.
+     * Invoke the property getter for the given source object.
      *
-     * @param getterMethod the getter method to invoke
+     * @param property the property to get
      * @param source the source object to invoke the getter method on
-     * @param property the getter method property name (used for logging)
+     * @param propertyName the getter method property name (used for logging)
      * @param path the full expression path (used for logging)
      * @return the getter result
      */
-    private static Object invokeGetter(Method getterMethod, Object source,
-            String property, String path) {
+    private static Object invokeGetter(ClassProperties.Property property,
+            Object source, String propertyName, String path) {
 
         try {
             // Retrieve target object from getter
-            return getterMethod.invoke(source, new Object[0]);
+            return property.getValue(source);
 
-        } catch (Exception e) {
+        } catch (Throwable e) {
             // Log detailed error message of why getter failed
+            Method getterMethod = property.getterMethod;
             HtmlStringBuffer buffer = new HtmlStringBuffer();
-            logBasicDescription(buffer, source, path, property);
+            logBasicDescription(buffer, source, path, propertyName);
             buffer.append("Result: error occurred while trying to get");
             buffer.append(" instance of '");
             buffer.append(getterMethod.getReturnType().getName());
@@ -993,29 +1020,28 @@ public class ContainerUtils {
     }
 
     /**
-     * Invoke the setter method for the given source and target object.
+     * Invoke the property setter for the given source and target object.
      *
-     * @param setterMethod the setter method to invoke
+     * @param property the property to set
      * @param source the source object to invoke the setter method on
      * @param target the target object to set
-     * @param property the setter method property name (used for logging)
+     * @param propertyName the setter method property name (used for logging)
      * @param path the full expression path (used for logging)
      */
-    private static void invokeSetter(Method setterMethod, Object source,
-            Object target, String property, String path) {
+    private static void invokeSetter(ClassProperties.Property property,
+            Object source, Object target, String propertyName, String path) {
 
         try {
-            Object[] objectArgs = {target};
-            setterMethod.invoke(source, objectArgs);
+            property.setValue(source, target);
 
-        } catch (Exception e) {
+        } catch (Throwable e) {
             // Log detailed error message of why setter failed
             HtmlStringBuffer buffer = new HtmlStringBuffer();
-            logBasicDescription(buffer, source, path, property);
+            logBasicDescription(buffer, source, path, propertyName);
             buffer.append("Result: error occurred while trying to set an");
             buffer.append(" instance of '");
             buffer.append(target.getClass().getName()).append("' using method '");
-            buffer.append(setterMethod.getName()).append("(");
+            buffer.append(property.setterMethod.getName()).append("(");
             buffer.append(target.getClass());
             buffer.append(")' of class '").append(source.getClass()).append("'.");
             throw new RuntimeException(buffer.toString(), e);
@@ -1387,10 +1413,4 @@ public class ContainerUtils {
         ClickUtils.getLogService().warn(message);
     }
 
-    private static PropertyService getPropertyService() {
-        ServletContext sc = Context.getThreadLocalContext().getServletContext();
-        ConfigService configService = ClickUtils.getConfigService(sc);
-        return configService.getPropertyService();
-    }
-
 }
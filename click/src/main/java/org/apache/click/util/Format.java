@@ -20,10 +20,6 @@ package org.apache.click.util;
 
 import java.io.Serializable;
 import java.text.DateFormat;
-import java.text.DecimalFormat;
-import java.text.MessageFormat;
-import java.text.NumberFormat;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
@@ -140,9 +136,7 @@ public class Format implements Serializable {
      */
     public String currency(Number number) {
         if (number != null) {
-            NumberFormat format = NumberFormat.getCurrencyInstance(getLocale());
-
-            return format.format(number.doubleValue());
+            return FormatCache.formatCurrency(number, getLocale());
 
         } else {
             return getEmptyString();
@@ -155,10 +149,7 @@ public class Format implements Serializable {
      * @return a formatted date string
      */
     public String currentDate() {
-        DateFormat format =
-            DateFormat.getDateInstance(DateFormat.DEFAULT, getLocale());
-
-        return format.format(new Date());
+        return FormatCache.formatDate(new Date(), DateFormat.DEFAULT, getLocale());
     }
 
     /**
@@ -175,10 +166,7 @@ public class Format implements Serializable {
             throw new IllegalArgumentException("Null pattern parameter");
         }
 
-        SimpleDateFormat format =
-            new SimpleDateFormat(pattern, getLocale());
-
-        return format.format(new Date());
+        return FormatCache.formatDate(new Date(), pattern, getLocale());
     }
 
     /**
@@ -305,10 +293,7 @@ public class Format implements Serializable {
                 throw new IllegalArgumentException("Null pattern parameter");
             }
 
-            SimpleDateFormat format =
-                new SimpleDateFormat(pattern, getLocale());
-
-            return format.format(date);
+            return FormatCache.formatDate(date, pattern, getLocale());
 
         } else {
             return getEmptyString();
@@ -327,10 +312,7 @@ public class Format implements Serializable {
      */
     public String date(Date date) {
         if (date != null) {
-            DateFormat format =
-                DateFormat.getDateInstance(DateFormat.DEFAULT, getLocale());
-
-            return format.format(date);
+            return FormatCache.formatDate(date, DateFormat.DEFAULT, getLocale());
 
         } else {
             return getEmptyString();
@@ -442,9 +424,7 @@ public class Format implements Serializable {
                 pattern = pattern.replace('N', '#');
             }
 
-            DecimalFormat format = new DecimalFormat(pattern);
-
-            return format.format(number.doubleValue());
+            return FormatCache.formatDecimal(number, pattern);
 
         } else {
             return getEmptyString();
@@ -462,9 +442,7 @@ public class Format implements Serializable {
      */
     public String decimal(Number number) {
         if (number != null) {
-            DecimalFormat format = new DecimalFormat();
-
-            return format.format(number.doubleValue());
+            return FormatCache.formatDecimal(number, null);
 
         } else {
             return getEmptyString();
@@ -749,8 +727,7 @@ public class Format implements Serializable {
      * @return the formatted string
      */
     public String message(String pattern, Object[] arguments) {
-        MessageFormat format = new MessageFormat(pattern, getLocale());
-        return format.format(arguments, new StringBuffer(), null).toString();
+        return FormatCache.formatMessage(pattern, getLocale(), arguments);
     }
 
     /**
@@ -777,9 +754,7 @@ public class Format implements Serializable {
      */
     public String percentage(Number number) {
         if (number != null) {
-            NumberFormat format = NumberFormat.getPercentInstance(getLocale());
-
-            return format.format(number.doubleValue());
+            return FormatCache.formatPercent(number, getLocale());
 
         } else {
             return getEmptyString();
@@ -798,10 +773,7 @@ public class Format implements Serializable {
      */
     public String time(Date date) {
         if (date != null) {
-            DateFormat format =
-                DateFormat.getTimeInstance(DateFormat.DEFAULT, getLocale());
-
-            return format.format(date);
+            return FormatCache.formatTime(date, DateFormat.DEFAULT, getLocale());
 
         } else {
             return getEmptyString();
@@ -0,0 +1,317 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.click.util;
+
+import java.text.DateFormat;
+import java.text.DecimalFormat;
+import java.text.MessageFormat;
+import java.text.NumberFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Provides a thread safe cache of compiled formatters, keyed on pattern and
+ * locale.
+ * <p>
+ * The <code>java.text</code> formatters are expensive to create, as their
+ * pattern is parsed and their locale data looked up, but they are not thread
+ * safe. The cache therefore keeps a pool of formatters for each pattern and
+ * locale: a formatter is taken from the pool to format a value and then
+ * returned to the pool, so formatters are only created for concurrent use.
+ * <p>
+ * The formatted values are the same as the values formatted by a new
+ * formatter created with the same pattern and locale. Note the cached date
+ * formatters use the default time zone at the time they are created.
+ * <p>
+ * The cache is bounded, see the <tt>"format"</tt> {@link ClassLoaderCache}.
+ *
+ * @see Format
+ * @see org.apache.click.control.Column#setFormat(String)
+ */
+public class FormatCache {
+
+    /** The maximum number of cached pattern and locale pools. */
+    public static final int MAX_SIZE = 1000;
+
+    /** The currency NumberFormat type. */
+    private static final int CURRENCY = 0;
+
+    /** The DateFormat date instance type, the pattern is the style. */
+    private static final int DATE_STYLE = 1;
+
+    /** The SimpleDateFormat type. */
+    private static final int DATE_PATTERN = 2;
+
+    /** The DecimalFormat type. */
+    private static final int DECIMAL = 3;
+
+    /** The MessageFormat type. */
+    private static final int MESSAGE = 4;
+
+    /** The percentage NumberFormat type. */
+    private static final int PERCENT = 5;
+
+    /** The DateFormat time instance type, the pattern is the style. */
+    private static final int TIME_STYLE = 6;
+
+    /** The cache of formatter pools, keyed on type, pattern and locale. */
+    private static final ClassLoaderCache<Map<FormatKey, FormatPool>> FORMAT_CLASSLOADER_CACHE
+        = new ClassLoaderCache<Map<FormatKey, FormatPool>>("format", MAX_SIZE);
+
+    // --------------------------------------------------------- Public Methods
+
+    /**
+     * Return the given number formatted as a currency for the given locale,
+     * as <code>NumberFormat.getCurrencyInstance(locale)</code> would.
+     *
+     * @param number the number to format
+     * @param locale the locale
+     * @return the currency formatted number
+     */
+    public static String formatCurrency(Number number, Locale locale) {
+        return format(CURRENCY, null, locale, number);
+    }
+
+    /**
+     * Return the given number formatted as a percentage for the given locale,
+     * as <code>NumberFormat.getPercentInstance(locale)</code> would.
+     *
+     * @param number the number to format
+     * @param locale the locale
+     * @return the percentage formatted number
+     */
+    public static String formatPercent(Number number, Locale locale) {
+        return format(PERCENT, null, locale, number);
+    }
+
+    /**
+     * Return the given number formatted with the given decimal pattern, as
+     * <code>new DecimalFormat(pattern)</code> would. A null pattern uses the
+     * default pattern of the default locale.
+     *
+     * @param number the number to format
+     * @param pattern the decimal format pattern, or null
+     * @return the formatted number
+     */
+    public static String formatDecimal(Number number, String pattern) {
+        return format(DECIMAL, pattern, Locale.getDefault(Locale.Category.FORMAT), number);
+    }
+
+    /**
+     * Return the given date formatted with the given pattern for the given
+     * locale, as <code>new SimpleDateFormat(pattern, locale)</code> would.
+     *
+     * @param date the date to format
+     * @param pattern the SimpleDateFormat pattern
+     * @param locale the locale
+     * @return the formatted date
+     */
+    public static String formatDate(Date date, String pattern, Locale locale) {
+        Objects.requireNonNull(pattern, "Null pattern parameter");
+        return format(DATE_PATTERN, pattern, locale, date);
+    }
+
+    /**
+     * Return the given date formatted with the given style for the given
+     * locale, as <code>DateFormat.getDateInstance(style, locale)</code> would.
+     *
+     * @param date the date to format
+     * @param style the DateFormat style, e.g. <tt>DateFormat.DEFAULT</tt>
+     * @param locale the locale
+     * @return the formatted date
+     */
+    public static String formatDate(Date date, int style, Locale locale) {
+        return format(DATE_STYLE, String.valueOf(style), locale, date);
+    }
+
+    /**
+     * Return the time of the given date formatted with the given style for the
+     * given locale, as <code>DateFormat.getTimeInstance(style, locale)</code>
+     * would.
+     *
+     * @param date the date to format
+     * @param style the DateFormat style, e.g. <tt>DateFormat.DEFAULT</tt>
+     * @param locale the locale
+     * @return the formatted time
+     */
+    public static String formatTime(Date date, int style, Locale locale) {
+        return format(TIME_STYLE, String.valueOf(style), locale, date);
+    }
+
+    /**
+     * Return the given arguments formatted with the given message pattern for
+     * the given locale, as <code>new MessageFormat(pattern, locale)</code>
+     * would.
+     *
+     * @param pattern the MessageFormat pattern
+     * @param locale the locale
+     * @param arguments the arguments to format
+     * @return the formatted message
+     */
+    public static String formatMessage(String pattern, Locale locale, Object[] arguments) {
+        Objects.requireNonNull(pattern, "Null pattern parameter");
+        return format(MESSAGE, pattern, locale, arguments);
+    }
+
+    // -------------------------------------------------------- Private Methods
+
+    /**
+     * Format the value with a pooled formatter of the given type, pattern and
+     * locale.
+     */
+    private static String format(int type, String pattern, Locale locale, Object value) {
+        FormatPool pool = getPool(type, pattern, locale);
+
+        java.text.Format format = pool.acquire();
+        try {
+            if (format instanceof NumberFormat) {
+                return ((NumberFormat) format).format(((Number) value).doubleValue());
+
+            } else if (format instanceof MessageFormat) {
+                return ((MessageFormat) format).format((Object[]) value,
+                    new StringBuffer(), null).toString();
+
+            } else {
+                return format.format(value);
+            }
+
+        } finally {
+            pool.release(format);
+        }
+    }
+
+    /**
+     * Return the pool of formatters of the given type, pattern and locale.
+     */
+    private static FormatPool getPool(int type, String pattern, Locale locale) {
+        Map<FormatKey, FormatPool> cache = FORMAT_CLASSLOADER_CACHE.get();
+        if (cache == null) {
+            cache = FORMAT_CLASSLOADER_CACHE.createMap();
+            FORMAT_CLASSLOADER_CACHE.put(cache);
+        }
+
+        FormatKey key = new FormatKey(type, pattern, locale);
+        FormatPool pool = cache.get(key);
+        if (pool == null) {
+            pool = new FormatPool(createFormat(type, pattern, locale));
+            FormatPool existing = cache.putIfAbsent(key, pool);
+            if (existing != null) {
+                pool = existing;
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Create a formatter of the given type, pattern and locale.
+     */
+    private static java.text.Format createFormat(int type, String pattern, Locale locale) {
+        switch (type) {
+            case CURRENCY:
+                return NumberFormat.getCurrencyInstance(locale);
+            case PERCENT:
+                return NumberFormat.getPercentInstance(locale);
+            case DECIMAL:
+                return (pattern != null) ? new DecimalFormat(pattern) : new DecimalFormat();
+            case DATE_PATTERN:
+                return new SimpleDateFormat(pattern, locale);
+            case DATE_STYLE:
+                return DateFormat.getDateInstance(Integer.parseInt(pattern), locale);
+            case TIME_STYLE:
+                return DateFormat.getTimeInstance(Integer.parseInt(pattern), locale);
+            case MESSAGE:
+                return new MessageFormat(pattern, locale);
+            default:
+                throw new IllegalArgumentException("Invalid format type: " + type);
+        }
+    }
+
+    // ---------------------------------------------------------- Inner Classes
+
+    /**
+     * Provides a formatter pool key of type, pattern and locale.
+     */
+    private static class FormatKey {
+
+        private final int type;
+
+        private final String pattern;
+
+        private final Locale locale;
+
+        private final int hash;
+
+        FormatKey(int type, String pattern, Locale locale) {
+            this.type = type;
+            this.pattern = pattern;
+            this.locale = locale;
+            this.hash = 31 * (31 * type + Objects.hashCode(pattern))
+                + Objects.hashCode(locale);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FormatKey)) {
+                return false;
+            }
+            FormatKey that = (FormatKey) o;
+            return type == that.type
+                && Objects.equals(pattern, that.pattern)
+                && Objects.equals(locale, that.locale);
+        }
+    }
+
+    /**
+     * Provides a pool of formatters cloned from a prototype formatter, which
+     * is never used for formatting.
+     */
+    private static class FormatPool {
+
+        private final java.text.Format prototype;
+
+        private final Queue<java.text.Format> formats =
+            new ConcurrentLinkedQueue<java.text.Format>();
+
+        FormatPool(java.text.Format prototype) {
+            this.prototype = prototype;
+        }
+
+        java.text.Format acquire() {
+            java.text.Format format = formats.poll();
+            return (format != null) ? format : (java.text.Format) prototype.clone();
+        }
+
+        void release(java.text.Format format) {
+            formats.offer(format);
+        }
+    }
+}
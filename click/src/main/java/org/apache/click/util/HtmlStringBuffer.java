@@ -111,9 +111,8 @@ public class HtmlStringBuffer {
      * @return a reference to this <code>HtmlStringBuffer</code> object
      */
     public HtmlStringBuffer append(char value) {
-        int newcount = count + 1;
-        if (newcount > characters.length) {
-            expandCapacity(newcount);
+        if (count + 1 > characters.length) {
+            expandCapacity(count + 1);
         }
         characters[count++] = value;
 
@@ -154,12 +153,11 @@ public class HtmlStringBuffer {
         String string = String.valueOf(value);
         int length = string.length();
 
-        int newCount = count + length;
-        if (newCount > characters.length) {
-            expandCapacity(newCount);
+        if (count + length > characters.length) {
+            expandCapacity(count + length);
         }
         string.getChars(0, length, characters, count);
-        count = newCount;
+        count += length;
 
         return this;
     }
@@ -174,12 +172,11 @@ public class HtmlStringBuffer {
         String string = (value != null) ? value : "null";
         int length = string.length();
 
-        int newCount = count + length;
-        if (newCount > characters.length) {
-            expandCapacity(newCount);
+        if (count + length > characters.length) {
+            expandCapacity(count + length);
         }
         string.getChars(0, length, characters, count);
-        count = newCount;
+        count += length;
 
         return this;
     }
@@ -515,6 +512,10 @@ public class HtmlStringBuffer {
      * </ul>
      * If the <code>minimumCapacity</code> argument is non-positive, this method
      * takes no action and simply returns.
+     * <p/>
+     * Subclasses may instead write out the buffered characters and reset the
+     * buffer {@link #count}, as the append methods read the count after
+     * calling this method.
      *
      * @param minimumCapacity the minimum desired capacity
      */
@@ -0,0 +1,272 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.click.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.click.Control;
+
+/**
+ * Provides per thread recyclable HtmlStringBuffers for rendering controls to
+ * Strings, together with rendered size estimates learned per control class
+ * and name.
+ * <p/>
+ * Buffers are acquired and released in nested (last in, first out) order, for
+ * example:
+ *
+ * <pre class="javaCode">
+ * <span class="kw">public</span> String toString() {
+ *     HtmlStringBuffer buffer = HtmlStringBufferArena.acquire(<span class="kw">this</span>, getControlSizeEst());
+ *     <span class="kw">try</span> {
+ *         render(buffer);
+ *         <span class="kw">return</span> HtmlStringBufferArena.getRenderedString(<span class="kw">this</span>, buffer);
+ *     } <span class="kw">finally</span> {
+ *         HtmlStringBufferArena.release(buffer);
+ *     }
+ * } </pre>
+ *
+ * A released buffer keeps its capacity and is handed out again by the next
+ * acquire on the same thread, so hot pages stop allocating and expanding
+ * buffers. The size estimates size new buffers, and grow reused buffers, to
+ * the last rendered size of the control, instead of the static
+ * {@link org.apache.click.control.AbstractControl#getControlSizeEst()} guess.
+ * <p/>
+ * ClickServlet calls {@link #resetThreadLocalArena()} at the end of each
+ * request, which releases buffers that were not released and drops buffers
+ * larger than {@link #MAX_RETAINED_CAPACITY}.
+ * <p/>
+ * <b>PLEASE NOTE</b> a buffer must not be used after it is released.
+ */
+public final class HtmlStringBufferArena {
+
+    // -------------------------------------------------------------- Constants
+
+    /** The maximum number of nested buffers recycled per thread. */
+    static final int MAX_DEPTH = 16;
+
+    /** The maximum capacity of the buffers retained between requests. */
+    public static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    /** The maximum number of control names with learned sizes per class. */
+    static final int MAX_NAMES_PER_CLASS = 256;
+
+    /** The minimum buffer capacity. */
+    private static final int MIN_CAPACITY = 128;
+
+    /** The thread local buffer arena. */
+    private static final ThreadLocal<Arena> THREAD_LOCAL_ARENA = new ThreadLocal<Arena>() {
+        @Override
+        protected Arena initialValue() {
+            return new Arena();
+        }
+    };
+
+    /** The learned rendered sizes, keyed on control class and name. */
+    private static final ClassLoaderCache<Map<Class<?>, Map<String, Integer>>> SIZE_CLASSLOADER_CACHE
+        = new ClassLoaderCache<Map<Class<?>, Map<String, Integer>>>("html-buffer-size", 1000);
+
+    // ----------------------------------------------------------- Constructors
+
+    /**
+     * Not instantiable.
+     */
+    private HtmlStringBufferArena() {
+    }
+
+    // --------------------------------------------------------- Public Methods
+
+    /**
+     * Acquire an empty buffer for rendering the given control, with at least
+     * the learned rendered size of the control, or the given estimate if no
+     * size has been learned yet.
+     *
+     * @param control the control to render
+     * @param sizeEstimate the control size estimate
+     * @return an empty buffer for rendering the control
+     */
+    public static HtmlStringBuffer acquire(Control control, int sizeEstimate) {
+        return acquire(getSizeEstimate(control, sizeEstimate));
+    }
+
+    /**
+     * Acquire an empty buffer with at least the given capacity.
+     *
+     * @param capacity the minimum buffer capacity
+     * @return an empty buffer
+     */
+    public static HtmlStringBuffer acquire(int capacity) {
+        capacity = Math.max(capacity, MIN_CAPACITY);
+
+        Arena arena = THREAD_LOCAL_ARENA.get();
+        if (arena.depth >= MAX_DEPTH) {
+            // Not recycled, see release
+            return new HtmlStringBuffer(capacity);
+        }
+
+        HtmlStringBuffer buffer = arena.buffers[arena.depth];
+        if (buffer == null) {
+            buffer = new HtmlStringBuffer(capacity);
+            arena.buffers[arena.depth] = buffer;
+
+        } else {
+            buffer.count = 0;
+            if (buffer.characters.length < capacity) {
+                buffer.characters = new char[capacity];
+            }
+        }
+
+        arena.depth++;
+
+        return buffer;
+    }
+
+    /**
+     * Release the given buffer, which must be the last acquired buffer of
+     * the current thread. Other buffers are left to be garbage collected.
+     *
+     * @param buffer the buffer to release
+     */
+    public static void release(HtmlStringBuffer buffer) {
+        Arena arena = THREAD_LOCAL_ARENA.get();
+
+        if (arena.depth > 0 && arena.buffers[arena.depth - 1] == buffer) {
+            arena.depth--;
+        }
+    }
+
+    /**
+     * Return the buffer content as a String, and learn the rendered size of
+     * the given control.
+     *
+     * @param control the rendered control
+     * @param buffer the buffer the control was rendered to
+     * @return the buffer content
+     */
+    public static String getRenderedString(Control control, HtmlStringBuffer buffer) {
+        recordSize(control, buffer.length());
+        return buffer.toString();
+    }
+
+    /**
+     * Release all buffers of the current thread, and drop the buffers with a
+     * capacity larger than {@link #MAX_RETAINED_CAPACITY}. This method is
+     * called by ClickServlet at the end of each request.
+     */
+    public static void resetThreadLocalArena() {
+        Arena arena = THREAD_LOCAL_ARENA.get();
+        arena.depth = 0;
+
+        HtmlStringBuffer[] buffers = arena.buffers;
+        for (int i = 0; i < buffers.length; i++) {
+            if (buffers[i] != null && buffers[i].characters.length > MAX_RETAINED_CAPACITY) {
+                buffers[i] = null;
+            }
+        }
+    }
+
+    /**
+     * Return the learned rendered size of the given control, or the given
+     * estimate if no size has been learned for the control class and name.
+     *
+     * @param control the control
+     * @param sizeEstimate the control size estimate
+     * @return the learned rendered size or the size estimate
+     */
+    public static int getSizeEstimate(Control control, int sizeEstimate) {
+        Map<String, Integer> sizes = getSizes(control.getClass());
+        Integer size = sizes.get(getName(control));
+        return (size != null) ? size : sizeEstimate;
+    }
+
+    /**
+     * Learn the rendered size of the given control. The estimate is the
+     * rendered size plus 1/8th, so small variations in the rendered output do
+     * not expand the buffer.
+     *
+     * @param control the rendered control
+     * @param renderedSize the rendered size in characters
+     */
+    public static void recordSize(Control control, int renderedSize) {
+        Map<String, Integer> sizes = getSizes(control.getClass());
+        String name = getName(control);
+
+        int estimate = renderedSize + (renderedSize >> 3);
+        Integer size = sizes.get(name);
+
+        if (size == null) {
+            if (sizes.size() < MAX_NAMES_PER_CLASS) {
+                sizes.put(name, estimate);
+            }
+
+        } else if (renderedSize > size || estimate < (size >> 1)) {
+            // Grow to fit, and shrink when the estimate is twice too large
+            sizes.put(name, estimate);
+        }
+    }
+
+    // -------------------------------------------------------- Private Methods
+
+    /**
+     * Return the learned rendered sizes of the given control class.
+     *
+     * @param type the control class
+     * @return the learned rendered sizes keyed on control name
+     */
+    private static Map<String, Integer> getSizes(Class<?> type) {
+        Map<Class<?>, Map<String, Integer>> cache = SIZE_CLASSLOADER_CACHE.get();
+        if (cache == null) {
+            cache = SIZE_CLASSLOADER_CACHE.createMap();
+            SIZE_CLASSLOADER_CACHE.put(cache);
+        }
+
+        Map<String, Integer> sizes = cache.get(type);
+        if (sizes == null) {
+            sizes = new ConcurrentHashMap<String, Integer>();
+            cache.put(type, sizes);
+        }
+        return sizes;
+    }
+
+    /**
+     * Return the name of the given control, or an empty string if the control
+     * has no name.
+     *
+     * @param control the control
+     * @return the control name, or an empty string
+     */
+    private static String getName(Control control) {
+        String name = control.getName();
+        return (name != null) ? name : "";
+    }
+
+    // ---------------------------------------------------------- Inner Classes
+
+    /**
+     * Provides the recyclable buffers of a thread.
+     */
+    private static final class Arena {
+
+        /** The recyclable buffers, indexed on nesting depth. */
+        final HtmlStringBuffer[] buffers = new HtmlStringBuffer[MAX_DEPTH];
+
+        /** The number of acquired buffers. */
+        int depth;
+    }
+}
@@ -24,14 +24,12 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
 import javax.servlet.ServletContext;
 
@@ -71,11 +69,11 @@ public class MessagesMap implements Map<String, String> {
 
     /** Cache of resource bundle and locales which were not found, with support for multiple class loaders. */
     private static final ClassLoaderCache<Set<String>> NOT_FOUND_CLASSLOADER_CACHE
-        = new ClassLoaderCache<Set<String>>();
+        = new ClassLoaderCache<Set<String>>("messages-not-found", 10000);
 
     /** Provides a synchronized cache of get value reflection methods, with support for multiple class loaders. */
     protected static final ClassLoaderCache<Map<CacheKey, Map<String, String>>> MESSAGES_CLASSLOADER_CACHE
-        = new ClassLoaderCache<Map<CacheKey, Map<String, String>>>();
+        = new ClassLoaderCache<Map<CacheKey, Map<String, String>>>("messages", 5000);
 
     /** The cache key set load lock. */
     protected static final Object CACHE_LOAD_LOCK = new Object();
@@ -377,7 +375,7 @@ public class MessagesMap implements Map<String, String> {
     protected static Set<String> getNotFoundCache() {
         Set<String> notFoundCache = NOT_FOUND_CLASSLOADER_CACHE.get();
         if (notFoundCache == null) {
-            notFoundCache = new HashSet<String>();
+            notFoundCache = Collections.newSetFromMap(NOT_FOUND_CLASSLOADER_CACHE.<String, Boolean>createMap());
             NOT_FOUND_CLASSLOADER_CACHE.put(notFoundCache);
         }
 
@@ -387,7 +385,7 @@ public class MessagesMap implements Map<String, String> {
     protected static Map<CacheKey, Map<String, String>> getMessagesCache() {
         Map<CacheKey, Map<String, String>> messagesCache = MESSAGES_CLASSLOADER_CACHE.get();
         if (messagesCache == null) {
-            messagesCache = new ConcurrentHashMap<CacheKey, Map<String, String>>();
+            messagesCache = MESSAGES_CLASSLOADER_CACHE.createMap();
             MESSAGES_CLASSLOADER_CACHE.put(messagesCache);
         }
 
@@ -215,11 +215,18 @@ public class PageImports {
     }
 
     /**
-     * Populate the specified model with html import keys.
+     * Populate the specified model with html import keys. A
+     * {@link TemplateModel} creates the html import objects when they are
+     * first read.
      *
      * @param model the model to populate with html import keys
      */
     public void populateTemplateModel(Map<String, Object> model) {
+        if (model instanceof TemplateModel) {
+            ((TemplateModel) model).setPageImports(this);
+            return;
+        }
+
         LogService logger = ClickUtils.getLogService();
 
         Object pop = model.put("headElements", new HeadElements());
@@ -271,6 +278,29 @@ public class PageImports {
         }
     }
 
+    /**
+     * Create the html import object of the given template model name, or
+     * return null if the name is not an html import key.
+     *
+     * @param name the template model name
+     * @return the html import object, or null if not an html import key
+     */
+    Object createTemplateValue(String name) {
+        switch (name) {
+            case "headElements":
+                return new HeadElements();
+            case "jsElements":
+            case "jsImports":
+                return new JsElements();
+            case "imports":
+                return new Imports();
+            case "cssImports":
+                return new CssElements();
+            default:
+                return null;
+        }
+    }
+
     /**
      * Populate the specified request with html import keys.
      *
@@ -40,7 +40,7 @@ public class PropertyUtils {
      * support for multiple class loaders.
      */
     private static final ClassLoaderCache<Map<CacheKey, Method>> GET_METHOD_CLASSLOADER_CACHE
-            = new ClassLoaderCache<Map<CacheKey, Method>>();
+            = new ClassLoaderCache<Map<CacheKey, Method>>("property-getter", 10000);
 
     // -------------------------------------------------------- Public Methods
     /**
@@ -203,7 +203,7 @@ public class PropertyUtils {
     private static Map<CacheKey, Method> getGetMethodCache() {
         Map<CacheKey, Method> getMethodCache = GET_METHOD_CLASSLOADER_CACHE.get();
         if (getMethodCache == null) {
-            getMethodCache = new ConcurrentHashMap<CacheKey, Method>();
+            getMethodCache = GET_METHOD_CLASSLOADER_CACHE.createMap();
             GET_METHOD_CLASSLOADER_CACHE.put(getMethodCache);
         }
 
@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.click.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Provides a HtmlStringBuffer which writes its content to a
+ * <tt>Writer</tt> in bounded chunks, instead of holding the whole content
+ * in memory.
+ * <p/>
+ * Characters are buffered until the buffer would exceed the chunk size, at
+ * which point the buffered characters are written to the writer. Strings
+ * larger than the chunk size are written straight to the writer. Call
+ * {@link #flush()} after rendering to write out the remaining characters.
+ * <p/>
+ * Controls render the same output to a StreamingHtmlStringBuffer as to a
+ * HtmlStringBuffer, for example:
+ *
+ * <pre class="javaCode">
+ * StreamingHtmlStringBuffer buffer = <span class="kw">new</span> StreamingHtmlStringBuffer(writer);
+ * table.render(buffer);
+ * buffer.flush(); </pre>
+ *
+ * As the buffer content is written out as it is rendered, {@link #toString()}
+ * only returns the characters not yet written, while {@link #length()} returns
+ * the total number of characters rendered.
+ * <p/>
+ * IO errors writing to the writer are thrown as an
+ * <tt>UncheckedIOException</tt>.
+ */
+public class StreamingHtmlStringBuffer extends HtmlStringBuffer {
+
+    // -------------------------------------------------------------- Constants
+
+    /** The default chunk size of 8192 characters. */
+    public static final int DEFAULT_CHUNK_SIZE = 8192;
+
+    // ----------------------------------------------------- Instance Variables
+
+    /** The maximum number of characters to buffer before writing them out. */
+    protected final int chunkSize;
+
+    /** The number of characters written to the writer. */
+    protected long writtenCount;
+
+    /** The writer to write the buffer content to. */
+    protected final Writer writer;
+
+    // ----------------------------------------------------------- Constructors
+
+    /**
+     * Create a new streaming HTML StringBuffer for the given writer, with an
+     * initial capacity of 128 characters and the default chunk size.
+     *
+     * @param writer the writer to write the buffer content to
+     */
+    public StreamingHtmlStringBuffer(Writer writer) {
+        this(writer, 128, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Create a new streaming HTML StringBuffer for the given writer, with the
+     * specified initial capacity and chunk size.
+     *
+     * @param writer the writer to write the buffer content to
+     * @param length the initial capacity
+     * @param chunkSize the maximum number of characters to buffer
+     */
+    public StreamingHtmlStringBuffer(Writer writer, int length, int chunkSize) {
+        super(Math.min(length, chunkSize));
+        if (writer == null) {
+            throw new IllegalArgumentException("Null writer parameter");
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Invalid chunkSize: " + chunkSize);
+        }
+        this.writer = writer;
+        this.chunkSize = chunkSize;
+    }
+
+    // --------------------------------------------------------- Public Methods
+
+    /**
+     * @see HtmlStringBuffer#append(Object)
+     *
+     * @param value the object value to append
+     * @return a reference to this <code>HtmlStringBuffer</code> object
+     */
+    @Override
+    public HtmlStringBuffer append(Object value) {
+        return append(String.valueOf(value));
+    }
+
+    /**
+     * @see HtmlStringBuffer#append(String)
+     *
+     * @param value the string value to append
+     * @return a reference to this <code>HtmlStringBuffer</code> object
+     */
+    @Override
+    public HtmlStringBuffer append(String value) {
+        if (value != null && value.length() > chunkSize) {
+            flush();
+            write(value);
+            return this;
+        }
+
+        return super.append(value);
+    }
+
+    /**
+     * Write the buffered characters to the writer. The writer itself is not
+     * flushed.
+     */
+    public void flush() {
+        if (count > 0) {
+            try {
+                writer.write(characters, 0, count);
+            } catch (IOException ioe) {
+                throw new UncheckedIOException(ioe);
+            }
+            writtenCount += count;
+            count = 0;
+        }
+    }
+
+    /**
+     * Return the total number of characters rendered to the buffer, including
+     * the characters already written to the writer.
+     *
+     * @return the total number of characters rendered to the buffer
+     */
+    @Override
+    public int length() {
+        return (int) Math.min(writtenCount + count, Integer.MAX_VALUE);
+    }
+
+    // ------------------------------------------------------ Protected Methods
+
+    /**
+     * Write out the buffered characters if the minimum capacity exceeds the
+     * chunk size, and otherwise expand the buffer capacity up to the chunk
+     * size.
+     *
+     * @see HtmlStringBuffer#expandCapacity(int)
+     *
+     * @param minimumCapacity the minimum desired capacity
+     */
+    @Override
+    protected void expandCapacity(int minimumCapacity) {
+        int required = minimumCapacity;
+
+        if (required > chunkSize) {
+            required -= count;
+            flush();
+        }
+
+        if (required > characters.length) {
+            int newCapacity = Math.min((characters.length + 1) * 2, chunkSize);
+            newCapacity = Math.max(newCapacity, required);
+
+            char[] newValue = new char[newCapacity];
+            System.arraycopy(characters, 0, newValue, 0, count);
+            characters = newValue;
+        }
+    }
+
+    // -------------------------------------------------------- Private Methods
+
+    /**
+     * Write the given string straight to the writer.
+     *
+     * @param value the string to write
+     */
+    private void write(String value) {
+        try {
+            writer.write(value);
+        } catch (IOException ioe) {
+            throw new UncheckedIOException(ioe);
+        }
+        writtenCount += value.length();
+    }
+}
@@ -0,0 +1,353 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.click.util;
+
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.click.Context;
+import org.apache.click.Page;
+
+/**
+ * Provides a layered template model which reads through to the page model,
+ * instead of copying it for every render.
+ * <p>
+ * Values are looked up in the following order:
+ * <ol>
+ * <li>the values put in the template model, e.g. with the Velocity
+ * <tt>#set</tt> directive</li>
+ * <li>the page imports variables: <tt>headElements</tt>, <tt>jsElements</tt>,
+ * <tt>imports</tt>, <tt>cssImports</tt> and <tt>jsImports</tt></li>
+ * <li>the framework variables: <tt>request</tt>, <tt>response</tt>,
+ * <tt>session</tt>, <tt>context</tt>, <tt>format</tt>, <tt>path</tt> and
+ * <tt>messages</tt></li>
+ * <li>the {@link Page#getModel() page model}</li>
+ * </ol>
+ *
+ * The framework and page imports variables are only created when they are
+ * first read, and the page model is never modified. The template model
+ * entries are only collected when the map is iterated.
+ *
+ * @see ClickUtils#createTemplateModel(Page, Context)
+ */
+public class TemplateModel extends AbstractMap<String, Object> {
+
+    /** The template model variable names reserved by the framework. */
+    static final String[] RESERVED_NAMES = {
+        "request", "response", "session", "context", "format", "path",
+        "messages", "headElements", "jsElements", "imports", "cssImports",
+        "jsImports"
+    };
+
+    /** The value of a missing or removed variable. */
+    private static final Object NONE = new Object();
+
+    // -------------------------------------------------------------- Variables
+
+    /** The page of the template. */
+    protected final Page page;
+
+    /** The request context. */
+    protected final Context context;
+
+    /** The page model. */
+    protected final Map<String, Object> pageModel;
+
+    /** The page imports, or null if the page imports variables are not set. */
+    protected PageImports pageImports;
+
+    /** The values put in the template model, created on the first put. */
+    private Map<String, Object> localModel;
+
+    /** The framework and page imports variables created, by reserved index. */
+    private Object[] reservedValues;
+
+    // ----------------------------------------------------------- Constructors
+
+    /**
+     * Create a template model for the given page and request context. A
+     * warning is logged for each page model value hidden by a framework
+     * variable, unless the page is stateful.
+     *
+     * @param page the page of the template
+     * @param context the request context
+     */
+    public TemplateModel(Page page, Context context) {
+        this.page = page;
+        this.context = context;
+        this.pageModel = page.getModel();
+
+        if (!pageModel.isEmpty() && !page.isStateful()) {
+            for (int i = 0; i < 7; i++) {
+                warnIfReserved(i);
+            }
+        }
+    }
+
+    // --------------------------------------------------------- Public Methods
+
+    /**
+     * Set the page imports providing the <tt>headElements</tt>,
+     * <tt>jsElements</tt>, <tt>imports</tt>, <tt>cssImports</tt> and
+     * <tt>jsImports</tt> variables.
+     *
+     * @param pageImports the page imports
+     */
+    public void setPageImports(PageImports pageImports) {
+        this.pageImports = pageImports;
+
+        if (pageImports != null && !pageModel.isEmpty() && !page.isStateful()) {
+            for (int i = 7; i < RESERVED_NAMES.length; i++) {
+                warnIfReserved(i);
+            }
+        }
+    }
+
+    /**
+     * Return the value of the given variable, or null if not defined.
+     *
+     * @param key the variable name
+     * @return the value of the variable, or null if not defined
+     */
+    @Override
+    public Object get(Object key) {
+        Object value = lookup(key);
+        return (value != NONE) ? value : null;
+    }
+
+    /**
+     * Return true if the given variable is defined.
+     *
+     * @param key the variable name
+     * @return true if the variable is defined
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        return lookup(key) != NONE;
+    }
+
+    /**
+     * Set the value of the given variable in the template model. The page
+     * model is not modified.
+     *
+     * @param key the variable name
+     * @param value the variable value
+     * @return the previous value of the variable
+     */
+    @Override
+    public Object put(String key, Object value) {
+        Object previous = get(key);
+        getLocalModel().put(key, value);
+        return previous;
+    }
+
+    /**
+     * Remove the given variable from the template model. The page model is
+     * not modified.
+     *
+     * @param key the variable name
+     * @return the previous value of the variable
+     */
+    @Override
+    public Object remove(Object key) {
+        Object previous = lookup(key);
+        if (previous == NONE) {
+            return null;
+        }
+        getLocalModel().put((String) key, NONE);
+        return previous;
+    }
+
+    /**
+     * Remove all the variables from the template model. The page model is not
+     * modified.
+     */
+    @Override
+    public void clear() {
+        for (String key : keySet()) {
+            getLocalModel().put(key, NONE);
+        }
+    }
+
+    /**
+     * Return a snapshot of the template model entries. Changes to the returned
+     * set are not reflected in the template model.
+     *
+     * @return a snapshot of the template model entries
+     */
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        Map<String, Object> entries = new HashMap<String, Object>(pageModel);
+
+        for (int i = 0; i < RESERVED_NAMES.length; i++) {
+            Object value = getReserved(i);
+            if (value != NONE) {
+                entries.put(RESERVED_NAMES[i], value);
+            }
+        }
+
+        if (localModel != null) {
+            for (Map.Entry<String, Object> entry : localModel.entrySet()) {
+                if (entry.getValue() == NONE) {
+                    entries.remove(entry.getKey());
+                } else {
+                    entries.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        return entries.entrySet();
+    }
+
+    // ------------------------------------------------------ Protected Methods
+
+    /**
+     * Create the value of the reserved variable of the given name, or return
+     * null if the variable is not defined.
+     *
+     * @param name the reserved variable name
+     * @return the value of the reserved variable, or null if not defined
+     */
+    protected Object createReservedValue(String name) {
+        switch (name) {
+            case "request":
+                return context.getRequest();
+            case "response":
+                return context.getResponse();
+            case "session":
+                HttpServletRequest request = context.getRequest();
+                return new SessionMap(request.getSession(false));
+            case "context":
+                return context.getRequest().getContextPath();
+            case "format":
+                return page.getFormat();
+            case "path":
+                return page.getPath();
+            case "messages":
+                return page.getMessages();
+            default:
+                return (pageImports != null)
+                    ? pageImports.createTemplateValue(name) : null;
+        }
+    }
+
+    // -------------------------------------------------------- Private Methods
+
+    /**
+     * Return the value of the given variable, or NONE if not defined.
+     */
+    private Object lookup(Object key) {
+        if (localModel != null) {
+            Object value = localModel.get(key);
+            if (value != null || localModel.containsKey(key)) {
+                return value;
+            }
+        }
+
+        int index = indexOfReserved(key);
+        if (index != -1) {
+            Object value = getReserved(index);
+            if (value != NONE) {
+                return value;
+            }
+        }
+
+        Object value = pageModel.get(key);
+        if (value != null || pageModel.containsKey(key)) {
+            return value;
+        }
+        return NONE;
+    }
+
+    /**
+     * Return the value of the reserved variable of the given index, creating
+     * it on first access, or NONE if not defined.
+     */
+    private Object getReserved(int index) {
+        if (reservedValues == null) {
+            reservedValues = new Object[RESERVED_NAMES.length];
+        }
+        Object value = reservedValues[index];
+        if (value == null) {
+            value = createReservedValue(RESERVED_NAMES[index]);
+            if (value == null) {
+                value = NONE;
+            }
+            reservedValues[index] = value;
+        }
+        return value;
+    }
+
+    /**
+     * Return the index of the given reserved variable name, or -1 if the name
+     * is not reserved.
+     */
+    private static int indexOfReserved(Object key) {
+        if (key instanceof String) {
+            switch ((String) key) {
+                case "request": return 0;
+                case "response": return 1;
+                case "session": return 2;
+                case "context": return 3;
+                case "format": return 4;
+                case "path": return 5;
+                case "messages": return 6;
+                case "headElements": return 7;
+                case "jsElements": return 8;
+                case "imports": return 9;
+                case "cssImports": return 10;
+                case "jsImports": return 11;
+                default: return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Log a warning if the page model contains the reserved variable of the
+     * given index.
+     */
+    private void warnIfReserved(int index) {
+        String name = RESERVED_NAMES[index];
+        Object pop = pageModel.get(name);
+        if (pop != null && getReserved(index) != NONE) {
+            String msg = page.getClass().getName() + " on " + page.getPath()
+                         + " model contains an object keyed with reserved "
+                         + "name \"" + name + "\". The page model object "
+                         + pop + " has been replaced with the " + name
+                         + " variable";
+            ClickUtils.getLogService().warn(msg);
+        }
+    }
+
+    /**
+     * Return the values put in the template model, creating the map if
+     * required.
+     */
+    private Map<String, Object> getLocalModel() {
+        if (localModel == null) {
+            localModel = new HashMap<String, Object>();
+        }
+        return localModel;
+    }
+}
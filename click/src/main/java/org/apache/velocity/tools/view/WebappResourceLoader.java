@@ -19,8 +19,18 @@
 package org.apache.velocity.tools.view;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.servlet.ServletContext;
 import java.io.Reader;
 import java.io.InputStreamReader;
@@ -48,6 +58,16 @@ import org.apache.velocity.runtime.resource.loader.ResourceLoader;
  * the velocity.properties file ... auto-reloading of global macros requires the
  * webapp.resource.loader.cache property to be set to 'false'.
  *
+ * Alternatively the webapp.resource.loader.watch property can be set to 'true',
+ * with caching enabled and a modificationCheckInterval greater than 0. The
+ * directories of the loaded templates are then watched with a
+ * {@link WatchService}, and the cached templates are only reloaded after they
+ * are modified on disk, instead of probing the file system on every check.
+ * Templates which cannot be resolved to a file, e.g. templates served from a
+ * .war archive, are checked as usual.
+ *
+ * The loader is thread safe and does not lock while loading templates.
+ *
  * @author <a href="mailto:geirm@optonline.net">Geir Magnusson Jr.</a>
  * @author Nathan Bubna
  * @author <a href="mailto:claude@savoirweb.com">Claude Brisson</a>
@@ -62,11 +82,28 @@ public class WebappResourceLoader extends ResourceLoader {
     /**
      * Map of template paths.
      */
-    protected HashMap<String, String> templatePaths = null;
+    protected Map<String, String> templatePaths = null;
     /**
      * The context servlet.
      */
     protected ServletContext servletContext = null;
+    /**
+     * The watch service of the template directories, or null if templates
+     * are not watched.
+     */
+    protected WatchService watchService = null;
+    /**
+     * Map of watched template files keyed on template name.
+     */
+    protected final Map<String, Path> watchedTemplates = new ConcurrentHashMap<>();
+    /**
+     * Set of watched directories.
+     */
+    protected final Set<Path> watchedDirs = ConcurrentHashMap.newKeySet();
+    /**
+     * Set of names of the watched templates modified since they were loaded.
+     */
+    protected final Set<String> modifiedTemplates = ConcurrentHashMap.newKeySet();
 
     /**
      * This is abstract in the base class, so we need it.
@@ -106,7 +143,13 @@ public class WebappResourceLoader extends ResourceLoader {
         }
 
         /* init the template paths map */
-        templatePaths = new HashMap<>();
+        templatePaths = new ConcurrentHashMap<>();
+
+        /* start watching the template directories if required */
+        if (configuration.getBoolean("watch", false) && servletContext != null
+            && servletContext.getRealPath("/") != null) {
+            startWatching();
+        }
 
         log.trace("WebappResourceLoader: initialization complete.");
     }
@@ -118,7 +161,7 @@ public class WebappResourceLoader extends ResourceLoader {
      * @return InputStream containing the template
      * @throws ResourceNotFoundException if template not found in classpath.
      */
-    public synchronized InputStream getResourceStream(String name)
+    public InputStream getResourceStream(String name)
             throws ResourceNotFoundException {
         InputStream result = null;
 
@@ -136,6 +179,9 @@ public class WebappResourceLoader extends ResourceLoader {
         for (String path1 : paths) {
             String path = path1 + name;
             try {
+                if (watchService != null) {
+                    watch(name, path);
+                }
                 result = servletContext.getResourceAsStream(path);
                 /* save the path and exit the loop if we found the template */
                 if (result != null) {
@@ -213,6 +259,17 @@ public class WebappResourceLoader extends ResourceLoader {
      */
     @Override
     public boolean isSourceModified(Resource resource) {
+        if (watchService != null) {
+            /* names are saved without leading '/' when loaded */
+            String name = resource.getName();
+            while (name.startsWith("/")) {
+                name = name.substring(1);
+            }
+            if (watchedTemplates.containsKey(name)) {
+                return modifiedTemplates.contains(name);
+            }
+        }
+
         String rootPath = servletContext.getRealPath("/");
         if (rootPath == null) {
             // rootPath is null if the servlet container cannot translate the
@@ -276,4 +333,139 @@ public class WebappResourceLoader extends ResourceLoader {
             return 0;
         }
     }
+
+    /**
+     * Stop watching the template directories.
+     */
+    public void close() {
+        WatchService service = watchService;
+        watchService = null;
+        if (service != null) {
+            try {
+                service.close();
+            } catch (IOException ioe) {
+                log.debug("WebappResourceLoader: error closing watch service", ioe);
+            }
+        }
+    }
+
+    /**
+     * Create the watch service and start the thread invalidating the modified
+     * templates. The loader is also registered as a runtime application
+     * attribute under its class name, so it can be closed.
+     */
+    protected void startWatching() {
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+        } catch (IOException ioe) {
+            log.warn("WebappResourceLoader: unable to watch templates", ioe);
+            return;
+        }
+
+        rsvc.setApplicationAttribute(WebappResourceLoader.class.getName(), this);
+
+        final WatchService service = watchService;
+        Thread thread = new Thread(new Runnable() {
+            public void run() {
+                processWatchEvents(service);
+            }
+        }, "WebappResourceLoader-watch");
+        thread.setDaemon(true);
+        thread.start();
+
+        log.info("WebappResourceLoader: watching templates for modifications");
+    }
+
+    /**
+     * Watch the file of the given template, before it is loaded.
+     *
+     * @param name the template name
+     * @param path the template path relative to the webapp root
+     */
+    protected void watch(String name, String path) {
+        /* the template is being loaded, so it is no longer modified */
+        modifiedTemplates.remove(name);
+
+        String realPath = servletContext.getRealPath(path);
+        if (realPath == null) {
+            return;
+        }
+
+        Path file = new File(realPath).toPath().toAbsolutePath();
+        if (!file.toFile().isFile()) {
+            return;
+        }
+
+        Path dir = file.getParent();
+        if (!watchedDirs.contains(dir)) {
+            try {
+                dir.register(watchService,
+                             StandardWatchEventKinds.ENTRY_CREATE,
+                             StandardWatchEventKinds.ENTRY_DELETE,
+                             StandardWatchEventKinds.ENTRY_MODIFY);
+                watchedDirs.add(dir);
+            } catch (ClosedWatchServiceException cwse) {
+                return;
+            } catch (IOException ioe) {
+                log.debug("WebappResourceLoader: unable to watch " + dir, ioe);
+                return;
+            }
+        }
+        watchedTemplates.put(name, file);
+    }
+
+    /**
+     * Stop watching the given directory, for example when it is deleted. The
+     * templates of the directory are no longer watched, so their
+     * modification is checked with their last modified time, until they are
+     * reloaded and watched again.
+     *
+     * @param dir the directory which is no longer watched
+     */
+    protected void unwatch(Path dir) {
+        watchedDirs.remove(dir);
+
+        for (Map.Entry<String, Path> entry : watchedTemplates.entrySet()) {
+            if (dir.equals(entry.getValue().getParent())) {
+                watchedTemplates.remove(entry.getKey(), entry.getValue());
+                modifiedTemplates.remove(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Mark the watched templates as modified when their files change, until
+     * the watch service is closed.
+     *
+     * @param service the watch service to take the events from
+     */
+    protected void processWatchEvents(WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                Path dir = (Path) key.watchable();
+
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        modifiedTemplates.addAll(watchedTemplates.keySet());
+                        continue;
+                    }
+                    Path file = dir.resolve((Path) event.context());
+                    for (Map.Entry<String, Path> entry : watchedTemplates.entrySet()) {
+                        if (entry.getValue().equals(file)) {
+                            modifiedTemplates.add(entry.getKey());
+                        }
+                    }
+                }
+
+                if (!key.reset()) {
+                    unwatch(dir);
+                }
+            }
+        } catch (ClosedWatchServiceException cwse) {
+            // the loader is closed
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
 }
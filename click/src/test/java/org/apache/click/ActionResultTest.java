@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.click;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+import org.apache.click.servlet.MockRequest;
+import org.apache.click.servlet.MockResponse;
+
+/**
+ * Tests for the ActionResult class.
+ */
+public class ActionResultTest extends TestCase {
+
+    private File tmpdir;
+
+    private MockContainer container;
+
+    private MockResponse response;
+
+    private Context context;
+
+    @Override
+    protected void setUp() throws Exception {
+        tmpdir = File.createTempFile("click", "");
+        tmpdir.delete();
+        tmpdir.mkdir();
+
+        File file = new File(tmpdir, "WEB-INF/click.xml");
+        file.getParentFile().mkdirs();
+        PrintStream pstr = new PrintStream(file);
+        pstr.println("<?xml version='1.0' encoding=\"UTF-8\" standalone=\"yes\"?>");
+        pstr.println("<click-app>");
+        pstr.println(" <pages/>");
+        pstr.println(" <mode value='production'/>");
+        pstr.println("</click-app>");
+        pstr.close();
+
+        pstr = new PrintStream(new File(tmpdir, "customers.htm"));
+        pstr.println("<table>");
+        pstr.println("#foreach ($customer in $customers)");
+        pstr.println("<tr><td>$customer</td><td>$customer.length()</td></tr>");
+        pstr.println("#end");
+        pstr.println("</table>");
+        pstr.close();
+
+        pstr = new PrintStream(new File(tmpdir, "error.htm"));
+        pstr.println("<p>$customers.get(0)</p>");
+        pstr.println("#if ($customers");
+        pstr.close();
+
+        container = new MockContainer(tmpdir.getAbsolutePath());
+        container.start();
+
+        MockRequest request = new MockRequest(container.getServletContext());
+        response = new MockResponse();
+        context = MockContext.initContext(container.getServletConfig(), request,
+            response, container.getClickServlet());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        container.stop();
+        deleteDir(tmpdir);
+    }
+
+    /**
+     * Check that a template ActionResult is rendered to the response writer.
+     */
+    public void testRenderTemplate() throws Exception {
+        Map<String, Object> model = createModel(3);
+
+        ActionResult actionResult =
+            new ActionResult("/customers.htm", model, ActionResult.HTML);
+        actionResult.render(context);
+
+        String document = response.getDocument();
+        assertTrue(document.contains("<tr><td>Customer 2</td><td>10</td></tr>"));
+        assertEquals(context.renderTemplate("/customers.htm", model), document);
+        assertEquals(ActionResult.HTML, response.getContentType());
+    }
+
+    /**
+     * Check that a template ActionResult with a reader renders only the
+     * template.
+     */
+    public void testRenderTemplateWithReader() throws Exception {
+        Map<String, Object> model = createModel(3);
+
+        ActionResult actionResult =
+            new ActionResult("/customers.htm", model, ActionResult.HTML);
+        actionResult.setReader(new StringReader("reader content"));
+        actionResult.render(context);
+
+        String document = response.getDocument();
+        assertEquals(context.renderTemplate("/customers.htm", model), document);
+        assertFalse(document.contains("reader content"));
+    }
+
+    /**
+     * Check that a template error before the response is committed discards
+     * the partially rendered template and is thrown, so the error page is
+     * rendered.
+     */
+    public void testRenderTemplateError() throws Exception {
+        // The template fails to parse, the error report is rendered
+        Map<String, Object> model = createModel(1);
+
+        ActionResult actionResult =
+            new ActionResult("/error.htm", model, ActionResult.HTML);
+        try {
+            actionResult.render(context);
+            fail();
+        } catch (RuntimeException expected) {
+            // expected
+        }
+
+        assertEquals("", response.getDocument());
+        assertFalse(response.isCommitted());
+
+        // The response writer is still open for the error page
+        response.getWriter().write("error page");
+        response.getWriter().flush();
+        assertEquals("error page", response.getDocument());
+    }
+
+    /**
+     * Compare the bytes allocated rendering a large template ActionResult by
+     * materializing the template as a String, and by streaming the template
+     * to the response writer.
+     */
+    public void testRenderTemplateAllocation() throws Exception {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (!(threadBean instanceof com.sun.management.ThreadMXBean)) {
+            return;
+        }
+        com.sun.management.ThreadMXBean allocationBean =
+            (com.sun.management.ThreadMXBean) threadBean;
+
+        int renders = 200;
+        Map<String, Object> model = createModel(2000);
+        ActionResult actionResult =
+            new ActionResult("/customers.htm", model, ActionResult.HTML);
+
+        // Warm up the template cache and response buffer
+        for (int i = 0; i < 20; i++) {
+            renderString(model);
+            renderStreaming(actionResult);
+        }
+
+        long threadId = Thread.currentThread().getId();
+
+        long start = allocationBean.getThreadAllocatedBytes(threadId);
+        long time = System.currentTimeMillis();
+        for (int i = 0; i < renders; i++) {
+            renderString(model);
+        }
+        long stringTime = System.currentTimeMillis() - time;
+        long stringBytes = allocationBean.getThreadAllocatedBytes(threadId) - start;
+
+        start = allocationBean.getThreadAllocatedBytes(threadId);
+        time = System.currentTimeMillis();
+        for (int i = 0; i < renders; i++) {
+            renderStreaming(actionResult);
+        }
+        long streamingTime = System.currentTimeMillis() - time;
+        long streamingBytes = allocationBean.getThreadAllocatedBytes(threadId) - start;
+
+        int length = response.getDocument().length();
+
+        System.err.printf("ActionResult string render: %1d chars, %2d bytes allocated/render in %3d ms\n",
+            length, stringBytes / renders, stringTime);
+        System.err.printf("ActionResult streaming render: %1d chars, %2d bytes allocated/render in %3d ms\n",
+            length, streamingBytes / renders, streamingTime);
+
+        assertTrue(streamingBytes < stringBytes);
+    }
+
+    // Private Methods --------------------------------------------------------
+
+    private Map<String, Object> createModel(int size) {
+        List<String> customers = new ArrayList<String>(size);
+        for (int i = 0; i < size; i++) {
+            customers.add("Customer " + i);
+        }
+        Map<String, Object> model = new HashMap<String, Object>();
+        model.put("customers", customers);
+        return model;
+    }
+
+    private void renderString(Map<String, Object> model) throws IOException {
+        response.resetBuffer();
+        String result = context.renderTemplate("/customers.htm", model);
+        response.getWriter().write(result);
+    }
+
+    private void renderStreaming(ActionResult actionResult) {
+        response.resetBuffer();
+        actionResult.render(context);
+    }
+
+    private void deleteDir(File dir) throws IOException {
+        for (File f : dir.listFiles()) {
+            if (f.isDirectory()) {
+                deleteDir(f);
+            }
+            f.delete();
+        }
+        dir.delete();
+    }
+}
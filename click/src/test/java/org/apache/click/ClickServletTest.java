@@ -18,11 +18,34 @@
  */
 package org.apache.click;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.DispatcherType;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequestWrapper;
 import org.junit.Assert;
 import junit.framework.TestCase;
 import org.apache.click.control.Form;
+import org.apache.click.control.Table;
+import org.apache.click.dataprovider.DataProvider;
+import org.apache.click.util.ClickUtils;
 import org.apache.click.pages.BinaryPage;
 import org.apache.click.pages.ListenerPage;
+import org.apache.click.pages.TestPage;
 
 /**
  * Provides tests for ClickServlet behavior.
@@ -61,4 +84,225 @@ public class ClickServletTest extends TestCase {
 
         container.stop();
     }
+
+    /**
+     * Check that the ClickServlet prefetch phase loads the rows of the
+     * registered tables concurrently, with the request context available.
+     */
+    public void testPrefetch() {
+        MockContext context = MockContext.initContext();
+
+        ClickServlet servlet = new ClickServlet();
+        servlet.logger = ClickUtils.getLogService();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        servlet.prefetchExecutor = executor;
+
+        try {
+            // Each data provider waits for the other data providers to start
+            final CountDownLatch latch = new CountDownLatch(3);
+            List<Table> tables = new ArrayList<Table>();
+            for (int i = 0; i < 3; i++) {
+                Table table = new Table("table" + i);
+                table.setPrefetch(true);
+                table.setDataProvider(new DataProvider<String>() {
+                    public List<String> getData() {
+                        latch.countDown();
+                        try {
+                            if (!latch.await(10, TimeUnit.SECONDS)) {
+                                throw new IllegalStateException("not concurrent");
+                            }
+                        } catch (InterruptedException e) {
+                            throw new IllegalStateException(e);
+                        }
+                        List<String> rows = new ArrayList<String>();
+                        rows.add(Context.getThreadLocalContext().getRequest().getRequestURI());
+                        return rows;
+                    }
+                });
+                table.onRender();
+                tables.add(table);
+            }
+
+            ControlRegistry registry = ControlRegistry.getThreadLocalRegistry();
+            assertTrue(registry.hasPrefetchTargets());
+            assertEquals(3, latch.getCount());
+
+            servlet.performPrefetch(new Page(), context);
+
+            assertFalse(registry.hasPrefetchTargets());
+            for (Table table : tables) {
+                assertEquals(1, table.getRowList().size());
+                assertEquals(context.getRequest().getRequestURI(), table.getRowList().get(0));
+            }
+
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Check that an error raised by a prefetch is rethrown once all the
+     * prefetches complete.
+     */
+    public void testPrefetchError() {
+        MockContext context = MockContext.initContext();
+
+        ClickServlet servlet = new ClickServlet();
+        servlet.logger = ClickUtils.getLogService();
+
+        Table table = new Table("table");
+        table.setPrefetch(true);
+        table.setDataProvider(new DataProvider<String>() {
+            public List<String> getData() {
+                throw new IllegalStateException("prefetch failed");
+            }
+        });
+        table.onRender();
+
+        try {
+            servlet.performPrefetch(new Page(), context);
+            fail();
+        } catch (IllegalStateException expected) {
+            assertEquals("prefetch failed", expected.getMessage());
+        }
+    }
+
+    /**
+     * Check that an asynchronous request is processed and rendered on the
+     * async executor, and the asynchronous request is then completed.
+     */
+    public void testAsyncRequest() throws Exception {
+        MockContainer container = new MockContainer("web");
+        container.start();
+        container.setParameter("myparam", "async value");
+
+        final List<Thread> threads = new ArrayList<Thread>();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        final Executor recordingExecutor = new Executor() {
+            public void execute(final Runnable command) {
+                executor.execute(new Runnable() {
+                    public void run() {
+                        threads.add(Thread.currentThread());
+                        command.run();
+                    }
+                });
+            }
+        };
+
+        final CountDownLatch completed = new CountDownLatch(1);
+        final AsyncContext asyncContext = (AsyncContext) Proxy.newProxyInstance(
+            getClass().getClassLoader(), new Class<?>[] { AsyncContext.class },
+            new InvocationHandler() {
+                public Object invoke(Object proxy, Method method, Object[] args) {
+                    if ("complete".equals(method.getName())) {
+                        completed.countDown();
+                    }
+                    return null;
+                }
+            });
+
+        HttpServletRequestWrapper request = new HttpServletRequestWrapper(container.getRequest()) {
+            public DispatcherType getDispatcherType() {
+                return DispatcherType.REQUEST;
+            }
+            public boolean isAsyncSupported() {
+                return true;
+            }
+            public boolean isAsyncStarted() {
+                return false;
+            }
+            public AsyncContext startAsync(ServletRequest request, ServletResponse response) {
+                return asyncContext;
+            }
+        };
+
+        try {
+            ClickServlet servlet = container.getClickServlet();
+            servlet.asyncExecutor = recordingExecutor;
+            container.getRequest().setServletPath(servlet.getConfigService().getPagePath(TestPage.class));
+
+            servlet.service(request, container.getResponse());
+
+            assertTrue(completed.await(10, TimeUnit.SECONDS));
+            assertEquals(1, threads.size());
+            assertNotSame(Thread.currentThread(), threads.get(0));
+            assertTrue(container.getHtml().indexOf("async value") > 0);
+
+        } finally {
+            executor.shutdownNow();
+            container.stop();
+        }
+    }
+
+    /**
+     * Check that an asynchronous request timed out by the container before
+     * the page is processed is neither processed nor completed again.
+     */
+    public void testAsyncRequestTimeout() throws Exception {
+        MockContainer container = new MockContainer("web");
+        container.start();
+        container.setParameter("myparam", "async value");
+
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+        final List<AsyncListener> listeners = new ArrayList<AsyncListener>();
+        final List<Object> timeouts = new ArrayList<Object>();
+        final AtomicInteger completions = new AtomicInteger();
+
+        final AsyncContext asyncContext = (AsyncContext) Proxy.newProxyInstance(
+            getClass().getClassLoader(), new Class<?>[] { AsyncContext.class },
+            new InvocationHandler() {
+                public Object invoke(Object proxy, Method method, Object[] args) {
+                    if ("complete".equals(method.getName())) {
+                        completions.incrementAndGet();
+                    } else if ("setTimeout".equals(method.getName())) {
+                        timeouts.add(args[0]);
+                    } else if ("addListener".equals(method.getName())) {
+                        listeners.add((AsyncListener) args[0]);
+                    }
+                    return null;
+                }
+            });
+
+        HttpServletRequestWrapper request = new HttpServletRequestWrapper(container.getRequest()) {
+            public DispatcherType getDispatcherType() {
+                return DispatcherType.REQUEST;
+            }
+            public boolean isAsyncSupported() {
+                return true;
+            }
+            public boolean isAsyncStarted() {
+                return false;
+            }
+            public AsyncContext startAsync(ServletRequest request, ServletResponse response) {
+                return asyncContext;
+            }
+        };
+
+        try {
+            ClickServlet servlet = container.getClickServlet();
+            servlet.asyncExecutor = new Executor() {
+                public void execute(Runnable command) {
+                    tasks.add(command);
+                }
+            };
+            container.getRequest().setServletPath(servlet.getConfigService().getPagePath(TestPage.class));
+
+            servlet.service(request, container.getResponse());
+
+            // No timeout by default, and the request is not yet processed
+            assertEquals(Collections.<Object>singletonList(0L), timeouts);
+            assertEquals(1, listeners.size());
+            assertEquals(1, tasks.size());
+
+            // The container times out the request, then the executor runs
+            listeners.get(0).onTimeout(new AsyncEvent(asyncContext));
+            tasks.get(0).run();
+
+            assertEquals(0, completions.get());
+            assertEquals(-1, container.getHtml().indexOf("async value"));
+
+        } finally {
+            container.stop();
+        }
+    }
 }
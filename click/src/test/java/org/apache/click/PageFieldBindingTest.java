@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.click;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+
+import junit.framework.TestCase;
+import org.apache.click.pages.FieldBindingPage;
+import org.apache.click.service.ConfigService;
+import org.apache.click.servlet.MockRequest;
+import org.apache.click.util.ClickUtils;
+
+/**
+ * Tests for the ClickServlet page field binding plans.
+ */
+public class PageFieldBindingTest extends TestCase {
+
+    private MockContainer container;
+
+    @Override
+    protected void setUp() throws Exception {
+        container = new MockContainer("web");
+        container.start();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        container.stop();
+    }
+
+    /**
+     * Check that page controls are named and added to the page, and that
+     * the other field values are added to the page model.
+     */
+    public void testBindPageFields() {
+        FieldBindingPage page = container.testPage(FieldBindingPage.class);
+
+        Map<String, Object> model = page.getModel();
+
+        assertEquals("form", page.form.getName());
+        assertEquals("field1", page.field1.getName());
+        assertEquals("objectLink", ((Control) page.objectLink).getName());
+        assertTrue(page.getControls().contains(page.link3));
+        assertTrue(page.getControls().contains(page.objectLink));
+        assertSame(page.form, model.get("form"));
+        assertSame(page.objectLink, model.get("objectLink"));
+
+        assertEquals("Field Binding", model.get("title"));
+        assertEquals(30, model.get("count"));
+        assertEquals(Boolean.TRUE, model.get("enabled"));
+        assertSame(page.names, model.get("names"));
+        assertSame(page.objectValue, model.get("objectValue"));
+        assertEquals("bindable", model.get("bindableValue"));
+        assertEquals("bindableField", ((Control) model.get("bindableField")).getName());
+        assertFalse(model.containsKey("emptyValue"));
+    }
+
+    /**
+     * Check that page fields are set as request attributes for JSP pages.
+     */
+    public void testBindRequestAttributes() {
+        ClickServlet clickServlet = container.getClickServlet();
+        MockRequest request = container.getRequest();
+
+        FieldBindingPage page = new FieldBindingPage();
+        PageFieldBinding binding = clickServlet.getPageFieldBinding(FieldBindingPage.class);
+        binding.bindControls(page);
+        binding.bindRequestAttributes(page, request);
+
+        assertEquals("value3", request.getAttribute("value3"));
+        assertSame(page.codes, request.getAttribute("codes"));
+        assertNull(request.getAttribute("form"));
+        assertTrue(page.getControls().contains(page.form));
+    }
+
+    /**
+     * Compare binding the fields of a page with 30 bindable fields through the
+     * compiled binding plan, and through a reflective walk of the page fields.
+     */
+    public void testBindingPerformance() {
+        container.testPage(FieldBindingPage.class);
+
+        ClickServlet clickServlet = container.getClickServlet();
+        PageFieldBinding binding = clickServlet.getPageFieldBinding(FieldBindingPage.class);
+        ConfigService configService =
+            ClickUtils.getConfigService(container.getServletContext());
+        Field[] fields = configService.getPageFieldArray(FieldBindingPage.class);
+
+        assertTrue(fields.length >= 30);
+
+        int iterations = 100000;
+
+        for (int i = 0; i < 20000; i++) {
+            bindFields(binding, new FieldBindingPage());
+            bindFieldsReflectively(fields, new FieldBindingPage());
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            bindFieldsReflectively(fields, new FieldBindingPage());
+        }
+        long reflectionTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            bindFields(binding, new FieldBindingPage());
+        }
+        long bindingTime = System.nanoTime() - start;
+
+        System.err.printf("page field binding, reflection: %1d ns/page\n",
+            reflectionTime / iterations);
+        System.err.printf("page field binding, binding plan: %1d ns/page\n",
+            bindingTime / iterations);
+    }
+
+    // Private Methods --------------------------------------------------------
+
+    /**
+     * Bind the page fields as initPage and createTemplateModel do.
+     */
+    private void bindFields(PageFieldBinding binding, Page page) {
+        binding.bindControls(page);
+        binding.bindModel(page);
+    }
+
+    /**
+     * Bind the page fields by reading each field reflectively for both the
+     * control and the model binding passes.
+     */
+    private void bindFieldsReflectively(Field[] fields, Page page) {
+        try {
+            for (Field field : fields) {
+                Object value = field.get(page);
+                if (value instanceof Control) {
+                    Control control = (Control) value;
+                    if (control.getName() == null) {
+                        control.setName(field.getName());
+                    }
+                    if (!page.getModel().containsKey(control.getName())) {
+                        page.addControl(control);
+                    }
+                }
+            }
+
+            for (Field field : fields) {
+                Object value = field.get(page);
+                if (value instanceof Control) {
+                    Control control = (Control) value;
+                    if (!page.getModel().containsKey(control.getName())) {
+                        page.addControl(control);
+                    }
+                } else if (value != null) {
+                    page.addModel(field.getName(), value);
+                }
+            }
+
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
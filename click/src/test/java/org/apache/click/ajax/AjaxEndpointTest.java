@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.click.ajax;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import junit.framework.TestCase;
+import org.apache.click.ActionResult;
+import org.apache.click.Context;
+import org.apache.click.MockContainer;
+import org.apache.click.pages.AutoCompletePage;
+
+/**
+ * Provides tests for lightweight Ajax endpoints.
+ */
+public class AjaxEndpointTest extends TestCase {
+
+    /** The mock container. */
+    private MockContainer container;
+
+    /** The number of endpoint invocations. */
+    private final AtomicInteger invocations = new AtomicInteger();
+
+    /** The endpoint rendering the same suggestions as the AutoCompletePage. */
+    private final AjaxEndpoint endpoint = new AjaxEndpoint() {
+        public ActionResult onAction(Context context) {
+            invocations.incrementAndGet();
+            String criteria = context.getRequestParameter("name");
+            return new ActionResult(AutoCompletePage.renderNames(criteria),
+                ActionResult.HTML);
+        }
+    };
+
+    /**
+     * Start the container and set the auto completion Ajax request parameters.
+     */
+    @Override
+    protected void setUp() {
+        container = new MockContainer("web");
+        container.start();
+        container.setParameter("X-Requested-With", "XMLHttpRequest");
+        container.setParameter("form_name", "1");
+        container.setParameter("name", "Al");
+    }
+
+    /**
+     * Stop the container.
+     */
+    @Override
+    protected void tearDown() {
+        container.stop();
+    }
+
+    /**
+     * Check the endpoint renders the Ajax response without creating the page,
+     * and requests without the endpoint id parameter process the page.
+     */
+    public void testEndpoint() {
+        String expected = "<ul><li>Alice</li><li>Alan</li><li>Albert</li>"
+            + "<li>Alexander</li></ul>";
+
+        container.testPage(AutoCompletePage.class);
+        assertEquals(expected, container.getHtml());
+        assertEquals(0, invocations.get());
+
+        AjaxEndpointRegistry registry =
+            AjaxEndpointRegistry.getInstance(container.getServletContext());
+        registry.register("auto-complete.htm", "form_name", endpoint);
+
+        try {
+            assertSame(endpoint, registry.getEndpoint("/auto-complete.htm", "form_name"));
+
+            container.testPage(AutoCompletePage.class);
+            assertEquals(expected, container.getHtml());
+            assertEquals(1, invocations.get());
+
+            container.getRequest().removeParameter("form_name");
+            container.testPage(AutoCompletePage.class);
+            assertEquals(1, invocations.get());
+
+        } finally {
+            assertSame(endpoint, registry.unregister("/auto-complete.htm", "form_name"));
+            assertTrue(registry.isEmpty());
+        }
+    }
+
+    /**
+     * Compare the auto completion requests per second of the page Ajax
+     * behavior and the lightweight endpoint.
+     */
+    public void testEndpointPerformance() {
+        int iterations = 20000;
+
+        long pageTime = timeRequests(iterations);
+
+        AjaxEndpointRegistry registry =
+            AjaxEndpointRegistry.getInstance(container.getServletContext());
+        registry.register("/auto-complete.htm", "form_name", endpoint);
+
+        long endpointTime;
+        try {
+            endpointTime = timeRequests(iterations);
+        } finally {
+            registry.unregister("/auto-complete.htm", "form_name");
+        }
+
+        System.err.printf("auto complete, page behavior: %1d requests/sec\n",
+            iterations * 1000000000L / pageTime);
+        System.err.printf("auto complete, ajax endpoint: %1d requests/sec\n",
+            iterations * 1000000000L / endpointTime);
+    }
+
+    // Private Methods --------------------------------------------------------
+
+    /**
+     * Return the time in nanoseconds of the given number of auto completion
+     * requests, after warming up.
+     */
+    private long timeRequests(int iterations) {
+        for (int i = 0; i < iterations / 4; i++) {
+            container.testPage(AutoCompletePage.class);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            container.testPage(AutoCompletePage.class);
+        }
+        return System.nanoTime() - start;
+    }
+}
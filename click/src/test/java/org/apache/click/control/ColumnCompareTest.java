@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.Map;
 
 import junit.framework.TestCase;
+import org.apache.click.MockContext;
 
 /**
  * Test Column Comparator behavior.
@@ -117,6 +118,130 @@ public class ColumnCompareTest extends TestCase {
         Collections.sort(rowList, comparator);
     }
 
+    /**
+     * Check that sorting rows on precomputed sort keys gives the same order
+     * as sorting the rows with the comparator.
+     */
+    public void testSortKeys() {
+        Column column = new Column("name");
+
+        Table table = new Table("table");
+        table.addColumn(column);
+
+        Column.ColumnComparator comparator = new Column.ColumnComparator(column);
+
+        List<List<Map<String, Object>>> rowLists = new ArrayList<List<Map<String, Object>>>();
+        rowLists.add(createRowList1());
+        rowLists.add(createRowList2());
+        rowLists.add(createRowList3());
+
+        for (List<Map<String, Object>> rowList : rowLists) {
+            for (boolean ascending : new boolean[] { true, false }) {
+                table.setSortedAscending(ascending);
+
+                List<Map<String, Object>> expected = new ArrayList<Map<String, Object>>(rowList);
+                Collections.sort(expected, comparator);
+
+                List<Object> actual = new ArrayList<Object>(rowList);
+                comparator.sort(actual);
+
+                assertEquals(expected, actual);
+            }
+        }
+    }
+
+    /**
+     * Check that the Table sorts rows with the compare method of a
+     * ColumnComparator subclass, rather than on the precomputed sort keys.
+     */
+    public void testSortComparatorSubclass() {
+        MockContext.initContext();
+
+        final Column column = new Column("name");
+
+        Table table = new Table("table");
+        table.addColumn(column);
+        table.setSortedColumn("name");
+
+        // Sort on the string length, shortest first
+        column.setComparator(new Column.ColumnComparator(column) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public int compare(Object row1, Object row2) {
+                String name1 = (String) column.getProperty(row1);
+                String name2 = (String) column.getProperty(row2);
+                return name1.length() - name2.length();
+            }
+        });
+
+        List<Row> rowList = new ArrayList<Row>();
+        rowList.add(new Row("ccc"));
+        rowList.add(new Row("a"));
+        rowList.add(new Row("bbbbb"));
+        rowList.add(new Row("dd"));
+
+        table.setRowList(rowList);
+        table.sortRowList();
+
+        assertTrue(table.isSorted());
+        assertEquals("a", ((Row) table.getRowList().get(0)).getName());
+        assertEquals("dd", ((Row) table.getRowList().get(1)).getName());
+        assertEquals("ccc", ((Row) table.getRowList().get(2)).getName());
+        assertEquals("bbbbb", ((Row) table.getRowList().get(3)).getName());
+    }
+
+    /**
+     * Compare sorting a large table of row objects with the comparator, and
+     * with the Table sortRowList sort keys.
+     */
+    public void testSortPerformance() {
+        MockContext.initContext();
+
+        Column column = new Column("name");
+
+        Table table = new Table("table");
+        table.addColumn(column);
+        table.setSortedColumn("name");
+
+        int size = 50000;
+        assertTrue(size > Column.ColumnComparator.PARALLEL_SORT_THRESHOLD);
+
+        String[] words = { "Smith", "Jones", "Brown", "Wilson", "Taylor" };
+        List<Row> rowList = new ArrayList<Row>(size);
+        for (int i = 0; i < size; i++) {
+            int number = (i * 7919) % size;
+            rowList.add(new Row("Customer " + number + " " + words[i % words.length]));
+        }
+
+        Column.ColumnComparator comparator = new Column.ColumnComparator(column);
+
+        // Warm up
+        for (int i = 0; i < 3; i++) {
+            Collections.sort(new ArrayList<Row>(rowList), comparator);
+            comparator.sort(new ArrayList<Object>(rowList));
+        }
+
+        List<Row> expected = new ArrayList<Row>(rowList);
+        long start = System.nanoTime();
+        Collections.sort(expected, comparator);
+        long comparatorTime = System.nanoTime() - start;
+
+        table.setRowList(new ArrayList<Row>(rowList));
+        start = System.nanoTime();
+        table.sortRowList();
+        long sortKeyTime = System.nanoTime() - start;
+
+        assertTrue(table.isSorted());
+        assertEquals(expected, table.getRowList());
+        assertEquals("Customer 0 Smith", ((Row) table.getRowList().get(0)).getName());
+
+        System.err.printf("sort %1d rows, comparator: %2d ms\n",
+            size, comparatorTime / 1000000);
+        System.err.printf("sort %1d rows, sort keys: %2d ms\n",
+            size, sortKeyTime / 1000000);
+    }
+
     /**
      * Create and return a test Table row list.
      *
@@ -212,4 +337,31 @@ public class ColumnCompareTest extends TestCase {
         }
         return -1;
     }
+
+    /**
+     * Provides a Table row object.
+     */
+    public static class Row {
+
+        /** The row name. */
+        private final String name;
+
+        /**
+         * Create a row with the given name.
+         *
+         * @param name the row name
+         */
+        public Row(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Return the row name.
+         *
+         * @return the row name
+         */
+        public String getName() {
+            return name;
+        }
+    }
 }
@@ -20,12 +20,16 @@ package org.apache.click.control;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 
 import java.util.Map;
 import junit.framework.TestCase;
 import org.apache.click.MockContext;
+import org.apache.click.dataprovider.DataProvider;
+import org.apache.click.dataprovider.DataQuery;
+import org.apache.click.dataprovider.QueryDataProvider;
 
 /**
  * Test Table behavior.
@@ -260,4 +264,263 @@ public class TableTest extends TestCase {
         assertTrue(table.toString().contains("<th class=\"sortable\"><a href=\"/mock/mock.htm?actionLink=table-controlLink&amp;column=name&amp;page=0\">Name"));
     }
 
+    /**
+     * Check that a QueryDataProvider is passed the table page and sort order,
+     * and is only asked for its size when the page is full.
+     */
+    public void testQueryDataProvider() {
+        MockContext.initContext(Locale.ENGLISH);
+
+        FooQueryDataProvider dataProvider = new FooQueryDataProvider(25);
+
+        Table table = new Table("table");
+        table.setPageSize(10);
+        table.setSortedColumn("name");
+        table.setSortedAscending(false);
+        table.setDataProvider(dataProvider);
+        table.addColumn(new Column("name"));
+
+        assertEquals(10, table.getRowList().size());
+        assertEquals(25, table.getRowCount());
+        assertTrue(table.isRowCountKnown());
+        assertEquals(1, dataProvider.sizeCount);
+        assertEquals(0, dataProvider.lastQuery.getOffset());
+        assertEquals(10, dataProvider.lastQuery.getLimit());
+        assertEquals("name", dataProvider.lastQuery.getSortKeys().get(0).getColumn());
+        assertFalse(dataProvider.lastQuery.getSortKeys().get(0).isAscending());
+
+        // Check the last page does not request the size
+        table.setRowList(null);
+        table.setPageNumber(2);
+        assertEquals(5, table.getRowList().size());
+        assertEquals(25, table.getRowCount());
+        assertEquals(1, dataProvider.sizeCount);
+        assertEquals(20, dataProvider.lastQuery.getOffset());
+
+        // Check an unknown size only includes the next page
+        dataProvider.size = QueryDataProvider.UNKNOWN_SIZE;
+        table.setRowList(null);
+        table.setPageNumber(1);
+        assertEquals(10, table.getRowList().size());
+        assertEquals(21, table.getRowCount());
+        assertFalse(table.isRowCountKnown());
+        assertEquals(3, table.getNumberPages());
+
+        String paginator = table.getPaginator().toString();
+        assertTrue(paginator.contains("page=2"));
+        assertFalse(paginator.contains("Go to last page"));
+    }
+
+    /**
+     * Check keyset pagination passes the keyset of the previous page to the
+     * QueryDataProvider, and does not request its size.
+     */
+    public void testKeysetPaging() {
+        MockContext.initContext(Locale.ENGLISH, "/mock.htm");
+
+        FooQueryDataProvider dataProvider = new FooQueryDataProvider(25);
+
+        Table table = new Table("table");
+        table.setPageSize(10);
+        table.setKeysetColumn("name");
+        table.setDataProvider(dataProvider);
+        table.addColumn(new Column("name"));
+
+        assertTrue(table.isKeysetPaging());
+        assertEquals(10, table.getRowList().size());
+        assertFalse(dataProvider.lastQuery.hasKeyset());
+        assertEquals("name", dataProvider.lastQuery.getSortKeys().get(0).getColumn());
+        assertFalse(table.isRowCountKnown());
+
+        String paginator = table.getPaginator().toString();
+        assertTrue(paginator.contains("after=foo9"));
+        assertFalse(paginator.contains("Go to last page"));
+
+        // Next page following the last row of the first page
+        table.setRowList(null);
+        table.setPageNumber(1);
+        table.setKeysetValues(new String[] {"foo9"}, false);
+        assertEquals(10, table.getRowList().size());
+        assertEquals(0, dataProvider.lastQuery.getOffset());
+        assertEquals("foo9", dataProvider.lastQuery.getKeysetValues().get(0));
+        assertEquals("foo10", ((Foo) table.getRowList().get(0)).getName());
+
+        // Last page is not full
+        table.setRowList(null);
+        table.setPageNumber(2);
+        table.setKeysetValues(new String[] {"foo19"}, false);
+        assertEquals(5, table.getRowList().size());
+        assertEquals(25, table.getRowCount());
+        assertTrue(table.isRowCountKnown());
+
+        paginator = table.getPaginator().toString();
+        assertTrue(paginator.contains("before=foo20"));
+        assertFalse(paginator.contains("after="));
+
+        // Previous page preceding the first row of the last page
+        table.setRowList(null);
+        table.setPageNumber(1);
+        table.setKeysetValues(new String[] {"foo20"}, true);
+        assertEquals(10, table.getRowList().size());
+        assertEquals("foo10", ((Foo) table.getRowList().get(0)).getName());
+        assertTrue(dataProvider.lastQuery.isKeysetBefore());
+
+        assertEquals(0, dataProvider.sizeCount);
+    }
+
+    /**
+     * Check that NULL row values are carried as null keyset values through
+     * the paging links, and are distinct from empty strings.
+     */
+    public void testKeysetNullValues() {
+        MockContext context = MockContext.initContext(Locale.ENGLISH, "/mock.htm");
+
+        Table table = new Table("table");
+        table.setKeysetColumn("name");
+        table.addColumn(new Column("name"));
+
+        assertEquals(Table.KEYSET_NULL, table.getKeysetParameterValues(new Foo(null))[0]);
+        assertNull(table.getKeysetValues(new Foo(null))[0]);
+        assertEquals("", table.getKeysetParameterValues(new Foo(""))[0]);
+        assertEquals("~~foo", table.getKeysetParameterValues(new Foo("~foo"))[0]);
+        assertEquals("foo", table.getKeysetParameterValues(new Foo("foo"))[0]);
+
+        context.getMockRequest().setParameter(ActionLink.ACTION_LINK, "table-controlLink");
+        context.getMockRequest().setParameter(Table.PAGE, "1");
+        context.getMockRequest().setParameter(Table.AFTER, new String[] {"~", "", "~~foo"});
+        table.onProcess();
+
+        String[] values = table.getKeysetValues();
+        assertEquals(3, values.length);
+        assertNull(values[0]);
+        assertEquals("", values[1]);
+        assertEquals("~foo", values[2]);
+        assertFalse(table.isKeysetBefore());
+    }
+
+    /**
+     * Check that streamed rows render the same HTML as the row list, without
+     * creating the row list, and that the rows iterator is closed.
+     */
+    public void testStreamRows() {
+        MockContext.initContext(Locale.ENGLISH);
+
+        final List<Foo> foos = new ArrayList<Foo>();
+        for (int i = 0; i < 3; i++) {
+            foos.add(new Foo("foo" + i));
+        }
+
+        Table table = new Table("table");
+        table.addColumn(new Column("name"));
+        table.setRowList(foos);
+        String expected = table.toString();
+
+        final boolean[] closed = new boolean[1];
+
+        table = new Table("table");
+        table.addColumn(new Column("name"));
+        table.setStreamRows(true);
+        table.setDataProvider(new DataProvider<Foo>() {
+            private static final long serialVersionUID = 1L;
+
+            public Iterable<Foo> getData() {
+                return new Iterable<Foo>() {
+                    public Iterator<Foo> iterator() {
+                        return new CloseableIterator(foos.iterator(), closed);
+                    }
+                };
+            }
+        });
+
+        assertTrue(table.isStreamingRows());
+        table.onRender();
+        assertEquals(expected, table.toString());
+        assertNull(table.rowList);
+        assertEquals(3, table.getRowCount());
+        assertTrue(closed[0]);
+
+        // Rows are not streamed when the table is paginated
+        table.setPageSize(2);
+        assertFalse(table.isStreamingRows());
+    }
+
+    /**
+     * Provides an AutoCloseable row iterator recording when it is closed.
+     */
+    static class CloseableIterator implements Iterator<Foo>, AutoCloseable {
+
+        private final Iterator<Foo> iterator;
+
+        private final boolean[] closed;
+
+        CloseableIterator(Iterator<Foo> iterator, boolean[] closed) {
+            this.iterator = iterator;
+            this.closed = closed;
+        }
+
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        public Foo next() {
+            return iterator.next();
+        }
+
+        public void close() {
+            closed[0] = true;
+        }
+    }
+
+    /**
+     * Provides a QueryDataProvider of Foos, recording the last query.
+     */
+    static class FooQueryDataProvider implements QueryDataProvider<Foo> {
+
+        private static final long serialVersionUID = 1L;
+
+        List<Foo> foos = new ArrayList<Foo>();
+
+        DataQuery lastQuery;
+
+        int size;
+
+        int sizeCount;
+
+        FooQueryDataProvider(int size) {
+            this.size = size;
+            for (int i = 0; i < size; i++) {
+                foos.add(new Foo("foo" + i));
+            }
+        }
+
+        public List<Foo> getData(DataQuery query) {
+            lastQuery = query;
+            int fromIndex = query.getOffset();
+            if (query.hasKeyset()) {
+                fromIndex = indexOf(query.getKeysetValues().get(0));
+                if (query.isKeysetBefore()) {
+                    fromIndex = Math.max(fromIndex - query.getLimit(), 0);
+                } else {
+                    fromIndex++;
+                }
+            }
+            int toIndex = Math.min(fromIndex + query.getLimit(), foos.size());
+            return new ArrayList<Foo>(foos.subList(fromIndex, toIndex));
+        }
+
+        private int indexOf(String name) {
+            for (int i = 0; i < foos.size(); i++) {
+                if (foos.get(i).getName().equals(name)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        public int size(DataQuery query) {
+            sizeCount++;
+            return size;
+        }
+    }
+
 }
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.click.pages;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.click.ActionResult;
+import org.apache.click.Control;
+import org.apache.click.Page;
+import org.apache.click.ajax.DefaultAjaxBehavior;
+import org.apache.click.control.Form;
+import org.apache.click.control.TextField;
+import org.apache.click.util.HtmlStringBuffer;
+
+/**
+ * Page which provides auto completion suggestions through an Ajax behavior.
+ */
+public class AutoCompletePage extends Page {
+    private static final long serialVersionUID = 1L;
+
+    /** The suggested names. */
+    public static final String[] NAMES = {
+        "Alice", "Alan", "Albert", "Alexander", "Bob", "Brian", "Carol", "Charles"
+    };
+
+    /** Form holder. */
+    public Form form = new Form("form");
+
+    /**
+     * Initialize page.
+     */
+    @Override
+    public void onInit() {
+        final TextField nameField = new TextField("name");
+        nameField.addBehavior(new DefaultAjaxBehavior() {
+
+            @Override
+            public ActionResult onAction(Control source) {
+                return new ActionResult(renderNames(nameField.getValue()),
+                    ActionResult.HTML);
+            }
+        });
+        form.add(nameField);
+    }
+
+    /**
+     * Render the list of names starting with the given criteria.
+     *
+     * @param criteria the search criteria
+     * @return the list of names starting with the given criteria
+     */
+    public static String renderNames(String criteria) {
+        List<String> names = new ArrayList<String>();
+        for (String name : NAMES) {
+            if (criteria != null && name.startsWith(criteria)) {
+                names.add(name);
+            }
+        }
+
+        HtmlStringBuffer buffer = new HtmlStringBuffer(10 + (names.size() * 20));
+        buffer.append("<ul>");
+        for (String name : names) {
+            buffer.append("<li>");
+            buffer.appendEscaped(name);
+            buffer.append("</li>");
+        }
+        buffer.append("</ul>");
+        return buffer.toString();
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.click.pages;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.click.Page;
+import org.apache.click.control.ActionLink;
+import org.apache.click.control.Form;
+import org.apache.click.control.TextField;
+import org.apache.click.util.Bindable;
+
+/**
+ * Page with 30 bindable fields which tests page field binding.
+ */
+public class FieldBindingPage extends Page {
+    private static final long serialVersionUID = 1L;
+
+    public Form form = new Form();
+    public TextField field1 = new TextField();
+    public TextField field2 = new TextField();
+    public TextField field3 = new TextField();
+    public TextField field4 = new TextField();
+    public TextField field5 = new TextField();
+    public ActionLink link1 = new ActionLink();
+    public ActionLink link2 = new ActionLink();
+    public ActionLink link3 = new ActionLink();
+    public Object objectLink = new ActionLink();
+
+    public String title = "Field Binding";
+    public String description = "A page with many fields";
+    public String emptyValue;
+    public String value1 = "value1";
+    public String value2 = "value2";
+    public String value3 = "value3";
+    public String value4 = "value4";
+    public String value5 = "value5";
+    public int count = 30;
+    public long total = 3000L;
+    public boolean enabled = true;
+    public Integer customerId = 42;
+    public Double amount = 12.5;
+    public Date created = new Date();
+    public List<String> names = Arrays.asList("one", "two", "three");
+    public String[] codes = {"a", "b", "c"};
+    public Object objectValue = "object";
+    public StringBuilder notes = new StringBuilder("notes");
+
+    @Bindable protected String bindableValue = "bindable";
+    @Bindable protected TextField bindableField = new TextField();
+}
@@ -0,0 +1,388 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.click.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import javax.servlet.http.HttpServletResponse;
+
+import junit.framework.TestCase;
+import org.apache.click.Context;
+import org.apache.click.MockContainer;
+import org.apache.click.MockContext;
+import org.apache.click.element.JsImport;
+import org.apache.click.servlet.MockRequest;
+import org.apache.click.servlet.MockResponse;
+import org.apache.click.util.ClickUtils;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Tests for the BasicResourceService class.
+ */
+public class BasicResourceServiceTest extends TestCase {
+
+    private File tmpdir;
+
+    private MockContainer container;
+
+    private ResourceService resourceService;
+
+    @Override
+    protected void setUp() throws Exception {
+        tmpdir = File.createTempFile("click", "");
+        tmpdir.delete();
+        tmpdir.mkdir();
+
+        File file = new File(tmpdir, "WEB-INF/click.xml");
+        file.getParentFile().mkdirs();
+        PrintStream pstr = new PrintStream(file);
+        pstr.println("<?xml version='1.0' encoding=\"UTF-8\" standalone=\"yes\"?>");
+        pstr.println("<click-app>");
+        pstr.println(" <pages/>");
+        pstr.println(" <resource-service classname='org.apache.click.service.BasicResourceService'>");
+        pstr.println("  <property name='cacheMaxSize' value='1048576'/>");
+        pstr.println("  <property name='cacheMaxMissingEntries' value='2'/>");
+        pstr.println("  <property name='fileResourceThreshold' value='4096'/>");
+        pstr.println(" </resource-service>");
+        pstr.println(" <mode value='production'/>");
+        pstr.println("</click-app>");
+        pstr.close();
+
+        container = new MockContainer(tmpdir.getAbsolutePath());
+        container.start();
+
+        resourceService = ClickUtils.getConfigService(container.getServletContext())
+            .getResourceService();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        container.stop();
+        deleteDir(tmpdir);
+    }
+
+    /**
+     * Check that resources are rendered with ETag and Last-Modified headers.
+     */
+    public void testValidatorHeaders() throws Exception {
+        MockResponse response = render("/click/control.js", null);
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertTrue(response.getBinaryContent().length > 0);
+
+        String etag = response.getHeader("ETag");
+        assertNotNull(etag);
+        assertTrue(etag.startsWith("\"") && etag.endsWith("\""));
+        assertNotNull(response.getHeader("Last-Modified"));
+
+        // The ETag must be stable across requests
+        assertEquals(etag, render("/click/control.js", null).getHeader("ETag"));
+
+        // Different content must have a different ETag
+        assertFalse(etag.equals(render("/click/control.css", null).getHeader("ETag")));
+    }
+
+    /**
+     * Check that a matching If-None-Match header returns 304 without a body.
+     */
+    public void testIfNoneMatch() throws Exception {
+        String etag = render("/click/control.js", null).getHeader("ETag");
+
+        MockResponse response = render("/click/control.js", etag);
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+        assertEquals(0, response.getBinaryContent().length);
+
+        response = render("/click/control.js", "\"other\", W/" + etag);
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+
+        response = render("/click/control.js", "*");
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+
+        response = render("/click/control.js", "\"other\"");
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertTrue(response.getBinaryContent().length > 0);
+    }
+
+    /**
+     * Check that compressible resources are served from the cached GZIP
+     * variant when the browser accepts it.
+     */
+    public void testGzipVariant() throws Exception {
+        MockResponse raw = render("/click/control.js", null, null);
+        assertNull(raw.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", raw.getHeader("Vary"));
+
+        MockResponse gzip = render("/click/control.js", null, "gzip, deflate");
+        assertEquals("gzip", gzip.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", gzip.getHeader("Vary"));
+        assertTrue(gzip.getBinaryContent().length < raw.getBinaryContent().length);
+
+        byte[] inflated = IOUtils.toByteArray(new GZIPInputStream(
+            new ByteArrayInputStream(gzip.getBinaryContent())));
+        assertTrue(Arrays.equals(raw.getBinaryContent(), inflated));
+
+        // Variants must have distinct strong ETags
+        String gzipETag = gzip.getHeader("ETag");
+        assertFalse(gzipETag.equals(raw.getHeader("ETag")));
+
+        MockResponse response = render("/click/control.js", gzipETag, "gzip");
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+
+        // Explicitly refused encodings must not be used
+        response = render("/click/control.js", null, "gzip;q=0, identity");
+        assertNull(response.getHeader("Content-Encoding"));
+
+        // Images are not compressed
+        response = render("/click/column-sortable-dark.gif", null, "gzip");
+        assertNull(response.getHeader("Content-Encoding"));
+        assertNull(response.getHeader("Vary"));
+    }
+
+    /**
+     * Check that large web application files are served from the file system
+     * rather than from the heap cache.
+     */
+    public void testFileResource() throws Exception {
+        byte[] content = new byte[64 * 1024];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+
+        File file = new File(tmpdir, "assets/large.bin");
+        file.getParentFile().mkdirs();
+        FileOutputStream outputStream = new FileOutputStream(file);
+        try {
+            outputStream.write(content);
+        } finally {
+            outputStream.close();
+        }
+
+        MockResponse response = render("/assets/large.bin", null);
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertTrue(Arrays.equals(content, response.getBinaryContent()));
+
+        String etag = response.getHeader("ETag");
+        assertNotNull(etag);
+
+        // Served again from the mapped file
+        response = render("/assets/large.bin", null);
+        assertTrue(Arrays.equals(content, response.getBinaryContent()));
+
+        response = render("/assets/large.bin", etag);
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+        assertEquals(0, response.getBinaryContent().length);
+
+        // File resources are not held on the heap
+        ResourceCache cache = ((BasicResourceService) resourceService).getResourceCache();
+        assertEquals(1, cache.getEntryCount());
+        assertEquals(0, cache.getSize());
+
+        // Containers supporting sendfile receive the file to send
+        MockRequest request = new MockRequest(container.getServletContext());
+        request.setMethod("GET");
+        request.setServletPath("/assets/large.bin");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        response = new MockResponse();
+        resourceService.renderResource(request, response);
+        assertEquals(file.getAbsolutePath(),
+            request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(Long.valueOf(content.length),
+            request.getAttribute("org.apache.tomcat.sendfile.end"));
+        assertEquals(0, response.getBinaryContent().length);
+    }
+
+    /**
+     * Check that fingerprinted resource paths are derived from the resource
+     * content and are rendered with a far future Cache-Control header.
+     */
+    public void testFingerprintedPath() throws Exception {
+        BasicResourceService service = (BasicResourceService) resourceService;
+
+        String fingerprintedPath = service.getFingerprintedPath("/click/control.js");
+        assertNotNull(fingerprintedPath);
+        assertTrue(fingerprintedPath.matches("/click/control_[0-9a-f]{12}\\.js"));
+        assertEquals(fingerprintedPath, service.getFingerprintedPath("/click/control.js"));
+        assertFalse(fingerprintedPath.equals(service.getFingerprintedPath("/click/control.css")));
+
+        assertEquals("/click/control.js", service.resolveFingerprintedPath(fingerprintedPath));
+        assertNull(service.resolveFingerprintedPath("/click/control.js"));
+        assertNull(service.getFingerprintedPath("/click/missing.js"));
+
+        assertTrue(service.isCurrentFingerprint(fingerprintedPath));
+        assertFalse(service.isCurrentFingerprint("/click/control.js"));
+        assertFalse(service.isCurrentFingerprint("/click/control_000000000000.js"));
+        assertEquals("/click/control.js",
+            service.resolveFingerprintedPath("/click/control_000000000000.js"));
+
+        MockResponse response = render(fingerprintedPath, null);
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertTrue(Arrays.equals(render("/click/control.js", null).getBinaryContent(),
+            response.getBinaryContent()));
+        assertEquals(BasicResourceService.FINGERPRINT_CACHE_CONTROL,
+            response.getHeader("Cache-Control"));
+
+        // A stale fingerprint renders the current resource, but not as immutable
+        response = render("/click/control_000000000000.js", null);
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertNull(response.getHeader("Cache-Control"));
+
+        response = render("/click/missing_000000000000.js", null);
+        assertEquals(HttpServletResponse.SC_NOT_FOUND, response.getCode());
+    }
+
+    /**
+     * Check that resource elements render fingerprinted paths when resource
+     * versioning is enabled.
+     */
+    public void testRenderFingerprintedPath() throws Exception {
+        MockRequest request = new MockRequest(container.getServletContext());
+        request.setAttribute(ClickUtils.ENABLE_RESOURCE_VERSION, "true");
+        Context context = MockContext.initContext(container.getServletConfig(),
+            request, new MockResponse(), container.getClickServlet());
+
+        BasicResourceService service = (BasicResourceService) ClickUtils
+            .getConfigService(container.getServletContext()).getResourceService();
+
+        String contextPath = request.getContextPath();
+        String path = ClickUtils.getFingerprintedResourcePath(context,
+            contextPath + "/click/control.js");
+        assertEquals(contextPath + service.getFingerprintedPath("/click/control.js"), path);
+
+        JsImport jsImport = new JsImport("/click/control.js");
+        assertTrue(jsImport.toString().contains("src=\"" + path + "\""));
+
+        // Without resource versioning the plain path is rendered
+        request.removeAttribute(ClickUtils.ENABLE_RESOURCE_VERSION);
+        assertNull(ClickUtils.getFingerprintedResourcePath(context,
+            contextPath + "/click/control.js"));
+        assertTrue(new JsImport("/click/control.js").toString()
+            .contains("src=\"" + contextPath + "/click/control.js\""));
+    }
+
+    /**
+     * Check that missing resources still return 404.
+     */
+    public void testNotFound() throws Exception {
+        MockResponse response = render("/click/missing.js", null);
+        assertEquals(HttpServletResponse.SC_NOT_FOUND, response.getCode());
+    }
+
+    /**
+     * Check that the resource cache is configured from click.xml and records
+     * hits, misses and missing paths.
+     */
+    public void testResourceCache() throws Exception {
+        ResourceCache cache = ((BasicResourceService) resourceService).getResourceCache();
+        DefaultResourceCacheStats stats = (DefaultResourceCacheStats) cache.getStats();
+
+        assertEquals(1048576, cache.getMaxSize());
+        assertEquals(2, cache.getMaxMissingEntries());
+
+        render("/click/control.js", null);
+        assertEquals(1, cache.getEntryCount());
+        assertTrue(cache.getSize() > 0);
+        assertEquals(0, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+
+        render("/click/control.js", null);
+        assertEquals(1, stats.getHitCount());
+
+        // Missing paths are cached up to the configured number of entries
+        assertEquals(HttpServletResponse.SC_NOT_FOUND, render("/click/a.js", null).getCode());
+        assertTrue(cache.isMissing("/click/a.js"));
+        assertEquals(HttpServletResponse.SC_NOT_FOUND, render("/click/a.js", null).getCode());
+        assertEquals(2, stats.getHitCount());
+
+        render("/click/b.js", null);
+        render("/click/c.js", null);
+        assertEquals(2, cache.getMissingEntryCount());
+    }
+
+    /**
+     * Compare the body bytes sent per request for unconditional requests and
+     * for browser revalidation requests.
+     */
+    public void testRevalidationBytesPerRequest() throws Exception {
+        int requests = 1000;
+        String path = "/click/control.js";
+        String etag = render(path, null).getHeader("ETag");
+
+        long unconditionalBytes = 0;
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < requests; i++) {
+            unconditionalBytes += render(path, null).getBinaryContent().length;
+        }
+        long unconditionalTime = System.currentTimeMillis() - start;
+
+        long revalidationBytes = 0;
+        start = System.currentTimeMillis();
+        for (int i = 0; i < requests; i++) {
+            revalidationBytes += render(path, etag).getBinaryContent().length;
+        }
+        long revalidationTime = System.currentTimeMillis() - start;
+
+        System.err.printf("%1s unconditional: %2d bytes/request in %3d ms\n",
+            path, unconditionalBytes / requests, unconditionalTime);
+        System.err.printf("%1s revalidation: %2d bytes/request in %3d ms\n",
+            path, revalidationBytes / requests, revalidationTime);
+
+        assertTrue(unconditionalBytes > 0);
+        assertEquals(0, revalidationBytes);
+    }
+
+    // Private Methods --------------------------------------------------------
+
+    private MockResponse render(String path, String ifNoneMatch) throws IOException {
+        return render(path, ifNoneMatch, null);
+    }
+
+    private MockResponse render(String path, String ifNoneMatch,
+        String acceptEncoding) throws IOException {
+
+        MockRequest request = new MockRequest(container.getServletContext());
+        request.setMethod("GET");
+        request.setServletPath(path);
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        if (acceptEncoding != null) {
+            request.addHeader("Accept-Encoding", acceptEncoding);
+        }
+
+        MockResponse response = new MockResponse();
+        resourceService.renderResource(request, response);
+        return response;
+    }
+
+    private void deleteDir(File dir) throws IOException {
+        for (File f : dir.listFiles()) {
+            if (f.isDirectory()) {
+                deleteDir(f);
+            }
+            f.delete();
+        }
+        dir.delete();
+    }
+}
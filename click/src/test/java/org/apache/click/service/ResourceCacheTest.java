@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.click.service;
+
+import junit.framework.TestCase;
+import org.apache.click.service.BasicResourceService.CachedResource;
+
+/**
+ * Tests for the ResourceCache class.
+ */
+public class ResourceCacheTest extends TestCase {
+
+    /**
+     * Check that the least recently used resources are evicted when the
+     * cache size is exceeded.
+     */
+    public void testEviction() {
+        DefaultResourceCacheStats stats = new DefaultResourceCacheStats();
+        ResourceCache cache = new ResourceCache(300, 10, stats);
+
+        cache.put("/a.js", resource(100));
+        cache.put("/b.js", resource(100));
+        cache.put("/c.js", resource(100));
+        assertEquals(300, cache.getSize());
+
+        // Access a, so that b is the least recently used
+        assertNotNull(cache.get("/a.js"));
+
+        // The cache is evicted down to 90% of its maximum size, 270 bytes
+        cache.put("/d.js", resource(100));
+        assertEquals(200, cache.getSize());
+        assertEquals(2, cache.getEntryCount());
+        assertNull(cache.get("/b.js"));
+        assertNull(cache.get("/c.js"));
+        assertNotNull(cache.get("/a.js"));
+        assertNotNull(cache.get("/d.js"));
+
+        assertEquals(2, stats.getEvictionCount());
+        assertEquals(200, stats.getEvictionSize());
+        assertEquals(2, stats.getMissCount());
+    }
+
+    /**
+     * Check that once the cache is full, resources are evicted down to the
+     * low water size, so the following puts do not evict.
+     */
+    public void testEvictionLowWater() {
+        DefaultResourceCacheStats stats = new DefaultResourceCacheStats();
+        ResourceCache cache = new ResourceCache(1000, 10, stats);
+
+        for (int i = 0; i < 10; i++) {
+            cache.put("/" + i + ".js", resource(100));
+        }
+        assertEquals(1000, cache.getSize());
+        assertEquals(0, stats.getEvictionCount());
+
+        cache.put("/10.js", resource(10));
+        assertEquals(2, stats.getEvictionCount());
+        assertEquals(810, cache.getSize());
+        assertNull(cache.get("/0.js"));
+        assertNull(cache.get("/1.js"));
+        assertNotNull(cache.get("/10.js"));
+
+        // The next puts fit below the maximum size without evicting
+        for (int i = 11; i < 20; i++) {
+            cache.put("/" + i + ".js", resource(10));
+        }
+        assertEquals(900, cache.getSize());
+        assertEquals(2, stats.getEvictionCount());
+    }
+
+    /**
+     * Check that resources larger than the cache are not cached and that
+     * replacing a resource updates the cache size.
+     */
+    public void testSizeAccounting() {
+        ResourceCache cache = new ResourceCache(300, 10, new DefaultResourceCacheStats());
+
+        cache.put("/big.js", resource(301));
+        assertEquals(0, cache.getEntryCount());
+        assertEquals(0, cache.getSize());
+
+        cache.put("/a.js", resource(100));
+        cache.put("/a.js", resource(50));
+        assertEquals(1, cache.getEntryCount());
+        assertEquals(50, cache.getSize());
+
+        cache.clear();
+        assertEquals(0, cache.getSize());
+    }
+
+    /**
+     * Check that caching a resource removes it from the missing paths.
+     */
+    public void testMissingPaths() {
+        ResourceCache cache = new ResourceCache(0, 10, new DefaultResourceCacheStats());
+
+        cache.putMissing("/a.js");
+        assertTrue(cache.isMissing("/a.js"));
+
+        cache.put("/a.js", resource(10));
+        assertFalse(cache.isMissing("/a.js"));
+        assertNotNull(cache.get("/a.js"));
+    }
+
+    private CachedResource resource(int size) {
+        return new CachedResource(new byte[size], 0);
+    }
+}
@@ -0,0 +1,361 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.click.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import javax.servlet.ServletContext;
+
+import junit.framework.TestCase;
+import org.apache.click.MockContainer;
+import org.apache.click.MockContext;
+import org.apache.click.control.Column;
+import org.apache.click.control.Label;
+import org.apache.click.control.Table;
+import org.apache.click.control.TextField;
+import org.apache.click.servlet.MockRequest;
+import org.apache.click.servlet.MockResponse;
+import org.apache.click.util.ClickUtils;
+import org.apache.velocity.Template;
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.app.event.ReferenceInsertionEventHandler;
+import org.apache.velocity.runtime.RuntimeConstants;
+import org.apache.velocity.tools.view.WebappResourceLoader;
+
+/**
+ * Tests for the VelocityTemplateService class.
+ */
+public class VelocityTemplateServiceTest extends TestCase {
+
+    private File tmpdir;
+
+    private MockContainer container;
+
+    private VelocityTemplateService templateService;
+
+    @Override
+    protected void setUp() throws Exception {
+        tmpdir = File.createTempFile("click", "");
+        tmpdir.delete();
+        tmpdir.mkdir();
+
+        File file = new File(tmpdir, "WEB-INF/click.xml");
+        file.getParentFile().mkdirs();
+        PrintStream pstr = new PrintStream(file);
+        pstr.println("<?xml version='1.0' encoding=\"UTF-8\" standalone=\"yes\"?>");
+        pstr.println("<click-app>");
+        pstr.println(" <pages/>");
+        pstr.println(" <mode value='production'/>");
+        pstr.println("</click-app>");
+        pstr.close();
+
+        pstr = new PrintStream(new File(tmpdir, "report.htm"));
+        pstr.println("<div>$table</div>");
+        pstr.println("$field");
+        pstr.println("$label");
+        pstr.println("#foreach ($column in $table.columnList)[$column.name]#end");
+        pstr.close();
+
+        container = new MockContainer(tmpdir.getAbsolutePath());
+        container.start();
+
+        MockContext.initContext(container.getServletConfig(),
+            new MockRequest(container.getServletContext()), new MockResponse(),
+            container.getClickServlet());
+
+        ConfigService configService =
+            ClickUtils.getConfigService(container.getServletContext());
+        templateService = (VelocityTemplateService) configService.getTemplateService();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        container.stop();
+        deleteDir(tmpdir);
+    }
+
+    /**
+     * Check that controls streamed to the template writer render the same
+     * output as controls rendered through their toString() method.
+     */
+    public void testRenderControls() throws Exception {
+        Map<String, Object> model = createModel(50);
+
+        String streamed = render(model);
+
+        templateService.controlInsertionHandler = null;
+        String rendered = render(model);
+
+        assertEquals(rendered, streamed);
+        assertTrue(streamed.contains("<div><table "));
+        assertTrue(streamed.contains("Customer 49"));
+        assertTrue(streamed.contains("<input type=\"text\" name=\"field\""));
+        assertTrue(streamed.contains("Report Label"));
+        assertTrue(streamed.contains("[id][name]"));
+    }
+
+    /**
+     * Compare the bytes allocated rendering a 2000 row table in a template by
+     * rendering the table to a String, and by streaming the table to the
+     * template writer.
+     */
+    public void testRenderControlsAllocation() throws Exception {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (!(threadBean instanceof com.sun.management.ThreadMXBean)) {
+            return;
+        }
+        com.sun.management.ThreadMXBean allocationBean =
+            (com.sun.management.ThreadMXBean) threadBean;
+
+        int renders = 20;
+        Map<String, Object> model = createModel(2000);
+
+        ReferenceInsertionEventHandler streamingHandler =
+            templateService.controlInsertionHandler;
+
+        // Warm up the template cache and table rendering
+        for (int i = 0; i < 5; i++) {
+            renderToWriter(model);
+        }
+
+        long threadId = Thread.currentThread().getId();
+
+        templateService.controlInsertionHandler = null;
+        long start = allocationBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < renders; i++) {
+            renderToWriter(model);
+        }
+        long stringBytes = allocationBean.getThreadAllocatedBytes(threadId) - start;
+
+        templateService.controlInsertionHandler = streamingHandler;
+        start = allocationBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < renders; i++) {
+            renderToWriter(model);
+        }
+        long streamingBytes = allocationBean.getThreadAllocatedBytes(threadId) - start;
+
+        System.err.printf("2000 row table toString render: %1d bytes allocated/render\n",
+            stringBytes / renders);
+        System.err.printf("2000 row table streaming render: %1d bytes allocated/render\n",
+            streamingBytes / renders);
+
+        assertTrue(streamingBytes < stringBytes);
+    }
+
+    /**
+     * Check the warm up parses and renders the macro library and the page
+     * templates, and skips the missing templates.
+     */
+    public void testWarmUpTemplates() throws Exception {
+        Properties properties = new Properties();
+        properties.put("velocimacro.library", "/macro.vm, /report.htm");
+
+        List<String> templates = templateService.getWarmUpTemplates(properties);
+        assertEquals("/macro.vm", templates.get(0));
+        assertEquals("/report.htm", templates.get(1));
+
+        templateService.setWarmUpThreads(2);
+        templateService.setWarmUpRender(true);
+        templates = new ArrayList<String>();
+        templates.add("/report.htm");
+        templates.add("/missing.htm");
+        assertEquals(1, templateService.warmUpTemplates(templates));
+    }
+
+    /**
+     * Check watched templates stay cached until they are modified on disk.
+     */
+    public void testWatchTemplates() throws Exception {
+        File file = new File(tmpdir, "watched.htm");
+        writeFile(file, "first");
+
+        VelocityEngine engine = new VelocityEngine();
+        engine.setApplicationAttribute(ServletContext.class.getName(),
+            container.getServletContext());
+
+        Properties properties = new Properties();
+        properties.put(RuntimeConstants.RESOURCE_LOADER, "webapp");
+        properties.put("webapp.resource.loader.class", WebappResourceLoader.class.getName());
+        properties.put("webapp.resource.loader.cache", "true");
+        properties.put("webapp.resource.loader.modificationCheckInterval", "1");
+        properties.put("webapp.resource.loader.watch", "true");
+        engine.init(properties);
+
+        WebappResourceLoader loader = (WebappResourceLoader)
+            engine.getApplicationAttribute(WebappResourceLoader.class.getName());
+        assertNotNull(loader);
+
+        try {
+            Template template = engine.getTemplate("/watched.htm");
+            assertEquals("first", merge(template));
+
+            // The unmodified template is not reloaded
+            Thread.sleep(1100);
+            assertSame(template, engine.getTemplate("/watched.htm"));
+
+            writeFile(file, "second");
+
+            Template reloaded = template;
+            for (int i = 0; i < 50 && reloaded == template; i++) {
+                Thread.sleep(100);
+                reloaded = engine.getTemplate("/watched.htm");
+            }
+            assertNotSame(template, reloaded);
+            assertEquals("second", merge(reloaded));
+
+        } finally {
+            loader.close();
+        }
+    }
+
+    /**
+     * Check the templates of a deleted directory are no longer watched, and
+     * are reloaded when the directory is created again.
+     */
+    public void testWatchDeletedDirectory() throws Exception {
+        File dir = new File(tmpdir, "watched-dir");
+        dir.mkdir();
+        File file = new File(dir, "watched.htm");
+        writeFile(file, "first");
+
+        VelocityEngine engine = new VelocityEngine();
+        engine.setApplicationAttribute(ServletContext.class.getName(),
+            container.getServletContext());
+
+        Properties properties = new Properties();
+        properties.put(RuntimeConstants.RESOURCE_LOADER, "webapp");
+        properties.put("webapp.resource.loader.class", WatchStateResourceLoader.class.getName());
+        properties.put("webapp.resource.loader.cache", "true");
+        properties.put("webapp.resource.loader.modificationCheckInterval", "1");
+        properties.put("webapp.resource.loader.watch", "true");
+        engine.init(properties);
+
+        WatchStateResourceLoader loader = (WatchStateResourceLoader)
+            engine.getApplicationAttribute(WebappResourceLoader.class.getName());
+
+        try {
+            Template template = engine.getTemplate("/watched-dir/watched.htm");
+            assertEquals("first", merge(template));
+            assertTrue(loader.isWatched("watched-dir/watched.htm"));
+
+            file.delete();
+            dir.delete();
+
+            for (int i = 0; i < 50 && loader.isWatched("watched-dir/watched.htm"); i++) {
+                Thread.sleep(100);
+            }
+            assertFalse(loader.isWatched("watched-dir/watched.htm"));
+
+            dir.mkdir();
+            writeFile(file, "second");
+            file.setLastModified(System.currentTimeMillis() + 2000);
+
+            Template reloaded = template;
+            for (int i = 0; i < 50 && reloaded == template; i++) {
+                Thread.sleep(100);
+                reloaded = engine.getTemplate("/watched-dir/watched.htm");
+            }
+            assertNotSame(template, reloaded);
+            assertEquals("second", merge(reloaded));
+
+        } finally {
+            loader.close();
+        }
+    }
+
+    // Private Methods --------------------------------------------------------
+
+    private String merge(Template template) {
+        StringWriter writer = new StringWriter();
+        template.merge(new VelocityContext(), writer);
+        return writer.toString();
+    }
+
+    private void writeFile(File file, String content) throws IOException {
+        PrintStream pstr = new PrintStream(file);
+        pstr.print(content);
+        pstr.close();
+    }
+
+    private Map<String, Object> createModel(int rows) {
+        Table table = new Table("table");
+        table.addColumn(new Column("id"));
+        table.addColumn(new Column("name"));
+        table.setPageSize(0);
+
+        List<Map<String, Object>> rowList = new ArrayList<Map<String, Object>>(rows);
+        for (int i = 0; i < rows; i++) {
+            Map<String, Object> row = new HashMap<String, Object>();
+            row.put("id", i);
+            row.put("name", "Customer " + i);
+            rowList.add(row);
+        }
+        table.setRowList(rowList);
+
+        Map<String, Object> model = new HashMap<String, Object>();
+        model.put("table", table);
+        model.put("field", new TextField("field"));
+        model.put("label", new Label("label", "Report Label"));
+        return model;
+    }
+
+    private String render(Map<String, Object> model) throws Exception {
+        StringWriter writer = new StringWriter();
+        templateService.renderTemplate("/report.htm", model, writer);
+        return writer.toString();
+    }
+
+    private void renderToWriter(Map<String, Object> model) throws Exception {
+        templateService.renderTemplate("/report.htm", model, Writer.nullWriter());
+    }
+
+    private void deleteDir(File dir) throws IOException {
+        for (File f : dir.listFiles()) {
+            if (f.isDirectory()) {
+                deleteDir(f);
+            }
+            f.delete();
+        }
+        dir.delete();
+    }
+
+    // Inner Classes ----------------------------------------------------------
+
+    /**
+     * Provides a WebappResourceLoader exposing its watched templates.
+     */
+    public static class WatchStateResourceLoader extends WebappResourceLoader {
+
+        boolean isWatched(String name) {
+            return watchedTemplates.containsKey(name);
+        }
+    }
+}
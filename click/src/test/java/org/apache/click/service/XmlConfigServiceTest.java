@@ -42,6 +42,7 @@ import org.apache.click.pages.BinaryPage;
 import org.apache.click.pages.JspPage;
 import org.apache.click.pages.ListenerPage;
 import org.apache.click.service.ConfigService.AutoBinding;
+import org.apache.click.servlet.MockServletContext;
 import org.apache.click.util.ClickUtils;
 import org.apache.click.util.ErrorPage;
 import org.apache.click.util.Format;
@@ -135,6 +136,45 @@ public class XmlConfigServiceTest extends TestCase {
         deleteDir(tmpdir);
     }
 
+    public void testPageManifest() throws Exception {
+        File tmpdir = makeTmpDir();
+
+        PrintStream pstr = makeXmlStream(tmpdir, "WEB-INF/click.xml");
+        pstr.println("<click-app>");
+        pstr.println(" <pages package='org.apache.click.pages'/>");
+        pstr.println(" <mode value='production'/>");
+        pstr.println("</click-app>");
+        pstr.close();
+
+        File template = makeFile(tmpdir, "binary.htm");
+        PrintStream f = new PrintStream(template);
+        f.print("template");
+        f.close();
+
+        MockServletContext servletContext = new MockServletContext();
+        servletContext.setWebappPath(tmpdir.getAbsolutePath());
+        Map<String, String> pageManifest = PageManifestBuilder.buildPageManifest(servletContext);
+
+        assertEquals(BinaryPage.class.getName(), pageManifest.get("/binary.htm"));
+
+        File manifestFile = new File(tmpdir, "WEB-INF/click-pages.properties");
+        PageManifestBuilder.writePageManifest(pageManifest, manifestFile);
+        assertTrue(manifestFile.exists());
+
+        // The page is mapped from the manifest without scanning the templates
+        template.delete();
+
+        MockContainer container = new MockContainer(tmpdir.getAbsolutePath());
+        container.start();
+        ConfigService config = ClickUtils.getConfigService(container.getServletContext());
+
+        assertEquals(BinaryPage.class, config.getPageClass("/binary.htm"));
+
+        container.stop();
+
+        deleteDir(tmpdir);
+    }
+
     public void testProduction() throws Exception {
         File tmpdir = makeTmpDir();
 
@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.click.util;
+
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+/**
+ * ClassLoaderCache test.
+ */
+public class ClassLoaderCacheTest extends TestCase {
+
+    /**
+     * Check cached variables are kept per classloader and removed with
+     * {@link ClassLoaderCache#removeAll(ClassLoader)}.
+     */
+    public void testGetPut() {
+        ClassLoaderCache<String> cache = new ClassLoaderCache<String>("test-get-put", 0);
+        Thread thread = Thread.currentThread();
+        ClassLoader original = thread.getContextClassLoader();
+        ClassLoader other = new URLClassLoader(new URL[0], original);
+
+        try {
+            cache.put("original");
+            assertEquals("original", cache.get());
+
+            thread.setContextClassLoader(other);
+            assertNull(cache.get());
+            cache.put("other");
+            assertEquals("other", cache.get());
+            assertEquals(2, cache.size());
+            assertSame(cache, ClassLoaderCache.getCache("test-get-put"));
+
+            ClassLoaderCache.removeAll(other);
+            assertNull(cache.get());
+
+            thread.setContextClassLoader(original);
+            assertEquals("original", cache.get());
+            assertEquals(1, cache.size());
+
+        } finally {
+            thread.setContextClassLoader(original);
+            ClassLoaderCache.getCaches().remove(cache);
+        }
+    }
+
+    /**
+     * Check the cache does not prevent a classloader from being garbage
+     * collected.
+     */
+    public void testWeakClassLoader() throws Exception {
+        ClassLoaderCache<String> cache = new ClassLoaderCache<String>();
+        Thread thread = Thread.currentThread();
+        ClassLoader original = thread.getContextClassLoader();
+        ClassLoader other = new URLClassLoader(new URL[0], original);
+        WeakReference<ClassLoader> ref = new WeakReference<ClassLoader>(other);
+
+        try {
+            thread.setContextClassLoader(other);
+            cache.put("other");
+        } finally {
+            thread.setContextClassLoader(original);
+        }
+        other = null;
+
+        for (int i = 0; i < 50 && ref.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(ref.get());
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * Check the maps created by the cache are bounded by the cache max size.
+     */
+    public void testBoundedMap() {
+        ClassLoaderCache<Map<Integer, String>> cache =
+            new ClassLoaderCache<Map<Integer, String>>("test-bounded", 100);
+
+        try {
+            Map<Integer, String> map = cache.createMap();
+            cache.put(map);
+
+            for (int i = 0; i < 1000; i++) {
+                map.put(i, "value");
+                assertTrue(map.size() <= 100);
+            }
+            map.put(999, "updated");
+            assertEquals("updated", map.get(999));
+            assertEquals(map.size(), cache.getEntryCount());
+
+            cache.setMaxSize(0);
+            for (int i = 0; i < 1000; i++) {
+                map.put(i, "value");
+            }
+            assertEquals(1000, map.size());
+
+        } finally {
+            ClassLoaderCache.getCaches().remove(cache);
+        }
+    }
+
+    /**
+     * Check the bounded map is bounded when filled with the compute methods.
+     */
+    public void testBoundedMapCompute() {
+        ClassLoaderCache<Map<Integer, String>> cache =
+            new ClassLoaderCache<Map<Integer, String>>("test-bounded-compute", 100);
+
+        try {
+            Map<Integer, String> map = cache.createMap();
+
+            for (int i = 0; i < 1000; i++) {
+                assertEquals("value " + i, map.computeIfAbsent(i, key -> "value " + key));
+                assertTrue(map.size() <= 100);
+            }
+
+            map.clear();
+            for (int i = 0; i < 1000; i++) {
+                map.compute(i, (key, value) -> "value");
+                assertTrue(map.size() <= 100);
+            }
+
+            map.clear();
+            for (int i = 0; i < 1000; i++) {
+                map.merge(i, "value", (value1, value2) -> value1 + value2);
+                assertTrue(map.size() <= 100);
+            }
+
+            map.clear();
+            Map<Integer, String> values = new HashMap<Integer, String>();
+            for (int i = 0; i < 1000; i++) {
+                values.put(i, "value");
+            }
+            map.putAll(values);
+            assertTrue(map.size() <= 100);
+
+        } finally {
+            ClassLoaderCache.getCaches().remove(cache);
+        }
+    }
+
+    /**
+     * Assert that a bounded map evicts its least recently used entries, and
+     * never the entry just inserted.
+     */
+    public void testBoundedMapHotKey() {
+        ClassLoaderCache<Map<Integer, String>> cache =
+            new ClassLoaderCache<Map<Integer, String>>("test-bounded-hot", 100);
+
+        try {
+            Map<Integer, String> map = cache.createMap();
+            map.put(-1, "hot");
+            map.computeIfAbsent(-2, key -> "hot");
+
+            for (int i = 0; i < 1000; i++) {
+                assertEquals("hot", map.get(-1));
+                assertEquals("hot", map.computeIfAbsent(-2, key -> "cold"));
+
+                map.put(i, "value " + i);
+                assertEquals("value " + i, map.get(i));
+                assertTrue(map.size() <= 100);
+            }
+
+            assertEquals("hot", map.get(-1));
+            assertEquals("hot", map.get(-2));
+
+            // The recently inserted entries survive, the oldest are evicted
+            assertTrue(map.containsKey(999));
+            assertFalse(map.containsKey(0));
+
+        } finally {
+            ClassLoaderCache.getCaches().remove(cache);
+        }
+    }
+}
@@ -18,6 +18,7 @@
  */
 package org.apache.click.util;
 
+import java.util.ArrayList;
 import java.util.List;
 import junit.framework.TestCase;
 import org.apache.click.MockContext;
@@ -28,6 +29,8 @@ import org.apache.click.control.Form;
 import org.apache.click.control.HiddenField;
 import org.apache.click.control.Label;
 import org.apache.click.control.TextField;
+import org.apache.click.service.ConsoleLogService;
+import org.apache.click.service.LogService;
 
 /**
  * Tests for ContainerUtils.
@@ -103,6 +106,153 @@ public class ContainerUtilsTest extends TestCase {
         assertEquals(price, Double.toString(car.getPart().getPrice()));
     }
 
+    /**
+     * Check that nested property paths are created when copying to an
+     * object, and read when copying from an object.
+     */
+    public void testCopyNestedPaths() {
+        MockContext.initContext();
+
+        Form form = new Form("form");
+        form.add(new TextField("lastName"));
+        form.add(new TextField("address.lineOne"));
+        form.add(new TextField("address.id"));
+        form.add(new TextField("address.state.code"));
+
+        form.getField("lastName").setValue("Smith");
+        form.getField("address.lineOne").setValue("1 Main Street");
+        form.getField("address.id").setValue("42");
+        form.getField("address.state.code").setValue("NSW");
+
+        Customer customer = new Customer();
+        form.copyTo(customer);
+
+        assertEquals("Smith", customer.getLastName());
+        assertEquals("1 Main Street", customer.getAddress().getLineOne());
+        assertEquals(Integer.valueOf(42), customer.getAddress().getId());
+        assertEquals("NSW", customer.getAddress().getState().getCode());
+
+        form.clearValues();
+        form.copyFrom(customer);
+
+        assertEquals("Smith", form.getFieldValue("lastName"));
+        assertEquals("1 Main Street", form.getFieldValue("address.lineOne"));
+        assertEquals("42", form.getFieldValue("address.id"));
+        assertEquals("NSW", form.getFieldValue("address.state.code"));
+
+        // Null intermediate objects leave the field values unchanged
+        customer.setAddress(null);
+        customer.setLastName("Jones");
+        form.copyFrom(customer);
+
+        assertEquals("Jones", form.getFieldValue("lastName"));
+        assertEquals("1 Main Street", form.getFieldValue("address.lineOne"));
+    }
+
+    /**
+     * Check that record style accessors without a 'get' prefix are read when
+     * copying from an object, as the PropertyService reads them.
+     */
+    public void testCopyFromRecordAccessors() {
+        MockContext.initContext();
+
+        Form form = new Form("form");
+        form.add(new TextField("name"));
+        form.add(new TextField("engine.capacity"));
+
+        Vehicle vehicle = new Vehicle();
+        vehicle.setName("Roadster");
+        vehicle.setEngine(new Engine());
+        vehicle.engine().setCapacity(1600);
+
+        form.copyFrom(vehicle);
+
+        assertEquals("Roadster", form.getFieldValue("name"));
+        assertEquals("1600", form.getFieldValue("engine.capacity"));
+
+        form.getField("name").setValue("Coupe");
+        form.getField("engine.capacity").setValue("2000");
+        form.copyTo(vehicle);
+
+        assertEquals("Coupe", vehicle.name());
+        assertEquals(2000, vehicle.engine().capacity());
+    }
+
+    /**
+     * Time copying a form with 40 fields, including nested address fields,
+     * to and from a customer object.
+     */
+    public void testCopyPerformance() {
+        MockContext.initContext();
+
+        // Time the copies without the debug logging of each copied value
+        LogService logService = ClickUtils.getLogService();
+        if (logService instanceof ConsoleLogService) {
+            ((ConsoleLogService) logService).setLevel(ConsoleLogService.INFO_LEVEL);
+        }
+
+        Form form = new Form("form");
+        List<String> names = new ArrayList<String>();
+        for (java.lang.reflect.Field field : Customer.class.getDeclaredFields()) {
+            if (field.getType() == String.class) {
+                names.add(field.getName());
+            }
+        }
+        names.add("address.id");
+        names.add("address.lineOne");
+        names.add("address.lineTwo");
+        names.add("address.lineThree");
+        names.add("address.active");
+        names.add("address.state.code");
+
+        assertEquals(40, names.size());
+
+        for (String name : names) {
+            TextField field = new TextField(name);
+            field.setValue(name.equals("address.id") ? "1"
+                : name.equals("address.active") ? "true" : "value");
+            form.add(field);
+        }
+
+        int iterations = 20000;
+
+        for (int i = 0; i < 5000; i++) {
+            form.copyFrom(copyTo(form));
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            copyTo(form);
+        }
+        long copyToTime = System.nanoTime() - start;
+
+        Customer customer = copyTo(form);
+        assertEquals("value", customer.getTags());
+        assertTrue(customer.getAddress().isActive());
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            form.copyFrom(customer);
+        }
+        long copyFromTime = System.nanoTime() - start;
+
+        assertEquals("value", form.getFieldValue("address.state.code"));
+
+        System.err.printf("40 field form copyTo: %1d ns/copy\n",
+            copyToTime / iterations);
+        System.err.printf("40 field form copyFrom: %1d ns/copy\n",
+            copyFromTime / iterations);
+    }
+
+    /**
+     * Copy the given form to a new customer.
+     */
+    private Customer copyTo(Form form) {
+        Customer customer = new Customer();
+        form.copyTo(customer);
+        return customer;
+    }
+
     /**
      * Test Car class.
      */
@@ -137,6 +287,75 @@ public class ContainerUtilsTest extends TestCase {
         }
     }
 
+    /**
+     * Test Vehicle class with record style accessors.
+     */
+    public static class Vehicle {
+
+        /** Name variable. */
+        private String name;
+
+        /** Engine variable. */
+        private Engine engine;
+
+        /**
+         * Record style getter for name.
+         * @return name
+         */
+        public String name() {
+            return name;
+        }
+
+        /**
+         * Setter for name.
+         * @param name
+         */
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Record style getter for engine.
+         * @return engine
+         */
+        public Engine engine() {
+            return engine;
+        }
+
+        /**
+         * Setter for engine.
+         * @param engine
+         */
+        public void setEngine(Engine engine) {
+            this.engine = engine;
+        }
+    }
+
+    /**
+     * Test Engine class with record style accessors.
+     */
+    public static class Engine {
+
+        /** Capacity variable. */
+        private int capacity;
+
+        /**
+         * Record style getter for capacity.
+         * @return capacity
+         */
+        public int capacity() {
+            return capacity;
+        }
+
+        /**
+         * Setter for capacity.
+         * @param capacity
+         */
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+    }
+
     /**
      * Test Part class.
      */
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.click.util;
+
+import java.text.DateFormat;
+import java.text.DecimalFormat;
+import java.text.MessageFormat;
+import java.text.NumberFormat;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.framework.TestCase;
+
+/**
+ * FormatCache test.
+ */
+public class FormatCacheTest extends TestCase {
+
+    /**
+     * Check the cached formatters format values as new formatters do, for
+     * each locale.
+     */
+    public void testFormat() {
+        Date date = new Date(1078000000000L);
+        Double number = Double.valueOf(12345.678);
+
+        for (Locale locale : new Locale[] { Locale.US, Locale.GERMANY, Locale.FRANCE }) {
+            for (int i = 0; i < 2; i++) {
+                assertEquals(NumberFormat.getCurrencyInstance(locale).format(number),
+                    FormatCache.formatCurrency(number, locale));
+                assertEquals(NumberFormat.getPercentInstance(locale).format(0.25),
+                    FormatCache.formatPercent(Double.valueOf(0.25), locale));
+                assertEquals(new SimpleDateFormat("dd MMM yyyy", locale).format(date),
+                    FormatCache.formatDate(date, "dd MMM yyyy", locale));
+                assertEquals(DateFormat.getDateInstance(DateFormat.DEFAULT, locale).format(date),
+                    FormatCache.formatDate(date, DateFormat.DEFAULT, locale));
+                assertEquals(DateFormat.getTimeInstance(DateFormat.DEFAULT, locale).format(date),
+                    FormatCache.formatTime(date, DateFormat.DEFAULT, locale));
+
+                Object[] args = new Object[] { number };
+                assertEquals(new MessageFormat("{0,number,#,##0.00}", locale).format(args),
+                    FormatCache.formatMessage("{0,number,#,##0.00}", locale, args));
+            }
+        }
+
+        assertEquals(new DecimalFormat("#,##0.0").format(number),
+            FormatCache.formatDecimal(number, "#,##0.0"));
+        assertEquals(new DecimalFormat().format(number),
+            FormatCache.formatDecimal(number, null));
+    }
+
+    /**
+     * Check the cached formatters are not shared by concurrent threads.
+     */
+    public void testConcurrentFormat() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+            for (int t = 0; t < 8; t++) {
+                final long offset = t * 86400000L * 31;
+                futures.add(executor.submit(new Callable<Boolean>() {
+                    public Boolean call() {
+                        SimpleDateFormat expected =
+                            new SimpleDateFormat("yyyy-MM-dd HH:mm", Locale.US);
+                        for (int i = 0; i < 2000; i++) {
+                            Date date = new Date(offset + i * 60000L);
+                            String value = FormatCache.formatDate(date,
+                                "yyyy-MM-dd HH:mm", Locale.US);
+                            if (!expected.format(date).equals(value)) {
+                                return Boolean.FALSE;
+                            }
+                        }
+                        return Boolean.TRUE;
+                    }
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                assertTrue(future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.click.util;
+
+import junit.framework.TestCase;
+
+import org.apache.click.control.TextField;
+
+/**
+ * HtmlStringBufferArena test.
+ */
+public class HtmlStringBufferArenaTest extends TestCase {
+
+    /**
+     * Reset the arena of the test thread.
+     */
+    @Override
+    protected void tearDown() {
+        HtmlStringBufferArena.resetThreadLocalArena();
+    }
+
+    /**
+     * Check released buffers are recycled empty, and nested buffers are
+     * distinct.
+     */
+    public void testAcquireRelease() {
+        HtmlStringBuffer outer = HtmlStringBufferArena.acquire(200);
+        outer.append("outer");
+
+        HtmlStringBuffer inner = HtmlStringBufferArena.acquire(200);
+        assertNotSame(outer, inner);
+        assertEquals(0, inner.length());
+
+        HtmlStringBufferArena.release(inner);
+        HtmlStringBufferArena.release(outer);
+
+        HtmlStringBuffer buffer = HtmlStringBufferArena.acquire(100);
+        assertSame(outer, buffer);
+        assertEquals(0, buffer.length());
+        assertTrue(buffer.characters.length >= 200);
+        HtmlStringBufferArena.release(buffer);
+    }
+
+    /**
+     * Check buffers left unreleased are recycled after the arena is reset.
+     */
+    public void testResetThreadLocalArena() {
+        HtmlStringBuffer buffer = HtmlStringBufferArena.acquire(200);
+        HtmlStringBufferArena.acquire(200);
+
+        HtmlStringBufferArena.resetThreadLocalArena();
+
+        assertSame(buffer, HtmlStringBufferArena.acquire(200));
+
+        HtmlStringBufferArena.resetThreadLocalArena();
+
+        HtmlStringBuffer large =
+            HtmlStringBufferArena.acquire(HtmlStringBufferArena.MAX_RETAINED_CAPACITY + 1);
+
+        HtmlStringBufferArena.resetThreadLocalArena();
+
+        assertNotSame(large, HtmlStringBufferArena.acquire(200));
+    }
+
+    /**
+     * Check the size estimates learn the rendered size per control name.
+     */
+    public void testSizeEstimate() {
+        TextField field = new TextField("arenaTestField");
+        assertEquals(500, HtmlStringBufferArena.getSizeEstimate(field, 500));
+
+        HtmlStringBufferArena.recordSize(field, 800);
+        assertEquals(900, HtmlStringBufferArena.getSizeEstimate(field, 500));
+
+        // Small variations do not change the estimate
+        HtmlStringBufferArena.recordSize(field, 850);
+        assertEquals(900, HtmlStringBufferArena.getSizeEstimate(field, 500));
+
+        // Shrink when the estimate is twice too large
+        HtmlStringBufferArena.recordSize(field, 320);
+        assertEquals(360, HtmlStringBufferArena.getSizeEstimate(field, 500));
+
+        TextField other = new TextField("arenaTestOther");
+        assertEquals(500, HtmlStringBufferArena.getSizeEstimate(other, 500));
+    }
+}
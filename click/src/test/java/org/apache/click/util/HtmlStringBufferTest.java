@@ -18,6 +18,8 @@
  */
 package org.apache.click.util;
 
+import java.io.StringWriter;
+
 import junit.framework.TestCase;
 
 /**
@@ -78,4 +80,38 @@ public class HtmlStringBufferTest extends TestCase {
         assertEquals(" disabled=\"disabled\"", buffer.toString());
     }
 
+    /**
+     * Check that a StreamingHtmlStringBuffer writes the same content as a
+     * HtmlStringBuffer, in chunks no larger than the chunk size.
+     */
+    public void testStreamingBuffer() {
+        StringWriter writer = new StringWriter();
+        StreamingHtmlStringBuffer streamingBuffer =
+            new StreamingHtmlStringBuffer(writer, 4, 16);
+        HtmlStringBuffer buffer = new HtmlStringBuffer(4);
+
+        String longValue = "A value longer than the sixteen character chunk size";
+
+        for (HtmlStringBuffer target : new HtmlStringBuffer[] { streamingBuffer, buffer }) {
+            for (int i = 0; i < 20; i++) {
+                target.elementStart("td");
+                target.appendAttribute("id", i);
+                target.appendAttributeEscaped("title", "'" + i + "'");
+                target.closeTag();
+                target.append('x');
+                target.append((Object) longValue);
+                target.elementEnd("td");
+            }
+        }
+
+        assertTrue(streamingBuffer.characters.length <= 16);
+        assertTrue(streamingBuffer.toString().length() <= 16);
+        assertEquals(buffer.length(), streamingBuffer.length());
+
+        streamingBuffer.flush();
+
+        assertEquals(0, streamingBuffer.toString().length());
+        assertEquals(buffer.toString(), writer.toString());
+        assertEquals(buffer.length(), streamingBuffer.length());
+    }
 }
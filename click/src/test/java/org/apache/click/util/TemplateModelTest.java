@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.click.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.apache.click.MockContext;
+import org.apache.click.Page;
+
+/**
+ * TemplateModel test.
+ */
+public class TemplateModelTest extends TestCase {
+
+    /**
+     * Check the template model reads through to the page model and the
+     * framework variables, without modifying the page model.
+     */
+    public void testLayers() {
+        MockContext context = MockContext.initContext();
+        Page page = new Page();
+        page.setPath("/test.htm");
+        page.addModel("title", "Title");
+        page.addModel("path", "hidden");
+
+        Map<String, Object> model = ClickUtils.createTemplateModel(page, context);
+        new PageImports(page).populateTemplateModel(model);
+
+        assertEquals("Title", model.get("title"));
+        assertEquals("/test.htm", model.get("path"));
+        assertSame(context.getRequest(), model.get("request"));
+        assertTrue(model.get("session") instanceof SessionMap);
+        assertSame(model.get("session"), model.get("session"));
+        assertNotNull(model.get("messages"));
+        assertNotNull(model.get("headElements"));
+        assertNotNull(model.get("jsImports"));
+        assertFalse(model.containsKey("missing"));
+
+        // Template values hide the page model and framework variables
+        model.put("title", "Template Title");
+        model.put("path", "/other.htm");
+        assertEquals("Template Title", model.get("title"));
+        assertEquals("/other.htm", model.get("path"));
+        assertEquals("Title", page.getModel().get("title"));
+
+        assertEquals("Template Title", model.remove("title"));
+        assertFalse(model.containsKey("title"));
+        assertEquals("Title", page.getModel().get("title"));
+
+        Map<String, Object> entries = new HashMap<String, Object>(model);
+        assertFalse(entries.containsKey("title"));
+        assertEquals("/other.htm", entries.get("path"));
+        assertTrue(entries.containsKey("context"));
+        assertTrue(entries.containsKey("imports"));
+        assertEquals(entries.size(), model.size());
+    }
+}
@@ -112,6 +112,66 @@ public class ClickUtilsInvokeListenerTest extends TestCase {
         
     }
     
+    /**
+     * Test that listener exceptions are propagated, with checked exceptions
+     * wrapped in a RuntimeException, on each invocation of the cached
+     * listener method.
+     */
+    public void testInvokeListenerExceptions() {
+        ListenerMock lm = new ListenerMock();
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                ClickUtils.invokeListener(lm, "onClickUnchecked");
+                fail();
+            } catch (IllegalStateException e) {
+                assertEquals("unchecked", e.getMessage());
+            }
+
+            try {
+                ClickUtils.invokeListener(lm, "onClickChecked");
+                fail();
+            } catch (RuntimeException e) {
+                assertTrue(e.getMessage().contains("onClickChecked"));
+                assertEquals("checked", e.getCause().getMessage());
+            }
+        }
+
+        assertEquals(4, lm.called);
+    }
+
+    /**
+     * Time invoking a listener method through ClickUtils, and through
+     * resolving and invoking the method reflectively on each event.
+     */
+    public void testInvokeListenerPerformance() throws Exception {
+        ListenerMock lm = new ListenerMock();
+
+        int iterations = 500000;
+
+        for (int i = 0; i < 50000; i++) {
+            ClickUtils.invokeListener(lm, "onClickTrue");
+            lm.getClass().getMethod("onClickTrue").invoke(lm);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            lm.getClass().getMethod("onClickTrue").invoke(lm);
+        }
+        long reflectionTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            ClickUtils.invokeListener(lm, "onClickTrue");
+        }
+        long cachedTime = System.nanoTime() - start;
+
+        System.err.printf("listener invoke, reflection: %1d ns/event\n",
+            reflectionTime / iterations);
+        System.err.printf("listener invoke, cached handle: %1d ns/event\n",
+            cachedTime / iterations);
+    }
+
     /**
      * Public mock class which listens to events.
      */
@@ -144,6 +204,27 @@ public class ClickUtilsInvokeListenerTest extends TestCase {
          */
         public void noReturn() {
         }
+
+        /**
+         * An event handler which throws an unchecked exception.
+         *
+         * @return true if processing should continue
+         */
+        public boolean onClickUnchecked() {
+            called++;
+            throw new IllegalStateException("unchecked");
+        }
+
+        /**
+         * An event handler which throws a checked exception.
+         *
+         * @return true if processing should continue
+         * @throws Exception always
+         */
+        public boolean onClickChecked() throws Exception {
+            called++;
+            throw new Exception("checked");
+        }
         
         /**
          * An event handler.
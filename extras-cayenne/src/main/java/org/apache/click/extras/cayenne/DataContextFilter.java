@@ -180,6 +180,13 @@ import org.apache.commons.lang3.StringUtils;
  *
  * &lt;/web-app&gt; </pre>
  *
+ * <h3>Asynchronous Requests</h3>
+ *
+ * The DataContext is bound to the request thread for the duration of the
+ * filter chain, so this filter must not be declared <tt>async-supported</tt>
+ * if ClickServlet processes pages on an
+ * {@link org.apache.click.ClickServlet#createAsyncExecutor() async executor}.
+ *
  * <h3>Examples</h3>
  *
  * Please see the Click Examples application for a demonstration of Cayenne integration.
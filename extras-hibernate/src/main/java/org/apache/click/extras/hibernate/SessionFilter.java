@@ -51,6 +51,11 @@ import java.io.IOException;
  *   ..
  * &lt;/web-app&gt; </pre>
  * <p/>
+ * The Hibernate session is bound to the request thread and closed when the
+ * filter chain returns, so this filter must not be declared
+ * <tt>async-supported</tt> if ClickServlet processes pages on an
+ * {@link org.apache.click.ClickServlet#createAsyncExecutor() async executor}.
+ * <p/>
  * The SessionFilter <code>init()</code> method loads the SessionContext class
  * which in turn initializes the Hibernate runtime.
  *
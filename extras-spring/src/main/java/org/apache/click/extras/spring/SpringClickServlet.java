@@ -19,6 +19,9 @@
 package org.apache.click.extras.spring;
 
 import java.beans.Introspector;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -26,6 +29,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
@@ -371,6 +375,10 @@ public class SpringClickServlet extends ClickServlet {
     protected Map<Class<? extends Page>, List<BeanNameAndMethod>> pageSetterBeansMap =
         new HashMap<Class<? extends Page>, List<BeanNameAndMethod>>();
 
+    /** The page creation and injection plans, keyed on page class. */
+    protected final Map<Class<? extends Page>, PagePlan> pagePlans =
+        new ConcurrentHashMap<Class<? extends Page>, PagePlan>();
+
     // Public Methods ----------------------------------------------------------
 
     /**
@@ -414,6 +422,17 @@ public class SpringClickServlet extends ClickServlet {
         }
     }
 
+    /**
+     * Clear the page plans and destroy the servlet.
+     *
+     * @see ClickServlet#destroy()
+     */
+    @Override
+    public void destroy() {
+        pagePlans.clear();
+        super.destroy();
+    }
+
     // Protected Methods ------------------------------------------------------
 
     /**
@@ -422,6 +441,9 @@ public class SpringClickServlet extends ClickServlet {
      * <p/>
      * If the "inject-page-beans" option is enabled this method will inject
      * any Spring beans matching the Page's properties.
+     * <p/>
+     * How a page class is created is resolved once and cached, see
+     * {@link #getPagePlan(Class)}.
      *
      * @see ClickServlet#newPageInstance(String, Class, HttpServletRequest)
      *
@@ -435,21 +457,80 @@ public class SpringClickServlet extends ClickServlet {
     protected Page newPageInstance(String path, Class<? extends Page> pageClass,
             HttpServletRequest request) throws Exception {
 
-        Page page = null;
+        return getPagePlan(pageClass).newPage(getApplicationContext());
+    }
+
+    /**
+     * Return the plan creating and injecting the pages of the given class. The
+     * plan is created on the first request of the page class and then cached.
+     *
+     * @param pageClass the page class
+     * @return the plan creating and injecting the pages of the given class
+     * @throws Exception if the page class constructor cannot be accessed
+     */
+    protected PagePlan getPagePlan(Class<? extends Page> pageClass) throws Exception {
+        PagePlan plan = pagePlans.get(pageClass);
+        if (plan == null) {
+            plan = createPagePlan(pageClass);
+            pagePlans.put(pageClass, plan);
+        }
+        return plan;
+    }
+
+    /**
+     * Create the plan creating and injecting the pages of the given class.
+     * <p/>
+     * If the page class is a Spring bean, pages are obtained from the
+     * application context. Otherwise pages are created with their no-args
+     * constructor, and the beans matching the page setter methods are
+     * injected, when the "inject-page-beans" option is enabled. Singleton
+     * beans are resolved once, when the plan is created.
+     *
+     * @param pageClass the page class
+     * @return the plan creating and injecting the pages of the given class
+     * @throws Exception if the page class constructor cannot be accessed
+     */
+    protected PagePlan createPagePlan(Class<? extends Page> pageClass) throws Exception {
+        ApplicationContext applicationContext = getApplicationContext();
 
         String beanName = toBeanName(pageClass);
+        if (applicationContext.containsBean(beanName)) {
+            return new PagePlan(beanName, null, null);
 
-        if (getApplicationContext().containsBean(beanName)) {
-            page = (Page) getApplicationContext().getBean(beanName);
+        } else if (applicationContext.containsBean(pageClass.getName())) {
+            return new PagePlan(pageClass.getName(), null, null);
+        }
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
 
-        } else if (getApplicationContext().containsBean(pageClass.getName())) {
-            page = (Page) getApplicationContext().getBean(pageClass.getName());
+        MethodHandle constructor =
+            lookup.unreflectConstructor(pageClass.getDeclaredConstructor())
+                .asType(MethodType.methodType(Page.class));
 
-        } else {
-            page = pageClass.getDeclaredConstructor().newInstance();
+        // In development mode, lazily loaded page classes won't have
+        // their bean setters methods mapped, thus beans won't be injected
+        List<BeanNameAndMethod> beanList = pageSetterBeansMap.get(pageClass);
+        if (beanList == null) {
+            return new PagePlan(null, constructor, null);
         }
 
-        return page;
+        MethodType setterType =
+            MethodType.methodType(void.class, Page.class, Object.class);
+
+        BeanInjection[] injections = new BeanInjection[beanList.size()];
+        for (int i = 0; i < injections.length; i++) {
+            BeanNameAndMethod bnam = beanList.get(i);
+
+            Object bean = null;
+            if (applicationContext.isSingleton(bnam.beanName)) {
+                bean = applicationContext.getBean(bnam.beanName);
+            }
+
+            MethodHandle setter = lookup.unreflect(bnam.method).asType(setterType);
+            injections[i] = new BeanInjection(bnam.beanName, bean, setter);
+        }
+
+        return new PagePlan(null, constructor, injections);
     }
 
     /**
@@ -480,35 +561,15 @@ public class SpringClickServlet extends ClickServlet {
             aware.setApplicationContext(applicationContext);
         }
 
-        Class<? extends Page> pageClass = page.getClass();
-        String beanName = toBeanName(pageClass);
-
-        if (applicationContext.containsBean(beanName)
-            || applicationContext.containsBean(pageClass.getName())) {
-
-            // Beans are injected through Spring
-        } else {
-
-            // Inject any Spring beans into the page instance
-            if (!pageSetterBeansMap.isEmpty()) {
-                // In development mode, lazily loaded page classes won't have
-                // their bean setters methods mapped, thus beans won't be injected
-                List<BeanNameAndMethod> beanList = pageSetterBeansMap.get(page.getClass());
-                if (beanList != null) {
-                    for (BeanNameAndMethod bnam : beanList) {
-                        Object bean = applicationContext.getBean(bnam.beanName);
-
-                        try {
-                            Object[] args = { bean };
-                            bnam.method.invoke(page, args);
-
-                        } catch (Exception error) {
-                            throw new RuntimeException(error);
-                        }
-                    }
-                }
-            }
+        // Inject any Spring beans into the page instance, unless the page
+        // beans are injected through Spring
+        PagePlan plan;
+        try {
+            plan = getPagePlan(page.getClass());
+        } catch (Exception error) {
+            throw new RuntimeException(error);
         }
+        plan.injectBeans(page, applicationContext);
     }
 
     /**
@@ -546,14 +607,125 @@ public class SpringClickServlet extends ClickServlet {
         }
     }
 
-    // Private Methods --------------------------------------------------------
+    /**
+     * Provides the cached plan creating and injecting the pages of a class:
+     * either the Spring bean name of the page, or the page constructor and
+     * the page bean injections.
+     */
+    protected static class PagePlan {
+
+        /** The Spring page bean name, or null if the page is not a bean. */
+        protected final String beanName;
+
+        /** The page constructor handle, or null if the page is a bean. */
+        protected final MethodHandle constructor;
+
+        /** The page bean injections, or null if there are none. */
+        protected final BeanInjection[] injections;
+
+        /**
+         * Create a new page plan.
+         *
+         * @param beanName the Spring page bean name, or null
+         * @param constructor the page constructor handle, or null
+         * @param injections the page bean injections, or null
+         */
+        protected PagePlan(String beanName, MethodHandle constructor,
+                BeanInjection[] injections) {
+            this.beanName = beanName;
+            this.constructor = constructor;
+            this.injections = injections;
+        }
+
+        /**
+         * Return a new page, from the application context or the page
+         * constructor.
+         *
+         * @param applicationContext the Spring application context
+         * @return a new page
+         * @throws Exception if an error occurs creating the page
+         */
+        protected Page newPage(ApplicationContext applicationContext) throws Exception {
+            if (beanName != null) {
+                return (Page) applicationContext.getBean(beanName);
+            }
+
+            try {
+                return (Page) constructor.invokeExact();
+
+            } catch (Exception e) {
+                throw e;
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new RuntimeException(t);
+            }
+        }
+
+        /**
+         * Inject the page beans into the given page.
+         *
+         * @param page the page to inject the beans into
+         * @param applicationContext the Spring application context
+         */
+        protected void injectBeans(Page page, ApplicationContext applicationContext) {
+            if (injections == null) {
+                return;
+            }
+
+            for (BeanInjection injection : injections) {
+                Object bean = injection.bean;
+                if (bean == null) {
+                    bean = applicationContext.getBean(injection.beanName);
+                }
+
+                try {
+                    injection.setter.invokeExact(page, bean);
+
+                } catch (Throwable error) {
+                    throw new RuntimeException(error);
+                }
+            }
+        }
+    }
+
+    /**
+     * Provides a page bean injection: the bean name, the resolved singleton
+     * bean and the page setter method handle.
+     */
+    protected static class BeanInjection {
+
+        /** The Spring bean name. */
+        protected final String beanName;
+
+        /** The singleton bean, or null if the bean is resolved per page. */
+        protected final Object bean;
+
+        /** The page bean property setter method handle. */
+        protected final MethodHandle setter;
+
+        /**
+         * Create a new page bean injection.
+         *
+         * @param beanName the Spring bean name
+         * @param bean the singleton bean, or null to resolve the bean per page
+         * @param setter the page setter method handle, of type (Page, Object)void
+         */
+        protected BeanInjection(String beanName, Object bean, MethodHandle setter) {
+            this.beanName = beanName;
+            this.bean = bean;
+            this.setter = setter;
+        }
+    }
+
+    // Package Private Methods ------------------------------------------------
 
     /**
      * Load the pageClass bean setter methods.
      *
      * @param pageClass the page class
      */
-    private void loadSpringBeanSetterMethods(Class<? extends Page> pageClass) {
+    void loadSpringBeanSetterMethods(Class<? extends Page> pageClass) {
 
         Method[] methods = pageClass.getMethods();
         for (int j = 0; j < methods.length; j++) {
@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.click.extras.spring;
+
+import junit.framework.TestCase;
+import org.apache.click.Page;
+import org.springframework.context.support.StaticApplicationContext;
+
+/**
+ * Provides test cases for the SpringClickServlet page creation and injection
+ * plans.
+ */
+public class SpringClickServletTest extends TestCase {
+
+    /** The Spring application context of the servlet. */
+    private StaticApplicationContext applicationContext;
+
+    /** The servlet under test. */
+    private SpringClickServlet servlet;
+
+    /**
+     * Create the servlet with an empty Spring application context.
+     */
+    @Override
+    protected void setUp() {
+        applicationContext = new StaticApplicationContext();
+
+        servlet = new SpringClickServlet();
+        servlet.applicationContext = applicationContext;
+    }
+
+    /**
+     * Assert that a page defined as a Spring bean is obtained from the
+     * application context, and is not injected by the servlet.
+     */
+    public void testBeanPage() throws Exception {
+        applicationContext.registerPrototype("beanPage", BeanPage.class);
+        applicationContext.registerSingleton("customerService", CustomerService.class);
+        applicationContext.refresh();
+
+        servlet.loadSpringBeanSetterMethods(BeanPage.class);
+
+        SpringClickServlet.PagePlan plan = servlet.getPagePlan(BeanPage.class);
+        assertEquals("beanPage", plan.beanName);
+        assertNull(plan.constructor);
+        assertNull(plan.injections);
+
+        Page page1 = newPage(BeanPage.class);
+        Page page2 = newPage(BeanPage.class);
+
+        assertTrue(page1 instanceof BeanPage);
+        assertTrue(page2 instanceof BeanPage);
+        assertNotSame(page1, page2);
+
+        // The bean page is injected by Spring, not by the servlet
+        assertNull(((BeanPage) page1).customerService);
+
+        assertSame(plan, servlet.getPagePlan(BeanPage.class));
+    }
+
+    /**
+     * Assert that singleton beans are injected through the page setter
+     * methods, and are resolved once when the page plan is created.
+     */
+    public void testSetterInjection() throws Exception {
+        applicationContext.registerSingleton("customerService", CustomerService.class);
+        applicationContext.refresh();
+
+        servlet.loadSpringBeanSetterMethods(InjectedPage.class);
+
+        SpringClickServlet.PagePlan plan = servlet.getPagePlan(InjectedPage.class);
+        assertNull(plan.beanName);
+        assertNotNull(plan.constructor);
+        assertEquals(1, plan.injections.length);
+        assertEquals("customerService", plan.injections[0].beanName);
+
+        Object customerService = applicationContext.getBean("customerService");
+        assertSame(customerService, plan.injections[0].bean);
+
+        InjectedPage page1 = (InjectedPage) newPage(InjectedPage.class);
+        InjectedPage page2 = (InjectedPage) newPage(InjectedPage.class);
+
+        assertNotSame(page1, page2);
+        assertSame(customerService, page1.customerService);
+        assertSame(customerService, page2.customerService);
+        assertNull(page1.orderService);
+    }
+
+    /**
+     * Assert that prototype beans are resolved from the application context
+     * for each page.
+     */
+    public void testPrototypeInjection() throws Exception {
+        applicationContext.registerSingleton("customerService", CustomerService.class);
+        applicationContext.registerPrototype("orderService", OrderService.class);
+        applicationContext.refresh();
+
+        servlet.loadSpringBeanSetterMethods(InjectedPage.class);
+
+        SpringClickServlet.PagePlan plan = servlet.getPagePlan(InjectedPage.class);
+        assertEquals(2, plan.injections.length);
+
+        InjectedPage page1 = (InjectedPage) newPage(InjectedPage.class);
+        InjectedPage page2 = (InjectedPage) newPage(InjectedPage.class);
+
+        assertNotNull(page1.orderService);
+        assertNotNull(page2.orderService);
+        assertNotSame(page1.orderService, page2.orderService);
+
+        assertNotNull(page1.customerService);
+        assertSame(page1.customerService, page2.customerService);
+    }
+
+    /**
+     * Assert that a page without matching bean setter methods is created with
+     * its constructor and is not injected.
+     */
+    public void testNoInjection() throws Exception {
+        applicationContext.registerSingleton("customerService", CustomerService.class);
+        applicationContext.refresh();
+
+        servlet.loadSpringBeanSetterMethods(PlainPage.class);
+
+        SpringClickServlet.PagePlan plan = servlet.getPagePlan(PlainPage.class);
+        assertNull(plan.beanName);
+        assertNotNull(plan.constructor);
+        assertNull(plan.injections);
+
+        Page page1 = newPage(PlainPage.class);
+        Page page2 = newPage(PlainPage.class);
+
+        assertTrue(page1 instanceof PlainPage);
+        assertNotSame(page1, page2);
+    }
+
+    /**
+     * Assert that pages are not injected when their bean setter methods are
+     * not loaded, as when the "inject-page-beans" option is disabled.
+     */
+    public void testInjectionDisabled() throws Exception {
+        applicationContext.registerSingleton("customerService", CustomerService.class);
+        applicationContext.refresh();
+
+        SpringClickServlet.PagePlan plan = servlet.getPagePlan(InjectedPage.class);
+        assertNull(plan.injections);
+
+        InjectedPage page = (InjectedPage) newPage(InjectedPage.class);
+        assertNull(page.customerService);
+    }
+
+    // Private Methods --------------------------------------------------------
+
+    /**
+     * Create and activate a new page of the given class, as the servlet does
+     * when processing a request.
+     */
+    private Page newPage(Class<? extends Page> pageClass) throws Exception {
+        Page page = servlet.newPageInstance("/page.htm", pageClass, null);
+        servlet.activatePageInstance(page);
+        return page;
+    }
+
+    // Inner Classes ----------------------------------------------------------
+
+    /**
+     * Provides a singleton bean.
+     */
+    public static class CustomerService {
+    }
+
+    /**
+     * Provides a prototype bean.
+     */
+    public static class OrderService {
+    }
+
+    /**
+     * Provides a page defined as a Spring bean.
+     */
+    public static class BeanPage extends Page {
+
+        private static final long serialVersionUID = 1L;
+
+        CustomerService customerService;
+
+        public void setCustomerService(CustomerService customerService) {
+            this.customerService = customerService;
+        }
+    }
+
+    /**
+     * Provides a page with bean setter methods.
+     */
+    public static class InjectedPage extends Page {
+
+        private static final long serialVersionUID = 1L;
+
+        CustomerService customerService;
+
+        OrderService orderService;
+
+        public void setCustomerService(CustomerService customerService) {
+            this.customerService = customerService;
+        }
+
+        public void setOrderService(OrderService orderService) {
+            this.orderService = orderService;
+        }
+    }
+
+    /**
+     * Provides a page without bean setter methods.
+     */
+    public static class PlainPage extends Page {
+
+        private static final long serialVersionUID = 1L;
+
+        String title;
+
+        public void setTitle(String title) {
+            this.title = title;
+        }
+    }
+}
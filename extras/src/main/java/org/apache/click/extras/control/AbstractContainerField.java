@@ -30,6 +30,7 @@ import org.apache.click.control.Field;
 import org.apache.click.util.ClickUtils;
 import org.apache.click.util.ContainerUtils;
 import org.apache.click.util.HtmlStringBuffer;
+import org.apache.click.util.HtmlStringBufferArena;
 
 /**
  * Provides an abstract convenience class that implements Container and extend Field.
@@ -431,9 +432,14 @@ public abstract class AbstractContainerField extends Field implements Container
      */
     @Override
     public String toString() {
-        HtmlStringBuffer buffer = new HtmlStringBuffer(getControlSizeEst());
-        render(buffer);
-        return buffer.toString();
+        HtmlStringBuffer buffer = HtmlStringBufferArena.acquire(this, getControlSizeEst());
+        try {
+            render(buffer);
+            return HtmlStringBufferArena.getRenderedString(this, buffer);
+
+        } finally {
+            HtmlStringBufferArena.release(buffer);
+        }
     }
 
     // Protected Methods ------------------------------------------------------
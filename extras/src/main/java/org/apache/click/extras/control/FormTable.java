@@ -30,7 +30,6 @@ import org.apache.click.element.Element;
 import org.apache.click.util.HtmlStringBuffer;
 
 import org.apache.click.control.ActionLink;
-import org.apache.click.dataprovider.PagingDataProvider;
 import org.apache.commons.lang3.StringUtils;
 
 /**
@@ -516,7 +515,7 @@ public class FormTable extends Table {
                 int firstRow = 0;
                 int lastRow = 0;
 
-                if (getDataProvider() instanceof PagingDataProvider<?>) {
+                if (isDataProviderPaging()) {
                     lastRow = getRowList().size();
                 } else {
                     firstRow = getFirstRow();
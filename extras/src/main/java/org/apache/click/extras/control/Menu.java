@@ -36,6 +36,7 @@ import org.apache.click.extras.security.RoleAccessController;
 import org.apache.click.service.ConfigService;
 import org.apache.click.util.ClickUtils;
 import org.apache.click.util.HtmlStringBuffer;
+import org.apache.click.util.HtmlStringBufferArena;
 import org.apache.commons.lang3.StringUtils;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -1222,9 +1223,14 @@ public class Menu extends AbstractControl {
      */
     @Override
     public String toString() {
-        HtmlStringBuffer buffer = new HtmlStringBuffer();
-        render(buffer);
-        return buffer.toString();
+        HtmlStringBuffer buffer = HtmlStringBufferArena.acquire(this, 128);
+        try {
+            render(buffer);
+            return HtmlStringBufferArena.getRenderedString(this, buffer);
+
+        } finally {
+            HtmlStringBufferArena.release(buffer);
+        }
     }
 
     // Protected Methods ------------------------------------------------------
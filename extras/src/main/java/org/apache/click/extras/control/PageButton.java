@@ -21,6 +21,7 @@ package org.apache.click.extras.control;
 import org.apache.click.Page;
 import org.apache.click.control.PageLink;
 import org.apache.click.util.HtmlStringBuffer;
+import org.apache.click.util.HtmlStringBufferArena;
 
 /**
  * Provides a Page link Button control: &nbsp; &lt;input type='button'&gt;.
@@ -170,9 +171,14 @@ public class PageButton extends PageLink {
      * @return a HTML rendered Button string
      */
     public String toString() {
-        HtmlStringBuffer buffer = new HtmlStringBuffer(40);
-        render(buffer);
-        return buffer.toString();
+        HtmlStringBuffer buffer = HtmlStringBufferArena.acquire(this, 40);
+        try {
+            render(buffer);
+            return HtmlStringBufferArena.getRenderedString(this, buffer);
+
+        } finally {
+            HtmlStringBufferArena.release(buffer);
+        }
     }
 
     /**
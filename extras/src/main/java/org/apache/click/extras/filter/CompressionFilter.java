@@ -58,6 +58,10 @@ import org.apache.click.util.ClickUtils;
  *  &lt;servlet-name&gt;<span class="green">click-servlet</span>&lt;/servlet-name&gt;
  * .. </pre>
  *
+ * This filter finishes the compressed response when the filter chain returns,
+ * and must not be declared <tt>async-supported</tt>, see
+ * {@link org.apache.click.ClickServlet#createAsyncExecutor()}.
+ * <p/>
  * This filter will automatically set the configured click.xml charset as the
  * requests character encoding.
  * <p/>
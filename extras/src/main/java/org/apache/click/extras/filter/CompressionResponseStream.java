@@ -312,6 +312,15 @@ public class CompressionResponseStream extends ServletOutputStream {
                 }
                 gzipstream = output;
 
+            } else if (response.containsHeader("Content-Encoding")) {
+                if (debug > 1) {
+                    System.out.print("Response already encoded. Using original"
+                        + " output stream");
+                }
+                // The content is already encoded, for example precompressed
+                // resources rendered by the ResourceService
+                gzipstream = output;
+
             } else if (setContentEncodingGZip()) {
                 // If we can set the Content-Encoding header to gzip, create a
                 // new gzip stream
@@ -34,7 +34,9 @@ import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.apache.click.service.BasicResourceService;
 import org.apache.click.service.ConfigService;
+import org.apache.click.service.ResourceService;
 import org.apache.click.util.ClickUtils;
 
 import org.apache.commons.lang3.StringUtils;
@@ -233,6 +235,10 @@ import org.apache.commons.lang3.StringUtils;
  * <p/>
  * GZIP compression is only applied if the browser supports it, and if the size
  * of the content is greater than 384 bytes.
+ * <p/>
+ * Click resources served by the {@link org.apache.click.service.BasicResourceService}
+ * are compressed once when cached, and responses which already have a
+ * <tt>Content-Encoding</tt> header are not compressed again by this filter.
  *
  * <h4>How does caching work?</h4>
  * For an explanation of how browsers and caching work, you can read the
@@ -253,6 +259,12 @@ import org.apache.commons.lang3.StringUtils;
  * simply edit a javascript or style sheet and the browser will pick up the
  * latest version.
  *
+ * <h4>Does PerformanceFilter support asynchronous requests?</h4>
+ * No, the compressed response is finished when the filter chain returns, so
+ * this filter must not be declared <tt>async-supported</tt>. Requests mapped
+ * through this filter are then processed on the container thread, see
+ * {@link org.apache.click.ClickServlet#createAsyncExecutor()}.
+ *
  * <h3>Acknowledgments</h3>
  * This class is adapted from the Jakarta CompressionFilter from
  * <a href="http://jakarta.apache.org/tomcat">Tomcat</a>.
@@ -649,6 +661,10 @@ public class PerformanceFilter implements Filter {
      * For example, given the path <code>'/example/control_1.4.js'</code>, where
      * <code>'_1.4'</code> is the <code>version indicator</code>, this method will
      * return <code>'/example/control.js'</code>.
+     * <p/>
+     * Content fingerprinted paths, such as
+     * <code>'/example/control_3f2a9c0b41de.js'</code>, are mapped to the real
+     * resource path by the {@link BasicResourceService}.
      *
      * @see #getResourceVersionIndicator(String)
      * @see #getApplicationResourceVersionIndicator(java.lang.String)
@@ -657,7 +673,12 @@ public class PerformanceFilter implements Filter {
      * @return path without the version indicator
      */
     protected String stripResourceVersionIndicator(String path) {
-        String realPath = path;
+        String realPath = resolveFingerprintedPath(path);
+        if (realPath != null) {
+            return realPath;
+        }
+
+        realPath = path;
 
         realPath = StringUtils.replace(realPath,
             getApplicationResourceVersionIndicator(path), "");
@@ -668,6 +689,38 @@ public class PerformanceFilter implements Filter {
         return realPath;
     }
 
+    /**
+     * Return the real resource path of the given content fingerprinted path,
+     * or null if the path is not fingerprinted or the application does not
+     * use a {@link BasicResourceService}.
+     *
+     * @param path the request path
+     * @return the real resource path, or null if the path is not fingerprinted
+     */
+    protected String resolveFingerprintedPath(String path) {
+        ResourceService resourceService = getConfigService().getResourceService();
+        if (resourceService instanceof BasicResourceService) {
+            return ((BasicResourceService) resourceService).resolveFingerprintedPath(path);
+        }
+        return null;
+    }
+
+    /**
+     * Return true if the given path is a fingerprinted path of the current
+     * resource content, see
+     * {@link BasicResourceService#isCurrentFingerprint(String)}.
+     *
+     * @param path the request path
+     * @return true if the path is a current fingerprinted resource path
+     */
+    protected boolean isCurrentFingerprint(String path) {
+        ResourceService resourceService = getConfigService().getResourceService();
+        if (resourceService instanceof BasicResourceService) {
+            return ((BasicResourceService) resourceService).isCurrentFingerprint(path);
+        }
+        return false;
+    }
+
     /**
      * Set the response "Expires" and "Cache-Control" headers with the given
      * maximum cache duration age in seconds.
@@ -692,6 +745,11 @@ public class PerformanceFilter implements Filter {
      * @return true if the response should be cached forever
      */
     protected boolean useForeverCacheHeader(String path) {
+        if (resolveFingerprintedPath(path) != null) {
+            // A stale fingerprint is served with the current content
+            return isCurrentFingerprint(path);
+        }
+
         String versionIndicator = getResourceVersionIndicator(path);
         if (path.startsWith("/click/") && path.contains(versionIndicator)) {
             return true;
@@ -27,12 +27,13 @@ import org.apache.click.control.Table;
 import org.apache.click.examples.domain.Customer;
 import org.apache.click.examples.page.BorderPage;
 import org.apache.click.examples.service.CustomerService;
-import org.apache.click.dataprovider.PagingDataProvider;
+import org.apache.click.dataprovider.DataQuery;
+import org.apache.click.dataprovider.QueryDataProvider;
 import org.springframework.stereotype.Component;
 
 /**
  * Provides a demonstration of a Table with a huge number of rows and how to
- * lazily page through the rows using a PagingDataProvider.
+ * lazily page through the rows using a QueryDataProvider.
  */
 @Component
 public class LargeDatasetDemo extends BorderPage {
@@ -76,18 +77,12 @@ public class LargeDatasetDemo extends BorderPage {
 
         table.setPageSize(5);
 
-        table.setDataProvider(new PagingDataProvider<Customer>() {
-
-            public List<Customer> getData() {
-                int start = table.getFirstRow();
-                int count = table.getPageSize();
-                String sortColumn = table.getSortedColumn();
-                boolean ascending = table.isSortedAscending();
- 
-                return customerService.getCustomersForPage(start, count, sortColumn, ascending);
+        table.setDataProvider(new QueryDataProvider<Customer>() {
+            public List<Customer> getData(DataQuery query) {
+                return customerService.getCustomers(query);
             }
 
-            public int size() {
+            public int size(DataQuery query) {
                 return customerService.getNumberOfCustomers();
             }
         });
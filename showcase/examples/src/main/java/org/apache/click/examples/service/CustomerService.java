@@ -35,6 +35,7 @@ import org.apache.cayenne.query.QueryCacheStrategy;
 import org.apache.cayenne.query.SQLTemplate;
 import org.apache.cayenne.query.SelectQuery;
 import org.apache.cayenne.query.SortOrder;
+import org.apache.click.dataprovider.DataQuery;
 import org.apache.click.examples.domain.Customer;
 import org.apache.click.extras.cayenne.CayenneTemplate;
 import org.apache.commons.lang3.StringUtils;
@@ -220,6 +221,19 @@ public class CustomerService extends CayenneTemplate {
         return (List<Customer>) performQuery(query);
     }
 
+    @SuppressWarnings("unchecked")
+    public List<Customer> getCustomers(DataQuery dataQuery) {
+        SelectQuery query = new SelectQuery(Customer.class);
+        for (DataQuery.SortKey sortKey : dataQuery.getSortKeys()) {
+            SortOrder order = sortKey.isAscending() ? SortOrder.ASCENDING : SortOrder.DESCENDING;
+            query.addOrdering(sortKey.getColumn(), order);
+        }
+        query.setFetchOffset(dataQuery.getOffset());
+        query.setFetchLimit(dataQuery.getLimit());
+
+        return (List<Customer>) performQuery(query);
+    }
+
     public List<Customer> getTopCustomersForPage(int offset, int pageSize) {
         List<Customer> list = getCustomersSortedBy(Customer.HOLDINGS_PROPERTY, false);
 